@@ -0,0 +1,40 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2019, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.predic8.membrane.servlet.embedded;
+
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.interceptor.AbstractInterceptor;
+import com.predic8.membrane.core.interceptor.Outcome;
+
+/**
+ * Forwards the exchange to the target URI computed by the servlet for the current request. Routers are shared by
+ * all the requests to the same port, so the destination cannot be stored in their service proxy rule.
+ */
+public class HopsDispatchingInterceptor extends AbstractInterceptor {
+
+  public static final String TARGET_URI = "hops.targetUri";
+
+  public HopsDispatchingInterceptor() {
+    name = "Hops Dispatching Interceptor";
+  }
+
+  @Override
+  public Outcome handleRequest(Exchange exc) throws Exception {
+    exc.getDestinations().add((String) exc.getProperty(TARGET_URI));
+    return Outcome.CONTINUE;
+  }
+}
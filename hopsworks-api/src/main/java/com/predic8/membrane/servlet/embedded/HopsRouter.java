@@ -17,7 +17,6 @@ package com.predic8.membrane.servlet.embedded;
 
 import com.predic8.membrane.core.Router;
 import com.predic8.membrane.core.exchangestore.LimitedMemoryExchangeStore;
-import com.predic8.membrane.core.interceptor.DispatchingInterceptor;
 import com.predic8.membrane.core.interceptor.ExchangeStoreInterceptor;
 import java.util.ArrayList;
 import java.util.List;
@@ -42,7 +41,7 @@ public class HopsRouter extends Router {
 
     interceptors.add(new RuleMatchingInterceptor());
     interceptors.add(new ExchangeStoreInterceptor(this.exchangeStore));
-    interceptors.add(new DispatchingInterceptor());
+    interceptors.add(new HopsDispatchingInterceptor());
 
     interceptors.add(new ReverseProxyingInterceptor());
     interceptors.add(new WebSocketInterceptor());
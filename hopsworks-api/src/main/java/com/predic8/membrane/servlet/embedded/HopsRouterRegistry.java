@@ -0,0 +1,161 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2019, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.predic8.membrane.servlet.embedded;
+
+import com.predic8.membrane.core.RuleManager;
+import com.predic8.membrane.core.rules.ProxyRule;
+import com.predic8.membrane.core.rules.ProxyRuleKey;
+import com.predic8.membrane.core.rules.ServiceProxy;
+import com.predic8.membrane.core.rules.ServiceProxyKey;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Routers used by the Jupyter and RStudio proxy servlets, one per local target port. A router is created on the
+ * first request to its port and reused by the following ones, so that requests do not pay the router bootstrap and
+ * upstream connections are kept alive in the connection pool of its HTTP client. Routers are shut down once they
+ * have not served any request for {@link #IDLE_TIMEOUT_MS}, which is the case when the notebook server listening on
+ * the port has been stopped.
+ */
+public class HopsRouterRegistry {
+
+  private static final Logger LOGGER = Logger.getLogger(HopsRouterRegistry.class.getName());
+
+  static final long IDLE_TIMEOUT_MS = 10 * 60 * 1000;
+  private static final long EVICTION_INTERVAL_MS = 60 * 1000;
+
+  private static final HopsRouterRegistry INSTANCE = new HopsRouterRegistry();
+
+  private final Map<Integer, RouterEntry> routers = new ConcurrentHashMap<>();
+  private volatile long lastEviction = System.currentTimeMillis();
+
+  private HopsRouterRegistry() {
+  }
+
+  public static HopsRouterRegistry getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the router of a port, creating it if needed. Every call must be followed by a call to
+   * {@link #release(int)} once the request has been served.
+   *
+   * @param targetPort local port of the notebook server
+   * @return router forwarding requests to the port
+   * @throws Exception if the router cannot be initialized
+   */
+  public HopsRouter acquire(int targetPort) throws Exception {
+    evictIdle();
+    while (true) {
+      RouterEntry entry = routers.get(targetPort);
+      if (entry == null) {
+        synchronized (this) {
+          entry = routers.get(targetPort);
+          if (entry == null) {
+            entry = new RouterEntry(createRouter(targetPort));
+            routers.put(targetPort, entry);
+          }
+        }
+      }
+      synchronized (entry) {
+        // The entry may have been evicted after we got it from the map
+        if (!entry.closed) {
+          entry.active++;
+          entry.lastUsed = System.currentTimeMillis();
+          return entry.router;
+        }
+      }
+    }
+  }
+
+  public void release(int targetPort) {
+    RouterEntry entry = routers.get(targetPort);
+    if (entry != null) {
+      synchronized (entry) {
+        entry.active--;
+        entry.lastUsed = System.currentTimeMillis();
+      }
+    }
+  }
+
+  /**
+   * Shut down all the routers, when the servlets are destroyed.
+   */
+  public void shutdown() {
+    for (Map.Entry<Integer, RouterEntry> entry : new ArrayList<>(routers.entrySet())) {
+      synchronized (entry.getValue()) {
+        entry.getValue().closed = true;
+      }
+      routers.remove(entry.getKey(), entry.getValue());
+      shutdown(entry.getKey(), entry.getValue().router);
+    }
+  }
+
+  private void evictIdle() {
+    long now = System.currentTimeMillis();
+    if (now - lastEviction < EVICTION_INTERVAL_MS) {
+      return;
+    }
+    lastEviction = now;
+    for (Map.Entry<Integer, RouterEntry> entry : new ArrayList<>(routers.entrySet())) {
+      RouterEntry routerEntry = entry.getValue();
+      synchronized (routerEntry) {
+        // Requests forwarding a websocket stay active for as long as the websocket is open
+        if (routerEntry.active > 0 || now - routerEntry.lastUsed < IDLE_TIMEOUT_MS) {
+          continue;
+        }
+        routerEntry.closed = true;
+      }
+      routers.remove(entry.getKey(), routerEntry);
+      shutdown(entry.getKey(), routerEntry.router);
+    }
+  }
+
+  private HopsRouter createRouter(int targetPort) throws Exception {
+    HopsRouter router = new HopsRouter();
+    ServiceProxy sp = new ServiceProxy(new ServiceProxyKey("*", "*", "*", -1), "localhost", targetPort);
+    router.add(sp);
+    router.init();
+    ProxyRule proxy = new ProxyRule(new ProxyRuleKey(-1));
+    router.getRuleManager().addProxy(proxy, RuleManager.RuleDefinitionSource.MANUAL);
+    return router;
+  }
+
+  private void shutdown(int targetPort, HopsRouter router) {
+    LOGGER.log(Level.FINE, "Shutting down proxy router of port {0}", targetPort);
+    try {
+      router.shutdown();
+    } catch (Exception ex) {
+      LOGGER.log(Level.FINE, "Error shutting down proxy router of port " + targetPort, ex);
+    }
+  }
+
+  private static class RouterEntry {
+    private final HopsRouter router;
+    private int active = 0;
+    private long lastUsed = System.currentTimeMillis();
+    private boolean closed = false;
+
+    private RouterEntry(HopsRouter router) {
+      this.router = router;
+    }
+  }
+}
@@ -67,6 +67,7 @@ class HopsServletHandler extends AbstractHttpHandler {
     exchange = new Exchange(this);
 
     exchange.setProperty(Exchange.HTTP_SERVLET_REQUEST, request);
+    exchange.setProperty(HopsDispatchingInterceptor.TARGET_URI, targetUriObj.toString());
   }
 
   public void run() {
@@ -22,10 +22,6 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.predic8.membrane.core.Router;
-import com.predic8.membrane.core.rules.ServiceProxy;
-import com.predic8.membrane.core.rules.ServiceProxyKey;
-import io.hops.hopsworks.common.util.Ip;
 import java.net.URI;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -58,8 +54,6 @@ public class MembraneServlet extends HttpServlet {
   protected void service(HttpServletRequest req, HttpServletResponse resp)
           throws ServletException, IOException {
 
-    String externalIp = Ip.getHost(req.getRequestURL().toString());
-
     StringBuilder urlBuf = new StringBuilder("http://localhost:");
 
     String pathInfo = req.getPathInfo();
@@ -85,19 +79,24 @@ public class MembraneServlet extends HttpServlet {
       throw new ServletException("Rewritten targetUri is invalid: " + urlBuf.toString(), e);
     }
 
-    ServiceProxy sp = new ServiceProxy(
-        new ServiceProxyKey(externalIp, "*", "*", -1), "localhost", targetPort);
-    sp.setTargetURL(urlBuf.toString());
-
+    HopsRouterRegistry routers = HopsRouterRegistry.getInstance();
     try {
-      Router router = new HopsRouter();
-      router.add(sp);
-      router.init();
-      new HopsServletHandler(req, resp, router.getTransport(), targetUriObj).run();
+      HopsRouter router = routers.acquire(targetPort);
+      try {
+        new HopsServletHandler(req, resp, router.getTransport(), targetUriObj).run();
+      } finally {
+        routers.release(targetPort);
+      }
     } catch (Exception ex) {
       LOGGER.log(Level.SEVERE, null, ex);
     }
 
   }
 
+  @Override
+  public void destroy() {
+    HopsRouterRegistry.getInstance().shutdown();
+    super.destroy();
+  }
+
 }
@@ -29,13 +29,6 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import com.predic8.membrane.core.Router;
-import com.predic8.membrane.core.RuleManager;
-import com.predic8.membrane.core.rules.ProxyRule;
-import com.predic8.membrane.core.rules.ProxyRuleKey;
-import com.predic8.membrane.core.rules.ServiceProxy;
-import com.predic8.membrane.core.rules.ServiceProxyKey;
-import io.hops.hopsworks.common.util.Ip;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.LinkedHashMap;
@@ -60,6 +53,7 @@ public class RStudioMembraneServlet extends HttpServlet {
 
   @Override
   public void destroy() {
+    HopsRouterRegistry.getInstance().shutdown();
   }
 
   @Override
@@ -68,8 +62,6 @@ public class RStudioMembraneServlet extends HttpServlet {
     String queryString = req.getQueryString() == null ? "" : "?" + req.
             getQueryString();
 
-    Router router;
-
 // For websockets, the following paths are used by JupyterHub:
 //  /(user/[^/]*)/(api/kernels/[^/]+/channels|terminals/websocket)/?
 // forward to ws(s)://servername:port_number
@@ -92,8 +84,6 @@ public class RStudioMembraneServlet extends HttpServlet {
       params.put(pair.getName(), pair.getValue());
     }
 
-    String externalIp = Ip.getHost(req.getRequestURL().toString());
-
     StringBuffer urlBuf = new StringBuffer("http://localhost:");
 
     String ctxPath = req.getRequestURI();
@@ -124,27 +114,15 @@ public class RStudioMembraneServlet extends HttpServlet {
       throw new ServletException("Rewritten targetUri is invalid: "
               + newTargetUri, e);
     }
-    ServiceProxy sp = new ServiceProxy(
-            new ServiceProxyKey(
-                    externalIp, "*", "*", -1),
-            "localhost", targetPort);
-//    ServiceProxy sp = new ServiceProxy(
-//            new ServiceProxyKey(
-//                    externalIp, "*", "*", -1),
-//            "localhost", targetPort);
-    sp.setTargetURL(newQueryBuf.toString());
-    // only set external hostname in case admin console is used
+    HopsRouterRegistry routers = HopsRouterRegistry.getInstance();
     try {
-      router = new HopsRouter();
-      router.add(sp);
-      router.init();
-      ProxyRule proxy = new ProxyRule(new ProxyRuleKey(-1));
-      router.getRuleManager().addProxy(proxy,
-              RuleManager.RuleDefinitionSource.MANUAL);
-      router.getRuleManager().addProxy(sp,
-              RuleManager.RuleDefinitionSource.MANUAL);
-      new HopsServletHandler(req, resp, router.getTransport(),
-              targetUriObj).run();
+      HopsRouter router = routers.acquire(targetPort);
+      try {
+        new HopsServletHandler(req, resp, router.getTransport(),
+                targetUriObj).run();
+      } finally {
+        routers.release(targetPort);
+      }
     } catch (Exception ex) {
       Logger.getLogger(RStudioMembraneServlet.class.getName()).log(Level.SEVERE, null,
               ex);
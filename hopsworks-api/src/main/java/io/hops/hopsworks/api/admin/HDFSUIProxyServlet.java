@@ -43,16 +43,18 @@ import io.hops.hopsworks.api.kibana.ProxyServlet;
 import io.hops.hopsworks.api.util.CustomSSLProtocolSocketFactory;
 import io.hops.hopsworks.common.security.BaseHadoopClientsService;
 import io.hops.hopsworks.common.util.Settings;
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URLEncoder;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashSet;
@@ -65,9 +67,8 @@ import javax.ws.rs.core.Response;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpMethod;
-import org.apache.commons.httpclient.cookie.CookiePolicy;
+import org.apache.commons.httpclient.HttpState;
 import org.apache.commons.httpclient.methods.GetMethod;
-import org.apache.commons.httpclient.params.HttpClientParams;
 import org.apache.commons.httpclient.protocol.Protocol;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
@@ -91,6 +92,35 @@ public class HDFSUIProxyServlet extends ProxyServlet {
               "accept-language",
               "Accept-Charset", "accept-charset"));
 
+  private static final String PROXY_PATH = "/hopsworks-api/hdfsui/";
+  private static final UIProxyRewriter REWRITER = new UIProxyRewriter(
+      "<a href='http://hadoop.apache.org/core'>Hadoop</a>, 2018.",
+      "(?<=(url=))(?=[a-zA-Z])",
+      "(?<=(href|src)=\")/(?=[a-zA-Z])",
+      "(?<=(href|src)=\')/(?=[a-zA-Z])",
+      "(?<=(href|src)=\")//",
+      "(?<=(href|src)=\')//",
+      "(?<=(href|src)=\")(?=(http|https))",
+      "(?<=(href|src)=\')(?=(http|https))",
+      "(?<=(href|src)=\")(?=[a-zA-Z])",
+      "(?<=(href|src)=\')(?=[a-zA-Z])",
+      "(?<=(href|src)=)/(?=[a-zA-Z])",
+      "(?<=(action)=\")(?=[a-zA-Z/]*.jsp)");
+
+  private HttpClient client;
+
+  @Override
+  public void init() throws ServletException {
+    super.init();
+    client = UIProxyRewriter.createPooledClient();
+  }
+
+  @Override
+  public void destroy() {
+    UIProxyRewriter.shutdown(client);
+    super.destroy();
+  }
+
   protected void initTarget() throws ServletException {
     targetUri = settings.getHDFSWebUIAddress();
   
@@ -144,6 +174,7 @@ public class HDFSUIProxyServlet extends ProxyServlet {
     // sure it would truly be compatible
     String proxyRequestUri = rewriteUrlFromRequest(servletRequest);
 
+    HttpMethod m = null;
     try {
       String[] targetHost_port = settings.getHDFSWebUIAddress().split(":");
       File keyStore = new File(baseHadoopClientsService.getSuperKeystorePath());
@@ -154,16 +185,11 @@ public class HDFSUIProxyServlet extends ProxyServlet {
           trustStore, baseHadoopClientsService.getSuperTrustStorePassword()), Integer.parseInt(targetHost_port[1]));
       Protocol.registerProtocol("https", httpsProto);
       // Execute the request
-      HttpClientParams params = new HttpClientParams();
-      params.setCookiePolicy(CookiePolicy.BROWSER_COMPATIBILITY);
-      params.setBooleanParameter(HttpClientParams.ALLOW_CIRCULAR_REDIRECTS,
-          true);
-      HttpClient client = new HttpClient(params);
       HostConfiguration config = new HostConfiguration();
       InetAddress localAddress = InetAddress.getLocalHost();
       config.setLocalAddress(localAddress);
 
-      HttpMethod m = new GetMethod(proxyRequestUri);
+      m = new GetMethod(proxyRequestUri);
       Enumeration<String> names = servletRequest.getHeaderNames();
       while (names.hasMoreElements()) {
         String headerName = names.nextElement();
@@ -186,7 +212,8 @@ public class HDFSUIProxyServlet extends ProxyServlet {
             + URLEncoder.encode(user, "ASCII"));
       }
 
-      client.executeMethod(config, m);
+      // Cookies set by the web UI must not be shared with other users of the pooled client
+      client.executeMethod(config, m, new HttpState());
 
       // Process the response
       int statusCode = m.getStatusCode();
@@ -215,6 +242,10 @@ public class HDFSUIProxyServlet extends ProxyServlet {
       }
       throw new RuntimeException(e);
 
+    } finally {
+      if (m != null) {
+        m.releaseConnection();
+      }
     }
   }
   
@@ -225,22 +256,11 @@ public class HDFSUIProxyServlet extends ProxyServlet {
       OutputStream servletOutputStream = servletResponse.getOutputStream();
       if (servletResponse.getHeader("Content-Type") == null || servletResponse.getHeader("Content-Type").
           contains("html")) {
-        String inputLine;
-        BufferedReader br = new BufferedReader(new InputStreamReader(entity));
-
-        try {
-          int contentSize = 0;
-          while ((inputLine = br.readLine()) != null)  {
-            String outputLine = hopify(inputLine, targetUri) + "\n";
-            byte[] output = outputLine.getBytes(Charset.forName("UTF-8"));
-            servletOutputStream.write(output);
-            contentSize += output.length;
-          }
-          br.close();
-          servletResponse.setHeader("Content-Length", Integer.toString(contentSize));
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
+        String sourcePath = PROXY_PATH + targetUri + "/";
+        String[] replacements = {"", PROXY_PATH, sourcePath, sourcePath, PROXY_PATH, PROXY_PATH, PROXY_PATH,
+          PROXY_PATH, sourcePath, sourcePath, sourcePath, sourcePath};
+        Writer writer = new BufferedWriter(new OutputStreamWriter(servletOutputStream, StandardCharsets.UTF_8));
+        REWRITER.rewrite(new InputStreamReader(entity, StandardCharsets.UTF_8), writer, replacements, null);
       } else {
         org.apache.hadoop.io.IOUtils.copyBytes(entity, servletOutputStream, 4096, doLog);
       }
@@ -268,31 +288,6 @@ public class HDFSUIProxyServlet extends ProxyServlet {
     }
   }
 
-  private String hopify(String ui, String source) {
-
-    ui = ui.replaceAll("<a href='http://hadoop.apache.org/core'>Hadoop</a>, 2018.", "");
-    ui = ui.replaceAll("(?<=(url=))(?=[a-zA-Z])", "/hopsworks-api/hdfsui/");
-    ui = ui.replaceAll("(?<=(href|src)=\")/(?=[a-zA-Z])",
-        "/hopsworks-api/hdfsui/" + source + "/");
-    ui = ui.replaceAll("(?<=(href|src)=\')/(?=[a-zA-Z])",
-        "/hopsworks-api/hdfsui/" + source + "/");
-    ui = ui.replaceAll("(?<=(href|src)=\")//", "/hopsworks-api/hdfsui/");
-    ui = ui.replaceAll("(?<=(href|src)=\')//", "/hopsworks-api/hdfsui/");
-    ui = ui.replaceAll("(?<=(href|src)=\")(?=(http|https))",
-        "/hopsworks-api/hdfsui/");
-    ui = ui.replaceAll("(?<=(href|src)=\')(?=(http|https))",
-        "/hopsworks-api/hdfsui/");
-    ui = ui.replaceAll("(?<=(href|src)=\")(?=[a-zA-Z])",
-        "/hopsworks-api/hdfsui/" + source + "/");
-    ui = ui.replaceAll("(?<=(href|src)=\')(?=[a-zA-Z])",
-        "/hopsworks-api/hdfsui/" + source + "/");
-    ui = ui.replaceAll("(?<=(href|src)=)/(?=[a-zA-Z])",
-        "/hopsworks-api/hdfsui/" + source + "/");
-    ui = ui.replaceAll("(?<=(action)=\")(?=[a-zA-Z/]*.jsp)", "/hopsworks-api/hdfsui/" + source + "/");
-    return ui;
-
-  }
-
 //  @Override
 //  protected String rewriteUrlFromResponse(HttpServletRequest servletRequest,
 //      String theUrl) {
@@ -0,0 +1,143 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.admin;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.cookie.CookiePolicy;
+import org.apache.commons.httpclient.params.HttpClientParams;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites the links of the pages served by the Hadoop web UIs so that they go through the Hopsworks proxy
+ * servlets. All the rewrite rules of a servlet are compiled into a single pattern, so each line of the page is
+ * scanned once, and lines are written to the client as they are read instead of buffering the page.
+ */
+public class UIProxyRewriter {
+
+  private static final int MAX_CONNECTIONS_PER_HOST = 50;
+  private static final int MAX_TOTAL_CONNECTIONS = 200;
+
+  /**
+   * Decides, line by line, whether a line of the page is sent to the client. Implementations may keep state
+   * across the lines of one page, so a new instance is used per response.
+   */
+  public interface LineFilter {
+    boolean accept(String line);
+  }
+
+  private final Pattern pattern;
+  private final int[] ruleGroups;
+
+  /**
+   * @param rules regular expressions matching the text to replace, in order of precedence. Rules never span
+   * lines.
+   */
+  public UIProxyRewriter(String... rules) {
+    StringBuilder combined = new StringBuilder();
+    ruleGroups = new int[rules.length];
+    int group = 1;
+    for (int i = 0; i < rules.length; i++) {
+      if (i > 0) {
+        combined.append('|');
+      }
+      combined.append('(').append(rules[i]).append(')');
+      ruleGroups[i] = group;
+      group += Pattern.compile(rules[i]).matcher("").groupCount() + 1;
+    }
+    pattern = Pattern.compile(combined.toString());
+  }
+
+  /**
+   * Rewrite a page.
+   *
+   * @param in the page as sent by the web UI
+   * @param out the client
+   * @param replacements text replacing the matches of each rule, in the order of the rules
+   * @param lineFilter lines to drop from the page, or null to keep all of them
+   * @throws IOException
+   */
+  public void rewrite(Reader in, Writer out, String[] replacements, LineFilter lineFilter) throws IOException {
+    if (replacements.length != ruleGroups.length) {
+      throw new IllegalArgumentException("Expected " + ruleGroups.length + " replacements");
+    }
+    BufferedReader reader = new BufferedReader(in);
+    Matcher matcher = pattern.matcher("");
+    StringBuilder rewritten = new StringBuilder();
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (lineFilter != null && !lineFilter.accept(line)) {
+        continue;
+      }
+      matcher.reset(line);
+      if (!matcher.find()) {
+        out.write(line);
+        out.write('\n');
+        continue;
+      }
+      rewritten.setLength(0);
+      int last = 0;
+      do {
+        rewritten.append(line, last, matcher.start()).append(replacements[matchedRule(matcher)]);
+        last = matcher.end();
+      } while (matcher.find());
+      rewritten.append(line, last, line.length()).append('\n');
+      out.append(rewritten);
+    }
+    out.flush();
+  }
+
+  private int matchedRule(Matcher matcher) {
+    for (int i = 0; i < ruleGroups.length; i++) {
+      if (matcher.start(ruleGroups[i]) != -1) {
+        return i;
+      }
+    }
+    throw new IllegalStateException("No rule matched");
+  }
+
+  /**
+   * Create an HTTP client shared by all the requests of a proxy servlet. Cookies must not be shared between users,
+   * so every request must be executed with its own {@link org.apache.commons.httpclient.HttpState} and release its
+   * connection when done.
+   *
+   * @return a client backed by a pool of keep-alive connections
+   */
+  public static HttpClient createPooledClient() {
+    MultiThreadedHttpConnectionManager connectionManager = new MultiThreadedHttpConnectionManager();
+    HttpConnectionManagerParams connectionParams = connectionManager.getParams();
+    connectionParams.setDefaultMaxConnectionsPerHost(MAX_CONNECTIONS_PER_HOST);
+    connectionParams.setMaxTotalConnections(MAX_TOTAL_CONNECTIONS);
+    HttpClientParams params = new HttpClientParams();
+    params.setCookiePolicy(CookiePolicy.BROWSER_COMPATIBILITY);
+    params.setBooleanParameter(HttpClientParams.ALLOW_CIRCULAR_REDIRECTS, true);
+    return new HttpClient(params, connectionManager);
+  }
+
+  public static void shutdown(HttpClient client) {
+    if (client != null && client.getHttpConnectionManager() instanceof MultiThreadedHttpConnectionManager) {
+      ((MultiThreadedHttpConnectionManager) client.getHttpConnectionManager()).shutdown();
+    }
+  }
+}
@@ -48,15 +48,17 @@ import io.hops.hopsworks.common.dao.user.Users;
 import io.hops.hopsworks.common.hdfs.HdfsUsersController;
 import io.hops.hopsworks.common.project.ProjectController;
 import io.hops.hopsworks.common.project.ProjectDTO;
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URLEncoder;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashSet;
@@ -73,12 +75,11 @@ import io.hops.hopsworks.exceptions.ProjectException;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpMethod;
-import org.apache.commons.httpclient.cookie.CookiePolicy;
+import org.apache.commons.httpclient.HttpState;
 import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.InputStreamRequestEntity;
 import org.apache.commons.httpclient.methods.PutMethod;
 import org.apache.commons.httpclient.methods.RequestEntity;
-import org.apache.commons.httpclient.params.HttpClientParams;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
@@ -107,6 +108,36 @@ public class YarnUIProxyServlet extends ProxyServlet {
                   "accept-language",
                   "Accept-Charset", "accept-charset"));
 
+  private static final String PROXY_PATH = "/hopsworks-api/yarnui/";
+  private static final UIProxyRewriter REWRITER = new UIProxyRewriter(
+      "(?<=(href|src)=\")/(?=[a-zA-Z])",
+      "(?<=(href|src)=\')/(?=[a-zA-Z])",
+      "(?<=(href|src)=\")//",
+      "(?<=(href|src)=\')//",
+      "(?<=(href|src)=\")(?=http)",
+      "(?<=(href|src)=\')(?=http)",
+      "(?<=(href|src)=\")(?=[a-zA-Z])",
+      "(?<=(href|src)=\')(?=[a-zA-Z])",
+      "(?<=(url: '))/(?=[a-zA-Z])",
+      "(?<=(location\\.href = '))/(?=[a-zA-Z])",
+      "(?<=\"(stdout\"|stderr\") : \")(?=[a-zA-Z])",
+      "for full log",
+      Pattern.quote("/?start=0"));
+
+  private HttpClient client;
+
+  @Override
+  public void init() throws ServletException {
+    super.init();
+    client = UIProxyRewriter.createPooledClient();
+  }
+
+  @Override
+  public void destroy() {
+    UIProxyRewriter.shutdown(client);
+    super.destroy();
+  }
+
   protected void initTarget() throws ServletException {
     // TODO - should get the Kibana URI from Settings.java
 //    targetUri = Settings.getKibanaUri();
@@ -217,20 +248,14 @@ public class YarnUIProxyServlet extends ProxyServlet {
     // sure it would truly be compatible
     String proxyRequestUri = rewriteUrlFromRequest(servletRequest);
 
+    HttpMethod m = null;
     try {
       // Execute the request
-
-      HttpClientParams params = new HttpClientParams();
-      params.setCookiePolicy(CookiePolicy.BROWSER_COMPATIBILITY);
-      params.setBooleanParameter(HttpClientParams.ALLOW_CIRCULAR_REDIRECTS,
-          true);
-      HttpClient client = new HttpClient(params);
       HostConfiguration config = new HostConfiguration();
       InetAddress localAddress = InetAddress.getLocalHost();
       config.setLocalAddress(localAddress);
 
       String method = servletRequest.getMethod();
-      HttpMethod m;
       if (method.equalsIgnoreCase("PUT")) {
         m = new PutMethod(proxyRequestUri);
         RequestEntity requestEntity = new InputStreamRequestEntity(servletRequest.getInputStream(), servletRequest.
@@ -261,7 +286,8 @@ public class YarnUIProxyServlet extends ProxyServlet {
             + URLEncoder.encode(user, "ASCII"));
       }
 
-      client.executeMethod(config, m);
+      // Cookies set by the web UI must not be shared with other users of the pooled client
+      client.executeMethod(config, m, new HttpState());
 
       // Process the response
       int statusCode = m.getStatusCode();
@@ -290,6 +316,10 @@ public class YarnUIProxyServlet extends ProxyServlet {
       }
       throw new RuntimeException(e);
 
+    } finally {
+      if (m != null) {
+        m.releaseConnection();
+      }
     }
   }
 
@@ -300,23 +330,15 @@ public class YarnUIProxyServlet extends ProxyServlet {
       OutputStream servletOutputStream = servletResponse.getOutputStream();
       if (servletResponse.getHeader("Content-Type") == null || servletResponse.getHeader("Content-Type").
           contains("html") || servletResponse.getHeader("Content-Type").contains("application/json")) {
-        String inputLine;
-        BufferedReader br = new BufferedReader(new InputStreamReader(entity));
-
-        try {
-          int contentSize = 0;
-          String source = "http://" + method.getURI().getHost() + ":" + method.getURI().getPort();
-          while ((inputLine = br.readLine()) != null) {
-            String outputLine = hopify(inputLine, source, isAdmin) + "\n";
-            byte[] output = outputLine.getBytes(Charset.forName("UTF-8"));
-            servletOutputStream.write(output);       
-            contentSize += output.length;
-          }
-          br.close();
-          servletResponse.setHeader("Content-Length", Integer.toString(contentSize));
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
+        String source = "http://" + method.getURI().getHost() + ":" + method.getURI().getPort();
+        String sourcePath = PROXY_PATH + source + "/";
+        String[] replacements = {sourcePath, sourcePath, PROXY_PATH, PROXY_PATH, PROXY_PATH, PROXY_PATH,
+          sourcePath, sourcePath, PROXY_PATH, PROXY_PATH, PROXY_PATH,
+          "for latest " + settings.getSparkUILogsOffset() + " bytes of logs",
+          "/?start=-" + settings.getSparkUILogsOffset()};
+        Writer writer = new BufferedWriter(new OutputStreamWriter(servletOutputStream, StandardCharsets.UTF_8));
+        REWRITER.rewrite(new InputStreamReader(entity, StandardCharsets.UTF_8), writer, replacements,
+            isAdmin ? null : new UnusableSectionFilter());
       } else {
         org.apache.hadoop.io.IOUtils.copyBytes(entity, servletOutputStream, 4096, doLog);
       }
@@ -345,57 +367,35 @@ public class YarnUIProxyServlet extends ProxyServlet {
     }
   }
 
-  private String hopify(String ui, String source, boolean isAdmin) {
-    if(!isAdmin){
-      ui = removeUnusable(ui);
-    }
-    
-    ui = ui.replaceAll("(?<=(href|src)=\")/(?=[a-zA-Z])",
-        "/hopsworks-api/yarnui/" + source + "/");
-    ui = ui.replaceAll("(?<=(href|src)=\')/(?=[a-zA-Z])",
-        "/hopsworks-api/yarnui/" + source + "/");
-    ui = ui.replaceAll("(?<=(href|src)=\")//", "/hopsworks-api/yarnui/");
-    ui = ui.replaceAll("(?<=(href|src)=\')//", "/hopsworks-api/yarnui/");
-    ui = ui.replaceAll("(?<=(href|src)=\")(?=http)",
-        "/hopsworks-api/yarnui/");
-    ui = ui.replaceAll("(?<=(href|src)=\')(?=http)",
-        "/hopsworks-api/yarnui/");
-    ui = ui.replaceAll("(?<=(href|src)=\")(?=[a-zA-Z])",
-        "/hopsworks-api/yarnui/" + source + "/");
-    ui = ui.replaceAll("(?<=(href|src)=\')(?=[a-zA-Z])",
-        "/hopsworks-api/yarnui/" + source + "/");
-    ui = ui.replaceAll("(?<=(url: '))/(?=[a-zA-Z])", "/hopsworks-api/yarnui/");
-    ui = ui.replaceAll("(?<=(location\\.href = '))/(?=[a-zA-Z])", "/hopsworks-api/yarnui/");
-    ui = ui.replaceAll("(?<=\"(stdout\"|stderr\") : \")(?=[a-zA-Z])",
-        "/hopsworks-api/yarnui/");
-    ui = ui.replaceAll("for full log", "for latest " + settings.getSparkUILogsOffset()
-        + " bytes of logs");
-    ui = ui.replace("/?start=0", "/?start=-" + settings.getSparkUILogsOffset());
-    return ui;
+  /**
+   * Drops the sections of the Yarn UI pages that give access to pages of other users. Keeps state across the
+   * lines of one page.
+   */
+  private static class UnusableSectionFilter implements UIProxyRewriter.LineFilter {
 
-  }
+    private String isRemoving = null;
 
-  String isRemoving = null;
-  private String removeUnusable(String ui){
-    
-    if(ui.contains("<div id=\"user\">") || ui.contains("<tfoot>") || ui.contains("<td id=\"navcell\">")){
-      isRemoving=ui;
-      return "";
-    }
-    if(isRemoving!=null){
-      if(isRemoving.contains("<div id=\"user\">") && ui.contains("<div id=\"logo\">")){
-        isRemoving = null;
-        return ui;
-      } else if(isRemoving.contains("<tfoot>") && ui.contains("</tfoot>")){
-        isRemoving = null;
-      } else if(isRemoving.contains("<td id=\"navcell\">") && ui.contains("</td>")){
-        isRemoving=null;
+    @Override
+    public boolean accept(String ui) {
+      if (ui.contains("<div id=\"user\">") || ui.contains("<tfoot>") || ui.contains("<td id=\"navcell\">")) {
+        isRemoving = ui;
+        return false;
+      }
+      if (isRemoving != null) {
+        if (isRemoving.contains("<div id=\"user\">") && ui.contains("<div id=\"logo\">")) {
+          isRemoving = null;
+          return true;
+        } else if (isRemoving.contains("<tfoot>") && ui.contains("</tfoot>")) {
+          isRemoving = null;
+        } else if (isRemoving.contains("<td id=\"navcell\">") && ui.contains("</td>")) {
+          isRemoving = null;
+        }
+        return false;
       }
-      return "";
+      return true;
     }
-    return ui;
   }
-  
+
   protected String rewriteUrlFromRequest(HttpServletRequest servletRequest) {
     StringBuilder uri = new StringBuilder(500);
     if (servletRequest.getPathInfo() != null && servletRequest.getPathInfo().matches(
@@ -42,8 +42,10 @@ package io.hops.hopsworks.api.cluster;
 import io.hops.hopsworks.api.filter.Audience;
 import io.hops.hopsworks.api.filter.NoCacheResponse;
 import io.hops.hopsworks.api.util.RESTApiJsonResponse;
+import io.hops.hopsworks.common.agent.AgentOperationResult;
 import io.hops.hopsworks.common.dao.host.Hosts;
 import io.hops.hopsworks.common.dao.host.HostsFacade;
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology;
 import io.hops.hopsworks.common.dao.kagent.HostServices;
 import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
 import io.hops.hopsworks.common.dao.kagent.ServiceStatusDTO;
@@ -79,6 +81,8 @@ public class Monitor {
   @EJB
   private HostServicesFacade hostServicesFacade;
   @EJB
+  private ClusterTopology clusterTopology;
+  @EJB
   private HostsFacade hostEjb;
   @EJB
   private NoCacheResponse noCacheResponse;
@@ -97,10 +101,9 @@ public class Monitor {
   @Path("/groups/{groupName}")
   @Produces(MediaType.APPLICATION_JSON)
   public Response getServiceRoles(@PathParam("groupName") String groupName) {
-    List<HostServices> list = hostServicesFacade.findGroupServices(groupName);
     // Do not leak Host data back to clients!
     List<ServiceStatusDTO> groupStatus = new ArrayList<>();
-    for (HostServices h : list) {
+    for (ClusterTopology.ServiceInstance h : clusterTopology.getGroupInstances(groupName)) {
       groupStatus.add(new ServiceStatusDTO(h.getGroup(), h.getService(), h.getStatus()));
     }
     GenericEntity<List<ServiceStatusDTO>> services = new GenericEntity<List<ServiceStatusDTO>>(groupStatus) { };
@@ -161,9 +164,11 @@ public class Monitor {
   @Produces(MediaType.APPLICATION_JSON)
   public Response serviceOp(@PathParam("groupName") String groupName, ServicesActionDTO action) throws 
       GenericException {
-    String result = hostServicesFacade.serviceOp(groupName, action.getAction());
+    List<AgentOperationResult> results = hostServicesFacade.serviceOp(groupName, action.getAction(),
+        action.getBatchSize());
     RESTApiJsonResponse json = new RESTApiJsonResponse();
-    json.setSuccessMessage(result);
+    json.setSuccessMessage(hostServicesFacade.formatResults(results));
+    json.setData(results);
     return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(json).build();
   }
 
@@ -174,8 +179,11 @@ public class Monitor {
   @Produces(MediaType.APPLICATION_JSON)
   public Response serviceOp(@PathParam("groupName") String groupName, @PathParam("serviceName") String serviceName,
       ServicesActionDTO action) throws GenericException {
+    List<AgentOperationResult> results = hostServicesFacade.serviceOp(groupName, serviceName, action.getAction(),
+        action.getBatchSize());
     RESTApiJsonResponse json = new RESTApiJsonResponse();
-    json.setSuccessMessage(hostServicesFacade.serviceOp(groupName, serviceName, action.getAction()));
+    json.setSuccessMessage(hostServicesFacade.formatResults(results));
+    json.setData(results);
     return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(json).build();
   }
 
@@ -188,8 +196,11 @@ public class Monitor {
       @PathParam("serviceName") String serviceName,
       @PathParam("hostId") String hostId,
       ServicesActionDTO action) throws GenericException {
+    List<AgentOperationResult> results = hostServicesFacade.serviceOnHostOp(groupName, serviceName, hostId,
+        action.getAction());
     RESTApiJsonResponse json = new RESTApiJsonResponse();
-    json.setSuccessMessage(hostServicesFacade.serviceOnHostOp(groupName, serviceName, hostId, action.getAction()));
+    json.setSuccessMessage(hostServicesFacade.formatResults(results));
+    json.setData(results);
     return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(json).build();
   }
 }
@@ -50,6 +50,9 @@ public class ServicesActionDTO {
       required = true)
   private Action action;
 
+  @XmlElement(name = "batchSize")
+  private Integer batchSize;
+
   public Action getAction() {
     return action;
   }
@@ -58,4 +61,16 @@ public class ServicesActionDTO {
     this.action = action;
   }
 
+  /**
+   * @return number of hosts operated on at the same time in a rolling operation, or null to operate on all the
+   * hosts at once
+   */
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(Integer batchSize) {
+    this.batchSize = batchSize;
+  }
+
 }
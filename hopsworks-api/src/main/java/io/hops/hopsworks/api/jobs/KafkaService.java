@@ -61,6 +61,7 @@ import io.hops.hopsworks.restutils.RESTCodes;
 import io.hops.hopsworks.exceptions.ServiceException;
 import io.hops.hopsworks.exceptions.UserException;
 import io.hops.hopsworks.common.kafka.KafkaController;
+import io.hops.hopsworks.common.kafka.KafkaTopicsCache;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
 import org.apache.zookeeper.KeeperException;
@@ -78,8 +79,10 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.util.List;
@@ -103,6 +106,8 @@ public class KafkaService {
   private KafkaController kafkaController;
   @EJB
   private JWTHelper jWTHelper;
+  @EJB
+  private KafkaTopicsCache kafkaTopicsCache;
 
   private Project project;
 
@@ -127,10 +132,14 @@ public class KafkaService {
   @Produces(MediaType.APPLICATION_JSON)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
   @JWTRequired(acceptedTokens={Audience.API}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
-  public Response getTopics() {
+  public Response getTopics(@Context Request request) {
+    EntityTag entityTag = new EntityTag(kafkaTopicsCache.getEntityTag());
+    if (request.evaluatePreconditions(entityTag) != null) {
+      return notModified(entityTag);
+    }
     List<TopicDTO> listTopics = kafkaFacade.findTopicsByProject(project);
     GenericEntity<List<TopicDTO>> topics = new GenericEntity<List<TopicDTO>>(listTopics) {};
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(topics).build();
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(topics).tag(entityTag).build();
   }
 
   @GET
@@ -138,10 +147,14 @@ public class KafkaService {
   @Produces(MediaType.APPLICATION_JSON)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
   @JWTRequired(acceptedTokens={Audience.API}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
-  public Response getSharedTopics() {
+  public Response getSharedTopics(@Context Request request) {
+    EntityTag entityTag = new EntityTag(kafkaTopicsCache.getEntityTag());
+    if (request.evaluatePreconditions(entityTag) != null) {
+      return notModified(entityTag);
+    }
     List<TopicDTO> listTopics = kafkaController.findSharedTopicsByProject(project.getId());
     GenericEntity<List<TopicDTO>> topics = new GenericEntity<List<TopicDTO>>(listTopics) {};
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(topics).build();
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(topics).tag(entityTag).build();
   }
 
   @GET
@@ -149,11 +162,15 @@ public class KafkaService {
   @Produces(MediaType.APPLICATION_JSON)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
   @JWTRequired(acceptedTokens={Audience.API}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
-  public Response getProjectAndSharedTopics() {
+  public Response getProjectAndSharedTopics(@Context Request request) {
+    EntityTag entityTag = new EntityTag(kafkaTopicsCache.getEntityTag());
+    if (request.evaluatePreconditions(entityTag) != null) {
+      return notModified(entityTag);
+    }
     List<TopicDTO> allTopics = kafkaFacade.findTopicsByProject(project);
     allTopics.addAll(kafkaController.findSharedTopicsByProject(project.getId()));
     GenericEntity<List<TopicDTO>> topics = new GenericEntity<List<TopicDTO>>(allTopics) {};
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(topics).build();
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(topics).tag(entityTag).build();
   }
 
   @POST
@@ -281,10 +298,14 @@ public class KafkaService {
   @Produces(MediaType.APPLICATION_JSON)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
   @JWTRequired(acceptedTokens={Audience.API}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
-  public Response topicIsSharedTo(@PathParam("topic") String topicName) {
+  public Response topicIsSharedTo(@PathParam("topic") String topicName, @Context Request request) {
+    EntityTag entityTag = new EntityTag(kafkaTopicsCache.getEntityTag());
+    if (request.evaluatePreconditions(entityTag) != null) {
+      return notModified(entityTag);
+    }
     List<SharedProjectDTO> projectDtoList = kafkaFacade.topicIsSharedTo(topicName, project.getId());
     GenericEntity<List<SharedProjectDTO>> projectDtos = new GenericEntity<List<SharedProjectDTO>>(projectDtoList) {};
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(projectDtos).build();
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(projectDtos).tag(entityTag).build();
   }
 
   @GET
@@ -292,10 +313,14 @@ public class KafkaService {
   @Produces(MediaType.APPLICATION_JSON)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
   @JWTRequired(acceptedTokens={Audience.API}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
-  public Response aclUsers(@PathParam("topicName") String topicName) {
+  public Response aclUsers(@PathParam("topicName") String topicName, @Context Request request) {
+    EntityTag entityTag = new EntityTag(kafkaTopicsCache.getEntityTag());
+    if (request.evaluatePreconditions(entityTag) != null) {
+      return notModified(entityTag);
+    }
     List<AclUserDTO> aclUsersDtos = kafkaFacade.aclUsers(project.getId(), topicName);
     GenericEntity<List<AclUserDTO>> aclUsers = new GenericEntity<List<AclUserDTO>>(aclUsersDtos) {};
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(aclUsers).build();
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(aclUsers).tag(entityTag).build();
   }
 
   @POST
@@ -330,10 +355,15 @@ public class KafkaService {
   @Produces(MediaType.APPLICATION_JSON)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
   @JWTRequired(acceptedTokens={Audience.API}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
-  public Response getTopicAcls(@PathParam("topic") String topicName) throws KafkaException {
+  public Response getTopicAcls(@PathParam("topic") String topicName, @Context Request request)
+      throws KafkaException {
+    EntityTag entityTag = new EntityTag(kafkaTopicsCache.getEntityTag());
+    if (request.evaluatePreconditions(entityTag) != null) {
+      return notModified(entityTag);
+    }
     List<AclDTO> aclDto = kafkaFacade.getTopicAcls(topicName, project);
     GenericEntity<List<AclDTO>> aclDtos = new GenericEntity<List<AclDTO>>(aclDto) {};
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(aclDtos).build();
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(aclDtos).tag(entityTag).build();
   }
 
   @PUT
@@ -453,4 +483,11 @@ public class KafkaService {
     return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(json).build();
   }
 
+  /**
+   * Clients polling the topic listings send back the entity tag of their last response. If no topic, share or ACL
+   * has been modified since, the listing they have is still current.
+   */
+  private Response notModified(EntityTag entityTag) {
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.NOT_MODIFIED).tag(entityTag).build();
+  }
 }
@@ -43,23 +43,20 @@ import io.hops.hopsworks.common.elastic.ElasticController;
 import io.hops.hopsworks.exceptions.ProjectException;
 import io.hops.hopsworks.common.project.ProjectController;
 import io.hops.hopsworks.common.project.ProjectDTO;
-import io.hops.hopsworks.common.util.HopsUtils;
 import io.hops.hopsworks.common.util.Settings;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
-import org.apache.http.client.entity.GzipCompressingEntity;
-import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.AbortableHttpRequest;
-import org.apache.http.entity.BasicHttpEntity;
 import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
 import org.apache.http.message.BasicHttpEntityEnclosingRequest;
 import org.apache.http.message.BasicHttpRequest;
-import org.apache.http.util.EntityUtils;
-import org.json.JSONArray;
+import org.apache.http.params.HttpParams;
 import org.json.JSONObject;
 
 import javax.ejb.EJB;
@@ -71,10 +68,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  *
@@ -91,7 +93,16 @@ public class KibanaProxyServlet extends ProxyServlet {
   private ElasticController elasticController;
   private static final  Logger LOG = Logger.getLogger(KibanaProxyServlet.class.getName());
 
-  private final HashMap<String, String> currentProjects = new HashMap<>();
+  /**
+   * Maximum number of pooled connections to Kibana, all of them to the same route.
+   */
+  public static final String P_MAX_CONNECTIONS = "maxConnections";
+  private static final int DEFAULT_MAX_CONNECTIONS = 100;
+  private static final long USER_PROJECTS_TTL_MS = 30000;
+  private static final int MAX_CACHED_USERS = 1000;
+
+  private final Map<String, String> currentProjects = new ConcurrentHashMap<>();
+  private final Map<String, UserProjects> userProjects = new ConcurrentHashMap<>();
 
   private final List<String> registeredKibanaSuffix = new ArrayList<String>() {{
       add("_logs");
@@ -103,6 +114,24 @@ public class KibanaProxyServlet extends ProxyServlet {
     }
   };
 
+  /**
+   * The default client of the proxy servlet is limited to a handful of connections, which makes concurrent
+   * dashboard panels queue on each other.
+   */
+  @Override
+  @SuppressWarnings("deprecation")
+  protected HttpClient createHttpClient(HttpParams hcParams) {
+    int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    String maxConnectionsStr = getConfigParam(P_MAX_CONNECTIONS);
+    if (maxConnectionsStr != null) {
+      maxConnections = Integer.parseInt(maxConnectionsStr);
+    }
+    PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager();
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnections);
+    return new DefaultHttpClient(connectionManager, hcParams);
+  }
+
   /**
    * Authorize user to access particular index.
    *
@@ -207,6 +236,10 @@ public class KibanaProxyServlet extends ProxyServlet {
       servletResponse.setStatus(statusCode, proxyResponse.getStatusLine().
               getReasonPhrase());
 
+      if (kibanaFilter != null) {
+        // The filtered body is shorter than the one sent by Kibana
+        proxyResponse.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+      }
       copyResponseHeaders(proxyResponse, servletRequest, servletResponse);
 
       // Send the content to the client
@@ -266,59 +299,35 @@ public class KibanaProxyServlet extends ProxyServlet {
         case ELASTICSEARCH_SEARCH:
           HttpEntity entity = proxyResponse.getEntity();
           if (entity != null) {
-            GzipDecompressingEntity gzipEntity = new GzipDecompressingEntity(entity);
-            String resp = EntityUtils.toString(gzipEntity);
-            BasicHttpEntity basic = new BasicHttpEntity();
             //Remove all projects other than the current one and check
             //if user is authorizer to access it
-            JSONObject indices = new JSONObject(resp);
-            LOG.log(Level.FINE, "indices:{0}", indices.toString());
-            JSONArray hits = null;
-
-            String projectName = currentProjects.get(email);
-            List<String> projects = new ArrayList();
-            //If we don't have the current project, filter out based on all user's projects
-            if (Strings.isNullOrEmpty(projectName)) {
-              List<String> projectNames = projectController.findProjectNamesByUser(email, true);
-              if(projectNames!= null && !projectNames.isEmpty()){
-                projects.addAll(projectNames);
-              }
+            List<String> projects = getAuthorizedProjects(email);
+            KibanaResponseFilter responseFilter;
+            if (kibanaFilter == KibanaFilter.ELASTICSEARCH_SEARCH) {
+              responseFilter = new KibanaResponseFilter(
+                  bucket -> isAuthorizedKibanaObject(bucket.path("key").asText(null), projects),
+                  "aggregations", "indices", "buckets");
             } else {
-              projects.add(projectName);
+              //Saved objects of a page often share the same parent searches and visualizations
+              Map<String, String> resolvedIndices = new HashMap<>();
+              responseFilter = new KibanaResponseFilter(
+                  savedObject -> isAuthorizedKibanaObject(
+                      elasticController.getIndexFromKibana(new JSONObject(savedObject.toString()), resolvedIndices),
+                      projects),
+                  "saved_objects");
             }
-            if (kibanaFilter == KibanaFilter.ELASTICSEARCH_SEARCH && HopsUtils.jsonKeyExists(indices, "buckets")) {
-              hits = indices.getJSONObject("aggregations").getJSONObject("indices").getJSONArray("buckets");
-            } else if (kibanaFilter == KibanaFilter.KIBANA_SAVED_OBJECTS_API && indices.has("saved_objects")) {
-              hits = indices.getJSONArray("saved_objects");
-            }
-            if (hits != null) {
-              LOG.log(Level.FINE, "hits:{0}", hits);
-              for (int i = hits.length() - 1; i >= 0; i--) {
-                String objectId = null;
-                switch (kibanaFilter) {
-                  case ELASTICSEARCH_SEARCH:
-                    objectId = hits.getJSONObject(i).getString("key");
-                    break;
-                  case KIBANA_SAVED_OBJECTS_API:
-                    objectId = elasticController.getIndexFromKibana(hits.getJSONObject(i));
-                    break;
-                  default:
-                    break;
-                }
-                if (!Strings.isNullOrEmpty(objectId) && (!isAuthorizedKibanaObject(objectId, email, projects))) {
-                  hits.remove(i);
-                  LOG.log(Level.FINE, "removed objectId:{0}", objectId);
-                }
+            boolean gzip = entity.getContentEncoding() != null
+                && entity.getContentEncoding().getValue().toLowerCase().contains("gzip");
+            try (InputStream in = gzip ? new GZIPInputStream(entity.getContent()) : entity.getContent()) {
+              OutputStream servletOutputStream = servletResponse.getOutputStream();
+              if (gzip) {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(servletOutputStream);
+                responseFilter.filter(in, gzipOutputStream);
+                gzipOutputStream.finish();
+              } else {
+                responseFilter.filter(in, servletOutputStream);
               }
             }
-
-            InputStream in = IOUtils.toInputStream(indices.toString());
-
-            OutputStream servletOutputStream = servletResponse.getOutputStream();
-            basic.setContent(in);
-            GzipCompressingEntity compress = new GzipCompressingEntity(basic);
-            compress.writeTo(servletOutputStream);
-
           }
           break;
         default:
@@ -329,7 +338,37 @@ public class KibanaProxyServlet extends ProxyServlet {
     }
   }
 
-  private boolean isAuthorizedKibanaObject(String objectId, String email, List<String> projects) {
+  /**
+   * Get the projects whose Kibana objects the user may see. If Kibana was opened from a project, only the objects
+   * of that project are shown. Otherwise those of all the projects of the user, which are cached for a short time
+   * as Kibana issues many requests per page.
+   *
+   * @param email of the user
+   * @return project names
+   */
+  private List<String> getAuthorizedProjects(String email) {
+    String projectName = currentProjects.get(email);
+    if (!Strings.isNullOrEmpty(projectName)) {
+      return Collections.singletonList(projectName);
+    }
+    long now = System.currentTimeMillis();
+    UserProjects cached = userProjects.get(email);
+    if (cached == null || now - cached.loaded > USER_PROJECTS_TTL_MS) {
+      List<String> projectNames = projectController.findProjectNamesByUser(email, true);
+      if (userProjects.size() >= MAX_CACHED_USERS) {
+        userProjects.clear();
+      }
+      cached = new UserProjects(projectNames == null ? Collections.<String>emptyList()
+          : Collections.unmodifiableList(new ArrayList<>(projectNames)), now);
+      userProjects.put(email, cached);
+    }
+    return cached.projectNames;
+  }
+
+  private boolean isAuthorizedKibanaObject(String objectId, List<String> projects) {
+    if (Strings.isNullOrEmpty(objectId)) {
+      return true;
+    }
     for (String objectSuffix : registeredKibanaSuffix) {
       if (projects != null && !projects.isEmpty()) {
         for (String name : projects) {
@@ -341,4 +380,14 @@ public class KibanaProxyServlet extends ProxyServlet {
     }
     return false;
   }
+
+  private static class UserProjects {
+    private final List<String> projectNames;
+    private final long loaded;
+
+    private UserProjects(List<String> projectNames, long loaded) {
+      this.projectNames = projectNames;
+      this.loaded = loaded;
+    }
+  }
 }
@@ -0,0 +1,97 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.kibana;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Copies a JSON document from Kibana or Elasticsearch to the client token by token, dropping the elements of one
+ * array that the user is not authorized to see. Only one element of the filtered array is held in memory at a time,
+ * so the size of the response does not affect the memory used by the proxy.
+ */
+class KibanaResponseFilter {
+
+  /**
+   * Decides whether an element of the filtered array is sent to the client.
+   */
+  interface ElementFilter {
+    boolean accept(JsonNode element) throws IOException;
+  }
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final JsonFactory JSON_FACTORY = OBJECT_MAPPER.getFactory().copy()
+      .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+  private final List<String> arrayPath;
+  private final ElementFilter elementFilter;
+
+  /**
+   * @param elementFilter filter applied to each element of the array
+   * @param arrayPath field names leading from the root object to the array to filter
+   */
+  KibanaResponseFilter(ElementFilter elementFilter, String... arrayPath) {
+    this.arrayPath = Arrays.asList(arrayPath);
+    this.elementFilter = elementFilter;
+  }
+
+  void filter(InputStream in, OutputStream out) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(in);
+        JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+      parser.setCodec(OBJECT_MAPPER);
+      generator.setCodec(OBJECT_MAPPER);
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        if (token == JsonToken.START_ARRAY && isFilteredArray(parser.getParsingContext())) {
+          generator.writeStartArray();
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            JsonNode element = parser.readValueAsTree();
+            if (elementFilter.accept(element)) {
+              generator.writeTree(element);
+            }
+          }
+          generator.writeEndArray();
+        } else {
+          generator.copyCurrentEvent(parser);
+        }
+      }
+    }
+  }
+
+  private boolean isFilteredArray(JsonStreamContext arrayContext) {
+    JsonStreamContext parent = arrayContext.getParent();
+    for (int i = arrayPath.size() - 1; i >= 0; i--) {
+      if (parent == null || !parent.inObject() || !arrayPath.get(i).equals(parent.getCurrentName())) {
+        return false;
+      }
+      parent = parent.getParent();
+    }
+    return parent != null && parent.inRoot();
+  }
+}
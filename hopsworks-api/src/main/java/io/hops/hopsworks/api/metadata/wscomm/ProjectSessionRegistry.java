@@ -0,0 +1,153 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.metadata.wscomm;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Open metadata WebSocket sessions indexed by project. Messages are sent asynchronously, each session has a
+ * bounded queue of outbound messages and is closed if it falls too far behind, so that a slow client does not
+ * delay the other members of the project.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ProjectSessionRegistry {
+
+  private static final Logger logger = Logger.getLogger(ProjectSessionRegistry.class.getName());
+  private static final int MAX_QUEUED_MESSAGES = 100;
+
+  private final Map<Integer, Map<String, QueuedSession>> projectSessions = new ConcurrentHashMap<>();
+
+  public void register(Integer projectId, Session session) {
+    projectSessions.computeIfAbsent(projectId, k -> new ConcurrentHashMap<>())
+        .put(session.getId(), new QueuedSession(projectId, session));
+  }
+
+  public void unregister(Integer projectId, Session session) {
+    projectSessions.computeIfPresent(projectId, (k, sessions) -> {
+      sessions.remove(session.getId());
+      return sessions.isEmpty() ? null : sessions;
+    });
+  }
+
+  /**
+   * Send an already encoded message to every open session of a project.
+   *
+   * @param projectId
+   * @param text the encoded message
+   */
+  public void broadcast(Integer projectId, String text) {
+    Map<String, QueuedSession> sessions = projectSessions.get(projectId);
+    if (sessions == null) {
+      return;
+    }
+    for (QueuedSession queuedSession : sessions.values()) {
+      if (!queuedSession.session.isOpen()) {
+        unregister(projectId, queuedSession.session);
+        continue;
+      }
+      try {
+        if (!queuedSession.send(text)) {
+          evict(queuedSession, "Too many pending messages");
+        }
+      } catch (IllegalStateException ex) {
+        // The session was closed while sending
+        evict(queuedSession, ex.getMessage());
+      }
+    }
+  }
+
+  private void evict(QueuedSession queuedSession, String reason) {
+    unregister(queuedSession.projectId, queuedSession.session);
+    logger.log(Level.INFO, "Closing metadata session {0}: {1}", new Object[]{queuedSession.session.getId(), reason});
+    try {
+      queuedSession.session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, reason));
+    } catch (IOException ex) {
+      logger.log(Level.FINE, ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Sends one message at a time through the async remote of a session, the next one is sent once the previous
+   * one has completed.
+   */
+  private class QueuedSession implements SendHandler {
+
+    private final Integer projectId;
+    private final Session session;
+    private final Queue<String> queue = new ArrayDeque<>();
+    private boolean sending = false;
+
+    private QueuedSession(Integer projectId, Session session) {
+      this.projectId = projectId;
+      this.session = session;
+    }
+
+    /**
+     * @param text
+     * @return false if the queue of the session is full
+     */
+    private boolean send(String text) {
+      synchronized (this) {
+        if (sending) {
+          if (queue.size() >= MAX_QUEUED_MESSAGES) {
+            return false;
+          }
+          queue.add(text);
+          return true;
+        }
+        sending = true;
+      }
+      session.getAsyncRemote().sendText(text, this);
+      return true;
+    }
+
+    @Override
+    public void onResult(SendResult result) {
+      if (!result.isOK()) {
+        synchronized (this) {
+          queue.clear();
+          sending = false;
+        }
+        evict(this, "Send failed: " + result.getException());
+        return;
+      }
+      String next;
+      synchronized (this) {
+        next = queue.poll();
+        if (next == null) {
+          sending = false;
+          return;
+        }
+      }
+      session.getAsyncRemote().sendText(next, this);
+    }
+  }
+}
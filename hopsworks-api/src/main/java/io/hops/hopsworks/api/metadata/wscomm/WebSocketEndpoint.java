@@ -83,6 +83,8 @@ public class WebSocketEndpoint {
   private HttpSession httpSession;//this might be used to check the underlying http session
   @EJB
   private MetadataProtocol protocol;
+  @EJB
+  private ProjectSessionRegistry sessionRegistry;
 
   @OnOpen
   public void open(Session session, EndpointConfig config,
@@ -116,8 +118,10 @@ public class WebSocketEndpoint {
       } catch (IOException ex) {
         logger.log(Level.SEVERE, ex.getMessage(), ex);
       }
+      return;
     }
     session.getUserProperties().put("projectID", this.project.getId());
+    this.sessionRegistry.register(this.project.getId(), session);
   }
 
   @OnMessage
@@ -136,26 +140,23 @@ public class WebSocketEndpoint {
     logger.log(Level.FINEST,
             "HOPSWORKS: USER {0} SESSION DESTROYED sessions {1}",
             new Object[]{this.sender, session.getOpenSessions().size()});
+    Integer projectId = (Integer) session.getUserProperties().get("projectID");
+    if (projectId == null) {
+      return;
+    }
+    this.sessionRegistry.unregister(projectId, session);
     Message message = new TextMessage(this.sender, " Left");
     message.setStatus("INFO");
     this.broadcast(message, session);
   }
 
-  //broadcast to every one connected to the same project
+  //broadcast to every one connected to the same project. The message is encoded once and sent asynchronously
   private void broadcast(Message msg, Session session) {
-    for (Session s : session.getOpenSessions()) {
-      try {
-        if (s.isOpen() && s.getUserProperties().get("projectID").equals(
-                session.getUserProperties().get("projectID"))) {
-          s.getBasicRemote().sendObject(msg);//RemoteEndpoint.Basic interface provides blocking methods to send
-          //messages; the RemoteEndpoint.Async interface provides nonblocking methods.
-          //logger.log(Level.INFO, "Sending >>> {0} to session: {1}",
-          //new Object[]{msg, s.getUserPrincipal()});
-        }
-      } catch (IOException | EncodeException ex) {
-        this.sendError(session, ex.getMessage());
-      }
+    Integer projectId = (Integer) session.getUserProperties().get("projectID");
+    if (projectId == null) {
+      return;
     }
+    this.sessionRegistry.broadcast(projectId, msg.encode());
   }
 
   @OnError
@@ -73,6 +73,7 @@ import io.hops.hopsworks.common.dao.user.UserFacade;
 import io.hops.hopsworks.common.dao.user.Users;
 import io.hops.hopsworks.common.dao.user.activity.ActivityFacade;
 import io.hops.hopsworks.common.dataset.DatasetController;
+import io.hops.hopsworks.common.dataset.FilePreviewCache;
 import io.hops.hopsworks.common.dataset.FilePreviewDTO;
 import io.hops.hopsworks.exceptions.DatasetException;
 import io.hops.hopsworks.exceptions.HopsSecurityException;
@@ -96,10 +97,12 @@ import io.hops.hopsworks.common.util.ProcessResult;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.fs.permission.FsAction;
 import org.apache.hadoop.fs.permission.FsPermission;
 
@@ -117,16 +120,25 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import java.io.DataInputStream;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.ws.rs.core.SecurityContext;
@@ -186,6 +198,8 @@ public class DataSetService {
   private FeaturestoreController featurestoreController;
   @EJB
   private DsUpdateOperations dsUpdateOperations;
+  @EJB
+  private FilePreviewCache filePreviewCache;
 
   private Integer projectId;
   private Project project;
@@ -331,9 +345,14 @@ public class DataSetService {
   }
 
   /**
-   * Get the inodes in the given project-relative path.
+   * Get the inodes in the given project-relative path. If a limit is given, a page of at most limit inodes sorted
+   * by sort_by is returned, starting after the position given by cursor. The cursor of the next page is returned in
+   * the Next-Cursor header, which is absent on the last page.
    * <p/>
    * @param path
+   * @param limit
+   * @param cursor
+   * @param sortBy ex. sort_by=size:desc
    * @return
    * @throws io.hops.hopsworks.common.exception.DatasetException
    * @throws io.hops.hopsworks.common.exception.ProjectException
@@ -343,22 +362,59 @@ public class DataSetService {
   @Produces(MediaType.APPLICATION_JSON)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
   @JWTRequired(acceptedTokens={Audience.API}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
-  public Response getDirContent(@PathParam("path") String path) throws DatasetException, ProjectException {
+  public Response getDirContent(@PathParam("path") String path,
+      @QueryParam("limit") Integer limit,
+      @QueryParam("cursor") String cursor,
+      @ApiParam(value = "ex. sort_by=size:desc", allowableValues = "name:asc,name:desc,size:asc,size:desc,"
+          + "modification:asc,modification:desc") @QueryParam("sort_by") String sortBy)
+      throws DatasetException, ProjectException {
     DsPath dsPath = pathValidator.validatePath(this.project, path);
     String fullPath = dsPath.getFullPath().toString();
     Inode parent = dsPath.validatePathExists(inodes,true);
-    List<Inode> cwdChildren = inodes.getChildren(parent);
+    List<Inode> cwdChildren;
+    InodeFacade.Sorts sort = InodeFacade.Sorts.NAME;
+    if (limit != null && limit > 0) {
+      boolean ascending = true;
+      try {
+        if (sortBy != null && !sortBy.isEmpty()) {
+          String[] sortParam = sortBy.split(":");
+          sort = InodeFacade.Sorts.valueOf(sortParam[0].trim().toUpperCase());
+          ascending = sortParam.length < 2 || !"desc".equalsIgnoreCase(sortParam[1].trim());
+        }
+        cwdChildren = inodes.findByParent(parent, sort, ascending, cursor, limit);
+      } catch (IllegalArgumentException e) {
+        throw new DatasetException(RESTCodes.DatasetErrorCode.DATASET_OPERATION_INVALID, Level.FINE,
+          "sort_by: " + sortBy + ", cursor: " + cursor, e.getMessage(), e);
+      }
+    } else {
+      cwdChildren = inodes.getChildren(parent);
+    }
 
-    List<InodeView> kids = new ArrayList<>();
+    // Resolve the owners and the zip states of the whole listing at once instead of once per child
+    Set<String> usernames = new HashSet<>();
+    List<String> childPaths = new ArrayList<>(cwdChildren.size());
     for (Inode i : cwdChildren) {
-      InodeView inodeView = new InodeView(i, fullPath + "/" + i.getInodePK().getName());
+      usernames.add(i.getHdfsUser().getUsername());
+      childPaths.add(fullPath + "/" + i.getInodePK().getName());
+    }
+    Map<String, Users> owners = new HashMap<>();
+    for (Users user : userFacade.findByUsernames(usernames)) {
+      owners.put(user.getUsername(), user);
+    }
+    Map<String, String> zipStates = settings.getZipStates(childPaths);
+
+    List<InodeView> kids = new ArrayList<>(cwdChildren.size());
+    for (int j = 0; j < cwdChildren.size(); j++) {
+      Inode i = cwdChildren.get(j);
+      String childPath = childPaths.get(j);
+      InodeView inodeView = new InodeView(i, childPath);
       if (dsPath.getDs().isShared()) {
         //Get project of project__user the inode is owned by
         inodeView.setOwningProjectName(hdfsUsersController.getProjectName(i.getHdfsUser().getName()));
       }
-      inodeView.setZipState(settings.getZipState(
-              fullPath + "/" + i.getInodePK().getName()));
-      Users user = userFacade.findByUsername(inodeView.getOwner());
+      String zipState = zipStates.get(childPath);
+      inodeView.setZipState(zipState == null ? "NONE" : zipState);
+      Users user = owners.get(inodeView.getOwner());
       if (user != null) {
         inodeView.setOwner(user.getFname() + " " + user.getLname());
         inodeView.setEmail(user.getEmail());
@@ -367,8 +423,17 @@ public class DataSetService {
     }
     GenericEntity<List<InodeView>> inodeViews
             = new GenericEntity<List<InodeView>>(kids) { };
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(
-            inodeViews).build();
+    Response.ResponseBuilder response = noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(
+            inodeViews);
+    if (limit != null && limit > 0 && cwdChildren.size() == limit) {
+      try {
+        response.header("Next-Cursor", URLEncoder.encode(InodeFacade.getCursor(sort,
+            cwdChildren.get(cwdChildren.size() - 1)), StandardCharsets.UTF_8.name()));
+      } catch (UnsupportedEncodingException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return response.build();
   }
 
   @GET
@@ -1024,7 +1089,7 @@ public class DataSetService {
     String username = hdfsUsersController.getHdfsUserName(project, user);
 
     DsPath dsPath = pathValidator.validatePath(this.project, path);
-    dsPath.validatePathExists(inodes,false);
+    Inode inode = dsPath.validatePathExists(inodes,false);
     org.apache.hadoop.fs.Path fullPath = dsPath.getFullPath();
     String fileName = fullPath.getName();
 
@@ -1035,50 +1100,52 @@ public class DataSetService {
     try {
       udfso = dfs.getDfsOps(username);
 
-      //tests if the user have permission to access this path
+      //tests if the user have permission to access this path, also before serving a cached preview
       is = udfso.open(fullPath);
 
-      //Get file type first. If it is not a known image type, display its
-      //binary contents instead
-      String fileExtension = "txt"; // default file  type
-      //Check if file contains a valid extension
-      if (fileName.contains(".")) {
-        fileExtension = fileName.substring(fileName.lastIndexOf(".")).replace(".", "").toUpperCase();
-      }
-      long fileSize = udfso.getFileStatus(fullPath).getLen();
-
-      FilePreviewDTO filePreviewDTO = null;
-      if (HopsUtils.isInEnum(fileExtension, FilePreviewImageTypes.class)) {
-        //If it is an image smaller than 10MB download it otherwise thrown an error
-        if (fileSize < settings.getFilePreviewImageSize()) {
-          //Read the image in bytes and convert it to base64 so that is
-          //rendered properly in the front-end
-          byte[] imageInBytes = new byte[(int) fileSize];
-          is.readFully(imageInBytes);
-          String base64Image = new Base64().encodeAsString(imageInBytes);
-          filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_IMAGE_TYPE,
-              fileExtension.toLowerCase(), base64Image);
+      String fileExtension = getPreviewExtension(fileName);
+      FileStatus fileStatus = udfso.getFileStatus(fullPath);
+      long fileSize = fileStatus.getLen();
+      boolean isImage = HopsUtils.isInEnum(fileExtension, FilePreviewImageTypes.class);
+      String previewMode = isImage ? Settings.FILE_PREVIEW_IMAGE_TYPE
+          : (Settings.FILE_PREVIEW_MODE_TAIL.equals(mode) ? Settings.FILE_PREVIEW_MODE_TAIL : "head");
+
+      FilePreviewDTO filePreviewDTO = filePreviewCache.get(inode.getId(), fileStatus.getModificationTime(), fileSize,
+          previewMode);
+      if (filePreviewDTO == null) {
+        if (isImage) {
+          //If it is an image smaller than 10MB download it otherwise thrown an error
+          if (fileSize < settings.getFilePreviewImageSize()) {
+            //Read the image in bytes and convert it to base64 so that is
+            //rendered properly in the front-end. Clients that can display binary content should use imagePreview.
+            byte[] imageInBytes = new byte[(int) fileSize];
+            is.readFully(0, imageInBytes);
+            String base64Image = new Base64().encodeAsString(imageInBytes);
+            filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_IMAGE_TYPE,
+                fileExtension.toLowerCase(), base64Image);
+          } else {
+            throw new DatasetException(RESTCodes.DatasetErrorCode.IMAGE_SIZE_INVALID, Level.FINE);
+          }
         } else {
-          throw new DatasetException(RESTCodes.DatasetErrorCode.IMAGE_SIZE_INVALID, Level.FINE);
-        }
-      } else {
-        try (DataInputStream dis = new DataInputStream(is)) {
           int sizeThreshold = Settings.FILE_PREVIEW_TXT_SIZE_BYTES; //in bytes
+          long offset = 0;
           if (fileSize > sizeThreshold && !fileName.endsWith(Settings.README_FILE)
-              && mode.equals(Settings.FILE_PREVIEW_MODE_TAIL)) {
-            dis.skipBytes((int) (fileSize - sizeThreshold));
+              && Settings.FILE_PREVIEW_MODE_TAIL.equals(previewMode)) {
+            //Read the tail directly instead of skipping over the rest of the file
+            offset = fileSize - sizeThreshold;
           } else if (fileName.endsWith(Settings.README_FILE) && fileSize > Settings.FILE_PREVIEW_TXT_SIZE_BYTES) {
             throw new DatasetException(RESTCodes.DatasetErrorCode.FILE_PREVIEW_ERROR, Level.FINE,
                 "File must be smaller than " + Settings.FILE_PREVIEW_TXT_SIZE_BYTES / 1024 + " KB to be previewed");
-          } else if ((int) fileSize < sizeThreshold) {
+          } else if (fileSize < sizeThreshold) {
             sizeThreshold = (int) fileSize;
           }
           byte[] headContent = new byte[sizeThreshold];
-          dis.readFully(headContent, 0, sizeThreshold);
+          is.readFully(offset, headContent);
           //File content
           filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_TEXT_TYPE, fileExtension.toLowerCase(),
               new String(headContent));
         }
+        filePreviewCache.put(inode.getId(), fileStatus.getModificationTime(), fileSize, previewMode, filePreviewDTO);
       }
 
       json.setData(filePreviewDTO);
@@ -1102,6 +1169,114 @@ public class DataSetService {
             json).build();
   }
 
+  /**
+   * Stream an image as binary content, so that it does not have to be held in memory and base64 encoded into
+   * a JSON response like filePreview does.
+   *
+   * @param path
+   * @param sc
+   * @return
+   * @throws DatasetException
+   * @throws ProjectException
+   */
+  @GET
+  @Path("imagePreview/{path: .+}")
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
+  @JWTRequired(acceptedTokens={Audience.API}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
+  public Response imagePreview(@PathParam("path") String path, @Context SecurityContext sc) throws DatasetException,
+      ProjectException {
+    Users user = jWTHelper.getUserPrincipal(sc);
+    String username = hdfsUsersController.getHdfsUserName(project, user);
+
+    DsPath dsPath = pathValidator.validatePath(this.project, path);
+    dsPath.validatePathExists(inodes,false);
+    org.apache.hadoop.fs.Path fullPath = dsPath.getFullPath();
+    String fileExtension = getPreviewExtension(fullPath.getName());
+    if (!HopsUtils.isInEnum(fileExtension, FilePreviewImageTypes.class)) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.FILE_PREVIEW_ERROR, Level.FINE,
+          "File is not an image: " + path);
+    }
+
+    DistributedFileSystemOps udfso = null;
+    FSDataInputStream is = null;
+    try {
+      udfso = dfs.getDfsOps(username);
+      //tests if the user have permission to access this path
+      is = udfso.open(fullPath);
+      long fileSize = udfso.getFileStatus(fullPath).getLen();
+      if (fileSize >= settings.getFilePreviewImageSize()) {
+        throw new DatasetException(RESTCodes.DatasetErrorCode.IMAGE_SIZE_INVALID, Level.FINE);
+      }
+      StreamingOutput output = buildImageOutputStream(is, udfso);
+      // The stream and the client are closed once the image has been sent
+      is = null;
+      udfso = null;
+      return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(output)
+          .type(getImageMediaType(fileExtension))
+          .header("Content-Length", fileSize)
+          .build();
+    } catch (IOException ex) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.DATASET_OPERATION_ERROR, Level.SEVERE, "path: " + path,
+        ex.getMessage(), ex);
+    } finally {
+      if (is != null) {
+        try {
+          is.close();
+        } catch (IOException ex) {
+          LOGGER.log(Level.SEVERE, "Error while closing stream.", ex);
+        }
+      }
+      if (udfso != null) {
+        dfs.closeDfsClient(udfso);
+      }
+    }
+  }
+
+  private StreamingOutput buildImageOutputStream(final FSDataInputStream stream,
+      final DistributedFileSystemOps udfso) {
+    final int bufferSize = settings.getDownloadBufferSize();
+    return new StreamingOutput() {
+      @Override
+      public void write(OutputStream out) throws IOException, WebApplicationException {
+        try {
+          IOUtils.copyBytes(stream, out, bufferSize, false);
+          out.flush();
+        } finally {
+          try {
+            stream.close();
+          } finally {
+            dfs.closeDfsClient(udfso);
+          }
+        }
+      }
+    };
+  }
+
+  private String getImageMediaType(String fileExtension) {
+    switch (fileExtension) {
+      case "JPG":
+      case "JPEG":
+        return "image/jpeg";
+      case "TIF":
+      case "TIFF":
+        return "image/tiff";
+      default:
+        return "image/" + fileExtension.toLowerCase();
+    }
+  }
+
+  private String getPreviewExtension(String fileName) {
+    //Get file type first. If it is not a known image type, display its
+    //binary contents instead
+    String fileExtension = "txt"; // default file  type
+    //Check if file contains a valid extension
+    if (fileName.contains(".")) {
+      fileExtension = fileName.substring(fileName.lastIndexOf(".")).replace(".", "").toUpperCase();
+    }
+    return fileExtension;
+  }
+
   @GET
   @Path("isDir/{path: .+}")
   @Produces(MediaType.APPLICATION_JSON)
@@ -22,7 +22,6 @@ import io.hops.hopsworks.api.filter.Audience;
 import io.hops.hopsworks.common.dao.project.Project;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.serving.inference.InferenceController;
-import io.hops.hopsworks.common.serving.inference.InferenceException;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -37,8 +36,9 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
 
 @RequestScoped
 @TransactionAttribute(TransactionAttributeType.NEVER)
@@ -63,18 +63,18 @@ public class InferenceResource {
   @ApiOperation(value = "Make inference")
   @JWTRequired(acceptedTokens={Audience.API}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
   @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
-  public Response infer(
+  public void infer(
       @ApiParam(value = "Name of the model to query", required = true) @PathParam("modelName") String modelName,
       @ApiParam(value = "Version fo the model to query") @PathParam("version") String modelVersion,
       @ApiParam(value = "Type of query") @PathParam("verb") String verb,
-      String inferenceRequestJson) throws InferenceException {
+      String inferenceRequestJson,
+      @Suspended AsyncResponse asyncResponse) {
 
     Integer version = null;
     if (!Strings.isNullOrEmpty(modelVersion)) {
       version = Integer.valueOf(modelVersion.split("/")[2]);
     }
 
-    String inferenceResult = inferenceController.infer(project, modelName, version, verb, inferenceRequestJson);
-    return Response.ok().entity(inferenceResult).build();
+    inferenceController.inferAsync(project, modelName, version, verb, inferenceRequestJson, asyncResponse);
   }
 }
@@ -0,0 +1,55 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.util;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.ejb.EJB;
+import javax.websocket.OnClose;
+import javax.websocket.OnError;
+import javax.websocket.OnOpen;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpoint;
+
+/**
+ * Pushes every new sample of the cluster metrics to the connected clients, so that the UI does not need to poll
+ * {@link ClusterUtilisationService}. Access is restricted to Hopsworks users by the /wspoint/* security constraint.
+ */
+@ServerEndpoint(value = "/wspoint/clusterUtilisation")
+public class ClusterMetricsEndpoint {
+
+  private static final Logger LOGGER = Logger.getLogger(ClusterMetricsEndpoint.class.getName());
+
+  @EJB
+  private ClusterMetricsSampler clusterMetricsSampler;
+
+  @OnOpen
+  public void open(Session session) {
+    clusterMetricsSampler.register(session);
+  }
+
+  @OnClose
+  public void onClose(Session session) {
+    clusterMetricsSampler.unregister(session);
+  }
+
+  @OnError
+  public void error(Session session, Throwable t) {
+    LOGGER.log(Level.FINE, t.getMessage(), t);
+    clusterMetricsSampler.unregister(session);
+  }
+}
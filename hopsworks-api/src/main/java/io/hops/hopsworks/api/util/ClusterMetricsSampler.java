@@ -0,0 +1,278 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.util;
+
+import io.hops.hopsworks.common.util.Settings;
+import org.glassfish.jersey.client.ClientProperties;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Samples the cluster metrics of the Resource Manager once per
+ * {@link Settings#getClusterMetricsSampleIntervalMs()} and keeps the latest sample and a short history in memory,
+ * so that the number of requests to the Resource Manager does not grow with the number of users polling the
+ * cluster utilisation. Requests that find the latest sample out of date share a single request to the Resource
+ * Manager. New samples are pushed to the clients connected to {@link ClusterMetricsEndpoint}.
+ * <p>
+ * Sampling is paused while nobody has asked for the metrics for a while and no push client is connected.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ClusterMetricsSampler {
+
+  private static final Logger LOGGER = Logger.getLogger(ClusterMetricsSampler.class.getName());
+  private static final int IDLE_INTERVALS = 12;
+  private static final int REQUEST_TIMEOUT_MS = 5000;
+
+  @EJB
+  private Settings settings;
+  @Resource
+  private TimerService timerService;
+
+  private Client client;
+  private volatile Sample latest;
+  private volatile long lastRead = 0;
+  private final Deque<Sample> history = new ArrayDeque<>();
+  private final Object refreshLock = new Object();
+  private CompletableFuture<Sample> inFlight;
+  private final Map<String, PushSession> pushSessions = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() {
+    client = ClientBuilder.newClient();
+    client.property(ClientProperties.CONNECT_TIMEOUT, REQUEST_TIMEOUT_MS);
+    client.property(ClientProperties.READ_TIMEOUT, REQUEST_TIMEOUT_MS);
+    long interval = settings.getClusterMetricsSampleIntervalMs();
+    timerService.createIntervalTimer(interval, interval, new TimerConfig("Cluster metrics sampler", false));
+  }
+
+  @PreDestroy
+  public void destroy() {
+    for (Timer timer : timerService.getTimers()) {
+      timer.cancel();
+    }
+    client.close();
+  }
+
+  @Timeout
+  public void sample(Timer timer) {
+    if (pushSessions.isEmpty()
+        && System.currentTimeMillis() - lastRead > IDLE_INTERVALS * settings.getClusterMetricsSampleIntervalMs()) {
+      return;
+    }
+    Sample sample = refresh();
+    if (sample.metrics != null) {
+      for (PushSession pushSession : pushSessions.values()) {
+        pushSession.send(sample.metrics);
+      }
+    }
+  }
+
+  /**
+   * Get the latest sample, sampling the Resource Manager if it is older than the sampling interval.
+   *
+   * @return the latest sample
+   */
+  public Sample getLatest() {
+    long now = System.currentTimeMillis();
+    lastRead = now;
+    Sample sample = latest;
+    if (sample != null && now - sample.timestamp < settings.getClusterMetricsSampleIntervalMs()) {
+      return sample;
+    }
+    return refresh();
+  }
+
+  /**
+   * @return the successful samples kept in memory, oldest first, as a JSON array
+   */
+  public String getHistory() {
+    lastRead = System.currentTimeMillis();
+    StringBuilder json = new StringBuilder("[");
+    synchronized (history) {
+      for (Sample sample : history) {
+        if (json.length() > 1) {
+          json.append(',');
+        }
+        json.append("{\"timestamp\":").append(sample.timestamp).append(",\"metrics\":").append(sample.metrics)
+            .append('}');
+      }
+    }
+    return json.append(']').toString();
+  }
+
+  public void register(Session session) {
+    PushSession pushSession = new PushSession(session);
+    pushSessions.put(session.getId(), pushSession);
+    Sample sample = latest;
+    if (sample != null && sample.metrics != null) {
+      pushSession.send(sample.metrics);
+    }
+  }
+
+  public void unregister(Session session) {
+    pushSessions.remove(session.getId());
+  }
+
+  private Sample refresh() {
+    CompletableFuture<Sample> future;
+    boolean sampling = false;
+    synchronized (refreshLock) {
+      if (inFlight == null) {
+        inFlight = new CompletableFuture<>();
+        sampling = true;
+      }
+      future = inFlight;
+    }
+    if (!sampling) {
+      return future.join();
+    }
+    Sample sample = null;
+    try {
+      sample = fetch();
+    } finally {
+      synchronized (refreshLock) {
+        inFlight = null;
+      }
+      // Never leave the requests waiting for this sample blocked
+      future.complete(sample != null ? sample : new Sample(System.currentTimeMillis(), null));
+    }
+    return sample;
+  }
+
+  private Sample fetch() {
+    String rmUrl = "http://" + settings.getRmIp() + ":" + settings.getRmPort() + "/ws/v1/cluster/metrics";
+    String metrics = null;
+    try {
+      Response response = client.target(rmUrl).request(MediaType.APPLICATION_JSON).get();
+      try {
+        if (response.getStatus() == Response.Status.OK.getStatusCode()) {
+          metrics = response.readEntity(String.class);
+        } else {
+          LOGGER.log(Level.FINE, "Resource Manager returned {0} for cluster metrics", response.getStatus());
+        }
+      } finally {
+        response.close();
+      }
+    } catch (Exception ex) {
+      LOGGER.log(Level.FINE, "Could not sample cluster metrics", ex);
+    }
+    Sample sample = new Sample(System.currentTimeMillis(), metrics);
+    latest = sample;
+    if (metrics != null) {
+      synchronized (history) {
+        history.addLast(sample);
+        while (history.size() > settings.getClusterMetricsHistorySize()) {
+          history.removeFirst();
+        }
+      }
+    }
+    return sample;
+  }
+
+  /**
+   * A sample of the cluster metrics. {@code metrics} is the JSON returned by the Resource Manager, or null if it
+   * could not be sampled.
+   */
+  public static class Sample {
+
+    private final long timestamp;
+    private final String metrics;
+
+    private Sample(long timestamp, String metrics) {
+      this.timestamp = timestamp;
+      this.metrics = metrics;
+    }
+
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    public String getMetrics() {
+      return metrics;
+    }
+  }
+
+  /**
+   * Sends samples asynchronously. A sample is dropped if the previous one is still being sent to the client, since
+   * the next one supersedes it anyway.
+   */
+  private class PushSession implements SendHandler {
+
+    private final Session session;
+    private final AtomicBoolean sending = new AtomicBoolean(false);
+
+    private PushSession(Session session) {
+      this.session = session;
+    }
+
+    private void send(String text) {
+      if (!session.isOpen()) {
+        unregister(session);
+        return;
+      }
+      if (!sending.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        session.getAsyncRemote().sendText(text, this);
+      } catch (IllegalStateException ex) {
+        sending.set(false);
+        unregister(session);
+      }
+    }
+
+    @Override
+    public void onResult(SendResult result) {
+      sending.set(false);
+      if (!result.isOK()) {
+        LOGGER.log(Level.FINE, "Could not push cluster metrics", result.getException());
+        unregister(session);
+      }
+    }
+  }
+}
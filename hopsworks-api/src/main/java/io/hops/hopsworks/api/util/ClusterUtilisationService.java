@@ -41,7 +41,6 @@ package io.hops.hopsworks.api.util;
 
 import io.hops.hopsworks.api.filter.Audience;
 import io.hops.hopsworks.api.filter.NoCacheResponse;
-import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
 import io.swagger.annotations.Api;
 
@@ -53,9 +52,6 @@ import javax.ejb.TransactionAttributeType;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
-import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -71,24 +67,25 @@ public class ClusterUtilisationService {
   @EJB
   private NoCacheResponse noCacheResponse;
   @EJB
-  private Settings settings;
+  private ClusterMetricsSampler clusterMetricsSampler;
   
   @GET
   @Path("/metrics")
   @Produces(MediaType.APPLICATION_JSON)
   public Response getGpus() {
-    Response response = null;
-    String rmUrl = "http://" + settings.getRmIp() + ":" + settings.getRmPort() + "/ws/v1/cluster/metrics";
-    Client client = ClientBuilder.newClient();
-    WebTarget target = client.target(rmUrl);
-    try {
-      response = target.request().get();
-    } catch (Exception ex) {
+    ClusterMetricsSampler.Sample sample = clusterMetricsSampler.getLatest();
+    if (sample.getMetrics() == null) {
       return noCacheResponse.getNoCacheResponseBuilder(Response.Status.SERVICE_UNAVAILABLE).build();
-    } finally {
-      client.close();
     }
-    return response;
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(sample.getMetrics()).build();
+  }
+  
+  @GET
+  @Path("/metrics/history")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response getMetricsHistory() {
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(clusterMetricsSampler.getHistory())
+        .build();
   }
   
 }
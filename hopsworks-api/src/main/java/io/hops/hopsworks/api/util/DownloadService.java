@@ -58,6 +58,7 @@ import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.jwt.exception.SigningKeyNotFoundException;
 import io.hops.hopsworks.jwt.exception.VerificationException;
 import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
 
 import javax.ejb.EJB;
@@ -65,14 +66,21 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.enterprise.context.RequestScoped;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.ws.rs.QueryParam;
@@ -108,7 +116,8 @@ public class DownloadService {
   @GET
   @javax.ws.rs.Path("/{path: .+}")
   @Produces(MediaType.APPLICATION_OCTET_STREAM)
-  public Response downloadFromHDFS(@PathParam("path") String path, @QueryParam("token") String token)
+  public Response downloadFromHDFS(@PathParam("path") String path, @QueryParam("token") String token,
+    @HeaderParam("Range") String range, @HeaderParam("If-Range") String ifRange)
     throws DatasetException, ProjectException, SigningKeyNotFoundException, VerificationException {
     if(!settings.isDownloadAllowed()){
       throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_NOT_ALLOWED, Level.FINEST);
@@ -123,47 +132,182 @@ public class DownloadService {
     if (ds.isShared() && ds.getEditable()==DatasetPermissions.OWNER_ONLY && !ds.isPublicDs()) {
       throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.FINE);
     }
+    if (projectUsername == null) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.WARNING);
+    }
 
-    FSDataInputStream stream;
-    DistributedFileSystemOps udfso;
+    DistributedFileSystemOps udfso = null;
     try {
-      if (projectUsername != null) {
-        udfso = dfs.getDfsOps(projectUsername);
-        stream = udfso.open(new Path(fullPath));
-        Response.ResponseBuilder response = Response.ok(buildOutputStream(stream, udfso));
-        response.header("Content-disposition", "attachment;");
-        return response.build();
-      } else {
-        throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.WARNING);
+      udfso = dfs.getDfsOps(projectUsername);
+      Path filePath = new Path(fullPath);
+      FileStatus fileStatus = udfso.getFileStatus(filePath);
+      long length = fileStatus.getLen();
+      long modificationTime = fileStatus.getModificationTime();
+      String etag = "\"" + Long.toHexString(modificationTime) + "-" + Long.toHexString(length) + "\"";
+
+      //Only a single range is supported, other range requests get the whole file
+      long[] byteRange = null;
+      if (range != null && isIfRangeSatisfied(ifRange, etag, modificationTime)) {
+        byteRange = parseRange(range, length);
+        if (byteRange != null && byteRange.length == 0) {
+          dfs.closeDfsClient(udfso);
+          return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+            .header("Content-Range", "bytes */" + length)
+            .build();
+        }
       }
 
+      FSDataInputStream stream = udfso.open(filePath);
+      Response.ResponseBuilder response;
+      long offset = 0;
+      long count = length;
+      if (byteRange == null) {
+        response = Response.ok();
+      } else {
+        offset = byteRange[0];
+        count = byteRange[1] - byteRange[0] + 1;
+        response = Response.status(Response.Status.PARTIAL_CONTENT);
+        response.header("Content-Range", "bytes " + byteRange[0] + "-" + byteRange[1] + "/" + length);
+      }
+      response.entity(buildOutputStream(stream, udfso, fullPath, offset, count));
+      response.header("Content-disposition", "attachment;");
+      response.header("Accept-Ranges", "bytes");
+      response.header(HttpHeaders.CONTENT_LENGTH, count);
+      response.tag(new EntityTag(etag.substring(1, etag.length() - 1)));
+      response.lastModified(new Date(modificationTime));
+      return response.build();
     } catch (IOException ex) {
+      if (udfso != null) {
+        dfs.closeDfsClient(udfso);
+      }
       throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.SEVERE, "path: " + fullPath,
         ex.getMessage(), ex);
     }
   }
 
+  /**
+   * A range request is only served if the If-Range validator, when present, still matches the file.
+   */
+  static boolean isIfRangeSatisfied(String ifRange, String etag, long modificationTime) {
+    if (ifRange == null) {
+      return true;
+    }
+    if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+      return ifRange.equals(etag);
+    }
+    try {
+      //HTTP dates have a precision of seconds
+      return ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond()
+        == modificationTime / 1000;
+    } catch (DateTimeParseException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Parses a single byte range, e.g. bytes=0-1023, bytes=1024- or bytes=-1024
+   *
+   * @param range value of the Range header
+   * @param length length of the file
+   * @return the first and last byte of the range, null if the header is not a single byte range and should be
+   * ignored, or an empty array if the range cannot be satisfied
+   */
+  static long[] parseRange(String range, long length) {
+    if (!range.startsWith("bytes=") || range.contains(",")) {
+      return null;
+    }
+    String spec = range.substring("bytes=".length()).trim();
+    int dash = spec.indexOf('-');
+    if (dash < 0) {
+      return null;
+    }
+    long first;
+    long last;
+    if (dash == 0) {
+      long suffix = parsePosition(spec.substring(1));
+      if (suffix < 0) {
+        return null;
+      }
+      if (suffix == 0) {
+        return new long[0];
+      }
+      first = Math.max(0, length - suffix);
+      last = length - 1;
+    } else {
+      first = parsePosition(spec.substring(0, dash));
+      String lastStr = spec.substring(dash + 1).trim();
+      last = lastStr.isEmpty() ? Long.MAX_VALUE : parsePosition(lastStr);
+      if (first < 0 || last < first) {
+        return null;
+      }
+      last = Math.min(last, length - 1);
+    }
+    if (first >= length) {
+      return new long[0];
+    }
+    return new long[]{first, last};
+  }
+
+  /**
+   * @return the byte position, or -1 if the value is not a non-negative decimal number
+   */
+  private static long parsePosition(String value) {
+    String digits = value.trim();
+    if (digits.isEmpty()) {
+      return -1;
+    }
+    for (int i = 0; i < digits.length(); i++) {
+      char c = digits.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+    }
+    try {
+      return Long.parseLong(digits);
+    } catch (NumberFormatException ex) {
+      return -1;
+    }
+  }
+
   /**
    *
    * @param stream
+   * @param udfso
+   * @param path
+   * @param offset first byte to send
+   * @param count number of bytes to send
    * @return
    */
   private StreamingOutput buildOutputStream(final FSDataInputStream stream,
-      final DistributedFileSystemOps udfso) {
+      final DistributedFileSystemOps udfso, final String path, final long offset, final long count) {
+    final int bufferSize = settings.getDownloadBufferSize();
     StreamingOutput output = new StreamingOutput() {
       @Override
       public void write(OutputStream out) throws IOException,
           WebApplicationException {
+        long start = System.currentTimeMillis();
+        long sent = 0;
         try {
+          if (offset > 0) {
+            stream.seek(offset);
+          }
           int length;
-          byte[] buffer = new byte[1024];
-          while ((length = stream.read(buffer)) != -1) {
+          byte[] buffer = new byte[(int) Math.max(1, Math.min(bufferSize, count))];
+          while (sent < count
+              && (length = stream.read(buffer, 0, (int) Math.min(buffer.length, count - sent))) != -1) {
             out.write(buffer, 0, length);
+            sent += length;
           }
           out.flush();
-          stream.close();
         } finally {
-          dfs.closeDfsClient(udfso);
+          try {
+            stream.close();
+          } finally {
+            dfs.closeDfsClient(udfso);
+          }
+          long elapsed = Math.max(1, System.currentTimeMillis() - start);
+          LOGGER.log(Level.FINE, "Sent {0} bytes of {1} in {2} ms ({3} bytes/s)",
+              new Object[]{sent, path, elapsed, sent * 1000 / elapsed});
         }
       }
     };
@@ -98,8 +98,11 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.RandomAccessFile;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.ws.rs.core.SecurityContext;
@@ -109,6 +112,7 @@ import javax.ws.rs.core.SecurityContext;
 public class UploadService {
 
   private static final Logger logger = Logger.getLogger(UploadService.class.getName());
+  private static final int MAX_CHUNK_BUFFER_SIZE = 1024 * 1024;
 
   @EJB
   private NoCacheResponse noCacheResponse;
@@ -338,23 +342,26 @@ public class UploadService {
     String fileName = info.getResumableFilename();
     int templateid = info.getResumableTemplateId();
 
-    long content_length;
-    //Seek to position
-    try (RandomAccessFile raf
-        = new RandomAccessFile(info.getResumableFilePath(), "rw");
+    long content_length = HttpUtils.toLong(flowCurrentChunkSize, -1);
+    //Positional writes do not move a shared file pointer, so chunks of the same file can be written in parallel
+    try (FileChannel channel = FileChannel.open(Paths.get(info.getResumableFilePath()),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
         InputStream is = uploadedInputStream) {
-      //Seek to position
-      raf.seek((resumableChunkNumber - 1) * (long) info.getResumableChunkSize());
+      long position = (resumableChunkNumber - 1) * (long) info.getResumableChunkSize();
       //Save to file
       long readed = 0;
-      content_length = HttpUtils.toLong(flowCurrentChunkSize, -1);
-      byte[] bytes = new byte[1024 * 1024];//Default chunk size for ng-flow.js is set to chunkSize: 1024 * 1024
+      //Default chunk size for ng-flow.js is set to chunkSize: 1024 * 1024
+      ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(1, Math.min(content_length, MAX_CHUNK_BUFFER_SIZE)));
       while (readed < content_length) {
-        int r = is.read(bytes);
+        int r = is.read(buffer.array(), 0, (int) Math.min(buffer.capacity(), content_length - readed));
         if (r < 0) {
           break;
         }
-        raf.write(bytes, 0, r);
+        buffer.limit(r);
+        while (buffer.hasRemaining()) {
+          position += channel.write(buffer, position);
+        }
+        buffer.clear();
         readed += r;
       }
     }
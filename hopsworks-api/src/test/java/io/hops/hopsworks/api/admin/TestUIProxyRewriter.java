@@ -0,0 +1,140 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.admin;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestUIProxyRewriter {
+
+  @Test
+  public void testLinesWithoutMatchesAreCopied() throws IOException {
+    UIProxyRewriter rewriter = new UIProxyRewriter("foo");
+    assertEquals("bar\n\nbaz\n", rewrite(rewriter, "bar\n\nbaz", new String[]{"X"}));
+  }
+
+  @Test
+  public void testEveryMatchOfALineIsReplaced() throws IOException {
+    UIProxyRewriter rewriter = new UIProxyRewriter("a", "b");
+    assertEquals("1X2Y3X\nYY\n", rewrite(rewriter, "1a2b3a\nbb\n", new String[]{"X", "Y"}));
+  }
+
+  @Test
+  public void testLeftmostMatchWins() throws IOException {
+    // "ab" starts before "b", so it is replaced even though its rule comes later
+    UIProxyRewriter rewriter = new UIProxyRewriter("b", "ab");
+    assertEquals("Y\n", rewrite(rewriter, "ab", new String[]{"X", "Y"}));
+  }
+
+  @Test
+  public void testOverlappingRulesFollowTheirOrder() throws IOException {
+    UIProxyRewriter rewriter = new UIProxyRewriter("ab", "a");
+    assertEquals("X-Y\n", rewrite(rewriter, "ab-a", new String[]{"X", "Y"}));
+    rewriter = new UIProxyRewriter("a", "ab");
+    assertEquals("Xb-X\n", rewrite(rewriter, "ab-a", new String[]{"X", "Y"}));
+  }
+
+  @Test
+  public void testCapturingGroupsOfRulesDoNotShiftOtherRules() throws IOException {
+    UIProxyRewriter rewriter = new UIProxyRewriter("(x)(y)", "(?<=(a|(b)))z", "(?:q)", "(?<name>w)", "v");
+    assertEquals("1 a2 3 4 5\n", rewrite(rewriter, "xy az q w v", new String[]{"1", "2", "3", "4", "5"}));
+  }
+
+  @Test
+  public void testReplacementsAreLiteral() throws IOException {
+    UIProxyRewriter rewriter = new UIProxyRewriter("(a)");
+    assertEquals("$1\\0\n", rewrite(rewriter, "a", new String[]{"$1\\0"}));
+  }
+
+  @Test
+  public void testProxyLinks() throws IOException {
+    String proxyPath = "/hopsworks-api/yarnui/";
+    String sourcePath = proxyPath + "http://rm:8088/";
+    UIProxyRewriter rewriter = new UIProxyRewriter(
+        "(?<=(href|src)=\")/(?=[a-zA-Z])",
+        "(?<=(href|src)=\")//",
+        "(?<=(href|src)=\")(?=http)",
+        "(?<=(href|src)=\")(?=[a-zA-Z])",
+        Pattern.quote("/?start=0"));
+    String[] replacements = {sourcePath, proxyPath, proxyPath, proxyPath, "/?start=-4096"};
+    assertEquals("<a href=\"" + sourcePath + "cluster\"><img src=\"" + proxyPath + "host/logo.png\">\n",
+        rewrite(rewriter, "<a href=\"/cluster\"><img src=\"//host/logo.png\">", replacements));
+    assertEquals("<a href=\"" + proxyPath + "http://nm:8042/logs/stdout/?start=-4096\">log</a>\n",
+        rewrite(rewriter, "<a href=\"http://nm:8042/logs/stdout/?start=0\">log</a>", replacements));
+    assertEquals("<a href=\"" + proxyPath + "jobs\">\n", rewrite(rewriter, "<a href=\"jobs\">", replacements));
+    assertEquals("<a href=\"#top\">\n", rewrite(rewriter, "<a href=\"#top\">", replacements));
+  }
+
+  @Test
+  public void testLineFilter() throws IOException {
+    UIProxyRewriter rewriter = new UIProxyRewriter("a");
+    List<String> seen = new ArrayList<>();
+    // Drops the lines between <skip> and </skip>, both included
+    UIProxyRewriter.LineFilter filter = new UIProxyRewriter.LineFilter() {
+      private boolean skipping = false;
+
+      @Override
+      public boolean accept(String line) {
+        seen.add(line);
+        if (line.contains("<skip>")) {
+          skipping = true;
+        }
+        boolean accept = !skipping;
+        if (line.contains("</skip>")) {
+          skipping = false;
+        }
+        return accept;
+      }
+    };
+    StringWriter out = new StringWriter();
+    rewriter.rewrite(new StringReader("a1\n<skip>\na2\n</skip>\na3"), out, new String[]{"X"}, filter);
+    assertEquals("X1\nX3\n", out.toString());
+    // The filter sees the lines before they are rewritten
+    assertEquals("a2", seen.get(2));
+  }
+
+  @Test
+  public void testLineSeparatorsAreNormalized() throws IOException {
+    UIProxyRewriter rewriter = new UIProxyRewriter("a");
+    assertEquals("X\nb\nX\n", rewrite(rewriter, "a\r\nb\ra", new String[]{"X"}));
+  }
+
+  @Test
+  public void testWrongNumberOfReplacements() throws IOException {
+    UIProxyRewriter rewriter = new UIProxyRewriter("a", "b");
+    try {
+      rewrite(rewriter, "a", new String[]{"X"});
+      fail("The number of replacements must match the number of rules");
+    } catch (IllegalArgumentException ex) {
+      assertEquals("Expected 2 replacements", ex.getMessage());
+    }
+  }
+
+  private static String rewrite(UIProxyRewriter rewriter, String page, String[] replacements) throws IOException {
+    StringWriter out = new StringWriter();
+    rewriter.rewrite(new StringReader(page), out, replacements, null);
+    return out.toString();
+  }
+}
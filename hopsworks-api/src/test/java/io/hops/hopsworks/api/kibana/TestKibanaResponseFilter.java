@@ -0,0 +1,184 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.kibana;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestKibanaResponseFilter {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final KibanaResponseFilter.ElementFilter ALLOWED_PROJECT =
+      element -> "allowed".equals(element.path("project").asText(null));
+
+  @Test
+  public void testFilterNestedArray() throws IOException {
+    KibanaResponseFilter filter = new KibanaResponseFilter(ALLOWED_PROJECT, "aggregations", "indices", "buckets");
+    String in = "{\"took\":3,\"aggregations\":{\"indices\":{\"sum\":2,\"buckets\":["
+        + "{\"project\":\"allowed\",\"doc_count\":1},"
+        + "{\"project\":\"denied\",\"doc_count\":2},"
+        + "{\"project\":\"allowed\",\"doc_count\":3,\"nested\":{\"a\":[1,[2,3],{\"b\":null}]}}"
+        + "]},\"other\":[1,2]},\"timed_out\":false}";
+    String expected = "{\"took\":3,\"aggregations\":{\"indices\":{\"sum\":2,\"buckets\":["
+        + "{\"project\":\"allowed\",\"doc_count\":1},"
+        + "{\"project\":\"allowed\",\"doc_count\":3,\"nested\":{\"a\":[1,[2,3],{\"b\":null}]}}"
+        + "]},\"other\":[1,2]},\"timed_out\":false}";
+    assertJsonEquals(expected, filter(filter, in));
+  }
+
+  @Test
+  public void testFilterRootArray() throws IOException {
+    KibanaResponseFilter filter = new KibanaResponseFilter(ALLOWED_PROJECT, "saved_objects");
+    String in = "{\"page\":1,\"saved_objects\":[{\"project\":\"denied\"},{\"project\":\"allowed\"}],\"total\":2}";
+    String expected = "{\"page\":1,\"saved_objects\":[{\"project\":\"allowed\"}],\"total\":2}";
+    assertJsonEquals(expected, filter(filter, in));
+  }
+
+  @Test
+  public void testArraysOutsideOfThePathAreCopied() throws IOException {
+    KibanaResponseFilter filter = new KibanaResponseFilter(ALLOWED_PROJECT, "hits", "hits");
+    // Same field names, but not starting at the root or not in the same objects
+    String in = "{\"hits\":[{\"project\":\"denied\"}],"
+        + "\"nested\":{\"hits\":{\"hits\":[{\"project\":\"denied\"}]}},"
+        + "\"list\":[{\"hits\":{\"hits\":[{\"project\":\"denied\"}]}}]}";
+    assertJsonEquals(in, filter(filter, in));
+  }
+
+  @Test
+  public void testEmptyArrayAndAllElementsDropped() throws IOException {
+    KibanaResponseFilter filter = new KibanaResponseFilter(ALLOWED_PROJECT, "saved_objects");
+    assertJsonEquals("{\"saved_objects\":[]}", filter(filter, "{\"saved_objects\":[]}"));
+    assertJsonEquals("{\"saved_objects\":[]}",
+        filter(filter, "{\"saved_objects\":[{\"project\":\"denied\"},{\"project\":\"denied\"}]}"));
+  }
+
+  @Test
+  public void testNonObjectRootIsCopied() throws IOException {
+    KibanaResponseFilter filter = new KibanaResponseFilter(ALLOWED_PROJECT, "saved_objects");
+    String in = "[{\"saved_objects\":[{\"project\":\"denied\"}]}]";
+    assertJsonEquals(in, filter(filter, in));
+  }
+
+  @Test
+  public void testFilteredArraySpanningBuffers() throws IOException {
+    KibanaResponseFilter filter = new KibanaResponseFilter(ALLOWED_PROJECT, "hits", "hits");
+    int elements = 20000;
+    StringBuilder in = new StringBuilder("{\"hits\":{\"total\":").append(elements).append(",\"hits\":[");
+    for (int i = 0; i < elements; i++) {
+      if (i > 0) {
+        in.append(',');
+      }
+      in.append("{\"id\":").append(i).append(",\"project\":\"").append(i % 3 == 0 ? "allowed" : "denied")
+          .append("\",\"text\":\"").append("\\u00e9 \\\"quoted\\\" ").append(i).append("\"}");
+    }
+    in.append("]}}");
+
+    // The parser gets a few bytes at a time, so elements and tokens are split across its buffers
+    byte[] out = filter(filter, new TrickleInputStream(in.toString().getBytes(StandardCharsets.UTF_8), 7));
+
+    JsonNode hits = MAPPER.readTree(out).path("hits").path("hits");
+    assertEquals((elements + 2) / 3, hits.size());
+    for (int i = 0; i < hits.size(); i++) {
+      JsonNode hit = hits.get(i);
+      assertEquals(i * 3, hit.path("id").asInt());
+      assertEquals("allowed", hit.path("project").asText());
+      assertEquals("\u00e9 \"quoted\" " + (i * 3), hit.path("text").asText());
+    }
+    assertEquals(elements, MAPPER.readTree(out).path("hits").path("total").asInt());
+  }
+
+  @Test
+  public void testFilterFailureIsPropagated() {
+    KibanaResponseFilter filter = new KibanaResponseFilter(element -> {
+      throw new IOException("index not found");
+    }, "saved_objects");
+    try {
+      filter(filter, "{\"saved_objects\":[{\"project\":\"allowed\"}]}");
+      fail("The exception of the filter should be propagated");
+    } catch (IOException ex) {
+      assertEquals("index not found", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testTruncatedInputFails() {
+    KibanaResponseFilter filter = new KibanaResponseFilter(ALLOWED_PROJECT, "saved_objects");
+    try {
+      filter(filter, "{\"saved_objects\":[{\"project\":\"allowed\"},{\"proj");
+      fail("A truncated response should not be accepted");
+    } catch (IOException ex) {
+      assertTrue(ex.getMessage() != null);
+    }
+  }
+
+  private static String filter(KibanaResponseFilter filter, String in) throws IOException {
+    return new String(filter(filter, new ByteArrayInputStream(in.getBytes(StandardCharsets.UTF_8))),
+        StandardCharsets.UTF_8);
+  }
+
+  private static byte[] filter(KibanaResponseFilter filter, InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    filter.filter(in, out);
+    return out.toByteArray();
+  }
+
+  private static void assertJsonEquals(String expected, String actual) throws IOException {
+    assertEquals(MAPPER.readTree(expected), MAPPER.readTree(actual));
+  }
+
+  /**
+   * Returns at most a few bytes per read.
+   */
+  private static class TrickleInputStream extends InputStream {
+
+    private final byte[] data;
+    private final int maxRead;
+    private int position;
+
+    private TrickleInputStream(byte[] data, int maxRead) {
+      this.data = data;
+      this.maxRead = maxRead;
+    }
+
+    @Override
+    public int read() {
+      return position < data.length ? data[position++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (position >= data.length) {
+        return -1;
+      }
+      int count = Math.min(Math.min(len, maxRead), data.length - position);
+      System.arraycopy(data, position, b, off, count);
+      position += count;
+      return count;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestDownloadService {
+
+  private static final long LENGTH = 1000;
+  private static final String ETAG = "\"16b3c-3e8\"";
+  // Thu, 01 Jan 2015 00:00:00 GMT, with milliseconds
+  private static final long MODIFICATION_TIME = 1420070400123L;
+
+  @Test
+  public void testClosedRange() {
+    assertArrayEquals(new long[]{0, 499}, DownloadService.parseRange("bytes=0-499", LENGTH));
+    assertArrayEquals(new long[]{500, 500}, DownloadService.parseRange("bytes=500-500", LENGTH));
+    assertArrayEquals(new long[]{10, 20}, DownloadService.parseRange("bytes= 10 - 20 ", LENGTH));
+  }
+
+  @Test
+  public void testRangeEndIsClampedToTheFile() {
+    assertArrayEquals(new long[]{900, 999}, DownloadService.parseRange("bytes=900-5000", LENGTH));
+    assertArrayEquals(new long[]{0, 999}, DownloadService.parseRange("bytes=0-" + Long.MAX_VALUE, LENGTH));
+  }
+
+  @Test
+  public void testOpenRange() {
+    assertArrayEquals(new long[]{900, 999}, DownloadService.parseRange("bytes=900-", LENGTH));
+    assertArrayEquals(new long[]{999, 999}, DownloadService.parseRange("bytes=999-", LENGTH));
+  }
+
+  @Test
+  public void testSuffixRange() {
+    assertArrayEquals(new long[]{900, 999}, DownloadService.parseRange("bytes=-100", LENGTH));
+    assertArrayEquals(new long[]{0, 999}, DownloadService.parseRange("bytes=-5000", LENGTH));
+  }
+
+  @Test
+  public void testUnsatisfiableRange() {
+    assertEquals(0, DownloadService.parseRange("bytes=1000-", LENGTH).length);
+    assertEquals(0, DownloadService.parseRange("bytes=1000-2000", LENGTH).length);
+    assertEquals(0, DownloadService.parseRange("bytes=-0", LENGTH).length);
+    assertEquals(0, DownloadService.parseRange("bytes=0-", 0).length);
+    assertEquals(0, DownloadService.parseRange("bytes=-10", 0).length);
+  }
+
+  @Test
+  public void testMalformedRangeIsIgnored() {
+    assertNull(DownloadService.parseRange("bytes=", LENGTH));
+    assertNull(DownloadService.parseRange("bytes=-", LENGTH));
+    assertNull(DownloadService.parseRange("bytes=100", LENGTH));
+    assertNull(DownloadService.parseRange("bytes=a-b", LENGTH));
+    assertNull(DownloadService.parseRange("bytes=10-a", LENGTH));
+    assertNull(DownloadService.parseRange("bytes=500-100", LENGTH));
+    assertNull(DownloadService.parseRange("bytes=--10", LENGTH));
+    assertNull(DownloadService.parseRange("bytes=+1-10", LENGTH));
+    assertNull(DownloadService.parseRange("bytes=99999999999999999999-", LENGTH));
+    assertNull(DownloadService.parseRange("items=0-10", LENGTH));
+    assertNull(DownloadService.parseRange("0-10", LENGTH));
+  }
+
+  @Test
+  public void testMultiRangeIsIgnored() {
+    assertNull(DownloadService.parseRange("bytes=0-10,20-30", LENGTH));
+    assertNull(DownloadService.parseRange("bytes=0-10, -5", LENGTH));
+    assertNull(DownloadService.parseRange("bytes=0-10,", LENGTH));
+  }
+
+  @Test
+  public void testNoIfRange() {
+    assertTrue(DownloadService.isIfRangeSatisfied(null, ETAG, MODIFICATION_TIME));
+  }
+
+  @Test
+  public void testIfRangeEntityTag() {
+    assertTrue(DownloadService.isIfRangeSatisfied(ETAG, ETAG, MODIFICATION_TIME));
+    assertFalse(DownloadService.isIfRangeSatisfied("\"other\"", ETAG, MODIFICATION_TIME));
+    // If-Range requires a strong comparison, a weak validator never matches
+    assertFalse(DownloadService.isIfRangeSatisfied("W/" + ETAG, ETAG, MODIFICATION_TIME));
+  }
+
+  @Test
+  public void testIfRangeDate() {
+    assertTrue(DownloadService.isIfRangeSatisfied("Thu, 1 Jan 2015 00:00:00 GMT", ETAG, MODIFICATION_TIME));
+    assertFalse(DownloadService.isIfRangeSatisfied("Thu, 1 Jan 2015 00:00:01 GMT", ETAG, MODIFICATION_TIME));
+    assertFalse(DownloadService.isIfRangeSatisfied("Wed, 31 Dec 2014 23:59:59 GMT", ETAG, MODIFICATION_TIME));
+  }
+
+  @Test
+  public void testMalformedIfRangeIsNotSatisfied() {
+    assertFalse(DownloadService.isIfRangeSatisfied("yesterday", ETAG, MODIFICATION_TIME));
+    assertFalse(DownloadService.isIfRangeSatisfied("", ETAG, MODIFICATION_TIME));
+  }
+}
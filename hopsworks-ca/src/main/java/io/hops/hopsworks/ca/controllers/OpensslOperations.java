@@ -18,15 +18,23 @@ package io.hops.hopsworks.ca.controllers;
 import io.hops.hopsworks.ca.controllers.CAConf.CAConfKeys;
 import io.hops.hopsworks.restutils.RESTCodes;
 import org.apache.commons.io.FileUtils;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1String;
+import org.bouncycastle.asn1.x500.AttributeTypeAndValue;
+import org.bouncycastle.asn1.x500.RDN;
+import org.bouncycastle.asn1.x500.style.BCStyle;
+import org.bouncycastle.asn1.x500.style.IETFUtils;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.pkcs.PKCSException;
 
 import javax.annotation.Resource;
-import javax.ejb.AccessTimeout;
 import javax.ejb.ConcurrencyManagement;
 import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.DependsOn;
 import javax.ejb.EJB;
-import javax.ejb.Lock;
-import javax.ejb.LockType;
 import javax.ejb.Singleton;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -36,23 +44,28 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-//TODO: Can we make concurrent modifications on different CAs?
-
+/**
+ * Signs and revokes certificates. CSRs are parsed and verified in-process, only the operations that update the
+ * OpenSSL database (index and serial) of a CA are serialized, and on a per CA basis, so requests to different CAs
+ * and the CSR handling of concurrent requests run in parallel.
+ */
 @Singleton
 @DependsOn("CAConf")
-@ConcurrencyManagement(ConcurrencyManagementType.CONTAINER)
-@AccessTimeout(value = 120000)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
 public class OpensslOperations {
   private final static Logger LOGGER = Logger.getLogger(OpensslOperations.class.getName());
@@ -61,6 +74,7 @@ public class OpensslOperations {
   private final static String OPENSSL = "openssl";
 
   private static final String CERTIFICATE_SUFFIX = ".cert.pem";
+  private static final long CA_LOCK_TIMEOUT_MS = 120000;
 
   @Resource(lookup = "concurrent/hopsExecutorService")
   private ManagedExecutorService executorService;
@@ -70,28 +84,44 @@ public class OpensslOperations {
   @EJB
   private PKI pki;
 
-  @Lock(LockType.WRITE)
+  private final Map<PKI.CAType, ReentrantLock> caLocks = new EnumMap<>(PKI.CAType.class);
+
+  public OpensslOperations() {
+    for (PKI.CAType caType : PKI.CAType.values()) {
+      caLocks.put(caType, new ReentrantLock(true));
+    }
+  }
+
   public String signCertificateRequest(String csr, CertificateType certType)
       throws IOException, CAException {
+    PKCS10CertificationRequest csrRequest = parseCSR(csr);
+    if (!verifyCSR(csrRequest)) {
+      return null;
+    }
     File csrFile = File.createTempFile(System.getProperty("java.io.tmpdir"), ".csr");
     try {
       FileUtils.writeStringToFile(csrFile, csr);
-
-      if (verifyCSR(csrFile)) {
-        return signCSR(csrFile, csr, certType);
-      }
-      return null;
+      return signCSR(csrFile, csrRequest, certType);
     } finally {
       csrFile.delete();
     }
   }
   
-  @Lock(LockType.WRITE)
   public void revokeCertificate(String certificateIdentifier, CertificateType certType) throws IOException,
       CAException {
 
     LOGGER.log(Level.FINE, "Revoking certificate " + certificateIdentifier + CERTIFICATE_SUFFIX);
     PKI.CAType caType = pki.getResponsibileCA(certType);
+    ReentrantLock caLock = lockCA(caType);
+    try {
+      revokeCertificate(certificateIdentifier, certType, caType);
+    } finally {
+      caLock.unlock();
+    }
+  }
+
+  private void revokeCertificate(String certificateIdentifier, CertificateType certType, PKI.CAType caType)
+      throws IOException, CAException {
     String openSslConfig = pki.getCAConfPath(caType).toString();
     String certsDir = pki.getCACertsDir(caType).toString();
 
@@ -155,27 +185,53 @@ public class OpensslOperations {
     LOGGER.log(Level.FINE, "Created CRL");
   }
 
-  private boolean verifyCSR(File csr) throws IOException {
+  /**
+   * Lock the OpenSSL database of a CA. Signing and revoking update its index and serial files, so they cannot
+   * run concurrently on the same CA.
+   *
+   * @param caType the CA to lock
+   * @return the lock, which the caller must release
+   * @throws IOException if the lock could not be acquired in time
+   */
+  private ReentrantLock lockCA(PKI.CAType caType) throws IOException {
+    ReentrantLock caLock = caLocks.get(caType);
+    try {
+      if (!caLock.tryLock(CA_LOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        throw new IOException("Timed out waiting for " + caType + " CA");
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for " + caType + " CA", ex);
+    }
+    return caLock;
+  }
+
+  private PKCS10CertificationRequest parseCSR(String csr) throws IOException {
+    try (PEMParser pemParser = new PEMParser(new StringReader(csr))) {
+      Object parsed = pemParser.readObject();
+      if (!(parsed instanceof PKCS10CertificationRequest)) {
+        throw new IOException("Could not parse Certificate Signing Request");
+      }
+      return (PKCS10CertificationRequest) parsed;
+    }
+  }
+
+  private boolean verifyCSR(PKCS10CertificationRequest csr) throws IOException {
     LOGGER.log(Level.FINE, "Verifying Certificate Signing Request...");
-    List<String> command = new ArrayList<>(6);
-    command.add(OPENSSL);
-    command.add("req");
-    command.add("-in");
-    command.add(csr.getAbsolutePath());
-    command.add("-noout");
-    command.add("-verify");
-
-    // For a weird reason, the result string of openssl -verify is in stderr, so redirect stderr to stdout
-    String stdout = executeCommand(command, true);
-    if (stdout.contains("verify OK")) {
-      LOGGER.log(Level.INFO, "CSR verification passed for " + csr.getAbsolutePath());
-      return true;
+    try {
+      if (csr.isSignatureValid(new JcaContentVerifierProviderBuilder().build(csr.getSubjectPublicKeyInfo()))) {
+        LOGGER.log(Level.INFO, "CSR verification passed for " + csr.getSubject());
+        return true;
+      }
+    } catch (OperatorCreationException | PKCSException ex) {
+      throw new IOException("Could not verify Certificate Signing Request", ex);
     }
     
     return false;
   }
   
-  private String signCSR(File csr, String csrStr, CertificateType certType) throws IOException, CAException {
+  private String signCSR(File csr, PKCS10CertificationRequest csrRequest, CertificateType certType)
+      throws IOException, CAException {
     LOGGER.log(Level.FINE, "Signing Certificate Signing Request...");
     PKI.CAType caType = pki.getResponsibileCA(certType);
     String opensslConfFile = pki.getCAConfPath(caType).toString();
@@ -183,27 +239,33 @@ public class OpensslOperations {
 
     String signScript = Paths.get(CAConf.getString(CAConfKeys.HOPSWORKS_INSTALL_DIR),
         "bin", "global-ca-sign-csr.sh").toString();
-    String fileName;
-    try {
-      String subjectStr = getSubjectFromCSR(csrStr);
-      Map<String, String> subject = pki.getKeyValuesFromSubject(subjectStr);
-      fileName = pki.getCertFileName(certType, subject);
-    } catch (IOException ex) {
-      LOGGER.log(Level.SEVERE, "Error while extracting CN out of CSR", ex);
-      throw ex;
-    }
+    Map<String, String> subject = pki.getKeyValuesFromSubject(getSubject(csrRequest));
+    String fileName = pki.getCertFileName(certType, subject);
 
     // Expiration Date formatted as ASN1 UTCTime
     String expirationDate = pki.getValidityPeriod(certType);
 
-    // Check if a certificate with the same name already exists,
-    // If you don't and a certificate exists, then openssl will overwrite it making
-    // it impossibile to revoke the first certificate
     File signedCertificateFile = pki.getCertPath(caType, fileName).toFile();
-    if (signedCertificateFile.exists()) {
-      throw new CAException(RESTCodes.CAErrorCode.CERTEXISTS, Level.FINE, CertificateType.PROJECT);
+    ReentrantLock caLock = lockCA(caType);
+    try {
+      // Check if a certificate with the same name already exists,
+      // If you don't and a certificate exists, then openssl will overwrite it making
+      // it impossibile to revoke the first certificate
+      if (signedCertificateFile.exists()) {
+        throw new CAException(RESTCodes.CAErrorCode.CERTEXISTS, Level.FINE, CertificateType.PROJECT);
+      }
+      executeSignScript(signScript, opensslConfFile, caType, effectiveExtension, csr, signedCertificateFile,
+          expirationDate);
+    } finally {
+      caLock.unlock();
     }
+    LOGGER.log(Level.FINE, "Signed CSR");
 
+    return FileUtils.readFileToString(signedCertificateFile);
+  }
+
+  private void executeSignScript(String signScript, String opensslConfFile, PKI.CAType caType,
+      String effectiveExtension, File csr, File signedCertificateFile, String expirationDate) throws IOException {
     List<String> command = new ArrayList<>();
     command.add(SUDO);
     command.add(signScript);
@@ -215,25 +277,29 @@ public class OpensslOperations {
     command.add(expirationDate);
 
     executeCommand(command, false);
-    LOGGER.log(Level.FINE, "Signed CSR");
-
-    return FileUtils.readFileToString(signedCertificateFile);
   }
 
-  @Lock(LockType.WRITE)
   public String getSubjectFromCSR(String csr) throws IOException {
-    File csrFile = File.createTempFile(System.getProperty("java.io.tmpdir"), ".csr");
-    FileUtils.writeStringToFile(csrFile, csr);
-    //openssl req -in certs-dir/hops-site-certs/csr.pem -noout -subject
-    List<String> command = new ArrayList<>();
-    command.add(OPENSSL);
-    command.add("req");
-    command.add("-in");
-    command.add(csrFile.getAbsolutePath());
-    command.add("-noout");
-    command.add("-subject");
+    return getSubject(parseCSR(csr));
+  }
 
-    return executeCommand(command, false).trim();
+  /**
+   * Format the subject of a CSR the way `openssl req -noout -subject` does, for example
+   * subject=/C=SE/O=Hopsworks/CN=user
+   */
+  private String getSubject(PKCS10CertificationRequest csr) {
+    StringBuilder subject = new StringBuilder("subject=");
+    for (RDN rdn : csr.getSubject().getRDNs()) {
+      for (AttributeTypeAndValue typeAndValue : rdn.getTypesAndValues()) {
+        ASN1ObjectIdentifier type = typeAndValue.getType();
+        String name = BCStyle.EmailAddress.equals(type) ? "emailAddress" : BCStyle.INSTANCE.oidToDisplayName(type);
+        String value = typeAndValue.getValue() instanceof ASN1String
+            ? ((ASN1String) typeAndValue.getValue()).getString()
+            : IETFUtils.valueToString(typeAndValue.getValue());
+        subject.append("/").append(name != null ? name : type.getId()).append("=").append(value);
+      }
+    }
+    return subject.toString();
   }
 
   private String executeCommand(List<String> commands, boolean redirectErrorStream) throws IOException {
@@ -26,6 +26,7 @@ import io.hops.hopsworks.common.dao.host.Health;
 import io.hops.hopsworks.common.dao.host.Hosts;
 import io.hops.hopsworks.common.dao.host.HostsFacade;
 import io.hops.hopsworks.common.dao.host.Status;
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology;
 import io.hops.hopsworks.common.dao.kagent.HostServices;
 import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
 import io.hops.hopsworks.common.dao.project.Project;
@@ -53,7 +54,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -73,6 +78,8 @@ public class AgentController {
   @EJB
   private HostServicesFacade hostServicesFacade;
   @EJB
+  private ClusterTopology clusterTopology;
+  @EJB
   private PythonDepsFacade pythonDepsFacade;
   @EJB
   private ProjectFacade projectFacade;
@@ -82,6 +89,8 @@ public class AgentController {
   private AlertEJB alertFacade;
   @EJB
   private OSProcessExecutor osProcessExecutor;
+  @EJB
+  private AgentHeartbeatBuffer heartbeatBuffer;
   
   public String register(String hostId, String password) {
     Hosts host = hostsFacade.findByHostname(hostId);
@@ -91,22 +100,35 @@ public class AgentController {
     // Jim: We set the hostname as hopsworks::default pre-populates with the hostname,
     // but it's not the correct hostname for GCE.
     hostsFacade.storeHost(host);
+    heartbeatBuffer.removeRegisteredHost(hostId);
     return settings.getHadoopVersionedDir();
   }
   
+  /**
+   * Host metrics and service states are buffered and written to the database in batches by
+   * {@link AgentHeartbeatBuffer}. Command reports are processed right away and the reply contains the commands
+   * that are waiting for the host.
+   *
+   * @param heartbeat
+   * @return the new commands for the host
+   * @throws ServiceException
+   */
   public HeartbeatReplyDTO heartbeat(AgentHeartbeatDTO heartbeat) throws ServiceException {
-    Hosts host = hostsFacade.findByHostname(heartbeat.hostId);
+    Hosts host = heartbeatBuffer.getRegisteredHost(heartbeat.hostId);
     if (host == null) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.HOST_NOT_FOUND, Level.WARNING,
-        "hostId: " + heartbeat.hostId);
-    }
-    if (!host.isRegistered()) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.HOST_NOT_REGISTERED, Level.WARNING,
-        "hostId: " + heartbeat.hostId);
+      host = hostsFacade.findByHostname(heartbeat.hostId);
+      if (host == null) {
+        throw new ServiceException(RESTCodes.ServiceErrorCode.HOST_NOT_FOUND, Level.WARNING,
+          "hostId: " + heartbeat.hostId);
+      }
+      if (!host.isRegistered()) {
+        throw new ServiceException(RESTCodes.ServiceErrorCode.HOST_NOT_REGISTERED, Level.WARNING,
+          "hostId: " + heartbeat.hostId);
+      }
+      heartbeatBuffer.addRegisteredHost(host);
     }
     
-    updateHostMetrics(host, heartbeat);
-    updateServices(heartbeat);
+    heartbeatBuffer.add(heartbeat);
     processCondaCommands(heartbeat);
     processSystemCommands(heartbeat);
     if (heartbeat.condaReport != null && !heartbeat.condaReport.isEmpty()) {
@@ -118,6 +140,31 @@ public class AgentController {
     return response;
   }
   
+  /**
+   * Write a batch of buffered heartbeats in a single transaction.
+   *
+   * @param heartbeats the latest heartbeat of each host
+   * @return the hostnames of the heartbeats whose host is still registered
+   */
+  @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+  public Set<String> storeHeartbeats(Collection<AgentHeartbeatDTO> heartbeats) {
+    final Set<String> hostnames = heartbeats.stream().map(AgentHeartbeatDTO::getHostId).collect(Collectors.toSet());
+    final Map<String, Hosts> hosts = new HashMap<>();
+    for (Hosts host : hostsFacade.findByHostnames(hostnames)) {
+      if (host.isRegistered()) {
+        hosts.put(host.getHostname(), host);
+      }
+    }
+    for (AgentHeartbeatDTO heartbeat : heartbeats) {
+      Hosts host = hosts.get(heartbeat.getHostId());
+      if (host != null) {
+        updateHostMetrics(host, heartbeat);
+      }
+    }
+    updateServices(heartbeats, hosts);
+    return new HashSet<>(hosts.keySet());
+  }
+  
   private void issueCondaEnvsGCCommand(final Hosts host, final List<String> envsToCheck) {
     List<String> envsToDelete = envsToCheck.stream()
         .filter(p -> {
@@ -146,22 +193,10 @@ public class AgentController {
   }
   
   private void addNewCommandsToResponse(final Hosts host, final HeartbeatReplyDTO response) {
-    final List<CondaCommands> newCondaCommands = new ArrayList<>();
-    final List<CondaCommands> allCondaCommands = pythonDepsFacade.findByHost(host);
-    for (final CondaCommands cc : allCondaCommands) {
-      if (cc.getStatus().equals(PythonDepsFacade.CondaStatus.NEW)) {
-        newCondaCommands.add(cc);
-        cc.setHostId(host);
-      }
-    }
-    
-    final List<SystemCommand> newSystemCommands = new ArrayList<>();
-    final List<SystemCommand> allSystemCommands = systemCommandFacade.findByHost(host);
-    for (final SystemCommand sc : allSystemCommands) {
-      if (sc.getStatus().equals(SystemCommandFacade.STATUS.NEW)) {
-        newSystemCommands.add(sc);
-      }
-    }
+    final List<CondaCommands> newCondaCommands = pythonDepsFacade.findByHostAndStatus(host,
+        PythonDepsFacade.CondaStatus.NEW);
+    final List<SystemCommand> newSystemCommands = systemCommandFacade.findByHostAndStatus(host,
+        SystemCommandFacade.STATUS.NEW);
   
     newCondaCommands.sort(ASC_COMPARATOR);
     newSystemCommands.sort(ASC_COMPARATOR);
@@ -169,7 +204,7 @@ public class AgentController {
     response.setSystemCommands(newSystemCommands);
   }
   
-  private void updateHostMetrics(final Hosts host, final AgentHeartbeatDTO heartbeat) throws ServiceException {
+  private void updateHostMetrics(final Hosts host, final AgentHeartbeatDTO heartbeat) {
     host.setLastHeartbeat(new Date().getTime());
     host.setLoad1(heartbeat.load1);
     host.setLoad5(heartbeat.load5);
@@ -183,20 +218,28 @@ public class AgentController {
         getDiskCapacity() > 0.8) {
       String subject = "alert: hard drive full on " + host.getHostname();
       String body = host.getHostname() + " hard drive utilisation is " + host.getDiskUsageInfo();
-      emailAlert(subject, body);
+      try {
+        emailAlert(subject, body);
+      } catch (ServiceException ex) {
+        LOG.log(Level.WARNING, "Could not send alert: " + subject, ex);
+      }
     }
   
     host.setMemoryUsed(heartbeat.memoryUsed);
     host.setMemoryCapacity(heartbeat.memoryCapacity);
     host.setPrivateIp(heartbeat.privateIp);
     host.setCores(heartbeat.cores);
-    hostsFacade.storeHost(host);
   }
   
-  private void updateServices(AgentHeartbeatDTO heartbeat) throws ServiceException {
-    List<HostServices> updatedHostServices = hostServicesFacade.updateHostServices(heartbeat);
+  private void updateServices(Collection<AgentHeartbeatDTO> heartbeats, Map<String, Hosts> hosts) {
+    List<HostServices> updatedHostServices = hostServicesFacade.updateHostServices(heartbeats, hosts);
+    clusterTopology.update(updatedHostServices);
     for (HostServices updatedHostService : updatedHostServices) {
-      notifyHostServiceHealth(updatedHostService);
+      try {
+        notifyHostServiceHealth(updatedHostService);
+      } catch (ServiceException ex) {
+        LOG.log(Level.WARNING, "Could not send alert for service " + updatedHostService.getService(), ex);
+      }
     }
   }
   
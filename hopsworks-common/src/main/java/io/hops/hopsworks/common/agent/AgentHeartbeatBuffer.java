@@ -0,0 +1,151 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.agent;
+
+import io.hops.hopsworks.common.dao.host.Hosts;
+import io.hops.hopsworks.common.util.Settings;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory table of the latest heartbeat of every kagent. Heartbeats are not written to the database as they
+ * arrive, instead the latest one of each host is flushed periodically in batches, each batch in a single
+ * transaction. The registered hosts are kept in memory as well, so that accepting a heartbeat does not hit the
+ * database. A host that is removed or unregistered is dropped from memory on the next flush.
+ */
+@Startup
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class AgentHeartbeatBuffer {
+
+  private static final Logger LOGGER = Logger.getLogger(AgentHeartbeatBuffer.class.getName());
+  private static final int FLUSH_BATCH_SIZE = 100;
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private AgentController agentController;
+  @Resource
+  private TimerService timerService;
+
+  private final Map<String, AgentController.AgentHeartbeatDTO> pendingHeartbeats = new ConcurrentHashMap<>();
+  private final Map<String, Hosts> registeredHosts = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() {
+    long interval = settings.getKagentHeartbeatFlushIntervalMs();
+    timerService.createIntervalTimer(interval, interval, new TimerConfig("Agent heartbeat flush", false));
+  }
+
+  @PreDestroy
+  public void destroy() {
+    for (Timer timer : timerService.getTimers()) {
+      timer.cancel();
+    }
+    try {
+      flush();
+    } catch (Exception ex) {
+      LOGGER.log(Level.WARNING, "Could not store the last agent heartbeats", ex);
+    }
+  }
+
+  /**
+   * @param hostname
+   * @return the registered host, or null if it is not known to be registered
+   */
+  public Hosts getRegisteredHost(String hostname) {
+    return registeredHosts.get(hostname);
+  }
+
+  public void addRegisteredHost(Hosts host) {
+    registeredHosts.put(host.getHostname(), host);
+  }
+
+  public void removeRegisteredHost(String hostname) {
+    registeredHosts.remove(hostname);
+  }
+
+  /**
+   * Buffer a heartbeat until the next flush. It replaces any heartbeat of the same host that has not been
+   * flushed yet.
+   *
+   * @param heartbeat
+   */
+  public void add(AgentController.AgentHeartbeatDTO heartbeat) {
+    pendingHeartbeats.put(heartbeat.getHostId(), heartbeat);
+  }
+
+  @Timeout
+  public void flush(Timer timer) {
+    flush();
+  }
+
+  private synchronized void flush() {
+    List<AgentController.AgentHeartbeatDTO> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+    for (String hostname : pendingHeartbeats.keySet()) {
+      AgentController.AgentHeartbeatDTO heartbeat = pendingHeartbeats.remove(hostname);
+      if (heartbeat == null) {
+        continue;
+      }
+      batch.add(heartbeat);
+      if (batch.size() == FLUSH_BATCH_SIZE) {
+        store(batch);
+        batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+      }
+    }
+    if (!batch.isEmpty()) {
+      store(batch);
+    }
+  }
+
+  private void store(List<AgentController.AgentHeartbeatDTO> batch) {
+    try {
+      Set<String> stored = agentController.storeHeartbeats(batch);
+      for (AgentController.AgentHeartbeatDTO heartbeat : batch) {
+        if (!stored.contains(heartbeat.getHostId())) {
+          registeredHosts.remove(heartbeat.getHostId());
+        }
+      }
+    } catch (Exception ex) {
+      // The agents will send a new heartbeat in a few seconds
+      LOGGER.log(Level.WARNING, "Could not store the heartbeats of " + batch.size() + " agents", ex);
+    }
+  }
+}
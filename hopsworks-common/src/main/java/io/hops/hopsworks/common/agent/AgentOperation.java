@@ -0,0 +1,45 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.agent;
+
+import java.util.concurrent.Callable;
+
+/**
+ * An operation sent to the kagent of one host.
+ */
+public class AgentOperation {
+
+  private final String target;
+  private final Callable<String> call;
+
+  /**
+   * @param target what the operation runs against, for example the host and service, used to report its result
+   * @param call sends the operation to the kagent and returns its output
+   */
+  public AgentOperation(String target, Callable<String> call) {
+    this.target = target;
+    this.call = call;
+  }
+
+  public String getTarget() {
+    return target;
+  }
+
+  Callable<String> getCall() {
+    return call;
+  }
+}
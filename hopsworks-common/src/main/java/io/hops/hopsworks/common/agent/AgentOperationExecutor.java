@@ -0,0 +1,230 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.agent;
+
+import io.hops.hopsworks.common.util.Settings;
+
+import javax.annotation.Resource;
+import javax.ejb.EJB;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends operations to many kagents in parallel. At most {@link Settings#getKagentOpParallelism()} operations run at
+ * the same time and each one has its own timeout, so a slow or unreachable host does not delay the others.
+ * Operations can also be rolled out in batches, stopping at the first batch with a failure.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class AgentOperationExecutor {
+
+  private static final Logger LOGGER = Logger.getLogger(AgentOperationExecutor.class.getName());
+
+  @EJB
+  private Settings settings;
+  @Resource(lookup = "concurrent/kagentExecutorService")
+  private ManagedExecutorService kagentExecutorService;
+
+  /**
+   * Notified as soon as the operation on a host has completed, so that callers can report progress before all the
+   * hosts are done.
+   */
+  public interface ProgressListener {
+    void completed(AgentOperationResult result, int completed, int total);
+  }
+
+  /**
+   * Run operations with the configured parallelism and timeout.
+   *
+   * @param operations
+   * @param listener progress listener, or null
+   * @return the result of every operation, in the order of the operations
+   */
+  public List<AgentOperationResult> execute(List<AgentOperation> operations, ProgressListener listener) {
+    return execute(kagentExecutorService, operations, settings.getKagentOpParallelism(),
+        settings.getKagentOpTimeoutMs(), listener);
+  }
+
+  /**
+   * Run operations in batches of batchSize hosts. A batch starts once the previous one has completed, the
+   * operations of a batch run in parallel. If any operation of a batch fails, the remaining operations are
+   * skipped.
+   *
+   * @param operations
+   * @param batchSize number of hosts operated on at the same time
+   * @param listener progress listener, or null
+   * @return the result of every operation, in the order of the operations
+   */
+  public List<AgentOperationResult> executeRolling(List<AgentOperation> operations, int batchSize,
+      ProgressListener listener) {
+    return executeRolling(kagentExecutorService, operations, batchSize, settings.getKagentOpTimeoutMs(), listener);
+  }
+
+  static List<AgentOperationResult> executeRolling(ExecutorService executor, List<AgentOperation> operations,
+      int batchSize, long timeoutMs, ProgressListener listener) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+    List<AgentOperationResult> results = new ArrayList<>(operations.size());
+    int total = operations.size();
+    boolean failed = false;
+    for (int from = 0; from < total; from += batchSize) {
+      List<AgentOperation> batch = operations.subList(from, Math.min(from + batchSize, total));
+      if (failed) {
+        for (AgentOperation operation : batch) {
+          AgentOperationResult result = new AgentOperationResult(operation.getTarget(),
+              AgentOperationResult.Status.SKIPPED, "A previous batch failed", 0);
+          results.add(result);
+          notify(listener, result, results.size(), total);
+        }
+        continue;
+      }
+      int done = results.size();
+      List<AgentOperationResult> batchResults = execute(executor, batch, batchSize, timeoutMs,
+          listener == null ? null : (result, completed, batchTotal) -> listener.completed(result, done + completed,
+              total));
+      for (AgentOperationResult result : batchResults) {
+        failed |= result.getStatus() != AgentOperationResult.Status.SUCCESS;
+      }
+      results.addAll(batchResults);
+    }
+    return results;
+  }
+
+  static List<AgentOperationResult> execute(ExecutorService executor, List<AgentOperation> operations,
+      int parallelism, long timeoutMs, ProgressListener listener) {
+    int total = operations.size();
+    AgentOperationResult[] results = new AgentOperationResult[total];
+    CompletionService<AgentOperationResult> completionService = new ExecutorCompletionService<>(executor);
+    Map<Future<AgentOperationResult>, Running> running = new HashMap<>();
+    int next = 0;
+    int completed = 0;
+    try {
+      while (completed < total) {
+        while (running.size() < Math.max(1, parallelism) && next < total) {
+          AgentOperation operation = operations.get(next);
+          running.put(completionService.submit(() -> call(operation)),
+              new Running(next, operation, System.currentTimeMillis() + timeoutMs));
+          next++;
+        }
+        long now = System.currentTimeMillis();
+        long deadline = Long.MAX_VALUE;
+        for (Running r : running.values()) {
+          deadline = Math.min(deadline, r.deadline);
+        }
+        Future<AgentOperationResult> future = completionService.poll(Math.max(0, deadline - now),
+            TimeUnit.MILLISECONDS);
+        if (future != null) {
+          Running r = running.remove(future);
+          if (r == null) {
+            // Already reported as timed out
+            continue;
+          }
+          results[r.index] = getResult(future, r);
+          notify(listener, results[r.index], ++completed, total);
+          continue;
+        }
+        now = System.currentTimeMillis();
+        for (Map.Entry<Future<AgentOperationResult>, Running> entry : new ArrayList<>(running.entrySet())) {
+          Running r = entry.getValue();
+          if (r.deadline <= now) {
+            entry.getKey().cancel(true);
+            running.remove(entry.getKey());
+            results[r.index] = new AgentOperationResult(r.operation.getTarget(), AgentOperationResult.Status.TIMEOUT,
+                "No response after " + timeoutMs + " ms", timeoutMs);
+            notify(listener, results[r.index], ++completed, total);
+          }
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      for (Future<AgentOperationResult> future : running.keySet()) {
+        future.cancel(true);
+      }
+      for (int i = 0; i < total; i++) {
+        if (results[i] == null) {
+          results[i] = new AgentOperationResult(operations.get(i).getTarget(), AgentOperationResult.Status.SKIPPED,
+              "Interrupted", 0);
+        }
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  private static AgentOperationResult call(AgentOperation operation) {
+    long start = System.currentTimeMillis();
+    try {
+      String output = operation.getCall().call();
+      return new AgentOperationResult(operation.getTarget(), AgentOperationResult.Status.SUCCESS, output,
+          System.currentTimeMillis() - start);
+    } catch (Exception ex) {
+      LOGGER.log(Level.FINE, "Agent operation on " + operation.getTarget() + " failed", ex);
+      return new AgentOperationResult(operation.getTarget(), AgentOperationResult.Status.FAILED, ex.getMessage(),
+          System.currentTimeMillis() - start);
+    }
+  }
+
+  private static AgentOperationResult getResult(Future<AgentOperationResult> future, Running r) throws
+      InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException ex) {
+      Exception cause = ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+      return new AgentOperationResult(r.operation.getTarget(), AgentOperationResult.Status.FAILED,
+          cause.getMessage(), 0);
+    }
+  }
+
+  private static void notify(ProgressListener listener, AgentOperationResult result, int completed, int total) {
+    if (listener == null) {
+      return;
+    }
+    try {
+      listener.completed(result, completed, total);
+    } catch (RuntimeException ex) {
+      LOGGER.log(Level.WARNING, "Agent operation progress listener failed", ex);
+    }
+  }
+
+  private static class Running {
+
+    private final int index;
+    private final AgentOperation operation;
+    private final long deadline;
+
+    private Running(int index, AgentOperation operation, long deadline) {
+      this.index = index;
+      this.operation = operation;
+      this.deadline = deadline;
+    }
+  }
+}
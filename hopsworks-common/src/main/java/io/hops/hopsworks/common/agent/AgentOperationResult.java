@@ -0,0 +1,88 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.agent;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * The outcome of an {@link AgentOperation} on one host.
+ */
+@XmlRootElement
+public class AgentOperationResult {
+
+  public enum Status {
+    SUCCESS,
+    FAILED,
+    TIMEOUT,
+    SKIPPED
+  }
+
+  private String target;
+  private Status status;
+  private String output;
+  private long durationMs;
+
+  public AgentOperationResult() {
+  }
+
+  AgentOperationResult(String target, Status status, String output, long durationMs) {
+    this.target = target;
+    this.status = status;
+    this.output = output;
+    this.durationMs = durationMs;
+  }
+
+  public String getTarget() {
+    return target;
+  }
+
+  public void setTarget(String target) {
+    this.target = target;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public void setStatus(Status status) {
+    this.status = status;
+  }
+
+  /**
+   * @return the output of the kagent if the operation succeeded, the reason it did not otherwise
+   */
+  public String getOutput() {
+    return output;
+  }
+
+  public void setOutput(String output) {
+    this.output = output;
+  }
+
+  public long getDurationMs() {
+    return durationMs;
+  }
+
+  public void setDurationMs(long durationMs) {
+    this.durationMs = durationMs;
+  }
+
+  @Override
+  public String toString() {
+    return target + " " + status + " " + output;
+  }
+}
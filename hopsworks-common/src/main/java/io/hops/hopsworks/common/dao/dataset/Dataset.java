@@ -77,6 +77,9 @@ import java.util.Collection;
   @NamedQuery(name = "Dataset.findByInodeId",
           query
           = "SELECT d FROM Dataset d WHERE d.InodeId = :inodeId"),
+  @NamedQuery(name = "Dataset.findByInodeIds",
+          query
+          = "SELECT d FROM Dataset d WHERE d.InodeId IN :inodeIds"),
   @NamedQuery(name = "Dataset.findByInode",
           query = "SELECT d FROM Dataset d WHERE d.inode = :inode"),
   @NamedQuery(name = "Dataset.findByProjectAndInode",
@@ -44,6 +44,7 @@ import io.hops.hopsworks.common.dao.hdfs.inode.Inode;
 import io.hops.hopsworks.common.dao.project.Project;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import javax.ejb.Stateless;
@@ -98,6 +99,15 @@ public class DatasetFacade extends AbstractFacade<Dataset> {
     return query.getResultList();
   }
 
+  public List<Dataset> findByInodeIds(Collection<Long> inodeIds) {
+    if (inodeIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+    TypedQuery<Dataset> query = em.createNamedQuery("Dataset.findByInodeIds",
+      Dataset.class).setParameter("inodeIds", inodeIds);
+    return query.getResultList();
+  }
+
   public List<Dataset> findByInodeId(long inodeId) {
     TypedQuery<Dataset> query = em.createNamedQuery("Dataset.findByInodeId",
       Dataset.class).setParameter(
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dao.featurestore;
+
+import io.hops.hopsworks.common.dao.project.Project;
+import io.hops.hopsworks.common.dao.user.Users;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.FeaturestoreException;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool of JDBC connections to HiveServer2, keyed by project, user and Hive database since the connection is
+ * authenticated with the certificates of the project user. A bounded number of idle connections is kept per key.
+ * Connections are validated before being reused and closed when idle for too long or when they reach their
+ * maximum lifetime, so that renewed certificates are picked up.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+public class HiveConnectionPool {
+
+  private static final Logger LOGGER = Logger.getLogger(HiveConnectionPool.class.getName());
+  private static final int VALIDATION_TIMEOUT_S = 5;
+
+  @EJB
+  private Settings settings;
+
+  private final Map<String, Deque<PooledConnection>> idleConnections = new ConcurrentHashMap<>();
+
+  @PreDestroy
+  public void preDestroy() {
+    for (Deque<PooledConnection> connections : idleConnections.values()) {
+      PooledConnection pooledConnection;
+      while ((pooledConnection = connections.pollFirst()) != null) {
+        close(pooledConnection);
+      }
+    }
+  }
+
+  /**
+   * Get a connection from the pool, opening a new one with the factory if there is no valid idle connection for
+   * the project user and database. The connection must be returned with release() or discard().
+   *
+   * @param project      the project of the user
+   * @param user         the user
+   * @param databaseName the Hive database
+   * @param factory      opens a new connection
+   * @return a pooled connection
+   * @throws SQLException
+   * @throws IOException
+   * @throws FeaturestoreException
+   */
+  public PooledConnection borrow(Project project, Users user, String databaseName, ConnectionFactory factory)
+      throws SQLException, IOException, FeaturestoreException {
+    String key = project.getName() + "__" + user.getUsername() + "/" + databaseName;
+    Deque<PooledConnection> connections = idleConnections.get(key);
+    if (connections != null) {
+      long now = System.currentTimeMillis();
+      PooledConnection pooledConnection;
+      while ((pooledConnection = connections.pollFirst()) != null) {
+        if (!isExpired(pooledConnection, now) && isValid(pooledConnection)) {
+          return pooledConnection;
+        }
+        close(pooledConnection);
+      }
+    }
+    return new PooledConnection(key, factory.create());
+  }
+
+  /**
+   * Return a healthy connection to the pool
+   *
+   * @param pooledConnection the connection
+   */
+  public void release(PooledConnection pooledConnection) {
+    long now = System.currentTimeMillis();
+    if (isExpired(pooledConnection, now)) {
+      close(pooledConnection);
+      return;
+    }
+    Deque<PooledConnection> connections = idleConnections.computeIfAbsent(pooledConnection.key,
+        k -> new ConcurrentLinkedDeque<>());
+    pooledConnection.lastUsed = now;
+    connections.offerFirst(pooledConnection);
+    // Trim the least recently used connections
+    while (connections.size() > settings.getFeaturestoreHiveConnectionsPerUser()) {
+      PooledConnection eldest = connections.pollLast();
+      if (eldest == null) {
+        break;
+      }
+      close(eldest);
+    }
+  }
+
+  /**
+   * Close a connection which might be broken instead of returning it to the pool
+   *
+   * @param pooledConnection the connection
+   */
+  public void discard(PooledConnection pooledConnection) {
+    close(pooledConnection);
+  }
+
+  @Schedule(persistent = false,
+      minute = "*",
+      hour = "*")
+  public void evictIdleConnections(Timer timer) {
+    long now = System.currentTimeMillis();
+    // Empty deques are kept, removing them could race with a connection being released
+    for (Deque<PooledConnection> connections : idleConnections.values()) {
+      for (PooledConnection pooledConnection : connections) {
+        if (isExpired(pooledConnection, now) && connections.removeFirstOccurrence(pooledConnection)) {
+          close(pooledConnection);
+        }
+      }
+    }
+  }
+
+  private boolean isExpired(PooledConnection pooledConnection, long now) {
+    return now - pooledConnection.lastUsed > settings.getFeaturestoreHiveConnectionIdleTimeoutMs()
+        || now - pooledConnection.created > settings.getFeaturestoreHiveConnectionMaxLifetimeMs();
+  }
+
+  private boolean isValid(PooledConnection pooledConnection) {
+    try {
+      return pooledConnection.connection.isValid(VALIDATION_TIMEOUT_S);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private void close(PooledConnection pooledConnection) {
+    try {
+      pooledConnection.connection.close();
+    } catch (SQLException e) {
+      LOGGER.log(Level.FINE, "Error closing Hive JDBC connection " + pooledConnection.key, e);
+    }
+  }
+
+  /**
+   * Opens a new JDBC connection to HiveServer2
+   */
+  public interface ConnectionFactory {
+    Connection create() throws SQLException, IOException, FeaturestoreException;
+  }
+
+  public static class PooledConnection {
+    private final String key;
+    private final Connection connection;
+    private final long created;
+    private volatile long lastUsed;
+
+    private PooledConnection(String key, Connection connection) {
+      this.key = key;
+      this.connection = connection;
+      this.created = System.currentTimeMillis();
+      this.lastUsed = created;
+    }
+
+    public Connection getConnection() {
+      return connection;
+    }
+  }
+}
@@ -19,8 +19,8 @@ package io.hops.hopsworks.common.dao.featurestore.featuregroup;
 import io.hops.hopsworks.common.dao.featurestore.Featurestore;
 import io.hops.hopsworks.common.dao.featurestore.FeaturestoreController;
 import io.hops.hopsworks.common.dao.featurestore.FeaturestoreFacade;
+import io.hops.hopsworks.common.dao.featurestore.HiveConnectionPool;
 import io.hops.hopsworks.common.dao.featurestore.dependencies.FeaturestoreDependencyController;
-import io.hops.hopsworks.common.dao.featurestore.feature.FeatureDTO;
 import io.hops.hopsworks.common.dao.featurestore.stats.FeaturestoreStatisticController;
 import io.hops.hopsworks.common.dao.featurestore.stats.cluster_analysis.ClusterAnalysisDTO;
 import io.hops.hopsworks.common.dao.featurestore.stats.desc_stats.DescriptiveStatsDTO;
@@ -56,8 +56,10 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -87,6 +89,10 @@ public class FeaturegroupController {
   private FeaturestoreDependencyController featurestoreDependencyController;
   @EJB
   private InodeFacade inodeFacade;
+  @EJB
+  private FeaturegroupMetadataCache featuregroupMetadataCache;
+  @EJB
+  private HiveConnectionPool hiveConnectionPool;
 
   private static final Logger LOGGER = Logger.getLogger(FeaturegroupController.class.getName());
   private static final String HIVE_DRIVER = "org.apache.hive.jdbc.HiveDriver";
@@ -208,7 +214,31 @@ public class FeaturegroupController {
    */
   public List<FeaturegroupDTO> getFeaturegroupsForFeaturestore(Featurestore featurestore) {
     List<Featuregroup> featuregroups = featuregroupFacade.findByFeaturestore(featurestore);
-    return featuregroups.stream().map(fg -> convertFeaturegrouptoDTO(fg)).collect(Collectors.toList());
+    Map<Long, HiveTableMetadata> hiveTables = getHiveTablesMetadata(featurestore, featuregroups);
+    String featurestoreName = featurestoreFacade.getHiveDbName(featurestore.getHiveDbId());
+    return featuregroups.stream().map(fg -> convertFeaturegrouptoDTO(fg, hiveTables.get(fg.getHiveTblId()),
+        featurestoreName)).collect(Collectors.toList());
+  }
+
+  /**
+   * Gets the Hive metastore metadata of the featuregroups of a featurestore, from the cache if all of them are
+   * cached, otherwise from the metastore
+   *
+   * @param featurestore  the featurestore
+   * @param featuregroups the featuregroups of the featurestore
+   * @return map of hive table id to the metadata of the table
+   */
+  private Map<Long, HiveTableMetadata> getHiveTablesMetadata(Featurestore featurestore,
+      List<Featuregroup> featuregroups) {
+    Map<Long, HiveTableMetadata> hiveTables = featuregroupMetadataCache.get(featurestore);
+    if (hiveTables != null && featuregroups.stream().allMatch(fg -> hiveTables.containsKey(fg.getHiveTblId()))) {
+      return hiveTables;
+    }
+    long loaded = System.currentTimeMillis();
+    Map<Long, HiveTableMetadata> loadedHiveTables = featuregroupFacade.getHiveTablesMetadata(
+        featuregroups.stream().map(Featuregroup::getHiveTblId).collect(Collectors.toSet()));
+    featuregroupMetadataCache.put(featurestore, loadedHiveTables, loaded);
+    return loadedHiveTables;
   }
 
   /**
@@ -243,25 +273,40 @@ public class FeaturegroupController {
    * @return JSON/XML DTO of the featuregroup
    */
   private FeaturegroupDTO convertFeaturegrouptoDTO(Featuregroup featuregroup) {
-    FeaturegroupDTO featuregroupDTO = new FeaturegroupDTO(featuregroup);
-    List<FeatureDTO> featureDTOs = featuregroupFacade.getHiveFeatures(featuregroup.getHiveTblId());
-    String primaryKeyName = featuregroupFacade.getHiveTablePrimaryKey(featuregroup.getHiveTblId());
-    featureDTOs.stream().filter(f -> f.getName().equals(primaryKeyName))
-        .collect(Collectors.toList()).get(0).setPrimary(true);
-    featuregroupDTO.setFeatures(featureDTOs);
-    String featuregroupName = featuregroupFacade.getHiveTableName(featuregroup.getHiveTblId());
-    int versionLength = featuregroup.getVersion().toString().length();
-    //Remove the _version suffix
-    featuregroupName = featuregroupName.substring(0, featuregroupName.length() - (1 + versionLength));
-    featuregroupDTO.setName(featuregroupName);
+    HiveTableMetadata hiveTable = featuregroupFacade.getHiveTablesMetadata(
+        Collections.singletonList(featuregroup.getHiveTblId())).get(featuregroup.getHiveTblId());
     String featurestoreName = featurestoreFacade.getHiveDbName(featuregroup.getFeaturestore().getHiveDbId());
+    return convertFeaturegrouptoDTO(featuregroup, hiveTable, featurestoreName);
+  }
+
+  /**
+   * Converts a featuregroup entity to a Featuregroup DTO using metadata already fetched from the metastore
+   *
+   * @param featuregroup     featuregroup entity
+   * @param hiveTable        metadata of the Hive table of the featuregroup
+   * @param featurestoreName name of the Hive database of the featurestore
+   * @return JSON/XML DTO of the featuregroup
+   */
+  private FeaturegroupDTO convertFeaturegrouptoDTO(Featuregroup featuregroup, HiveTableMetadata hiveTable,
+      String featurestoreName) {
+    FeaturegroupDTO featuregroupDTO = new FeaturegroupDTO(featuregroup);
     featuregroupDTO.setFeaturestoreName(featurestoreName);
-    List<String> hdfsStorePaths = featuregroupFacade.getHiveTableHdfsPaths(featuregroup.getHiveTblId());
-    featuregroupDTO.setHdfsStorePaths(hdfsStorePaths);
-    String docComment = featuregroupFacade.getHiveTableComment(featuregroup.getHiveTblId());
-    featuregroupDTO.setDescription(docComment);
-    Long inodeId = featuregroupFacade.getFeaturegroupInodeId(featuregroup.getHiveTblId());
-    featuregroupDTO.setInodeId(inodeId);
+    if (hiveTable == null) {
+      LOGGER.log(Level.WARNING, "Could not find Hive table " + featuregroup.getHiveTblId() + " of featuregroup "
+          + featuregroup.getId() + " in the metastore");
+      featuregroupDTO.setFeatures(new ArrayList<>());
+      featuregroupDTO.setHdfsStorePaths(new ArrayList<>());
+    } else {
+      featuregroupDTO.setFeatures(hiveTable.copyFeatures());
+      String featuregroupName = hiveTable.getTableName();
+      int versionLength = featuregroup.getVersion().toString().length();
+      //Remove the _version suffix
+      featuregroupName = featuregroupName.substring(0, featuregroupName.length() - (1 + versionLength));
+      featuregroupDTO.setName(featuregroupName);
+      featuregroupDTO.setHdfsStorePaths(new ArrayList<>(hiveTable.getHdfsPaths()));
+      featuregroupDTO.setDescription(hiveTable.getComment());
+      featuregroupDTO.setInodeId(hiveTable.getInodeId());
+    }
     featuregroupDTO.setDependencies((List) featuregroup.getDependencies(), inodeFacade);
     return featuregroupDTO;
   }
@@ -346,6 +391,7 @@ public class FeaturegroupController {
     featuregroup.setVersion(version);
     featuregroup.setHiveTblId(hiveTblId);
     featuregroupFacade.persist(featuregroup);
+    featuregroupMetadataCache.invalidate(featurestore);
     featurestoreDependencyController.updateFeaturestoreDependencies(featuregroup, null, dependencies);
     featurestoreStatisticController.updateFeaturestoreStatistics(featuregroup, null, featureCorrelationMatrix,
         descriptiveStatistics, featuresHistogram, clusterAnalysis);
@@ -409,6 +455,7 @@ public class FeaturegroupController {
       featurestoreStatisticController.updateFeaturestoreStatistics(featuregroup, null, featureCorrelationMatrix,
           descriptiveStatistics, featuresHistogram, clusterAnalysis);
     }
+    featuregroupMetadataCache.invalidate(featurestore);
     return convertFeaturegrouptoDTO(updatedFeaturegroup);
   }
 
@@ -430,9 +477,18 @@ public class FeaturegroupController {
       FeaturegroupDTO featuregroupDTO, Featurestore featurestore, Project project, Users user)
       throws IOException, SQLException, FeaturestoreException, HopsSecurityException {
     String tbl = getTblName(featuregroupDTO.getName(), featuregroupDTO.getVersion());
+    //The preview is run as the user, so users with different permissions on the table do not share previews
+    String previewKey = tbl + "/" + hdfsUsersController.getHdfsUserName(project, user);
+    List<RowValueQueryResult> preview = featuregroupMetadataCache.getPreview(featurestore, previewKey);
+    if (preview != null) {
+      return preview;
+    }
+    long loaded = System.currentTimeMillis();
     String query = "SELECT * FROM " + tbl + " LIMIT 20";
     String db = featurestoreController.getFeaturestoreDbName(featurestore.getProject());
-    return executeReadHiveQuery(query, db, project, user);
+    preview = executeReadHiveQuery(query, db, project, user);
+    featuregroupMetadataCache.putPreview(featurestore, previewKey, preview, loaded);
+    return preview;
   }
 
   /**
@@ -470,11 +526,9 @@ public class FeaturegroupController {
    */
   public FeaturegroupDTO getFeaturegroupByFeaturestoreAndName(
       Project project, Featurestore featurestore, String featuregroupName, int version) throws FeaturestoreException {
-    List<Featuregroup> featuregroups = featuregroupFacade.findByFeaturestore(featurestore);
-    List<FeaturegroupDTO> featuregroupDTOS =
-        featuregroups.stream().map(fg -> convertFeaturegrouptoDTO(fg)).collect(Collectors.toList());
+    List<FeaturegroupDTO> featuregroupDTOS = getFeaturegroupsForFeaturestore(featurestore);
     List<FeaturegroupDTO> featuregroupsDTOWithName =
-        featuregroupDTOS.stream().filter(fg -> fg.getName().equals(featuregroupName) &&
+        featuregroupDTOS.stream().filter(fg -> featuregroupName.equals(fg.getName()) &&
             fg.getVersion().intValue() == version)
             .collect(Collectors.toList());
     if (featuregroupsDTOWithName.size() != 1) {
@@ -535,7 +589,11 @@ public class FeaturegroupController {
     String db = featurestoreController.getFeaturestoreDbName(featurestore.getProject());
     String tableName = getTblName(featuregroupName, version);
     String query = "DROP TABLE IF EXISTS `" + tableName + "`";
-    executeUpdateHiveQuery(query, db, project, user);
+    try {
+      executeUpdateHiveQuery(query, db, project, user);
+    } finally {
+      featuregroupMetadataCache.invalidate(featurestore);
+    }
   }
 
   /**
@@ -554,13 +612,16 @@ public class FeaturegroupController {
   @TransactionAttribute(TransactionAttributeType.NEVER)
   private void executeUpdateHiveQuery(String query, String databaseName, Project project, Users user)
       throws SQLException, IOException, FeaturestoreException, HopsSecurityException {
-    //Re-create the connection every time since the connection is database and user-specific
-    Connection conn = initConnection(databaseName, project, user);
+    //Connections are database and user-specific, reuse one of the user's idle connections to the database
+    HiveConnectionPool.PooledConnection conn = hiveConnectionPool.borrow(project, user, databaseName,
+        () -> initConnection(databaseName, project, user));
     Statement stmt = null;
+    boolean healthy = false;
     try {
       // Create database
-      stmt = conn.createStatement();
+      stmt = conn.getConnection().createStatement();
       stmt.executeUpdate(query);
+      healthy = true;
     } catch (Exception e) {
       //Hive throws a generic HiveSQLException not a specific AuthorizationException
       if (e.getMessage().toLowerCase().contains("permission denied"))
@@ -573,10 +634,13 @@ public class FeaturegroupController {
                 ", hive database: " + databaseName + " hive query: " + query,
             e.getMessage(), e);
     } finally {
-      if (stmt != null) {
-        stmt.close();
+      try {
+        if (stmt != null) {
+          stmt.close();
+        }
+      } finally {
+        releaseConnection(conn, healthy);
       }
-      closeConnection(conn);
     }
   }
 
@@ -622,14 +686,17 @@ public class FeaturegroupController {
   private List<RowValueQueryResult> executeReadHiveQuery(
       String query, String databaseName, Project project, Users user)
       throws SQLException, IOException, FeaturestoreException, HopsSecurityException {
-    //Re-create the connection every time since the connection is database and user-specific
-    Connection conn = initConnection(databaseName, project, user);
+    //Connections are database and user-specific, reuse one of the user's idle connections to the database
+    HiveConnectionPool.PooledConnection conn = hiveConnectionPool.borrow(project, user, databaseName,
+        () -> initConnection(databaseName, project, user));
     Statement stmt = null;
     List<RowValueQueryResult> resultList = null;
+    boolean healthy = false;
     try {
-      stmt = conn.createStatement();
+      stmt = conn.getConnection().createStatement();
       ResultSet rs = stmt.executeQuery(query);
       resultList = parseResultset(rs);
+      healthy = true;
     } catch (Exception e) {
       //Hive throws a generic HiveSQLException not a specific AuthorizationException
       if (e.getMessage().toLowerCase().contains("permission denied"))
@@ -640,29 +707,30 @@ public class FeaturegroupController {
           "project: " + project.getName() + ", hive database: " + databaseName + " hive query: " + query,
           e.getMessage(), e);
     } finally {
-      if (stmt != null) {
-        stmt.close();
+      try {
+        if (stmt != null) {
+          stmt.close();
+        }
+      } finally {
+        releaseConnection(conn, healthy);
       }
-      closeConnection(conn);
     }
     return resultList;
   }
 
   /**
-   * Checks if the JDBC connection to HS2 is open, and if so closes it.
+   * Returns the JDBC connection to HS2 to the pool, or closes it if the query failed since the failure might have
+   * left the connection broken.
    */
-  private void closeConnection(Connection conn) {
-    try {
-      if (conn != null) {
-        conn.close();
-      }
-      //don't add this line:
-      //certificateMaterializer.removeCertificatesLocal(user.getUsername(), project.getName());
-      //concurrent requests by the same user will fail, let certs be cleaned up by
-      //garbage collector periodically instead
-    } catch (SQLException e) {
-      LOGGER.log(Level.WARNING, "Error closing Hive JDBC connection: " +
-          e);
+  private void releaseConnection(HiveConnectionPool.PooledConnection conn, boolean healthy) {
+    //don't remove the materialized certificates here:
+    //certificateMaterializer.removeCertificatesLocal(user.getUsername(), project.getName());
+    //concurrent requests by the same user will fail, let certs be cleaned up by
+    //garbage collector periodically instead
+    if (healthy) {
+      hiveConnectionPool.release(conn);
+    } else {
+      hiveConnectionPool.discard(conn);
     }
   }
 }
@@ -20,6 +20,8 @@ import io.hops.hopsworks.common.dao.AbstractFacade;
 import io.hops.hopsworks.common.dao.featurestore.Featurestore;
 import io.hops.hopsworks.common.dao.featurestore.feature.FeatureDTO;
 import io.hops.hopsworks.common.dao.jobs.description.Jobs;
+import org.eclipse.persistence.annotations.BatchFetchType;
+import org.eclipse.persistence.config.QueryHints;
 
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
@@ -29,8 +31,10 @@ import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 import javax.validation.ConstraintViolationException;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -100,7 +104,9 @@ public class FeaturegroupFacade extends AbstractFacade<Featuregroup> {
    */
   public List<Featuregroup> findByFeaturestore(Featurestore featurestore) {
     TypedQuery<Featuregroup> q = em.createNamedQuery("Featuregroup.findByFeaturestore", Featuregroup.class)
-        .setParameter("featurestore", featurestore);
+        .setParameter("featurestore", featurestore)
+        .setHint(QueryHints.BATCH, "fg.dependencies")
+        .setHint(QueryHints.BATCH_TYPE, BatchFetchType.IN);
     return q.getResultList();
   }
 
@@ -130,23 +136,50 @@ public class FeaturegroupFacade extends AbstractFacade<Featuregroup> {
   }
 
   /**
-   * Gets the features of a featuregroup from the Hive Metastore
+   * Gets the metadata of several Hive tables from the metastore with a fixed number of queries: one for the
+   * tables and one for their columns
    *
-   * @param hiveTableId the id of the Hive table for the featuregroup
-   * @return list of featureDTOs with name,type,comment
+   * @param hiveTableIds the ids of the Hive tables of the featuregroups
+   * @return map of hive table id to the metadata of the table
    */
-  public List<FeatureDTO> getHiveFeatures(Long hiveTableId) {
-    List<Object[]> featureObjects = em.createNativeQuery("SELECT c.`COLUMN_NAME`, c.`TYPE_NAME`, " +
-        "c.`COMMENT` FROM metastore.`TBLS` t " +
-        "JOIN metastore.`SDS` s JOIN metastore.`COLUMNS_V2` c ON t.`SD_ID`=s.`SD_ID` AND " +
-        "s.`CD_ID`=c.`CD_ID` WHERE t.`TBL_ID`=" + hiveTableId + ";").getResultList();
-    ArrayList<FeatureDTO> featureDTOs = new ArrayList<>();
+  public Map<Long, HiveTableMetadata> getHiveTablesMetadata(Collection<Long> hiveTableIds) {
+    Map<Long, HiveTableMetadata> tables = new HashMap<>();
+    if (hiveTableIds.isEmpty()) {
+      return tables;
+    }
+    String ids = hiveTableIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+    List<Object[]> tableObjects = em.createNativeQuery("SELECT t.`TBL_ID`, t.`TBL_NAME`, s.`LOCATION`, i.`id`, " +
+        "p.`PARAM_VALUE` FROM metastore.`TBLS` t JOIN metastore.`SDS` s ON t.`SD_ID`=s.`SD_ID` " +
+        "LEFT JOIN hops.`hdfs_inodes` i ON s.`PARTITION_ID`=i.`partition_id` AND s.`PARENT_ID`=i.`parent_id` " +
+        "AND s.`NAME`=i.`name` " +
+        "LEFT JOIN metastore.`TABLE_PARAMS` p ON p.`TBL_ID`=t.`TBL_ID` AND p.`PARAM_KEY`='comment' " +
+        "WHERE t.`TBL_ID` IN (" + ids + ");").getResultList();
+    for (Object[] tableObject : tableObjects) {
+      Long hiveTableId = ((Number) tableObject[0]).longValue();
+      HiveTableMetadata table = tables.get(hiveTableId);
+      if (table == null) {
+        table = new HiveTableMetadata(hiveTableId);
+        table.setTableName((String) tableObject[1]);
+        table.setInodeId(tableObject[3] == null ? null : ((Number) tableObject[3]).longValue());
+        table.setComment((String) tableObject[4]);
+        tables.put(hiveTableId, table);
+      }
+      table.getHdfsPaths().add((String) tableObject[2]);
+    }
+    List<Object[]> featureObjects = em.createNativeQuery("SELECT t.`TBL_ID`, c.`COLUMN_NAME`, c.`TYPE_NAME`, " +
+        "c.`COMMENT`, EXISTS (SELECT * FROM metastore.`KEY_CONSTRAINTS` k WHERE k.`PARENT_CD_ID`=c.`CD_ID` " +
+        "AND k.`PARENT_TBL_ID`=t.`TBL_ID` AND k.`PARENT_INTEGER_IDX`=c.`INTEGER_IDX` AND k.`CONSTRAINT_TYPE`=0) " +
+        "FROM metastore.`TBLS` t JOIN metastore.`SDS` s JOIN metastore.`COLUMNS_V2` c ON t.`SD_ID`=s.`SD_ID` AND " +
+        "s.`CD_ID`=c.`CD_ID` WHERE t.`TBL_ID` IN (" + ids + ") ORDER BY t.`TBL_ID`, c.`INTEGER_IDX`;")
+        .getResultList();
     for (Object[] featureObject : featureObjects) {
-      FeatureDTO featureDTO = new FeatureDTO((String) featureObject[0], (String) featureObject[1],
-          (String) featureObject[2]);
-      featureDTOs.add(featureDTO);
+      HiveTableMetadata table = tables.get(((Number) featureObject[0]).longValue());
+      if (table != null) {
+        table.getFeatures().add(new FeatureDTO((String) featureObject[1], (String) featureObject[2],
+            (String) featureObject[3], ((Number) featureObject[4]).intValue() != 0));
+      }
     }
-    return featureDTOs;
+    return tables;
   }
 
   /**
@@ -165,90 +198,6 @@ public class FeaturegroupFacade extends AbstractFacade<Featuregroup> {
     }
   }
 
-  /**
-   * Gets the InodeId fof the featuregroup by querying the metastore
-   *
-   * @param hiveTableId the id of the hive table in the metastore
-   * @return the inode id
-   */
-  public Long getFeaturegroupInodeId(Long hiveTableId) {
-    try {
-      return (Long) em.createNativeQuery("SELECT i.`id` FROM metastore.`TBLS` t " +
-          "JOIN metastore.`SDS` s JOIN hops.`hdfs_inodes` i ON t.`SD_ID`=s.`SD_ID` " +
-          "AND s.`PARTITION_ID`=i.`partition_id` AND s.`PARENT_ID`=i.`parent_id` AND s.`NAME`=i.`name`" +
-          " WHERE `TBL_ID`=" + hiveTableId + ";").getSingleResult();
-    } catch (NoResultException e) {
-      return null;
-    }
-  }
-
-  /**
-   * Gets the Hive Table Comment for the featuregroup by querying the metastore with the tableId
-   *
-   * @param hiveTableId
-   * @return the hive table comment
-   */
-  public String getHiveTableComment(Long hiveTableId) {
-    try {
-      return (String) em.createNativeQuery("SELECT `PARAM_VALUE` FROM metastore.`TABLE_PARAMS` " +
-          "WHERE `TBL_ID`=" + hiveTableId.toString() + " AND `PARAM_KEY`='comment';").getSingleResult();
-    } catch (NoResultException e) {
-      return null;
-    }
-  }
-
-  /**
-   * Gets the Hive Table Name for the featuregroup by querying the metastore with the tableId
-   *
-   * @param hiveTableId
-   * @return the hive table name
-   */
-  public String getHiveTableName(Long hiveTableId) {
-    try {
-      return (String) em.createNativeQuery("SELECT `TBL_NAME` FROM metastore.`TBLS` " +
-          "WHERE `TBL_ID`=" + hiveTableId.toString() + ";").getSingleResult();
-    } catch (NoResultException e) {
-      return null;
-    }
-  }
-
-  /**
-   * Gets the Hive Table Primary Key by querying the metastore with the tableId
-   *
-   * @param hiveTableId
-   * @return the name of the column marked as primary key
-   */
-  public String getHiveTablePrimaryKey(Long hiveTableId) {
-    try {
-      return (String) em.createNativeQuery("SELECT c.`COLUMN_NAME` FROM metastore.`TBLS` t " +
-          "JOIN metastore.`SDS` s JOIN metastore.`COLUMNS_V2` c ON t.`SD_ID`=s.`SD_ID` AND " +
-          "s.`CD_ID`=c.`CD_ID` WHERE t.`TBL_ID`=" + hiveTableId + " AND EXISTS " +
-          "(SELECT * FROM metastore.`KEY_CONSTRAINTS` k WHERE k.`PARENT_CD_ID`=c.`CD_ID` " +
-          "AND k.`PARENT_TBL_ID`=" + hiveTableId +
-          " AND k.`PARENT_INTEGER_IDX`=c.`INTEGER_IDX` AND k.`CONSTRAINT_TYPE`=0)")
-          .getSingleResult();
-    } catch (NoResultException e) {
-      return null;
-    }
-  }
-
-  /**
-   * Gets the Hive table HDFS paths (in case partitions)
-   *
-   * @param hiveTblId
-   * @return gets the HDFS paths stored in Hive metastore for the hive-table
-   */
-  public List<String> getHiveTableHdfsPaths(Long hiveTblId) {
-    try {
-      List<Object> hdfsPathObjects = em.createNativeQuery("SELECT s.`LOCATION` FROM metastore.`TBLS` t " +
-          "JOIN metastore.`SDS` s ON t.`SD_ID` = s.`SD_ID` WHERE t.`TBL_ID`=" + hiveTblId.toString() + ";")
-          .getResultList();
-      return hdfsPathObjects.stream().map(o -> (String) o).collect(Collectors.toList());
-    } catch (NoResultException e) {
-      return new ArrayList<>();
-    }
-  }
-
   /**
    * Updates metadata about a featuregroup (since only metadata is changed, the Hive table does not need
    * to be modified)
@@ -0,0 +1,141 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dao.featurestore.featuregroup;
+
+import io.hops.hopsworks.common.dao.featurestore.Featurestore;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-featurestore cache of the Hive metastore metadata and of the previews of the featuregroups. It is invalidated
+ * when a featuregroup of the featurestore is created, updated or deleted through Hopsworks. Entries also expire after
+ * a short time since Hive tables can be altered or written directly in Hive or from other Hopsworks instances.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class FeaturegroupMetadataCache {
+
+  private static final long TTL_MS = TimeUnit.SECONDS.toMillis(30);
+  private static final int MAX_PREVIEWS_PER_FEATURESTORE = 100;
+
+  private final Map<Integer, CachedMetadata> cache = new ConcurrentHashMap<>();
+  private final Map<Integer, Long> invalidations = new ConcurrentHashMap<>();
+  private final Map<Integer, Map<String, CachedPreview>> previews = new ConcurrentHashMap<>();
+
+  /**
+   * @param featurestore the featurestore
+   * @return map of hive table id to metadata, or null if the featurestore is not cached
+   */
+  public Map<Long, HiveTableMetadata> get(Featurestore featurestore) {
+    CachedMetadata cached = cache.get(featurestore.getId());
+    if (cached == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() - cached.loaded > TTL_MS) {
+      cache.remove(featurestore.getId(), cached);
+      return null;
+    }
+    return cached.metadata;
+  }
+
+  /**
+   * @param featurestore the featurestore
+   * @param metadata     map of hive table id to metadata
+   * @param loaded       time at which loading the metadata started. The metadata is not cached if the featurestore
+   *                     was invalidated while it was being loaded
+   */
+  public void put(Featurestore featurestore, Map<Long, HiveTableMetadata> metadata, long loaded) {
+    synchronized (invalidations) {
+      Long invalidated = invalidations.get(featurestore.getId());
+      if (invalidated != null && invalidated >= loaded) {
+        return;
+      }
+      cache.put(featurestore.getId(), new CachedMetadata(Collections.unmodifiableMap(metadata), loaded));
+    }
+  }
+
+  public void invalidate(Featurestore featurestore) {
+    synchronized (invalidations) {
+      invalidations.put(featurestore.getId(), System.currentTimeMillis());
+      cache.remove(featurestore.getId());
+      previews.remove(featurestore.getId());
+    }
+  }
+
+  /**
+   * @param featurestore the featurestore
+   * @param previewKey   identifies the table version and the user the preview was run as
+   * @return the preview rows, or null if they are not cached
+   */
+  public List<RowValueQueryResult> getPreview(Featurestore featurestore, String previewKey) {
+    Map<String, CachedPreview> featurestorePreviews = previews.get(featurestore.getId());
+    if (featurestorePreviews == null) {
+      return null;
+    }
+    CachedPreview cached = featurestorePreviews.get(previewKey);
+    if (cached == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() - cached.loaded > TTL_MS) {
+      featurestorePreviews.remove(previewKey, cached);
+      return null;
+    }
+    return cached.rows;
+  }
+
+  public void putPreview(Featurestore featurestore, String previewKey, List<RowValueQueryResult> rows, long loaded) {
+    synchronized (invalidations) {
+      Long invalidated = invalidations.get(featurestore.getId());
+      if (invalidated != null && invalidated >= loaded) {
+        return;
+      }
+      Map<String, CachedPreview> featurestorePreviews = previews.computeIfAbsent(featurestore.getId(),
+          k -> new ConcurrentHashMap<>());
+      if (featurestorePreviews.size() >= MAX_PREVIEWS_PER_FEATURESTORE) {
+        featurestorePreviews.clear();
+      }
+      featurestorePreviews.put(previewKey, new CachedPreview(Collections.unmodifiableList(rows), loaded));
+    }
+  }
+
+  private static class CachedPreview {
+    private final List<RowValueQueryResult> rows;
+    private final long loaded;
+
+    private CachedPreview(List<RowValueQueryResult> rows, long loaded) {
+      this.rows = rows;
+      this.loaded = loaded;
+    }
+  }
+
+  private static class CachedMetadata {
+    private final Map<Long, HiveTableMetadata> metadata;
+    private final long loaded;
+
+    private CachedMetadata(Map<Long, HiveTableMetadata> metadata, long loaded) {
+      this.metadata = metadata;
+      this.loaded = loaded;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dao.featurestore.featuregroup;
+
+import io.hops.hopsworks.common.dao.featurestore.feature.FeatureDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Metadata of the Hive table of a featuregroup, as stored in the Hive metastore
+ */
+public class HiveTableMetadata {
+
+  private final Long hiveTblId;
+  private String tableName;
+  private String comment;
+  private Long inodeId;
+  private final List<FeatureDTO> features = new ArrayList<>();
+  private final List<String> hdfsPaths = new ArrayList<>();
+
+  public HiveTableMetadata(Long hiveTblId) {
+    this.hiveTblId = hiveTblId;
+  }
+
+  public Long getHiveTblId() {
+    return hiveTblId;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  public void setTableName(String tableName) {
+    this.tableName = tableName;
+  }
+
+  public String getComment() {
+    return comment;
+  }
+
+  public void setComment(String comment) {
+    this.comment = comment;
+  }
+
+  public Long getInodeId() {
+    return inodeId;
+  }
+
+  public void setInodeId(Long inodeId) {
+    this.inodeId = inodeId;
+  }
+
+  /**
+   * @return the features of the table, in column order. The list is shared, use copyFeatures() to get DTOs
+   * that can be modified
+   */
+  public List<FeatureDTO> getFeatures() {
+    return features;
+  }
+
+  public List<FeatureDTO> copyFeatures() {
+    List<FeatureDTO> copy = new ArrayList<>(features.size());
+    for (FeatureDTO feature : features) {
+      copy.add(new FeatureDTO(feature.getName(), feature.getType(), feature.getDescription(), feature.getPrimary()));
+    }
+    return copy;
+  }
+
+  public List<String> getHdfsPaths() {
+    return hdfsPaths;
+  }
+}
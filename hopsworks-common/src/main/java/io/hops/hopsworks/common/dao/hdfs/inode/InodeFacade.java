@@ -41,11 +41,15 @@ package io.hops.hopsworks.common.dao.hdfs.inode;
 
 import io.hops.common.Pair;
 import java.io.FileNotFoundException;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -63,9 +67,13 @@ public class InodeFacade extends AbstractFacade<Inode> {
 
   private static final Logger logger = Logger.getLogger(InodeFacade.class.
           getName());
+  private static final int MAX_JOINED_PATH_COMPONENTS = 16;
+  private static final int SUBTREE_BATCH_SIZE = 1000;
 
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
+  @EJB
+  private InodePathCache inodePathCache;
 
   @Override
   protected EntityManager getEntityManager() {
@@ -89,6 +97,120 @@ public class InodeFacade extends AbstractFacade<Inode> {
     return query.getResultList();
   }
 
+  /**
+   * Find a page of the Inodes that have <i>parent</i> as parent, sorted by <i>sort</i> and then by name. The page
+   * starts after the position encoded in <i>cursor</i>, so that paging through a directory does not need to skip
+   * over the entries already returned. The cursor carries the sort value and the name of the last child of the
+   * previous page, so the next page can be found even if that child has since been deleted or renamed.
+   * <p/>
+   * @param parent
+   * @param sort
+   * @param ascending
+   * @param cursor cursor returned by {@link #getCursor(Sorts, Inode)} for the last child of the previous page, or
+   * null for the first page
+   * @param limit
+   * @return
+   */
+  public List<Inode> findByParent(Inode parent, Sorts sort, boolean ascending, String cursor, int limit) {
+    String comparison = ascending ? " > " : " < ";
+    String order = ascending ? " ASC" : " DESC";
+    StringBuilder jpql = new StringBuilder("SELECT i FROM Inode i WHERE i.inodePK.parentId = :parentId");
+    String lastName = null;
+    Object lastValue = null;
+    if (cursor != null) {
+      if (sort == Sorts.NAME) {
+        lastName = cursor;
+        jpql.append(" AND i.inodePK.name").append(comparison).append(":name");
+      } else {
+        // Names cannot contain a slash, so the first one separates the sort value from the name
+        int separator = cursor.indexOf('/');
+        if (separator < 0) {
+          throw new IllegalArgumentException("Cursor is not a " + sort.name().toLowerCase() + " cursor.");
+        }
+        lastValue = sort.parseValue(cursor.substring(0, separator));
+        lastName = cursor.substring(separator + 1);
+        jpql.append(" AND (").append(sort.getField()).append(comparison).append(":value OR (")
+            .append(sort.getField()).append(" = :value AND i.inodePK.name").append(comparison).append(":name))");
+      }
+    }
+    if (sort != Sorts.NAME) {
+      jpql.append(" ORDER BY ").append(sort.getField()).append(order).append(", i.inodePK.name").append(order);
+    } else {
+      jpql.append(" ORDER BY i.inodePK.name").append(order);
+    }
+    TypedQuery<Inode> query = em.createQuery(jpql.toString(), Inode.class);
+    query.setParameter("parentId", parent.getId());
+    if (lastName != null) {
+      query.setParameter("name", lastName);
+      if (sort != Sorts.NAME) {
+        query.setParameter("value", lastValue);
+      }
+    }
+    query.setMaxResults(limit);
+    return query.getResultList();
+  }
+
+  /**
+   * Cursor of the page that follows <i>inode</i> in a listing sorted by <i>sort</i>.
+   * <p/>
+   * @param sort
+   * @param inode last child of the current page
+   * @return
+   */
+  public static String getCursor(Sorts sort, Inode inode) {
+    if (sort == Sorts.NAME) {
+      return inode.getInodePK().getName();
+    }
+    return sort.getValue(inode) + "/" + inode.getInodePK().getName();
+  }
+
+  public interface InodeVisitor<E extends Exception> {
+
+    void visit(Inode inode, String path) throws E;
+  }
+
+  public enum Sorts {
+    NAME("i.inodePK.name"),
+    SIZE("i.size"),
+    MODIFICATION("i.modificationTime");
+
+    private final String field;
+
+    private Sorts(String field) {
+      this.field = field;
+    }
+
+    public String getField() {
+      return field;
+    }
+
+    private Object getValue(Inode inode) {
+      switch (this) {
+        case SIZE:
+          return inode.getSize();
+        case MODIFICATION:
+          return inode.getModificationTime();
+        default:
+          return inode.getInodePK().getName();
+      }
+    }
+
+    private Object parseValue(String value) {
+      try {
+        switch (this) {
+          case SIZE:
+            return Long.parseLong(value);
+          case MODIFICATION:
+            return new BigInteger(value);
+          default:
+            return value;
+        }
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Cursor value is not a valid " + name().toLowerCase() + ".", e);
+      }
+    }
+  }
+
   /**
    * Find all the Inodes that have <i>userId</i> as userId.
    * <p/>
@@ -112,25 +234,52 @@ public class InodeFacade extends AbstractFacade<Inode> {
   }
 
   /**
-   * Get all the children of <i>parent</i>. Alias of findByParent().
+   * Visit all the descendants of <i>parent</i> together with their path. The subtree is walked one level at a time,
+   * fetching the children of up to SUBTREE_BATCH_SIZE directories per query in pages ordered by inode id, and every
+   * page is handed to the visitor before the next one is loaded. Paths are built from the path of the parent
+   * directory, so only the paths of the directories of a single level are kept in memory. The walk runs outside of
+   * the caller's transaction so that the visited inodes are detached rather than piling up in its persistence
+   * context.
    * <p/>
    * @param parent
-   * @param children
-   * @return
+   * @param parentPath path of <i>parent</i>
+   * @param visitor
+   * @throws E if the visitor fails, in which case the walk stops
    */
-  public void getAllChildren(Inode parent, List<Inode> children) {
-    List<Inode> curr = findByParent(parent);
-    children.addAll(curr);
-
-    for (Inode inode : curr) {
-      if (inode.isDir()) {
-        getAllChildren(inode, children);
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public <E extends Exception> void forEachDescendant(Inode parent, String parentPath, InodeVisitor<E> visitor)
+      throws E {
+    Map<Long, String> dirs = Collections.singletonMap(parent.getId(), parentPath);
+    while (!dirs.isEmpty()) {
+      Map<Long, String> nextDirs = new HashMap<>();
+      for (List<Long> parentIds : partition(new ArrayList<>(dirs.keySet()))) {
+        long lastId = Long.MIN_VALUE;
+        List<Inode> page;
+        do {
+          page = em.createQuery("SELECT i FROM Inode i WHERE i.inodePK.parentId IN :parentIds AND i.id > :lastId "
+              + "ORDER BY i.id", Inode.class)
+              .setParameter("parentIds", parentIds)
+              .setParameter("lastId", lastId)
+              .setMaxResults(SUBTREE_BATCH_SIZE)
+              .getResultList();
+          for (Inode inode : page) {
+            String path = dirs.get(inode.getInodePK().getParentId()) + "/" + inode.getInodePK().getName();
+            if (inode.isDir()) {
+              nextDirs.put(inode.getId(), path);
+            }
+            visitor.visit(inode, path);
+            lastId = inode.getId();
+          }
+        } while (page.size() == SUBTREE_BATCH_SIZE);
       }
+      dirs = nextDirs;
     }
   }
 
   /**
-   * Return the size of an inode
+   * Return the size of an inode. For directories, this is the sum of the sizes of all the files in the subtree.
+   * Only the id, size and type of the descendants are read, so the memory used is bounded by the number of
+   * directories in a single level of the subtree.
    *
    * @param inode
    * @return
@@ -141,17 +290,42 @@ public class InodeFacade extends AbstractFacade<Inode> {
       return inode.getSize();
     }
     long size = 0;
-    List<Inode> children = getChildren(inode);
-    for (Inode i : children) {
-      if (!i.isDir()) {
-        size += i.getSize();
-      } else {
-        size += getSize(i);
+    List<Long> dirs = Collections.singletonList(inode.getId());
+    while (!dirs.isEmpty()) {
+      List<Long> nextDirs = new ArrayList<>();
+      for (List<Long> parentIds : partition(dirs)) {
+        long lastId = Long.MIN_VALUE;
+        List<Object[]> page;
+        do {
+          page = em.createQuery("SELECT i.id, i.size, i.dir FROM Inode i WHERE i.inodePK.parentId IN :parentIds "
+              + "AND i.id > :lastId ORDER BY i.id", Object[].class)
+              .setParameter("parentIds", parentIds)
+              .setParameter("lastId", lastId)
+              .setMaxResults(SUBTREE_BATCH_SIZE)
+              .getResultList();
+          for (Object[] child : page) {
+            lastId = (Long) child[0];
+            if ((Boolean) child[2]) {
+              nextDirs.add(lastId);
+            } else {
+              size += (Long) child[1];
+            }
+          }
+        } while (page.size() == SUBTREE_BATCH_SIZE);
       }
+      dirs = nextDirs;
     }
     return size;
   }
 
+  private List<List<Long>> partition(List<Long> ids) {
+    List<List<Long>> batches = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i += SUBTREE_BATCH_SIZE) {
+      batches.add(ids.subList(i, Math.min(i + SUBTREE_BATCH_SIZE, ids.size())));
+    }
+    return batches;
+  }
+
   /**
    * Get a list of the names of the child files (so no directories) of the given
    * path.
@@ -221,6 +395,21 @@ public class InodeFacade extends AbstractFacade<Inode> {
    */
   @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
   private Inode getInode(String path) {
+    Inode inode = resolvePath(path);
+    if (inode == null) {
+      logger.log(Level.WARNING, "Could not resolve inode at path: {0}", path);
+    }
+    return inode;
+  }
+
+  /**
+   * Resolve a path joining up to MAX_JOINED_PATH_COMPONENTS path components in a single query instead of issuing
+   * one query per component.
+   *
+   * @param path
+   * @return null if no such Inode found
+   */
+  private Inode resolvePath(String path) {
     // Get the path components
     String[] p;
     if (path.charAt(0) == '/') {
@@ -233,46 +422,41 @@ public class InodeFacade extends AbstractFacade<Inode> {
       return null;
     }
 
-    //Get the right root node
-    Inode curr = getRootNode(p[0]);
-    if (curr == null) {
-      logger.log(Level.WARNING, "Could not resolve root inode at path: {0}",
-              path);
-      return null;
-    }
-    //Move down the path
-    for (int i = 1; i < p.length; i++) {
-      long partitionId = HopsUtils.
-              calculatePartitionId(curr.getId(), p[i], i + 1);
-      Inode next = findByInodePK(curr, p[i], partitionId);
-      if (next == null) {
-        logger.log(Level.WARNING,
-                "Could not resolve inode at path: {0} and path-component " + i,
-                path);
+    Inode curr = null;
+    for (int from = 0; from < p.length; from += MAX_JOINED_PATH_COMPONENTS) {
+      int to = Math.min(from + MAX_JOINED_PATH_COMPONENTS, p.length);
+      curr = resolvePathComponents(curr, p, from, to);
+      if (curr == null) {
         return null;
-      } else {
-        curr = next;
       }
     }
+    inodePathCache.putPath(curr.getId(), "/" + String.join("/", p));
     return curr;
   }
 
-  @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
-  private Inode getRootNode(String name) {
-    long partitionId = HopsUtils.calculatePartitionId(HopsUtils.ROOT_INODE_ID, name, HopsUtils.ROOT_DIR_DEPTH + 1);
-    TypedQuery<Inode> query = em.createNamedQuery("Inode.findRootByName",
-            Inode.class);
-    query.setParameter("name", name);
-    query.setParameter("parentId", HopsUtils.ROOT_INODE_ID);
-    query.setParameter("partitionId", partitionId);
+  private Inode resolvePathComponents(Inode parent, String[] p, int from, int to) {
+    int last = to - from - 1;
+    StringBuilder select = new StringBuilder("SELECT i").append(last).append(" FROM Inode i0");
+    StringBuilder where = new StringBuilder(" WHERE i0.inodePK.parentId = :parentId"
+        + " AND i0.inodePK.partitionId = :partitionId AND i0.inodePK.name = :name0");
+    for (int j = 1; j <= last; j++) {
+      // Only the top levels of the namespace are randomly partitioned, below them the partition id of an inode is
+      // the id of its parent
+      select.append(", Inode i").append(j);
+      where.append(" AND i").append(j).append(".inodePK.parentId = i").append(j - 1).append(".id")
+          .append(" AND i").append(j).append(".inodePK.partitionId = i").append(j - 1).append(".id")
+          .append(" AND i").append(j).append(".inodePK.name = :name").append(j);
+    }
+    long parentId = parent == null ? HopsUtils.ROOT_INODE_ID : parent.getId();
+    TypedQuery<Inode> query = em.createQuery(select.append(where).toString(), Inode.class);
+    query.setParameter("parentId", parentId);
+    query.setParameter("partitionId", HopsUtils.calculatePartitionId(parentId, p[from], from + 1));
+    for (int j = 0; j <= last; j++) {
+      query.setParameter("name" + j, p[from + j]);
+    }
     try {
-      //Sure to give a single result because all children of same parent "null" 
-      //so name is unique
       return query.getSingleResult();
     } catch (NoResultException e) {
-      logger.log(Level.WARNING,
-              "Could not resolve root inode with name: {0} and partition_id"
-              + partitionId, name);
       return null;
     }
   }
@@ -423,19 +607,57 @@ public class InodeFacade extends AbstractFacade<Inode> {
     if(i == null) {
       throw new IllegalArgumentException("Inode was not provided.");
     }
+    String cachedPath = getCachedPath(i);
+    if (cachedPath != null) {
+      return cachedPath;
+    }
+    // Walk up until the root or until an ancestor whose path is already known
     List<String> pathComponents = new ArrayList<>();
+    String ancestorPath = "";
     Inode parent = i;
     while (parent.getId() != 1) {
       pathComponents.add(parent.getInodePK().getName());
       parent = findParent(parent);
+      if (parent.getId() != 1) {
+        cachedPath = getCachedPath(parent);
+        if (cachedPath != null) {
+          ancestorPath = cachedPath;
+          break;
+        }
+      }
     }
-    StringBuilder path = new StringBuilder();
+    StringBuilder path = new StringBuilder(ancestorPath);
     for (int j = pathComponents.size() - 1; j >= 0; j--) {
       path.append("/").append(pathComponents.get(j));
     }
+    if (!pathComponents.isEmpty()) {
+      inodePathCache.putPath(i.getId(), path.toString());
+    }
     return path.toString();
   }
 
+  /**
+   * Get the cached path of an inode, validating that the path still resolves to the same inode.
+   *
+   * @param i
+   * @return the path or null if it is not cached or is stale
+   */
+  private String getCachedPath(Inode i) {
+    String cachedPath = inodePathCache.getPath(i.getId());
+    if (cachedPath == null) {
+      return null;
+    }
+    // The inode or one of its ancestors might have been moved since the path was cached
+    if (i.getInodePK().getName().equals(cachedPath.substring(cachedPath.lastIndexOf('/') + 1))) {
+      Inode resolved = resolvePath(cachedPath);
+      if (resolved != null && resolved.getId().equals(i.getId())) {
+        return cachedPath;
+      }
+    }
+    inodePathCache.invalidate(i.getId());
+    return null;
+  }
+
   /**
    * Get the inodes in the directory pointed to by the given absolute HDFS path.
    * <p/>
@@ -0,0 +1,66 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dao.hdfs.inode;
+
+import io.hops.hopsworks.common.util.Settings;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of inode id to absolute path. Entries are only hints: the file system can be changed behind
+ * Hopsworks' back, so callers must validate a cached path before using it.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+public class InodePathCache {
+
+  @EJB
+  private Settings settings;
+
+  private Map<Long, String> paths;
+
+  @PostConstruct
+  public void init() {
+    final int maxSize = settings.getInodePathCacheSize();
+    paths = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  public synchronized String getPath(Long inodeId) {
+    return paths.get(inodeId);
+  }
+
+  public synchronized void putPath(Long inodeId, String path) {
+    paths.put(inodeId, path);
+  }
+
+  public synchronized void invalidate(Long inodeId) {
+    paths.remove(inodeId);
+  }
+}
@@ -77,6 +77,8 @@ import org.codehaus.jackson.annotate.JsonIgnore;
         query = "SELECT h FROM Hosts h WHERE h.condaEnabled = true AND h.numGpus = 0"),
   @NamedQuery(name = "Hosts.findBy-Hostname",
           query = "SELECT h FROM Hosts h WHERE h.hostname = :hostname"),
+  @NamedQuery(name = "Hosts.findBy-Hostnames",
+          query = "SELECT h FROM Hosts h WHERE h.hostname IN :hostnames"),
   @NamedQuery(name = "Hosts.findBy-HostIp",
           query = "SELECT h FROM Hosts h WHERE h.hostIp = :hostIp"),
   @NamedQuery(name = "Hosts.findBy-Cluster.Group.Service.Status",
@@ -39,14 +39,18 @@
 
 package io.hops.hopsworks.common.dao.host;
 
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology;
 import io.hops.hopsworks.common.dao.pythonDeps.PythonDepsFacade;
 
+import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Stateless
@@ -54,6 +58,8 @@ public class HostsFacade implements Serializable {
 
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
+  @EJB
+  private ClusterTopology clusterTopology;
 
   public HostsFacade() {
   }
@@ -83,6 +89,15 @@ public class HostsFacade implements Serializable {
     }
   }
 
+  public List<Hosts> findByHostnames(Collection<String> hostnames) {
+    if (hostnames.isEmpty()) {
+      return new ArrayList<>();
+    }
+    TypedQuery<Hosts> query = em.createNamedQuery("Hosts.findBy-Hostnames", Hosts.class)
+      .setParameter("hostnames", hostnames);
+    return query.getResultList();
+  }
+
   public List<Hosts> find(String cluster, String group, String service,
           Status status) {
     TypedQuery<Hosts> query = em.createNamedQuery(
@@ -137,6 +152,8 @@ public class HostsFacade implements Serializable {
     Hosts host = findByHostname(hostname);
     if (host != null) {
       em.remove(host);
+      // The services of the host go away with it
+      clusterTopology.invalidate();
       return true;
     }
     return false;
@@ -362,6 +362,24 @@ public class ExecutionFacade extends AbstractFacade<Execution> {
     return exec;
   }
 
+  /**
+   * Update state, final status and progress of an execution with a single merge.
+   *
+   * @param exec execution
+   * @param newState state
+   * @param finalStatus final status
+   * @param progress progress
+   * @return updated execution
+   */
+  public Execution updateStatus(Execution exec, JobState newState, JobFinalStatus finalStatus, float progress) {
+    exec = getExecution(exec);
+    exec.setState(newState);
+    exec.setFinalStatus(finalStatus);
+    exec.setProgress(progress);
+    merge(exec);
+    return exec;
+  }
+
   public Execution updateExecutionStart(Execution exec, long executionStart) {
     exec = getExecution(exec);
     exec.setExecutionStart(executionStart);
@@ -50,17 +50,12 @@ import io.hops.hopsworks.restutils.RESTCodes;
 import io.hops.hopsworks.exceptions.ServiceException;
 import io.hops.hopsworks.exceptions.UserException;
 import io.hops.hopsworks.common.hdfs.HdfsUsersController;
+import io.hops.hopsworks.common.kafka.KafkaAdminSession;
+import io.hops.hopsworks.common.kafka.KafkaTopicsCache;
 import io.hops.hopsworks.common.security.BaseHadoopClientsService;
 import io.hops.hopsworks.common.security.CertificateMaterializer;
 import io.hops.hopsworks.common.util.HopsUtils;
 import io.hops.hopsworks.common.util.Settings;
-import kafka.admin.AdminUtils;
-import kafka.admin.RackAwareMode;
-import kafka.common.TopicAlreadyMarkedForDeletionException;
-import kafka.utils.ZKStringSerializer$;
-import kafka.utils.ZkUtils;
-import org.I0Itec.zkclient.ZkClient;
-import org.I0Itec.zkclient.ZkConnection;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaCompatibility;
 import org.apache.avro.SchemaParseException;
@@ -117,6 +112,10 @@ public class KafkaFacade {
   private HdfsUsersController hdfsUsersController;
   @EJB
   private UserFacade userFacade;
+  @EJB
+  private KafkaAdminSession kafkaAdminSession;
+  @EJB
+  private KafkaTopicsCache kafkaTopicsCache;
 
   private static final String COLON_SEPARATOR = ":";
   public static final String SLASH_SEPARATOR = "//";
@@ -139,6 +138,12 @@ public class KafkaFacade {
    * @return
    */
   public List<TopicDTO> findTopicsByProject(Project project) {
+    String key = KafkaTopicsCache.topicsKey(project.getId());
+    List<TopicDTO> cached = kafkaTopicsCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    long generation = kafkaTopicsCache.getGeneration();
 
     List<ProjectTopics> res = em.createNamedQuery("ProjectTopics.findByProject", ProjectTopics.class)
         .setParameter("project", project)
@@ -153,6 +158,7 @@ public class KafkaFacade {
             pt.getSchemaTopics().getSchemaTopicsPK().getVersion()));
       }
     }
+    kafkaTopicsCache.put(key, generation, topics);
     return topics;
   }
 
@@ -280,29 +286,11 @@ public class KafkaFacade {
     
 
     // create the topic in kafka 
-    ZkClient zkClient = new ZkClient(getIp(settings.getZkConnectStr()).
-        getHostName(),
-        Settings.ZOOKEEPER_SESSION_TIMEOUT_MS, Settings.ZOOKEEPER_CONNECTION_TIMEOUT_MS, ZKStringSerializer$.MODULE$);
-    ZkConnection zkConnection = new ZkConnection(settings.getZkConnectStr());
-    ZkUtils zkUtils = new ZkUtils(zkClient, zkConnection, false);
-
     try {
-      if (!AdminUtils.topicExists(zkUtils, topicName)) {
-        AdminUtils.createTopic(zkUtils, topicName,
-            topicDto.getNumOfPartitions(),
-            topicDto.getNumOfReplicas(),
-            new Properties(), RackAwareMode.Enforced$.MODULE$);
-      }
+      kafkaAdminSession.createTopic(topicName, topicDto.getNumOfPartitions(), topicDto.getNumOfReplicas());
     } catch (TopicExistsException ex) {
       throw new KafkaException(RESTCodes.KafkaErrorCode.TOPIC_ALREADY_EXISTS_IN_ZOOKEEPER, Level.INFO,
         "topic name: " + topicName, ex.getMessage());
-    } finally {
-      zkClient.close();
-      try {
-        zkConnection.close();
-      } catch (InterruptedException ex) {
-        LOGGER.log(Level.SEVERE, null, ex.getMessage());
-      }
     }
 
     SchemaTopics schema = em.find(SchemaTopics.class,
@@ -331,6 +319,7 @@ public class KafkaFacade {
 
     em.persist(pt);
     em.flush();
+    kafkaTopicsCache.invalidate();
 
     return pt;
     //add default topic acl for the existing project members
@@ -351,6 +340,7 @@ public class KafkaFacade {
 
     //remove from database
     em.remove(pt);
+    kafkaTopicsCache.invalidate();
     /*
      * What is the possibility of the program failing below? The topic is
      * removed from
@@ -362,23 +352,7 @@ public class KafkaFacade {
      * topic (with the same name) create operation fails.
      */
     //remove from zookeeper
-    ZkClient zkClient = new ZkClient(getIp(settings.getZkConnectStr()).
-        getHostName(),
-        Settings.ZOOKEEPER_SESSION_TIMEOUT_MS, Settings.ZOOKEEPER_CONNECTION_TIMEOUT_MS, ZKStringSerializer$.MODULE$);
-    ZkConnection zkConnection = new ZkConnection(settings.getZkConnectStr());
-    ZkUtils zkUtils = new ZkUtils(zkClient, zkConnection, false);
-
-    try {
-      AdminUtils.deleteTopic(zkUtils, topicName);
-    } finally {
-      zkClient.close();
-      try {
-        zkConnection.close();
-      } catch (InterruptedException ex) {
-        Logger.getLogger(KafkaFacade.class.getName()).
-            log(Level.SEVERE, null, ex);
-      }
-    }
+    kafkaAdminSession.deleteTopics(Collections.singletonList(topicName));
   }
 
   public void removeAllTopicsFromProject(Project project) throws
@@ -388,38 +362,20 @@ public class KafkaFacade {
         .setParameter("project", project)
         .getResultList();
 
+    //the topics shared with the project are removed along with it, even if it owns none
+    kafkaTopicsCache.invalidate();
     if (topics == null || topics.isEmpty()) {
       return;
     }
 
-    ZkClient zkClient = null;
-    ZkConnection zkConnection = null;
-
-    try {
-      zkClient = new ZkClient(getIp(settings.getZkConnectStr()).getHostName(),
-          Settings.ZOOKEEPER_SESSION_TIMEOUT_MS, Settings.ZOOKEEPER_CONNECTION_TIMEOUT_MS, ZKStringSerializer$.MODULE$);
-      zkConnection = new ZkConnection(settings.getZkConnectStr());
-      for (ProjectTopics topic : topics) {
-        //remove from database
-        em.remove(topic);
-
-        //remove from zookeeper
-        ZkUtils zkUtils = new ZkUtils(zkClient, zkConnection, false);
-        try {
-          AdminUtils.deleteTopic(zkUtils, topic.getTopicName());
-        } catch (TopicAlreadyMarkedForDeletionException ex) {
-          //ignore this error, if the topic is already being removed it will end
-          //up in the state that we want.
-        }
-      }
-    } finally {
-      if (zkClient != null) {
-        zkClient.close();
-      }
-      if (zkConnection != null) {
-        zkConnection.close();
-      }
+    List<String> topicNames = new ArrayList<>(topics.size());
+    for (ProjectTopics topic : topics) {
+      //remove from database
+      em.remove(topic);
+      topicNames.add(topic.getTopicName());
     }
+    //remove from zookeeper in a single batch over the shared session
+    kafkaAdminSession.deleteTopics(topicNames);
   }
 
 
@@ -436,6 +392,7 @@ public class KafkaFacade {
         .setParameter("user", user)
         .setParameter("project", project)
         .executeUpdate();
+    kafkaTopicsCache.invalidate();
   }
 
   public TopicDefaultValueDTO topicDefaultValues() throws InterruptedException, IOException, KeeperException {
@@ -473,6 +430,7 @@ public class KafkaFacade {
     SharedTopics st = new SharedTopics(topicName, owningProject.getId(), projectId);
     em.persist(st);
     em.flush();
+    kafkaTopicsCache.invalidate();
   }
   
   public void unShareTopic(String topicName, Integer ownerProjectId) throws KafkaException {
@@ -481,10 +439,17 @@ public class KafkaFacade {
       throw new KafkaException(RESTCodes.KafkaErrorCode.TOPIC_NOT_SHARED, Level.FINE, "topic: " + topicName);
     }
     em.remove(pt);
+    kafkaTopicsCache.invalidate();
   }
 
   public List<SharedProjectDTO> topicIsSharedTo(String topicName,
       Integer projectId) {
+    String key = KafkaTopicsCache.sharedWithKey(projectId, topicName);
+    List<SharedProjectDTO> cached = kafkaTopicsCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    long generation = kafkaTopicsCache.getGeneration();
 
     List<SharedProjectDTO> shareProjectDtos = new ArrayList<>();
 
@@ -504,6 +469,7 @@ public class KafkaFacade {
       }
     }
 
+    kafkaTopicsCache.put(key, generation, shareProjectDtos);
     return shareProjectDtos;
   }
   
@@ -512,6 +478,12 @@ public class KafkaFacade {
     if (projectId == null || projectId < 0 || Strings.isNullOrEmpty(topicName)) {
       throw new IllegalArgumentException("ProjectId must be non-null non-negative number, topic must be provided");
     }
+    String key = KafkaTopicsCache.aclUsersKey(projectId, topicName);
+    List<AclUserDTO> cached = kafkaTopicsCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    long generation = kafkaTopicsCache.getGeneration();
     //get the owner project name
     Project project = em.find(Project.class, projectId);
     List<AclUserDTO> aclUsers = new ArrayList<>();
@@ -544,6 +516,7 @@ public class KafkaFacade {
       entrySet()) {
       aclUsers.add(new AclUserDTO(user.getKey(), user.getValue()));
     }
+    kafkaTopicsCache.put(key, generation, aclUsers);
     return aclUsers;
   }
 
@@ -590,6 +563,7 @@ public class KafkaFacade {
     } catch (NoResultException e) {
       throw new KafkaException(RESTCodes.KafkaErrorCode.TOPIC_NOT_FOUND, Level.FINE, "Topic: " + topicName);
     }
+    kafkaTopicsCache.invalidate();
 
     //if acl definition applies only for a specific user
     if (!userEmail.equals("*")) {
@@ -652,6 +626,7 @@ public class KafkaFacade {
     }
     //remove previous acl
     em.remove(ta);
+    kafkaTopicsCache.invalidate();
 
     //add the new acls  
     addAclsToTopic(topicName, project.getId(), aclDto);
@@ -668,6 +643,7 @@ public class KafkaFacade {
     }
 
     em.remove(ta);
+    kafkaTopicsCache.invalidate();
   }
 
   public TopicAcls getTopicAcl(String topicName,
@@ -688,6 +664,13 @@ public class KafkaFacade {
   }
 
   public List<AclDTO> getTopicAcls(String topicName, Project project) throws KafkaException {
+    String key = KafkaTopicsCache.aclsKey(project.getId(), topicName);
+    List<AclDTO> cached = kafkaTopicsCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    long generation = kafkaTopicsCache.getGeneration();
+
     ProjectTopics pt = null;
     try {
       pt = em.createNamedQuery("ProjectTopics.findByProjectAndTopicName", ProjectTopics.class)
@@ -712,6 +695,7 @@ public class KafkaFacade {
         ta.getOperationType(), ta.getHost(), ta.getRole()));
     }
     
+    kafkaTopicsCache.put(key, generation, aclDtos);
     return aclDtos;
   }
 
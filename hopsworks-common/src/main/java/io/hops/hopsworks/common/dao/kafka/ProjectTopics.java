@@ -72,6 +72,8 @@ import io.hops.hopsworks.common.dao.project.Project;
 @NamedQueries({
   @NamedQuery(name = "ProjectTopics.findAll",
           query = "SELECT p FROM ProjectTopics p"),
+  @NamedQuery(name = "ProjectTopics.findAllTopicNames",
+          query = "SELECT p.topicName FROM ProjectTopics p"),
   @NamedQuery(name = "ProjectTopics.findByTopicName",
           query
           = "SELECT p FROM ProjectTopics p WHERE p.topicName = :topicName"),
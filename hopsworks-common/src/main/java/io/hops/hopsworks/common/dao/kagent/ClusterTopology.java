@@ -0,0 +1,425 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dao.kagent;
+
+import io.hops.hopsworks.common.dao.host.Health;
+import io.hops.hopsworks.common.dao.host.Hosts;
+import io.hops.hopsworks.common.dao.host.Status;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory model of the services running on every host of every cluster, with per-cluster, per-group and
+ * per-service rollups precomputed, so that the monitoring pages and endpoints do not run aggregate queries on every
+ * request. The model is loaded with a single query and then kept up to date with the service updates of the agent
+ * heartbeats. Rollups are only recomputed when a heartbeat changes the status of a service or the resources of a
+ * host, and readers always see an immutable snapshot.
+ * <p>
+ * Changes that do not come from heartbeats, such as removing a host, call {@link #invalidate()}. The model is also
+ * reloaded every {@link #RELOAD_INTERVAL_MS} in case one was missed.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class ClusterTopology {
+
+  private static final long RELOAD_INTERVAL_MS = 300000L;
+
+  @EJB
+  private HostServicesFacade hostServicesFacade;
+  @Resource
+  private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+  private volatile Snapshot snapshot;
+
+  public List<String> getClusters() {
+    return getSnapshot().clusterNames;
+  }
+
+  /**
+   * @param cluster
+   * @return the rollup of the cluster, or null if there is no service in the cluster
+   */
+  public Rollup getCluster(String cluster) {
+    return getSnapshot().rollups.get(key(cluster));
+  }
+
+  public Rollup getGroup(String cluster, String group) {
+    return getSnapshot().rollups.get(key(cluster, group));
+  }
+
+  public Rollup getService(String cluster, String group, String service) {
+    return getSnapshot().rollups.get(key(cluster, group, service));
+  }
+
+  /**
+   * @param group
+   * @return the instances of the services of a group in all the clusters
+   */
+  public List<ServiceInstance> getGroupInstances(String group) {
+    List<ServiceInstance> instances = getSnapshot().groupInstances.get(group);
+    return instances == null ? Collections.<ServiceInstance>emptyList() : Collections.unmodifiableList(instances);
+  }
+
+  /**
+   * Apply the services updated by a batch of heartbeats. If called within a transaction the update is applied once
+   * the transaction has committed.
+   *
+   * @param hostServices the updated services, with their hosts
+   */
+  public void update(List<HostServices> hostServices) {
+    if (hostServices.isEmpty()) {
+      return;
+    }
+    final List<ServiceInstance> instances = new ArrayList<>(hostServices.size());
+    for (HostServices hostService : hostServices) {
+      instances.add(new ServiceInstance(hostService, hostService.getHost()));
+    }
+    if (isTransactionActive()) {
+      transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          if (status == javax.transaction.Status.STATUS_COMMITTED) {
+            apply(instances);
+          }
+        }
+      });
+    } else {
+      apply(instances);
+    }
+  }
+
+  /**
+   * Drop the model, it is reloaded on the next read. If called within a transaction the model is dropped again once
+   * the transaction completes, so that a model loaded by a concurrent reader before the commit is not kept.
+   */
+  public void invalidate() {
+    snapshot = null;
+    if (isTransactionActive()) {
+      transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          snapshot = null;
+        }
+      });
+    }
+  }
+
+  private boolean isTransactionActive() {
+    return transactionSynchronizationRegistry != null
+        && transactionSynchronizationRegistry.getTransactionStatus() == javax.transaction.Status.STATUS_ACTIVE;
+  }
+
+  private Snapshot getSnapshot() {
+    Snapshot current = snapshot;
+    if (current != null && System.currentTimeMillis() - current.loadedAt < RELOAD_INTERVAL_MS) {
+      return current;
+    }
+    synchronized (this) {
+      current = snapshot;
+      if (current == null || System.currentTimeMillis() - current.loadedAt >= RELOAD_INTERVAL_MS) {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (HostServicesInfo info : hostServicesFacade.findAllHostServicesInfo()) {
+          instances.add(new ServiceInstance(info.getHostServices(), info.getHost()));
+        }
+        load(instances);
+        current = snapshot;
+      }
+      return current;
+    }
+  }
+
+  synchronized void load(List<ServiceInstance> loaded) {
+    Map<String, ServiceInstance> instances = new HashMap<>();
+    for (ServiceInstance instance : loaded) {
+      instances.put(instance.key, instance);
+    }
+    snapshot = new Snapshot(instances, System.currentTimeMillis());
+  }
+
+  synchronized void apply(List<ServiceInstance> updates) {
+    Snapshot current = snapshot;
+    if (current == null) {
+      // Loaded with the update on the next read
+      return;
+    }
+    Map<String, ServiceInstance> instances = null;
+    for (ServiceInstance update : updates) {
+      Map<String, ServiceInstance> existing = instances == null ? current.instances : instances;
+      ServiceInstance instance = existing.get(update.key);
+      if (instance != null && instance.sameAs(update)) {
+        continue;
+      }
+      if (instances == null) {
+        instances = new HashMap<>(current.instances);
+      }
+      instances.put(update.key, update);
+      // Resources are per host, keep the other services of the host consistent
+      for (Map.Entry<String, ServiceInstance> entry : instances.entrySet()) {
+        ServiceInstance other = entry.getValue();
+        if (other.hostname.equals(update.hostname) && !other.sameResources(update)) {
+          entry.setValue(other.withResources(update));
+        }
+      }
+    }
+    if (instances != null) {
+      snapshot = new Snapshot(instances, current.loadedAt);
+    }
+  }
+
+  private static String key(String... parts) {
+    return String.join("/", parts);
+  }
+
+  /**
+   * A service running on a host, with the resources of the host.
+   */
+  public static class ServiceInstance {
+
+    private final String key;
+    private final String cluster;
+    private final String group;
+    private final String service;
+    private final String hostname;
+    private final Status status;
+    private final Health health;
+    private final int cores;
+    private final int gpus;
+    private final long memoryCapacity;
+    private final long diskCapacity;
+
+    private ServiceInstance(HostServices hostService, Hosts host) {
+      this(hostService.getCluster(), hostService.getGroup(), hostService.getService(), host.getHostname(),
+          hostService.getStatus(), hostService.getHealth(), toInt(host.getCores()), toInt(host.getNumGpus()),
+          toLong(host.getMemoryCapacity()), toLong(host.getDiskCapacity()));
+    }
+
+    ServiceInstance(String cluster, String group, String service, String hostname, Status status,
+        Health health, int cores, int gpus, long memoryCapacity, long diskCapacity) {
+      this.key = key(hostname, cluster, group, service);
+      this.cluster = cluster;
+      this.group = group;
+      this.service = service;
+      this.hostname = hostname;
+      this.status = status;
+      this.health = health;
+      this.cores = cores;
+      this.gpus = gpus;
+      this.memoryCapacity = memoryCapacity;
+      this.diskCapacity = diskCapacity;
+    }
+
+    private boolean sameAs(ServiceInstance other) {
+      return status == other.status && sameResources(other);
+    }
+
+    private boolean sameResources(ServiceInstance other) {
+      return cores == other.cores && gpus == other.gpus && memoryCapacity == other.memoryCapacity
+          && diskCapacity == other.diskCapacity;
+    }
+
+    private ServiceInstance withResources(ServiceInstance other) {
+      return new ServiceInstance(cluster, group, service, hostname, status, health, other.cores, other.gpus,
+          other.memoryCapacity, other.diskCapacity);
+    }
+
+    private static int toInt(Integer value) {
+      return value == null ? 0 : value;
+    }
+
+    private static long toLong(Long value) {
+      return value == null ? 0 : value;
+    }
+
+    public String getCluster() {
+      return cluster;
+    }
+
+    public String getGroup() {
+      return group;
+    }
+
+    public String getService() {
+      return service;
+    }
+
+    public String getHostname() {
+      return hostname;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public Health getHealth() {
+      return health;
+    }
+  }
+
+  /**
+   * Aggregates of the services of a cluster, of a group of a cluster or of a service of a group. Host resources are
+   * counted once per host.
+   */
+  public static class Rollup {
+
+    private final List<ServiceInstance> instances = new ArrayList<>();
+    private final Set<String> hosts = new HashSet<>();
+    private final Set<String> groups = new TreeSet<>();
+    private final Set<String> services = new TreeSet<>();
+    private final Set<String> badServices = new HashSet<>();
+    private final Map<String, Integer> servicesCount = new TreeMap<>();
+    private final Map<String, String> servicesGroups = new TreeMap<>();
+    private final Map<Status, Integer> statusCount = new EnumMap<>(Status.class);
+    private long totalCores;
+    private long totalGPUs;
+    private long totalMemoryCapacity;
+    private long totalDiskCapacity;
+
+    private void add(ServiceInstance instance) {
+      instances.add(instance);
+      if (hosts.add(instance.hostname)) {
+        totalCores += instance.cores;
+        totalGPUs += instance.gpus;
+        totalMemoryCapacity += instance.memoryCapacity;
+        totalDiskCapacity += instance.diskCapacity;
+      }
+      groups.add(instance.group);
+      if (instance.service.isEmpty()) {
+        return;
+      }
+      services.add(instance.service);
+      servicesGroups.put(instance.service, instance.group);
+      servicesCount.merge(instance.service, 1, Integer::sum);
+      if (instance.status != Status.Started) {
+        badServices.add(instance.service);
+      }
+      statusCount.merge(instance.status, 1, Integer::sum);
+    }
+
+    /**
+     * @return the instances, ordered by hostname
+     */
+    public List<ServiceInstance> getInstances() {
+      return Collections.unmodifiableList(instances);
+    }
+
+    public long getNumberOfHosts() {
+      return hosts.size();
+    }
+
+    public long getTotalCores() {
+      return totalCores;
+    }
+
+    public long getTotalGPUs() {
+      return totalGPUs;
+    }
+
+    public long getTotalMemoryCapacity() {
+      return totalMemoryCapacity;
+    }
+
+    public long getTotalDiskCapacity() {
+      return totalDiskCapacity;
+    }
+
+    public Set<String> getGroups() {
+      return Collections.unmodifiableSet(groups);
+    }
+
+    public Set<String> getServices() {
+      return Collections.unmodifiableSet(services);
+    }
+
+    /**
+     * @return the services with at least one instance that is not started
+     */
+    public Set<String> getBadServices() {
+      return Collections.unmodifiableSet(badServices);
+    }
+
+    public Map<String, Integer> getServicesCount() {
+      return Collections.unmodifiableMap(servicesCount);
+    }
+
+    public Map<String, String> getServicesGroups() {
+      return Collections.unmodifiableMap(servicesGroups);
+    }
+
+    public int getStatusCount(Status status) {
+      Integer count = statusCount.get(status);
+      return count == null ? 0 : count;
+    }
+
+    private void seal() {
+      instances.sort((a, b) -> a.hostname.compareTo(b.hostname));
+    }
+  }
+
+  private static class Snapshot {
+
+    private final long loadedAt;
+    private final Map<String, ServiceInstance> instances;
+    private final List<String> clusterNames;
+    private final Map<String, Rollup> rollups = new HashMap<>();
+    private final Map<String, List<ServiceInstance>> groupInstances = new HashMap<>();
+
+    private Snapshot(Map<String, ServiceInstance> instances, long loadedAt) {
+      this.loadedAt = loadedAt;
+      this.instances = instances;
+      Set<String> clusters = new TreeSet<>();
+      for (ServiceInstance instance : instances.values()) {
+        clusters.add(instance.cluster);
+        rollups.computeIfAbsent(key(instance.cluster), k -> new Rollup()).add(instance);
+        rollups.computeIfAbsent(key(instance.cluster, instance.group), k -> new Rollup()).add(instance);
+        rollups.computeIfAbsent(key(instance.cluster, instance.group, instance.service), k -> new Rollup())
+            .add(instance);
+        groupInstances.computeIfAbsent(instance.group, k -> new ArrayList<>()).add(instance);
+      }
+      for (Rollup rollup : rollups.values()) {
+        rollup.seal();
+      }
+      this.clusterNames = Collections.unmodifiableList(new ArrayList<>(clusters));
+    }
+  }
+}
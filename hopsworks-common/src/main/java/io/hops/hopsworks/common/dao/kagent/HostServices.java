@@ -86,6 +86,10 @@ import javax.validation.constraints.Size;
       query
       = "SELECT r FROM HostServices r WHERE r.host.hostname = :hostname ORDER BY r.cluster, r.group, r.service")
   ,
+  @NamedQuery(name = "HostServices.findBy-Hostnames",
+      query
+      = "SELECT r FROM HostServices r WHERE r.host.hostname IN :hostnames")
+  ,
   @NamedQuery(name = "HostServices.findBy-Cluster-Group-Service",
       query
       = "SELECT r FROM HostServices r WHERE r.cluster = :cluster AND r.group = :group "
@@ -114,6 +118,11 @@ import javax.validation.constraints.Size;
       query
       = "SELECT COUNT(r) FROM HostServices r WHERE r.cluster = :cluster AND r.group = :group")
   ,
+  @NamedQuery(name = "HostServices.findHostServicesInfo",
+      query
+      = "SELECT NEW io.hops.hopsworks.common.dao.kagent.HostServicesInfo(r, h) FROM HostServices r, Hosts h "
+      + "WHERE r.host = h")
+  ,
   @NamedQuery(name = "HostServices.findHostServicesBy-Cluster",
       query
       = "SELECT NEW io.hops.hopsworks.common.dao.kagent.HostServicesInfo(r, h) FROM HostServices r, Hosts h "
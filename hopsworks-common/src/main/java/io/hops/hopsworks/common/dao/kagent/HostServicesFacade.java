@@ -40,17 +40,23 @@
 package io.hops.hopsworks.common.dao.kagent;
 
 import io.hops.hopsworks.common.agent.AgentController;
+import io.hops.hopsworks.common.agent.AgentOperation;
+import io.hops.hopsworks.common.agent.AgentOperationExecutor;
+import io.hops.hopsworks.common.agent.AgentOperationResult;
 import io.hops.hopsworks.common.dao.host.Hosts;
 import io.hops.hopsworks.common.dao.host.HostsFacade;
 import io.hops.hopsworks.common.dao.host.Status;
 import io.hops.hopsworks.exceptions.GenericException;
 import io.hops.hopsworks.restutils.RESTCodes;
-import io.hops.hopsworks.exceptions.ServiceException;
 import io.hops.hopsworks.common.util.WebCommunication;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
@@ -69,6 +75,10 @@ public class HostServicesFacade {
   private WebCommunication web;
   @EJB
   private HostsFacade hostEJB;
+  @EJB
+  private AgentOperationExecutor agentOperationExecutor;
+  @EJB
+  private ClusterTopology clusterTopology;
 
   private static final Logger LOGGER = Logger.getLogger(HostServicesFacade.class.getName());
 
@@ -196,6 +206,13 @@ public class HostServicesFacade {
     return query.getSingleResult();
   }
 
+  /**
+   * @return all the services with their hosts, read in a single query
+   */
+  public List<HostServicesInfo> findAllHostServicesInfo() {
+    return em.createNamedQuery("HostServices.findHostServicesInfo", HostServicesInfo.class).getResultList();
+  }
+
   public List<HostServicesInfo> findHostServicesByCluster(String cluster) {
     TypedQuery<HostServicesInfo> query = em.createNamedQuery(
         "HostServices.findHostServicesBy-Cluster", HostServicesInfo.class)
@@ -253,6 +270,7 @@ public class HostServicesFacade {
 
   public void persist(HostServices hostService) {
     em.persist(hostService);
+    clusterTopology.invalidate();
   }
 
   public void store(HostServices service) {
@@ -269,26 +287,57 @@ public class HostServicesFacade {
     } else {
       em.persist(service);
     }
+    clusterTopology.invalidate();
   }
 
   public void deleteServicesByHostname(String hostname) {
     em.createNamedQuery("HostServices.DeleteBy-Hostname").setParameter("hostname", hostname).executeUpdate();
+    clusterTopology.invalidate();
   }
 
-  public String serviceOp(String group, String serviceName, Action action) throws GenericException {
-    return webOp(action, findGroups(group, serviceName));
+  /**
+   * Run an action on a service on all the hosts of a group.
+   *
+   * @param group
+   * @param serviceName
+   * @param action
+   * @param batchSize if set, the hosts are operated on in rolling batches of this size
+   * @return the result on every host
+   * @throws GenericException
+   */
+  public List<AgentOperationResult> serviceOp(String group, String serviceName, Action action, Integer batchSize)
+      throws GenericException {
+    return webOp(action, findGroups(group, serviceName), batchSize);
   }
 
-  public String serviceOp(String service, Action action) throws GenericException {
-    return webOp(action, findGroupServices(service));
+  public List<AgentOperationResult> serviceOp(String service, Action action, Integer batchSize)
+      throws GenericException {
+    return webOp(action, findGroupServices(service), batchSize);
   }
 
-  public String serviceOnHostOp(String group, String serviceName, String hostname,
+  public List<AgentOperationResult> serviceOnHostOp(String group, String serviceName, String hostname,
       Action action) throws GenericException {
-    return webOp(action, findServiceOnHost(hostname, group, serviceName));
+    return webOp(action, findServiceOnHost(hostname, group, serviceName), null);
+  }
+
+  /**
+   * @param results
+   * @return one line per host with the output of the kagent or the reason the operation failed
+   */
+  public String formatResults(List<AgentOperationResult> results) {
+    StringBuilder result = new StringBuilder();
+    for (AgentOperationResult r : results) {
+      result.append(r.getTarget()).append(" ");
+      if (r.getStatus() != AgentOperationResult.Status.SUCCESS) {
+        result.append(r.getStatus()).append(" ");
+      }
+      result.append(r.getOutput()).append("\n");
+    }
+    return result.toString();
   }
 
-  private String webOp(Action operation, List<HostServices> services) throws GenericException {
+  private List<AgentOperationResult> webOp(Action operation, List<HostServices> services, Integer batchSize)
+      throws GenericException {
     if (operation == null) {
       throw new IllegalArgumentException("The action is not valid, valid action are " + Arrays.toString(
               Action.values()));
@@ -296,36 +345,60 @@ public class HostServicesFacade {
     if (services == null || services.isEmpty()) {
       throw new IllegalArgumentException("service was not provided.");
     }
-    String result = "";
-    boolean success = false;
-    int exception = Response.Status.BAD_REQUEST.getStatusCode();
+    List<AgentOperation> operations = new ArrayList<>(services.size());
+    // The kagent errors of every host, so that the response code of the kagent can be returned to the caller
+    Map<String, GenericException> errors = new ConcurrentHashMap<>();
     for (HostServices service : services) {
-      Hosts h = service.getHost();
-      if (h != null) {
-        String ip = h.getPublicOrPrivateIp();
-        String agentPassword = h.getAgentPassword();
+      // Read everything the operation needs here, entities must not be used from the executor threads
+      final Hosts h = service.getHost();
+      final String target = service.toString();
+      if (h == null) {
+        operations.add(new AgentOperation(target, () -> {
+          throw new IllegalStateException("host not found: " + target);
+        }));
+        continue;
+      }
+      final String ip = h.getPublicOrPrivateIp();
+      final String agentPassword = h.getAgentPassword();
+      final String cluster = service.getCluster();
+      final String group = service.getGroup();
+      final String name = service.getService();
+      operations.add(new AgentOperation(target, () -> {
         try {
-          result += service.toString() + " " + web.serviceOp(operation.value(), ip, agentPassword,
-              service.getCluster(), service.getGroup(), service.getService());
-          success = true;
+          return web.serviceOp(operation.value(), ip, agentPassword, cluster, group, name);
         } catch (GenericException ex) {
-          if (services.size() == 1) {
-            throw ex;
-          } else {
-            exception = ex.getErrorCode().getRespStatus().getStatusCode();
-            result += service.toString() + " " + ex.getErrorCode().getRespStatus() + " " + ex.getMessage();
-          }
+          errors.put(target, ex);
+          throw ex;
         }
-      } else {
-        result += service.toString() + " " + "host not found: " + service.getHost();
+      }));
+    }
+
+    AgentOperationExecutor.ProgressListener listener = (result, completed, total) -> LOGGER.log(Level.INFO,
+        "{0} {1}: {2} ({3}/{4})", new Object[]{operation, result.getTarget(), result.getStatus(), completed, total});
+    List<AgentOperationResult> results;
+    if (batchSize != null && batchSize > 0) {
+      results = agentOperationExecutor.executeRolling(operations, batchSize, listener);
+    } else {
+      results = agentOperationExecutor.execute(operations, listener);
+    }
+
+    if (services.size() == 1 && errors.containsKey(results.get(0).getTarget())) {
+      throw errors.get(results.get(0).getTarget());
+    }
+    boolean success = false;
+    int exception = Response.Status.BAD_REQUEST.getStatusCode();
+    for (AgentOperationResult r : results) {
+      if (r.getStatus() == AgentOperationResult.Status.SUCCESS) {
+        success = true;
+      } else if (errors.containsKey(r.getTarget())) {
+        exception = errors.get(r.getTarget()).getErrorCode().getRespStatus().getStatusCode();
       }
-      result += "\n";
     }
     if (!success) {
       throw new GenericException(RESTCodes.GenericErrorCode.UNKNOWN_ERROR, Level.SEVERE,
-        "webOp error, exception: " + exception + ", " + "result: " + result);
+        "webOp error, exception: " + exception + ", " + "result: " + formatResults(results));
     }
-    return result;
+    return results;
   }
 
   private Hosts findHostById(String hostname) {
@@ -333,61 +406,83 @@ public class HostServicesFacade {
     return host;
   }
 
-  public List<HostServices> updateHostServices(AgentController.AgentHeartbeatDTO heartbeat) throws ServiceException {
-    Hosts host = hostEJB.findByHostname(heartbeat.getHostId());
-    if (host == null) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.HOST_NOT_FOUND, Level.WARNING,
-        "hostId: " + heartbeat.getHostId());
+  /**
+   * Update the services reported in a batch of agent heartbeats. The services of all the hosts in the batch are
+   * read with a single query and updated in place, so this must run in the transaction that loaded the hosts.
+   *
+   * @param heartbeats the latest heartbeat of each host
+   * @param hosts the hosts of the heartbeats by hostname
+   * @return the updated services
+   */
+  public List<HostServices> updateHostServices(Collection<AgentController.AgentHeartbeatDTO> heartbeats,
+      Map<String, Hosts> hosts) {
+    if (hosts.isEmpty()) {
+      return new ArrayList<>();
     }
-    final List<HostServices> hostServices = new ArrayList<>(heartbeat.getServices().size());
-    for (final AgentController.AgentServiceDTO service : heartbeat.getServices()) {
-      final String cluster = service.getCluster();
-      final String name = service.getService();
-      final String group = service.getGroup();
-      HostServices hostService = null;
-      try {
-        hostService = find(heartbeat.getHostId(), cluster, group, name);
-      } catch (Exception ex) {
-        LOGGER.log(Level.WARNING, "Could not find service for " + heartbeat.getHostId() + "/"
-            + cluster + "/" + group + "/" + name);
+    final Map<String, HostServices> existingServices = new HashMap<>();
+    TypedQuery<HostServices> query = em.createNamedQuery("HostServices.findBy-Hostnames", HostServices.class)
+        .setParameter("hostnames", hosts.keySet());
+    for (HostServices hostService : query.getResultList()) {
+      existingServices.put(getServiceKey(hostService.getHost().getHostname(), hostService.getCluster(),
+          hostService.getGroup(), hostService.getService()), hostService);
+    }
+
+    final List<HostServices> hostServices = new ArrayList<>();
+    for (final AgentController.AgentHeartbeatDTO heartbeat : heartbeats) {
+      Hosts host = hosts.get(heartbeat.getHostId());
+      if (host == null || heartbeat.getServices() == null) {
         continue;
       }
-      
-      if (hostService == null) {
-        hostService = new HostServices();
-        hostService.setHost(host);
-        hostService.setCluster(cluster);
-        hostService.setGroup(group);
-        hostService.setService(name);
-        hostService.setStartTime(heartbeat.getAgentTime());
-      }
-  
-      final Integer pid = service.getPid() != null ? service.getPid(): -1;
-      hostService.setPid(pid);
-      if (service.getStatus() != null) {
-        if ((hostService.getStatus() == null || !hostService.getStatus().equals(Status.Started))
-            && service.getStatus().equals(Status.Started)) {
+      for (final AgentController.AgentServiceDTO service : heartbeat.getServices()) {
+        final String cluster = service.getCluster();
+        final String name = service.getService();
+        final String group = service.getGroup();
+        final String serviceKey = getServiceKey(heartbeat.getHostId(), cluster, group, name);
+        HostServices hostService = existingServices.get(serviceKey);
+        boolean isNew = hostService == null;
+        if (isNew) {
+          hostService = new HostServices();
+          hostService.setHost(host);
+          hostService.setCluster(cluster);
+          hostService.setGroup(group);
+          hostService.setService(name);
           hostService.setStartTime(heartbeat.getAgentTime());
         }
-        hostService.setStatus(service.getStatus());
-      } else {
-        hostService.setStatus(Status.None);
-      }
-  
-      if (service.getStatus().equals(Status.Started)) {
-        hostService.setStopTime(heartbeat.getAgentTime());
-      }
-      final Long startTime = hostService.getStartTime();
-      final Long stopTime = hostService.getStopTime();
-      if (startTime != null && stopTime != null) {
-        hostService.setUptime(stopTime - startTime);
-      } else {
-        hostService.setUptime(0L);
+
+        final Integer pid = service.getPid() != null ? service.getPid(): -1;
+        hostService.setPid(pid);
+        if (service.getStatus() != null) {
+          if ((hostService.getStatus() == null || !hostService.getStatus().equals(Status.Started))
+              && service.getStatus().equals(Status.Started)) {
+            hostService.setStartTime(heartbeat.getAgentTime());
+          }
+          hostService.setStatus(service.getStatus());
+        } else {
+          hostService.setStatus(Status.None);
+        }
+
+        if (Status.Started.equals(service.getStatus())) {
+          hostService.setStopTime(heartbeat.getAgentTime());
+        }
+        final Long startTime = hostService.getStartTime();
+        final Long stopTime = hostService.getStopTime();
+        if (startTime != null && stopTime != null) {
+          hostService.setUptime(stopTime - startTime);
+        } else {
+          hostService.setUptime(0L);
+        }
+
+        if (isNew) {
+          em.persist(hostService);
+          existingServices.put(serviceKey, hostService);
+        }
+        hostServices.add(hostService);
       }
-      
-      store(hostService);
-      hostServices.add(hostService);
     }
     return hostServices;
   }
+
+  private String getServiceKey(String hostname, String cluster, String group, String service) {
+    return hostname + "/" + cluster + "/" + group + "/" + service;
+  }
 }
@@ -105,7 +105,9 @@ import javax.xml.bind.annotation.XmlRootElement;
           query
           = "DELETE FROM CondaCommands c WHERE c.status = :status"),
   @NamedQuery(name = "CondaCommands.findByHost",
-          query = "SELECT c FROM CondaCommands c WHERE c.hostId = :host")})
+          query = "SELECT c FROM CondaCommands c WHERE c.hostId = :host"),
+  @NamedQuery(name = "CondaCommands.findByHostAndStatus",
+          query = "SELECT c FROM CondaCommands c WHERE c.hostId = :host AND c.status = :status")})
 public class CondaCommands implements Serializable {
 
   private static final long serialVersionUID = 1L;
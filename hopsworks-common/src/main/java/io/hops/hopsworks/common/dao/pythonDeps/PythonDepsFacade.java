@@ -170,41 +170,6 @@ public class PythonDepsFacade {
     GPU
   }
 
-  public class AnacondaTask implements Runnable {
-
-    @EJB
-    private final WebCommunication web;
-    private final String proj;
-    private final Hosts host;
-    private final CondaOp op;
-    private final String arg;
-    private Object entity;
-
-    public AnacondaTask(WebCommunication web, String proj, Hosts host, CondaOp op, String arg) {
-      this.web = web;
-      this.proj = proj;
-      this.host = host;
-      this.op = op;
-      this.arg = arg == null ? "" : arg;
-    }
-
-    @Override
-    public void run() {
-      try {
-        entity = web.anaconda(host.getHostIp(), host.
-            getAgentPassword(), op.toString(), proj, arg);
-      } catch (Exception ex) {
-        Logger.getLogger(PythonDepsFacade.class.getName()).log(Level.SEVERE,
-            null, ex);
-      }
-    }
-
-    public Object getEntity() {
-      return entity;
-    }
-
-  }
-
   public class CondaTask implements Runnable {
 
     @EJB
@@ -578,36 +543,6 @@ public class PythonDepsFacade {
     return null;
   }
 
-  /**
-   * Launches a thread per kagent (up to the threadpool max-size limit) that
-   * send a REST
-   * call to the kagent to execute the anaconda command.
-   *
-   * @param op
-   * @param proj
-   * @param arg
-   * @param hosts
-   */
-  public void blockingCondaEnvironmentOp(CondaOp op, String proj, String arg, List<Hosts> hosts) {
-    List<Future> waiters = new ArrayList<>();
-    for (Hosts h : hosts) {
-      LOGGER.log(Level.INFO, "Create anaconda enviornment for {0} on {1}",
-          new Object[]{proj, h.getHostIp()});
-      Future<?> f = kagentExecutorService.submit(
-          new AnacondaTask(this.web, proj, h, op, arg));
-      waiters.add(f);
-    }
-    for (Future f : waiters) {
-      try {
-        f.get(10, TimeUnit.SECONDS);
-      } catch (InterruptedException | ExecutionException | TimeoutException ex) {
-        Logger.getLogger(PythonDepsFacade.class.getName()).
-            log(Level.SEVERE, null, ex);
-      }
-    }
-
-  }
-
   public List<OpStatus> opStatus(Project proj) {
     Collection<CondaCommands> commands = proj.getCondaCommandsCollection();
     List<OpStatus> ops = new ArrayList<>();
@@ -773,6 +708,14 @@ public class PythonDepsFacade {
     return query.getResultList();
   }
 
+  public List<CondaCommands> findByHostAndStatus(Hosts host, PythonDepsFacade.CondaStatus status) {
+    TypedQuery<CondaCommands> query = em.createNamedQuery("CondaCommands.findByHostAndStatus",
+        CondaCommands.class);
+    query.setParameter("host", host);
+    query.setParameter("status", status);
+    return query.getResultList();
+  }
+
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
   public List<CondaCommands> findByStatus(PythonDepsFacade.CondaStatus status) {
     TypedQuery<CondaCommands> query = em.createNamedQuery("CondaCommands.findByStatus",
@@ -53,6 +53,7 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -326,6 +327,14 @@ public class UserFacade extends AbstractFacade<Users> {
     }
   }
 
+  public List<Users> findByUsernames(Collection<String> usernames) {
+    if (usernames.isEmpty()) {
+      return new ArrayList<>();
+    }
+    return em.createQuery("SELECT u FROM Users u WHERE u.username IN :usernames", Users.class)
+        .setParameter("usernames", usernames).getResultList();
+  }
+
   public void persist(Users user) {
     em.persist(user);
   }
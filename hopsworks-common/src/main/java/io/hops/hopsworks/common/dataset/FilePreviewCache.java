@@ -0,0 +1,89 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dataset;
+
+import io.hops.hopsworks.common.util.Settings;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of rendered file previews. Entries are keyed by inode id, modification time, length and preview
+ * mode, so a file that is overwritten or appended to gets a new key and its old preview is eventually evicted. The
+ * cache does not check permissions, callers must make sure the user can read the file before serving a cached
+ * preview.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+public class FilePreviewCache {
+
+  // Previews larger than this fraction of the cache would evict most of it, so they are not cached
+  private static final int MAX_ENTRY_FRACTION = 4;
+
+  @EJB
+  private Settings settings;
+
+  private final LinkedHashMap<String, FilePreviewDTO> previews = new LinkedHashMap<>(16, 0.75f, true);
+  private long cachedBytes = 0;
+
+  public FilePreviewDTO get(Long inodeId, long modificationTime, long length, String mode) {
+    FilePreviewDTO preview;
+    synchronized (this) {
+      preview = previews.get(key(inodeId, modificationTime, length, mode));
+    }
+    // Hand out a copy so callers cannot modify the cached entry
+    return preview == null ? null : new FilePreviewDTO(preview.getType(), preview.getExtension(),
+        preview.getContent());
+  }
+
+  public void put(Long inodeId, long modificationTime, long length, String mode, FilePreviewDTO preview) {
+    long maxBytes = settings.getFilePreviewCacheSize();
+    long size = weight(preview);
+    if (size > maxBytes / MAX_ENTRY_FRACTION) {
+      return;
+    }
+    FilePreviewDTO copy = new FilePreviewDTO(preview.getType(), preview.getExtension(), preview.getContent());
+    synchronized (this) {
+      FilePreviewDTO previous = previews.put(key(inodeId, modificationTime, length, mode), copy);
+      if (previous != null) {
+        cachedBytes -= weight(previous);
+      }
+      cachedBytes += size;
+      Iterator<Map.Entry<String, FilePreviewDTO>> it = previews.entrySet().iterator();
+      while (cachedBytes > maxBytes && it.hasNext()) {
+        cachedBytes -= weight(it.next().getValue());
+        it.remove();
+      }
+    }
+  }
+
+  private String key(Long inodeId, long modificationTime, long length, String mode) {
+    return inodeId + ":" + modificationTime + ":" + length + ":" + mode;
+  }
+
+  private long weight(FilePreviewDTO preview) {
+    // Java strings take two bytes per character
+    return preview.getContent() == null ? 0 : 2L * preview.getContent().length();
+  }
+}
@@ -46,6 +46,8 @@ import javax.ejb.EJB;
 import javax.ejb.Schedule;
 import javax.ejb.Singleton;
 import javax.ejb.Timer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -74,17 +76,23 @@ public class ElasticCleaner {
     try {
       Map<String, IndexMetaData> indices = elasticContoller.getIndices("(" + Settings.ELASTIC_LOG_INDEX_REGEX + ")|("
           + Settings.ELASTIC_SERVING_INDEX_REGEX + ") | (" + Settings.ELASTIC_KAGENT_INDEX_REGEX + ")");
+      if (indices == null) {
+        return;
+      }
+      //Get current timestamp
+      long currentTime = System.currentTimeMillis();
+      List<String> expiredIndices = new ArrayList<>();
       for (String index : indices.keySet()) {
-        //Get current timestamp
-        long currentTime = System.currentTimeMillis();
         long indexCreationTime = indices.get(index).getCreationDate();
         if (currentTime - indexCreationTime > settings.getElasticLogsIndexExpiration()) {
-          //If index was created before the threshold, delete it asynchronously. If operation fails
-          //we log it and the next day it will be retried.
-          elasticContoller.deleteIndex(index);
-          LOGGER.log(Level.INFO, "Deletedindex:{0}", index);
+          expiredIndices.add(index);
         }
       }
+      //Indices created before the threshold are deleted with a single request. If the operation fails
+      //we log it and the next day it will be retried.
+      if (elasticContoller.deleteIndices(expiredIndices)) {
+        LOGGER.log(Level.INFO, "Deleted indices:{0}", expiredIndices);
+      }
     } catch (ServiceException ex) {
       LOGGER.log(Level.SEVERE, "Index deletion failed", ex);
     }
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.elastic;
+
+import io.hops.hopsworks.common.util.Ip;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.ServiceException;
+import io.hops.hopsworks.restutils.RESTCodes;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.transport.TransportClient;
+import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.transport.client.PreBuiltTransportClient;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds the Elasticsearch transport client shared by all requests. The client is created on first use and
+ * recreated if it loses the connection to every node of the cluster.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+public class ElasticClientProvider {
+
+  private static final Logger LOG = Logger.getLogger(ElasticClientProvider.class.getName());
+
+  @EJB
+  private Settings settings;
+
+  private volatile TransportClient elasticClient = null;
+
+  public Client getClient() throws ServiceException {
+    TransportClient client = elasticClient;
+    if (client == null) {
+      synchronized (this) {
+        client = elasticClient;
+        if (client == null) {
+          client = createClient();
+          elasticClient = client;
+        }
+      }
+    }
+    return client;
+  }
+
+  /**
+   * Close the client if it is not connected to any node, the next request creates a new one.
+   *
+   * @param timer
+   */
+  @Schedule(persistent = false,
+      minute = "*",
+      hour = "*")
+  public void checkClient(Timer timer) {
+    TransportClient client = elasticClient;
+    if (client != null && client.connectedNodes().isEmpty()) {
+      LOG.log(Level.WARNING, "Elasticsearch client is not connected to any node, closing it");
+      closeClient(client);
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    TransportClient client = elasticClient;
+    if (client != null) {
+      closeClient(client);
+    }
+  }
+
+  private synchronized void closeClient(TransportClient client) {
+    if (elasticClient == client) {
+      elasticClient = null;
+    }
+    client.close();
+  }
+
+  private TransportClient createClient() throws ServiceException {
+    final org.elasticsearch.common.settings.Settings clientSettings
+        = org.elasticsearch.common.settings.Settings.builder()
+            .put("client.transport.sniff", true) //being able to retrieve other nodes
+            .put("cluster.name", "hops").build();
+
+    TransportClient client = new PreBuiltTransportClient(clientSettings);
+    client.addTransportAddress(new TransportAddress(new InetSocketAddress(getElasticIpAsString(),
+        settings.getElasticPort())));
+    return client;
+  }
+
+  private String getElasticIpAsString() throws ServiceException {
+    String addr = settings.getElasticIp();
+
+    // Validate the ip address pulled from the variables
+    if (!Ip.validIp(addr)) {
+      try {
+        InetAddress.getByName(addr);
+      } catch (UnknownHostException ex) {
+        throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_AVAILABLE, Level.SEVERE, null,
+          ex.getMessage(),
+          ex);
+
+      }
+    }
+
+    return addr;
+  }
+}
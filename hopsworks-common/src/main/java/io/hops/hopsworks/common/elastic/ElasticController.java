@@ -50,12 +50,10 @@ import io.hops.hopsworks.exceptions.ProjectException;
 import io.hops.hopsworks.restutils.RESTCodes;
 import io.hops.hopsworks.exceptions.ServiceException;
 import io.hops.hopsworks.common.util.HopsUtils;
-import io.hops.hopsworks.common.util.Ip;
 import io.hops.hopsworks.common.util.Settings;
 import org.apache.lucene.search.join.ScoreMode;
 import org.elasticsearch.action.ActionFuture;
 import org.elasticsearch.action.DocWriteResponse.Result;
-import org.elasticsearch.action.admin.indices.cache.clear.ClearIndicesCacheRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequest;
@@ -64,6 +62,8 @@ import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRespon
 import org.elasticsearch.action.admin.indices.exists.types.TypesExistsRequest;
 import org.elasticsearch.action.admin.indices.exists.types.TypesExistsResponse;
 import org.elasticsearch.action.admin.indices.open.OpenIndexRequest;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
@@ -72,31 +72,27 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.client.IndicesAdminClient;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
-import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
-import org.elasticsearch.transport.client.PreBuiltTransportClient;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import java.io.IOException;
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
-import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -125,26 +121,11 @@ public class ElasticController {
   private ProjectFacade projectFacade;
   @EJB
   private DatasetFacade datasetFacade;
+  @EJB
+  private ElasticClientProvider elasticClientProvider;
 
   private static final Logger LOG = Logger.getLogger(ElasticController.class.getName());
 
-  private Client elasticClient = null;
-
-  @PostConstruct
-  private void initClient() {
-    try {
-      getClient();
-    } catch (ServiceException ex) {
-      LOG.log(Level.SEVERE, null, ex);
-  
-    }
-  }
-
-  @PreDestroy
-  private void closeClient(){
-    shutdownClient();
-  }
-
   public List<ElasticHit> globalSearch(String searchTerm) throws ServiceException {
     //some necessary client settings
     Client client = getClient();
@@ -172,13 +153,21 @@ public class ElasticController {
       if (response.getHits().getHits().length > 0) {
         SearchHit[] hits = response.getHits().getHits();
 
+        //look up the datasets of all the hits at once
+        List<Long> inodeIds = new ArrayList<>(hits.length);
+        for (SearchHit hit : hits) {
+          inodeIds.add(Long.parseLong(hit.getId()));
+        }
+        Map<Long, Dataset> datasets = new HashMap<>();
+        for (Dataset ds : datasetFacade.findByInodeIds(inodeIds)) {
+          datasets.putIfAbsent(ds.getInodeId(), ds);
+        }
+
         for (SearchHit hit : hits) {
           ElasticHit eHit = new ElasticHit(hit);
           eHit.setLocalDataset(true);
-          int inode_id = Integer.parseInt(hit.getId());
-          List<Dataset> dsl = datasetFacade.findByInodeId(inode_id);
-          if (!dsl.isEmpty() && dsl.get(0).isPublicDs()) {
-            Dataset ds = dsl.get(0);
+          Dataset ds = datasets.get(Long.parseLong(hit.getId()));
+          if (ds != null && ds.isPublicDs()) {
             eHit.setPublicId(ds.getPublicDsId());
           }
           elasticHits.add(eHit);
@@ -188,7 +177,6 @@ public class ElasticController {
       return elasticHits;
     } else {
       //something went wrong so throw an exception
-      shutdownClient();
       throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_FOUND, Level.WARNING, "Elasticsearch " +
         "error code: " + response.status().getStatus());
     }
@@ -234,6 +222,32 @@ public class ElasticController {
 
   }
 
+  /**
+   * Index several experiments with a single bulk request.
+   *
+   * @param index
+   * @param sources the experiments to index by id
+   * @throws IOException
+   * @throws ServiceException
+   */
+  public void updateExperiments(String index, Map<String, JSONObject> sources) throws IOException, ServiceException {
+    if (sources.isEmpty()) {
+      return;
+    }
+    BulkRequestBuilder bulkRequest = getClient().prepareBulk();
+    ObjectMapper mapper = new ObjectMapper();
+    for (Map.Entry<String, JSONObject> source : sources.entrySet()) {
+      Map<String, Object> map = mapper.readValue(source.getValue().toString(),
+          new TypeReference<HashMap<String, Object>>() {
+          });
+      bulkRequest.add(getClient().prepareIndex(index, "experiments", source.getKey()).setSource(map));
+    }
+    BulkResponse bulkResponse = bulkRequest.get();
+    if (bulkResponse.hasFailures()) {
+      LOG.log(Level.SEVERE, "Failed to update experiments in Elastic. " + bulkResponse.buildFailureMessage());
+    }
+  }
+
   public List<ElasticHit> projectSearch(Integer projectId, String searchTerm) throws ServiceException {
     Client client = getClient();
     //check if the index are up and running
@@ -273,7 +287,6 @@ public class ElasticController {
       return elasticHits;
     }
 
-    shutdownClient();
     throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_FOUND, Level.SEVERE);
   }
 
@@ -327,7 +340,6 @@ public class ElasticController {
       return elasticHits;
     }
 
-    shutdownClient();
     throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_FOUND, Level.SEVERE);
   }
 
@@ -341,6 +353,27 @@ public class ElasticController {
     return acked;
   }
 
+  /**
+   * Delete several indices with a single request.
+   *
+   * @param indices
+   * @return true if the deletion was acknowledged
+   * @throws ServiceException
+   */
+  public boolean deleteIndices(Collection<String> indices) throws ServiceException {
+    if (indices.isEmpty()) {
+      return true;
+    }
+    boolean acked = getClient().admin().indices().delete(new DeleteIndexRequest(indices.toArray(new String[0])))
+        .actionGet().isAcknowledged();
+    if (acked) {
+      LOG.log(Level.INFO, "Acknowledged deletion of elastic indices:{0}", indices);
+    } else {
+      LOG.log(Level.SEVERE, "Elastic indices:{0} deletion could not be acknowledged", indices);
+    }
+    return acked;
+  }
+
   public boolean indexExists(String index) throws ServiceException {
 
     boolean exists = getClient().admin().indices().exists(new IndicesExistsRequest(index)).actionGet().isExists();
@@ -380,10 +413,8 @@ public class ElasticController {
     Map<String, IndexMetaData> indices = getIndices(project.getName() +
         "_(((logs|serving)-\\d{4}.\\d{2}.\\d{2})|("+ Settings.ELASTIC_EXPERIMENTS_INDEX + ")"
         + "| (" + Settings.ELASTIC_KAGENT_INDEX_PATTERN + "))");
-    for (String index : indices.keySet()) {
-      if (!deleteIndex(index)) {
-        LOG.log(Level.SEVERE, "Could not delete project index:{0}", index);
-      }
+    if (indices != null && !deleteIndices(indices.keySet())) {
+      LOG.log(Level.SEVERE, "Could not delete project indices:{0}", indices.keySet());
     }
   }
 
@@ -456,60 +487,50 @@ public class ElasticController {
   }
 
   private Client getClient() throws ServiceException {
-    if (elasticClient == null) {
-      final org.elasticsearch.common.settings.Settings settings
-          = org.elasticsearch.common.settings.Settings.builder()
-              .put("client.transport.sniff", true) //being able to retrieve other nodes
-              .put("cluster.name", "hops").build();
-
-      elasticClient = new PreBuiltTransportClient(settings)
-          .addTransportAddress(new TransportAddress(
-              new InetSocketAddress(getElasticIpAsString(),
-                  this.settings.getElasticPort())));
-    }
-    return elasticClient;
+    return elasticClientProvider.getClient();
   }
 
   private void projectSearchInSharedDatasets(Client client, Integer projectId,
       String searchTerm, List<ElasticHit> elasticHits) {
     Project project = projectFacade.find(projectId);
-    Collection<Dataset> datasets = project.getDatasetCollection();
-    for (Dataset ds : datasets) {
+    List<Long> sharedInodeIds = new ArrayList<>();
+    for (Dataset ds : project.getDatasetCollection()) {
       if (ds.isShared()) {
-        List<Dataset> dss = datasetFacade.findByInode(ds.getInode());
-        for (Dataset sh : dss) {
-          if (!sh.isShared()) {
-            long datasetId = ds.getInodeId();
-            executeProjectSearchQuery(client, searchSpecificDataset(datasetId,
-                searchTerm), elasticHits);
-
-            executeProjectSearchQuery(client, datasetSearchQuery(datasetId,
-                searchTerm), elasticHits);
+        sharedInodeIds.add(ds.getInodeId());
+      }
+    }
+    //a shared dataset is searched if the dataset it was shared from still exists
+    Set<Long> searchableInodeIds = new HashSet<>();
+    for (Dataset ds : datasetFacade.findByInodeIds(sharedInodeIds)) {
+      if (!ds.isShared()) {
+        searchableInodeIds.add(ds.getInodeId());
+      }
+    }
 
-          }
+    //send all the queries before waiting for any of the responses
+    List<ActionFuture<SearchResponse>> futureResponses = new ArrayList<>();
+    for (Long datasetId : searchableInodeIds) {
+      futureResponses.add(executeProjectSearchQuery(client, searchSpecificDataset(datasetId, searchTerm)));
+      futureResponses.add(executeProjectSearchQuery(client, datasetSearchQuery(datasetId, searchTerm)));
+    }
+    for (ActionFuture<SearchResponse> futureResponse : futureResponses) {
+      SearchResponse response = futureResponse.actionGet();
+      if (response.status().getStatus() == 200) {
+        for (SearchHit hit : response.getHits().getHits()) {
+          elasticHits.add(new ElasticHit(hit));
         }
       }
     }
   }
 
-  private void executeProjectSearchQuery(Client client, QueryBuilder query, List<ElasticHit> elasticHits) {
+  private ActionFuture<SearchResponse> executeProjectSearchQuery(Client client, QueryBuilder query) {
     SearchRequestBuilder srb = client.prepareSearch(Settings.META_INDEX);
     srb = srb.setTypes(Settings.META_DEFAULT_TYPE);
     srb = srb.setQuery(query);
     srb = srb.highlighter(new HighlightBuilder().field("name"));
 
     LOG.log(Level.INFO, "Project Elastic query in Shared Dataset : {0}", srb.toString());
-    ActionFuture<SearchResponse> futureResponse = srb.execute();
-    SearchResponse response = futureResponse.actionGet();
-
-    if (response.status().getStatus() == 200) {
-      if (response.getHits().getHits().length > 0) {
-        SearchHit[] hits = response.getHits().getHits();
-        for (SearchHit hit : hits) {
-          elasticHits.add(new ElasticHit(hit));
-        }
-      }
-    }
+    return srb.execute();
   }
 
   private QueryBuilder searchSpecificDataset(Long datasetId, String searchTerm) {
@@ -726,19 +747,6 @@ public class ElasticController {
     return response.isExists();
   }
 
-  /**
-   * Shuts down the client and clears the cache
-   * <p/>
-   */
-  private void shutdownClient() {
-    if (elasticClient != null) {
-      elasticClient.admin().indices().clearCache(new ClearIndicesCacheRequest(
-          Settings.META_INDEX));
-      elasticClient.close();
-      elasticClient = null;
-    }
-  }
-
   /**
    * Boots up a previously closed index
    */
@@ -748,24 +756,6 @@ public class ElasticController {
         Settings.META_INDEX));
   }
 
-  private String getElasticIpAsString() throws ServiceException {
-    String addr = settings.getElasticIp();
-
-    // Validate the ip address pulled from the variables
-    if (!Ip.validIp(addr)) {
-      try {
-        InetAddress.getByName(addr);
-      } catch (UnknownHostException ex) {
-        throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_AVAILABLE, Level.SEVERE, null,
-          ex.getMessage(),
-          ex);
-
-      }
-    }
-
-    return addr;
-  }
-
   private JSONObject sendKibanaReq(String templateUrl, Map<String, String> params, boolean async) {
     if (async) {
       ClientBuilder.newClient()
@@ -822,6 +812,18 @@ public class ElasticController {
   }
 
   public String getIndexFromKibana(JSONObject json){
+    return getIndexFromKibana(json, new HashMap<>());
+  }
+
+  /**
+   * Get the index of a Kibana saved object, resolving the saved searches and visualizations it depends on.
+   *
+   * @param json the saved object
+   * @param resolvedIndices indices of the parent objects already fetched from Kibana, keyed by type and id. Used
+   * to fetch each parent once when resolving the indices of many saved objects.
+   * @return the index or null if it cannot be found
+   */
+  public String getIndexFromKibana(JSONObject json, Map<String, String> resolvedIndices) {
     String index = null;
 
     if (json.has("type")) {
@@ -841,11 +843,7 @@ public class ElasticController {
               //We get the searchId first and then the index
               String searchId = json.getJSONObject("attributes").getString("savedSearchId");
               //Then get search object and call function again
-              Map<String, String> params = new HashMap<>();
-              params.put("op", "GET");
-              JSONObject savedSearch = sendKibanaReq(params, Settings.ELASTIC_SAVED_SEARCH, searchId);
-              LOG.log(Level.FINE, "visualization-parent:{0}", savedSearch);
-              index = getIndexFromKibana(savedSearch);
+              index = getParentIndexFromKibana(Settings.ELASTIC_SAVED_SEARCH, searchId, resolvedIndices);
             } else if (HopsUtils.jsonKeyExists(json, "kibanaSavedObjectMeta")) {
               JSONObject objectMetaJson = new JSONObject(json
                 .getJSONObject("attributes")
@@ -868,11 +866,7 @@ public class ElasticController {
 
             //Get index from visualization/"saved search"
             //Get and parse all objects
-            Map<String, String> params = new HashMap<>();
-            params.put("op", "GET");
-            JSONObject parent = sendKibanaReq(params, type, id);
-            LOG.log(Level.FINE, "dashboard-parent:{0}", parent.toString());
-            index = getIndexFromKibana(parent);
+            index = getParentIndexFromKibana(type, id, resolvedIndices);
           }
           break;
         default:
@@ -883,6 +877,20 @@ public class ElasticController {
     return index;
   }
 
+  private String getParentIndexFromKibana(String type, String id, Map<String, String> resolvedIndices) {
+    String key = type + "/" + id;
+    if (resolvedIndices.containsKey(key)) {
+      return resolvedIndices.get(key);
+    }
+    Map<String, String> params = new HashMap<>();
+    params.put("op", "GET");
+    JSONObject parent = sendKibanaReq(params, type, id);
+    LOG.log(Level.FINE, "{0}-parent:{1}", new Object[]{type, parent});
+    String index = getIndexFromKibana(parent, resolvedIndices);
+    resolvedIndices.put(key, index);
+    return index;
+  }
+
   public String getIndex(JSONObject json) {
     String objectId = null;
     if (json.getJSONObject("attributes").has("savedSearchId")) {
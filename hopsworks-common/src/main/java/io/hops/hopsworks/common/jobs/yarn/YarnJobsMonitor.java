@@ -45,34 +45,56 @@ import io.hops.hopsworks.common.jobs.jobhistory.JobFinalStatus;
 import io.hops.hopsworks.common.jobs.jobhistory.JobState;
 import io.hops.hopsworks.common.util.Settings;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
 import javax.ejb.DependsOn;
 import javax.ejb.EJB;
 import javax.ejb.Schedule;
 import javax.ejb.Singleton;
 import javax.ejb.Timer;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 
 import io.hops.hopsworks.common.yarn.YarnClientService;
 import io.hops.hopsworks.common.yarn.YarnClientWrapper;
 import org.apache.hadoop.yarn.api.records.ApplicationId;
-import org.apache.hadoop.yarn.api.records.FinalApplicationStatus;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
 import org.apache.hadoop.yarn.api.records.YarnApplicationState;
 import org.apache.hadoop.yarn.exceptions.YarnException;
 
+/**
+ * Polls YARN for the status of all running executions. All application reports are fetched with a single
+ * getApplications call per pass on a shared YarnClient and compared with the last status seen for every application,
+ * so that only executions whose state, final status or progress changed are written to the database. Only the
+ * applications Hopsworks submits that have not completed yet are listed; an execution whose application is missing
+ * from the listing, typically because it has just completed, is looked up individually.
+ */
 @Singleton
 @DependsOn("Settings")
 public class YarnJobsMonitor {
 
   private static final Logger LOGGER = Logger.getLogger(YarnJobsMonitor.class.getName());
 
+  private static final Set<String> MONITORED_APPLICATION_TYPES =
+      new HashSet<>(Arrays.asList("Hopsworks-Yarn", "SPARK", "Apache Flink"));
+  private static final EnumSet<YarnApplicationState> MONITORED_APPLICATION_STATES = EnumSet.of(
+      YarnApplicationState.NEW, YarnApplicationState.NEW_SAVING, YarnApplicationState.SUBMITTED,
+      YarnApplicationState.ACCEPTED, YarnApplicationState.RUNNING);
+
   @EJB
   private Settings settings;
   @EJB
@@ -81,13 +103,22 @@ public class YarnJobsMonitor {
   private YarnExecutionFinalizer execFinalizer;
   @EJB
   private YarnClientService ycs;
+  @Resource
+  private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
 
   private int maxStatusPollRetry;
+  private YarnClientWrapper yarnClientWrapper;
 
-  Map<String, YarnMonitor> monitors = new HashMap<>();
-  Map<String, Integer> failures = new HashMap<>();
+  // Last status committed to the database for every application, only updated once the transaction has committed
+  private final Map<String, ApplicationStatus> statuses = new HashMap<>();
+  private final Map<String, Integer> failures = new HashMap<>();
   private final Map<ApplicationId, CopyLogsFutureResult> copyLogsFutures = new HashMap<>();
 
+  @PreDestroy
+  public void preDestroy() {
+    closeYarnClient();
+  }
+
   @Schedule(persistent = false,
       second = "*/5",
       minute = "*",
@@ -101,39 +132,31 @@ public class YarnJobsMonitor {
           executions.put(exec.getAppId(), exec);
         }
       }
-      //Remove (Close) all monitors of deleted jobs
-      Iterator<Map.Entry<String, YarnMonitor>> monitorsIter = monitors.entrySet().iterator();
-      while (monitorsIter.hasNext()) {
-        Map.Entry<String, YarnMonitor> entry = monitorsIter.next();
-        // Check if Value associated with Key is 10
-        if (!executions.keySet().contains(entry.getKey())) {
-          // Remove the element
-          entry.getValue().close();
-          monitorsIter.remove();
-        }
-      }
+      //Forget the state of applications whose execution has finished or has been deleted
+      statuses.keySet().retainAll(executions.keySet());
+      failures.keySet().retainAll(executions.keySet());
       maxStatusPollRetry = settings.getMaxStatusPollRetry();
-      List<String> toRemove = new ArrayList<>();
+      Map<String, ApplicationStatus> updatedStatuses = new HashMap<>();
       try {
-        for (Map.Entry<String, Execution> entry : executions.entrySet()) {
-          YarnMonitor monitor = monitors.get(entry.getKey());
-          if (monitor == null) {
-            ApplicationId appId = ApplicationId.fromString(entry.getKey());
-            YarnClientWrapper newYarnclientWrapper = ycs.getYarnClientSuper(settings
-              .getConfiguration());
-            monitor = new YarnMonitor(appId, newYarnclientWrapper, ycs);
-            monitors.put(entry.getKey(), monitor);
+        Map<ApplicationId, ApplicationReport> reports = null;
+        try {
+          reports = getApplicationReports();
+        } catch (IOException | YarnException ex) {
+          LOGGER.log(Level.WARNING, "Failed to get application reports from YARN", ex);
+          closeYarnClient();
+        }
+        for (Execution exec : executions.values()) {
+          ApplicationId appId = ApplicationId.fromString(exec.getAppId());
+          if (copyLogsFutures.containsKey(appId)) {
+            continue;
           }
-          Execution exec = internalMonitor(executions.get(entry.getKey()), monitor);
-          if (exec == null) {
-            toRemove.add(entry.getKey());
-            monitor.close();
+          if (internalMonitor(exec, appId, reports, updatedStatuses) == null) {
+            statuses.remove(exec.getAppId());
+            updatedStatuses.remove(exec.getAppId());
+            failures.remove(exec.getAppId());
           }
         }
-        for (String appID : toRemove) {
-          failures.remove(appID);
-          monitors.remove(appID);
-        }
+        rememberStatusesAfterCommit(updatedStatuses);
   
         Iterator<Map.Entry<ApplicationId, CopyLogsFutureResult>> futureResultIter =
             copyLogsFutures.entrySet().iterator();
@@ -154,26 +177,90 @@ public class YarnJobsMonitor {
       }
     }
   }
-  
-  private Execution internalMonitor(Execution exec, YarnMonitor monitor) {
+
+  /**
+   * Record the statuses written in this pass once the transaction that wrote them has committed, so that a rolled
+   * back update is written again on the next pass instead of being skipped as unchanged.
+   *
+   * @param updatedStatuses statuses written to the database in this pass, indexed by application id
+   */
+  private void rememberStatusesAfterCommit(Map<String, ApplicationStatus> updatedStatuses) {
+    if (updatedStatuses.isEmpty()) {
+      return;
+    }
+    if (transactionSynchronizationRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      statuses.putAll(updatedStatuses);
+      return;
+    }
+    transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status == Status.STATUS_COMMITTED) {
+          synchronized (YarnJobsMonitor.this) {
+            statuses.putAll(updatedStatuses);
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Fetch the reports of the unfinished applications submitted by Hopsworks with a single RPC.
+   *
+   * @return application reports indexed by application id
+   */
+  private Map<ApplicationId, ApplicationReport> getApplicationReports() throws IOException, YarnException {
+    if (yarnClientWrapper == null) {
+      yarnClientWrapper = ycs.getYarnClientSuper(settings.getConfiguration());
+    }
+    Map<ApplicationId, ApplicationReport> reports = new HashMap<>();
+    for (ApplicationReport report : yarnClientWrapper.getYarnClient()
+        .getApplications(MONITORED_APPLICATION_TYPES, MONITORED_APPLICATION_STATES)) {
+      reports.put(report.getApplicationId(), report);
+    }
+    return reports;
+  }
+
+  private void closeYarnClient() {
+    if (yarnClientWrapper != null) {
+      ycs.closeYarnClient(yarnClientWrapper);
+      yarnClientWrapper = null;
+    }
+  }
+
+  private Execution internalMonitor(Execution exec, ApplicationId appId,
+      Map<ApplicationId, ApplicationReport> reports, Map<String, ApplicationStatus> updatedStatuses) {
     try {
-      YarnApplicationState appState = monitor.getApplicationState();
-      FinalApplicationStatus finalAppStatus = monitor.getFinalApplicationStatus();
-      float progress = monitor.getProgress();
-      exec = updateProgress(progress, exec);
-      exec = updateState(JobState.getJobState(appState), exec);
-      exec = updateFinalStatus(JobFinalStatus.getJobFinalStatus(finalAppStatus), exec);
+      if (reports == null) {
+        throw new IOException("Application reports are not available");
+      }
+      ApplicationReport report = reports.get(appId);
+      if (report == null) {
+        //The application has completed, is not listed yet or has been evicted from the RM listing, ask for it
+        report = yarnClientWrapper.getYarnClient().getApplicationReport(appId);
+      }
+      failures.remove(exec.getAppId());
+      YarnApplicationState appState = report.getYarnApplicationState();
+      ApplicationStatus status = new ApplicationStatus(JobState.getJobState(appState),
+          JobFinalStatus.getJobFinalStatus(report.getFinalApplicationStatus()), report.getProgress());
+      if (!status.equals(statuses.get(exec.getAppId()))) {
+        exec = executionFacade.updateStatus(exec, status.state, status.finalStatus, status.progress);
+        updatedStatuses.put(exec.getAppId(), status);
+      }
       
       if ((appState == YarnApplicationState.FAILED
           || appState == YarnApplicationState.FINISHED
           || appState == YarnApplicationState.KILLED)
-          && !copyLogsFutures.containsKey(monitor.getApplicationId())) {
+          && !copyLogsFutures.containsKey(appId)) {
         
         exec = executionFacade.updateState(exec, JobState.AGGREGATING_LOGS);
         // Async call
         Future<Execution> futureResult = execFinalizer.copyLogs(exec);
-        copyLogsFutures.put(monitor.getApplicationId(),
-            new CopyLogsFutureResult(futureResult, JobState.getJobState(appState)));
+        copyLogsFutures.put(appId, new CopyLogsFutureResult(futureResult, JobState.getJobState(appState)));
         return null;
       }
     } catch (IOException | YarnException ex) {
@@ -184,38 +271,59 @@ public class YarnJobsMonitor {
         failure++;
       }
       failures.put(exec.getAppId(), failure);
-      LOGGER.log(Level.WARNING, "Failed to get application state for execution " + exec + ". Tried " + failures
+      LOGGER.log(Level.WARNING, "Failed to get application state for execution " + exec + ". Tried " + failure
           + " time(s).", ex);
     }
     if (failures.get(exec.getAppId()) != null && failures.get(exec.getAppId()) > maxStatusPollRetry) {
       try {
         LOGGER.log(Level.SEVERE, "Killing application, {0}, because unable to poll for status.", exec);
-        monitor.cancelJob(monitor.getApplicationId().toString());
-        exec = updateState(JobState.KILLED, exec);
-        exec = updateFinalStatus(JobFinalStatus.KILLED, exec);
-        exec = updateProgress(0, exec);
+        if (yarnClientWrapper == null) {
+          yarnClientWrapper = ycs.getYarnClientSuper(settings.getConfiguration());
+        }
+        yarnClientWrapper.getYarnClient().killApplication(appId);
+        exec = executionFacade.updateStatus(exec, JobState.KILLED, JobFinalStatus.KILLED, 0);
         execFinalizer.finalize(exec, JobState.KILLED);
       } catch (YarnException | IOException ex) {
         LOGGER.
             log(Level.SEVERE, "Failed to cancel execution, " + exec + " after failing to poll for status.", ex);
-        exec = updateState(JobState.FRAMEWORK_FAILURE, exec);
+        exec = executionFacade.updateState(exec, JobState.FRAMEWORK_FAILURE);
         execFinalizer.finalize(exec, JobState.FRAMEWORK_FAILURE);
       }
       return null;
     }
     return exec;
   }
-
-  private Execution updateProgress(float progress, Execution execution) {
-    return executionFacade.updateProgress(execution, progress);
-  }
-
-  private Execution updateState(JobState newState, Execution execution) {
-    return executionFacade.updateState(execution, newState);
-  }
-
-  private Execution updateFinalStatus(JobFinalStatus finalStatus, Execution execution) {
-    return executionFacade.updateFinalStatus(execution, finalStatus);
+  
+  /**
+   * Last status of an application as written to the database.
+   */
+  private static class ApplicationStatus {
+    private final JobState state;
+    private final JobFinalStatus finalStatus;
+    private final float progress;
+    
+    private ApplicationStatus(JobState state, JobFinalStatus finalStatus, float progress) {
+      this.state = state;
+      this.finalStatus = finalStatus;
+      this.progress = progress;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ApplicationStatus)) {
+        return false;
+      }
+      ApplicationStatus that = (ApplicationStatus) o;
+      return state == that.state && finalStatus == that.finalStatus && Float.compare(progress, that.progress) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+      return Objects.hash(state, finalStatus, progress);
+    }
   }
   
   private class CopyLogsFutureResult {
@@ -228,4 +336,4 @@ public class YarnJobsMonitor {
       this.jobState = jobState;
     }
   }
-}
\ No newline at end of file
+}
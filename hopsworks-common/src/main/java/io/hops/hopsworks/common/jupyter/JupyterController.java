@@ -54,7 +54,9 @@ import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -199,6 +201,7 @@ public class JupyterController {
       JSONObject json = new JSONObject(experiment);
       json = json.getJSONObject("hits");
       JSONArray hits = json.getJSONArray("hits");
+      Map<String, JSONObject> killedExperiments = new HashMap<>();
       for(int i = 0; i < hits.length(); i++) {
         JSONObject obj = (JSONObject)hits.get(i);
         JSONObject source = obj.getJSONObject("_source");
@@ -206,9 +209,10 @@ public class JupyterController {
 
         if(status.equalsIgnoreCase(JobState.RUNNING.name())) {
           source.put("status", "KILLED");
-          elasticController.updateExperiment(experimentsIndex, obj.getString("_id"), source);
+          killedExperiments.put(obj.getString("_id"), source);
         }
       }
+      elasticController.updateExperiments(experimentsIndex, killedExperiments);
     } catch(Exception e) {
       LOGGER.log(Level.WARNING, "Exception while updating RUNNING status to KILLED on experiments", e);
     }
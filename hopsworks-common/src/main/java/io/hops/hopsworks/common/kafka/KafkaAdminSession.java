@@ -0,0 +1,198 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.kafka;
+
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.ServiceException;
+import io.hops.hopsworks.restutils.RESTCodes;
+import kafka.admin.AdminUtils;
+import kafka.admin.RackAwareMode;
+import kafka.common.TopicAlreadyMarkedForDeletionException;
+import kafka.utils.ZkUtils;
+import org.I0Itec.zkclient.IZkChildListener;
+import org.I0Itec.zkclient.exception.ZkException;
+import org.I0Itec.zkclient.exception.ZkInterruptedException;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Single ZooKeeper session shared by all the Kafka topic administration operations of Hopsworks. The session is
+ * opened on first use and, if an operation fails because ZooKeeper is unreachable, it is closed and opened again on
+ * the next call. The topics registered in ZooKeeper are kept in memory through a child watch on the brokers topics
+ * path, so listing them does not require a round trip to ZooKeeper.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+public class KafkaAdminSession {
+
+  private static final Logger LOGGER = Logger.getLogger(KafkaAdminSession.class.getName());
+
+  @EJB
+  private Settings settings;
+
+  private volatile ZkUtils zkUtils = null;
+  private volatile Set<String> zkTopics = Collections.emptySet();
+
+  private final IZkChildListener topicsListener = new IZkChildListener() {
+    @Override
+    public void handleChildChange(String parentPath, List<String> currentChilds) {
+      updateTopics(currentChilds);
+    }
+  };
+
+  @PreDestroy
+  public void preDestroy() {
+    close();
+  }
+
+  /**
+   * Create a topic in Kafka if it does not exist already.
+   *
+   * @param topicName name of the topic
+   * @param partitions number of partitions
+   * @param replicas replication factor
+   * @throws TopicExistsException if the topic has been created concurrently
+   * @throws ServiceException if ZooKeeper is not reachable
+   */
+  public void createTopic(String topicName, int partitions, int replicas) throws ServiceException {
+    ZkUtils zk = getZkUtils();
+    try {
+      if (!AdminUtils.topicExists(zk, topicName)) {
+        AdminUtils.createTopic(zk, topicName, partitions, replicas, new Properties(),
+            RackAwareMode.Enforced$.MODULE$);
+      }
+    } catch (ZkException ex) {
+      throw sessionFailure(zk, ex);
+    }
+  }
+
+  /**
+   * Mark a batch of topics for deletion using the shared session. Topics already marked for deletion or no longer
+   * present in ZooKeeper are skipped, so one of them does not prevent the rest of the batch from being deleted.
+   *
+   * @param topicNames names of the topics to delete
+   * @throws ServiceException if ZooKeeper is not reachable
+   */
+  public void deleteTopics(Collection<String> topicNames) throws ServiceException {
+    if (topicNames == null || topicNames.isEmpty()) {
+      return;
+    }
+    ZkUtils zk = getZkUtils();
+    try {
+      for (String topicName : topicNames) {
+        try {
+          AdminUtils.deleteTopic(zk, topicName);
+          LOGGER.log(Level.FINE, "{0} is removed from Zookeeper", topicName);
+        } catch (TopicAlreadyMarkedForDeletionException ex) {
+          //ignore this error, if the topic is already being removed it will end
+          //up in the state that we want.
+          LOGGER.log(Level.FINE, "{0} is already marked for deletion", topicName);
+        } catch (UnknownTopicOrPartitionException ex) {
+          //the topic is already gone, nothing left to delete
+          LOGGER.log(Level.FINE, "{0} does not exist in Zookeeper", topicName);
+        }
+      }
+    } catch (ZkException ex) {
+      throw sessionFailure(zk, ex);
+    }
+  }
+
+  /**
+   * @return a snapshot of the topics currently registered in ZooKeeper, kept up to date by a child watch
+   * @throws ServiceException if ZooKeeper is not reachable
+   */
+  public Set<String> getTopics() throws ServiceException {
+    getZkUtils();
+    return new HashSet<>(zkTopics);
+  }
+
+  private ZkUtils getZkUtils() throws ServiceException {
+    ZkUtils zk = zkUtils;
+    if (zk != null) {
+      return zk;
+    }
+    synchronized (this) {
+      if (zkUtils == null) {
+        try {
+          zk = ZkUtils.apply(settings.getZkConnectStr(), Settings.ZOOKEEPER_SESSION_TIMEOUT_MS,
+              Settings.ZOOKEEPER_CONNECTION_TIMEOUT_MS, false);
+        } catch (ZkException ex) {
+          throw new ServiceException(RESTCodes.ServiceErrorCode.ZOOKEEPER_SERVICE_UNAVAILABLE, Level.SEVERE, null,
+              ex.getMessage(), ex);
+        }
+        try {
+          // The listener is re-registered by ZkClient on every reconnect, so the topic set survives session expiry
+          updateTopics(zk.zkClient().subscribeChildChanges(ZkUtils.BrokerTopicsPath(), topicsListener));
+        } catch (ZkException ex) {
+          zk.close();
+          throw new ServiceException(RESTCodes.ServiceErrorCode.ZOOKEEPER_SERVICE_UNAVAILABLE, Level.SEVERE, null,
+              ex.getMessage(), ex);
+        }
+        zkUtils = zk;
+      }
+      return zkUtils;
+    }
+  }
+
+  private void updateTopics(List<String> topics) {
+    zkTopics = topics == null ? Collections.<String>emptySet()
+        : Collections.unmodifiableSet(new HashSet<>(topics));
+  }
+
+  private ServiceException sessionFailure(ZkUtils zk, ZkException ex) {
+    if (!(ex instanceof ZkInterruptedException)) {
+      synchronized (this) {
+        // Only drop the session that failed, another thread may have replaced it already
+        if (zkUtils == zk) {
+          close();
+        }
+      }
+    }
+    return new ServiceException(RESTCodes.ServiceErrorCode.ZOOKEEPER_SERVICE_UNAVAILABLE, Level.SEVERE, null,
+        ex.getMessage(), ex);
+  }
+
+  private synchronized void close() {
+    if (zkUtils != null) {
+      try {
+        zkUtils.zkClient().unsubscribeChildChanges(ZkUtils.BrokerTopicsPath(), topicsListener);
+        zkUtils.close();
+      } catch (Exception ex) {
+        LOGGER.log(Level.FINE, "Error closing ZooKeeper session", ex);
+      } finally {
+        zkUtils = null;
+        zkTopics = Collections.emptySet();
+      }
+    }
+  }
+}
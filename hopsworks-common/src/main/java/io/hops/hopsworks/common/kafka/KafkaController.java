@@ -70,6 +70,8 @@ public class KafkaController {
   private CertsFacade userCerts;
   @EJB
   private Settings settings;
+  @EJB
+  private KafkaTopicsCache kafkaTopicsCache;
 
   public String getKafkaCertPaths(Project project) {
     UserCerts userCert = userCerts.findUserCert(project.getName(), project.
@@ -161,11 +163,18 @@ public class KafkaController {
    * @return
    */
   public List<TopicDTO> findSharedTopicsByProject(Integer projectId) {
+    String key = KafkaTopicsCache.sharedTopicsKey(projectId);
+    List<TopicDTO> cached = kafkaTopicsCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    long generation = kafkaTopicsCache.getGeneration();
     List<SharedTopics> res = kafkaFacade.findSharedTopicsByProject(projectId);
     List<TopicDTO> topics = new ArrayList<>();
     for (SharedTopics pt : res) {
       topics.add(new TopicDTO(pt.getSharedTopicsPK().getTopicName()));
     }
+    kafkaTopicsCache.put(key, generation, topics);
     return topics;
   }
 
@@ -0,0 +1,166 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.kafka;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory view of the Kafka topic, shared topic and ACL listings served to the Kafka UI and to HopsUtil clients,
+ * which poll them continuously. Listings are loaded from the database on first access and kept until a write path
+ * of KafkaFacade invalidates them. Every invalidation increments a generation number which is also used as the
+ * entity tag of the listings, so that clients polling an unchanged listing can be answered with 304 Not Modified.
+ * <p>
+ * Listings of a project depend on other projects (shared topics, members of the projects a topic is shared with)
+ * so invalidation drops the whole view rather than the entries of a single project. Writes are rare compared to
+ * reads.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class KafkaTopicsCache {
+
+  private static final int MAX_ENTRIES = 10000;
+
+  @Resource
+  private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+  // Distinguishes entity tags issued before and after a restart
+  private final long epoch = System.currentTimeMillis();
+  private final AtomicLong generation = new AtomicLong();
+  private final Map<String, CachedListing> listings = new ConcurrentHashMap<>();
+
+  public static String topicsKey(Integer projectId) {
+    return "topics/" + projectId;
+  }
+
+  public static String sharedTopicsKey(Integer projectId) {
+    return "sharedTopics/" + projectId;
+  }
+
+  public static String sharedWithKey(Integer projectId, String topicName) {
+    return "sharedWith/" + projectId + "/" + topicName;
+  }
+
+  public static String aclUsersKey(Integer projectId, String topicName) {
+    return "aclUsers/" + projectId + "/" + topicName;
+  }
+
+  public static String aclsKey(Integer projectId, String topicName) {
+    return "acls/" + projectId + "/" + topicName;
+  }
+
+  /**
+   * @return the entity tag of the current version of all the listings. Must be read before the listing it is
+   * returned with, so that a concurrent write results in a stale tag rather than in stale content.
+   */
+  public String getEntityTag() {
+    return epoch + "-" + generation.get();
+  }
+
+  /**
+   * @return the generation to pass to {@link #put(String, long, List)} when a listing is loaded after a miss
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * @param key key of the listing
+   * @return a modifiable copy of the cached listing or null if it is not cached
+   */
+  public <T> List<T> get(String key) {
+    CachedListing cached = listings.get(key);
+    if (cached == null || cached.generation != generation.get()) {
+      return null;
+    }
+    // Every key is built by one of the key methods above and always cached and read with the same element type
+    @SuppressWarnings("unchecked")
+    List<T> items = (List<T>) cached.items;
+    return new ArrayList<>(items);
+  }
+
+  /**
+   * Cache a listing loaded from the database. The listing is discarded if the view has been invalidated since
+   * the load started.
+   *
+   * @param key key of the listing
+   * @param loadGeneration value of {@link #getGeneration()} before the listing was loaded
+   * @param items the listing
+   */
+  public <T> void put(String key, long loadGeneration, List<T> items) {
+    if (loadGeneration != generation.get()) {
+      return;
+    }
+    if (listings.size() >= MAX_ENTRIES) {
+      listings.clear();
+    }
+    listings.put(key, new CachedListing(loadGeneration, Collections.unmodifiableList(new ArrayList<>(items))));
+    if (loadGeneration != generation.get()) {
+      listings.remove(key);
+    }
+  }
+
+  /**
+   * Invalidate all the listings. If called within a transaction the listings are invalidated again once it
+   * completes, so that listings loaded by concurrent readers before the commit are not kept.
+   */
+  public void invalidate() {
+    invalidateNow();
+    if (transactionSynchronizationRegistry != null
+        && transactionSynchronizationRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+      transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          invalidateNow();
+        }
+      });
+    }
+  }
+
+  private void invalidateNow() {
+    generation.incrementAndGet();
+    listings.clear();
+  }
+
+  private static class CachedListing {
+    private final long generation;
+    private final List<?> items;
+
+    private CachedListing(long generation, List<?> items) {
+      this.generation = generation;
+      this.items = items;
+    }
+  }
+}
@@ -39,20 +39,9 @@
 
 package io.hops.hopsworks.common.kafka;
 
-import io.hops.hopsworks.common.dao.kafka.KafkaFacade;
-import io.hops.hopsworks.common.dao.kafka.ProjectTopics;
 import io.hops.hopsworks.exceptions.ServiceException;
 import io.hops.hopsworks.common.util.Settings;
-import kafka.admin.AdminUtils;
-import kafka.common.TopicAlreadyMarkedForDeletionException;
-import kafka.utils.ZKStringSerializer$;
-import kafka.utils.ZkUtils;
-import org.I0Itec.zkclient.ZkClient;
-import org.I0Itec.zkclient.ZkConnection;
 import org.apache.zookeeper.KeeperException;
-import org.apache.zookeeper.WatchedEvent;
-import org.apache.zookeeper.Watcher;
-import org.apache.zookeeper.ZooKeeper;
 
 import javax.ejb.EJB;
 import javax.ejb.Schedule;
@@ -61,8 +50,6 @@ import javax.ejb.Timer;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -83,11 +70,7 @@ public class ZookeeprTopicCleanerTimer {
   @EJB
   Settings settings;
   @EJB
-  KafkaFacade kafkaFacade;
-
-  private ZkClient zkClient = null;
-  private ZkConnection zkConnection = null;
-  private ZooKeeper zk = null;
+  KafkaAdminSession kafkaAdminSession;
 
   // Run once per hour 
   @Schedule(persistent = false,
@@ -95,89 +78,28 @@ public class ZookeeprTopicCleanerTimer {
       hour = "*")
   public void execute(Timer timer) {
     LOGGER.log(Level.INFO, "Running ZookeeprTopicCleanerTimer.");
-    Set<String> zkTopics = new HashSet<>();
-    //30 seconds
-    int sessionTimeoutMs = 30 * 1000;
-    try {
-      if (zk == null || !zk.getState().isConnected()) {
-        if (zk != null) {
-          zk.close();
-        }
-        zk = new ZooKeeper(settings.getZkConnectStr(),
-          sessionTimeoutMs, new ZookeeperWatcher());
-      }
-      List<String> topics = zk.getChildren("/brokers/topics", false);
-      zkTopics.addAll(topics);
-    } catch (IOException ex) {
-      LOGGER.log(Level.SEVERE, "Unable to find the zookeeper server: ", ex.toString());
-    } catch (KeeperException | InterruptedException ex) {
-      LOGGER.log(Level.SEVERE, "Cannot retrieve topic list from Zookeeper", ex);
-    }
-
-    List<ProjectTopics> dbProjectTopics = em.createNamedQuery("ProjectTopics.findAll").getResultList();
-    Set<String> dbTopics = new HashSet<>();
-
-    for (ProjectTopics pt : dbProjectTopics) {
-      try {
-        dbTopics.add(pt.getTopicName());
-      } catch (UnsupportedOperationException e) {
-        LOGGER.log(Level.SEVERE, e.toString());
-      }
-    }
-
     /*
      * To remove topics from zookeeper which do not exist in database. This
-     * situation
-     * happens when a hopsworks project is deleted, because all the topics in
-     * the project
-     * will be deleted (cascade delete) without deleting them from the Kafka
-     * cluster.
-     * 1. get all topics from zookeeper
+     * situation happens when a hopsworks project is deleted, because all the
+     * topics in the project will be deleted (cascade delete) without deleting
+     * them from the Kafka cluster.
+     * 1. get all topics from zookeeper, kept up to date by the watch of the
+     * shared admin session instead of listing them on every run
      * 2. get the topics which exist in zookeeper, but not in database
-     * zkTopics.removeAll(dbTopics);
-     * 3. remove those topics
+     * 3. remove those topics in a single batch
      */
     try {
-      if (zkClient == null) {
-        // 30 seconds
-        int connectionTimeout = 90 * 1000;
-        zkClient = new ZkClient(kafkaFacade.
-            getIp(settings.getZkConnectStr()).getHostName(),
-          sessionTimeoutMs, connectionTimeout,
-            ZKStringSerializer$.MODULE$);
+      Set<String> zkTopics = kafkaAdminSession.getTopics();
+      if (zkTopics.isEmpty()) {
+        return;
       }
+      zkTopics.removeAll(em.createNamedQuery("ProjectTopics.findAllTopicNames", String.class).getResultList());
       if (!zkTopics.isEmpty()) {
-        zkTopics.removeAll(dbTopics);
-        for (String topicName : zkTopics) {
-          if (zkConnection == null) {
-            zkConnection = new ZkConnection(settings.getZkConnectStr());
-          }
-          ZkUtils zkUtils = new ZkUtils(zkClient, zkConnection, false);
-
-          try {
-            AdminUtils.deleteTopic(zkUtils, topicName);
-            LOGGER.log(Level.INFO, "{0} is removed from Zookeeper",
-                new Object[]{topicName});
-          } catch (TopicAlreadyMarkedForDeletionException ex) {
-            LOGGER.log(Level.INFO, "{0} is already marked for deletion",
-                new Object[]{topicName});
-          }
-        }
+        LOGGER.log(Level.INFO, "Removing topics {0} from Zookeeper", zkTopics);
+        kafkaAdminSession.deleteTopics(zkTopics);
       }
-
     } catch (ServiceException ex) {
-      LOGGER.log(Level.SEVERE, "Unable to get zookeeper ip address ", ex);
-    } finally {
-      if (zkClient != null) {
-        zkClient.close();
-      }
-      try {
-        if (zkConnection != null) {
-          zkConnection.close();
-        }
-      } catch (InterruptedException ex) {
-        LOGGER.log(Level.SEVERE, null, ex);
-      }
+      LOGGER.log(Level.SEVERE, "Cannot remove stale topics from Zookeeper", ex);
     }
   }
 
@@ -195,11 +117,4 @@ public class ZookeeprTopicCleanerTimer {
       LOGGER.log(Level.SEVERE, null, ex);
     }
   }
-
-  private class ZookeeperWatcher implements Watcher {
-
-    @Override
-    public void process(WatchedEvent we) {
-    }
-  }
 }
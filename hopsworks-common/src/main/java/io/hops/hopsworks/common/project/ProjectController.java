@@ -97,11 +97,13 @@ import io.hops.hopsworks.common.jobs.yarn.LocalResourceDTO;
 import io.hops.hopsworks.common.jobs.yarn.YarnLogUtil;
 import io.hops.hopsworks.common.jupyter.JupyterController;
 import io.hops.hopsworks.common.kafka.KafkaController;
+import io.hops.hopsworks.common.kafka.KafkaTopicsCache;
 import io.hops.hopsworks.common.livy.LivyController;
 import io.hops.hopsworks.common.message.MessageController;
 import io.hops.hopsworks.common.security.CertificateMaterializer;
 import io.hops.hopsworks.common.security.CertificatesController;
 import io.hops.hopsworks.common.serving.inference.logger.KafkaInferenceLogger;
+import io.hops.hopsworks.common.serving.inference.logger.KafkaInferenceProducerPool;
 import io.hops.hopsworks.common.serving.tf.TfServingController;
 import io.hops.hopsworks.common.serving.tf.TfServingException;
 import io.hops.hopsworks.common.user.UsersController;
@@ -216,6 +218,8 @@ public class ProjectController {
   @EJB
   private KafkaController kafkaController;
   @EJB
+  private KafkaTopicsCache kafkaTopicsCache;
+  @EJB
   private TensorBoardController tensorBoardController;
   @EJB
   private ElasticController elasticController;
@@ -237,6 +241,8 @@ public class ProjectController {
   private FeaturestoreController featurestoreController;
   @Inject
   private TfServingController tfServingController;
+  @EJB
+  private KafkaInferenceProducerPool inferenceProducerPool;
   @Inject
   @Any
   private Instance<ProjectHandler> projectHandlers;
@@ -1162,6 +1168,7 @@ public class ProjectController {
 
         try {
           tfServingController.deleteTfServings(project);
+          inferenceProducerPool.invalidate(project);
           cleanupLogger.logSuccess("Removed Tf Servings");
         } catch (Exception ex) {
           cleanupLogger.logError("Error when removing Tf Serving instances");
@@ -1627,6 +1634,7 @@ public class ProjectController {
       // Remove TF Servings
       try {
         tfServingController.deleteTfServings(project);
+        inferenceProducerPool.invalidate(project);
       } catch (TfServingException e) {
         throw new IOException(e);
       }
@@ -1637,6 +1645,8 @@ public class ProjectController {
       
       //remove folder
       removeProjectFolder(project.getName(), dfso);
+      //the project row and the topics shared with it are only gone from the database now
+      kafkaTopicsCache.invalidate();
 
       if(decreaseCreatedProj){
         usersController.decrementNumProjectsCreated(project.getOwner().getUid());
@@ -1708,14 +1718,11 @@ public class ProjectController {
     for (Dataset dataSet : sharedDataSets) {
       String owner = dataSet.getInode().getHdfsUser().getName();
       String group = dataSet.getInode().getHdfsGroup().getName();
-      List<Inode> children = new ArrayList<>();
-      inodeFacade.getAllChildren(dataSet.getInode(), children);
-      for (Inode child : children) {
+      inodeFacade.forEachDescendant(dataSet.getInode(), inodeFacade.getPath(dataSet.getInode()), (child, path) -> {
         if (child.getHdfsUser().getName().startsWith(project.getName() + "__")) {
-          Path childPath = new Path(inodeFacade.getPath(child));
-          dfso.setOwner(childPath, owner, group);
+          dfso.setOwner(new Path(path), owner, group);
         }
-      }
+      });
     }
   }
 
@@ -2296,16 +2303,7 @@ public class ProjectController {
             udfso.copyInHdfs(new Path(DLDataSrc), new Path(DLDataDst));
             String datasetGroup = hdfsUsersController.getHdfsGroupName(project, Settings.HOPS_TOUR_DATASET);
             String userHdfsName = hdfsUsersController.getHdfsUserName(project, user);
-            Inode parent = inodes.getInodeAtPath(DLDataDst);
-            List<Inode> children = new ArrayList<>();
-            inodes.getAllChildren(parent, children);
-            for (Inode child : children) {
-              if (child.getHdfsUser() != null && !child.getHdfsUser().getName().equals(userHdfsName)) {
-                Path path = new Path(inodes.getPath(child));
-                udfso.setPermission(path, udfso.getParentPermission(path));
-                udfso.setOwner(path, userHdfsName, datasetGroup);
-              }
-            }
+            setTourFilesOwner(udfso, DLDataDst, userHdfsName, datasetGroup, true);
             //Move notebooks to Jupyter Dataset
             if (projectType == TourProjectType.DEEP_LEARNING) {
               String DLNotebooksSrc = DLDataDst + "/notebooks";
@@ -2313,16 +2311,7 @@ public class ProjectController {
                   + Settings.HOPS_TOUR_DATASET_JUPYTER;
               udfso.copyInHdfs(new Path(DLNotebooksSrc + "/*"), new Path(DLNotebooksDst));
               datasetGroup = hdfsUsersController.getHdfsGroupName(project, Settings.HOPS_TOUR_DATASET_JUPYTER);
-              Inode parentJupyterDs = inodes.getInodeAtPath(DLNotebooksDst);
-              List<Inode> childrenJupyterDs = new ArrayList<>();
-              inodes.getAllChildren(parentJupyterDs, childrenJupyterDs);
-              for (Inode child : childrenJupyterDs) {
-                if (child.getHdfsUser() != null) {
-                  Path path = new Path(inodes.getPath(child));
-                  udfso.setPermission(path, udfso.getParentPermission(path));
-                  udfso.setOwner(path, userHdfsName, datasetGroup);
-                }
-              }
+              setTourFilesOwner(udfso, DLNotebooksDst, userHdfsName, datasetGroup, false);
               udfso.rm(new Path(DLNotebooksSrc), true);
             }
           } catch (IOException ex) {
@@ -2353,16 +2342,7 @@ public class ProjectController {
             udfso.copyInHdfs(new Path(featurestoreExampleDataSrc), new Path(featurestoreExampleDataDst));
             datasetGroup = hdfsUsersController.getHdfsGroupName(project, Settings.HOPS_TOUR_DATASET);
             userHdfsName = hdfsUsersController.getHdfsUserName(project, user);
-            Inode parent = inodes.getInodeAtPath(featurestoreExampleDataDst);
-            List<Inode> children = new ArrayList<>();
-            inodes.getAllChildren(parent, children);
-            for (Inode child : children) {
-              if (child.getHdfsUser() != null && !child.getHdfsUser().getName().equals(userHdfsName)) {
-                Path path = new Path(inodes.getPath(child));
-                udfso.setPermission(path, udfso.getParentPermission(path));
-                udfso.setOwner(path, userHdfsName, datasetGroup);
-              }
-            }
+            setTourFilesOwner(udfso, featurestoreExampleDataDst, userHdfsName, datasetGroup, true);
             //Move example notebooks to Jupyter dataset
             String featurestoreExampleNotebooksSrc = featurestoreExampleDataDst + "/notebooks";
             String featurestoreExampleNotebooksDst = "/" + Settings.DIR_ROOT + "/" + project.getName() + "/"
@@ -2370,16 +2350,7 @@ public class ProjectController {
             udfso.copyInHdfs(new Path(featurestoreExampleNotebooksSrc + "/*"),
                 new Path(featurestoreExampleNotebooksDst));
             datasetGroup = hdfsUsersController.getHdfsGroupName(project, Settings.HOPS_TOUR_DATASET_JUPYTER);
-            Inode parentJupyterDs = inodes.getInodeAtPath(featurestoreExampleNotebooksDst);
-            List<Inode> childrenJupyterDs = new ArrayList<>();
-            inodes.getAllChildren(parentJupyterDs, childrenJupyterDs);
-            for (Inode child : childrenJupyterDs) {
-              if (child.getHdfsUser() != null) {
-                Path path = new Path(inodes.getPath(child));
-                udfso.setPermission(path, udfso.getParentPermission(path));
-                udfso.setOwner(path, userHdfsName, datasetGroup);
-              }
-            }
+            setTourFilesOwner(udfso, featurestoreExampleNotebooksDst, userHdfsName, datasetGroup, false);
             udfso.rm(new Path(featurestoreExampleNotebooksSrc), true);
           } catch (IOException ex) {
             throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_TOUR_FILES_ERROR, Level.SEVERE,
@@ -2415,6 +2386,21 @@ public class ProjectController {
     }
   }
 
+  /**
+   * Hand the tour files copied under <i>dir</i> over to the project user, inheriting the permissions of their
+   * parent. When <i>skipOwned</i> is set, files already owned by the user are left untouched.
+   */
+  private void setTourFilesOwner(DistributedFileSystemOps udfso, String dir, String owner, String group,
+      boolean skipOwned) throws IOException {
+    inodes.forEachDescendant(inodes.getInodeAtPath(dir), dir, (child, childPath) -> {
+      if (child.getHdfsUser() != null && !(skipOwned && child.getHdfsUser().getName().equals(owner))) {
+        Path path = new Path(childPath);
+        udfso.setPermission(path, udfso.getParentPermission(path));
+        udfso.setOwner(path, owner, group);
+      }
+    });
+  }
+
   public List<YarnPriceMultiplicator> getYarnMultiplicators() {
     List<YarnPriceMultiplicator> multiplicators = new ArrayList<>(yarnProjectsQuotaFacade.getMultiplicators());
     if (multiplicators.isEmpty()) {
@@ -22,14 +22,22 @@ import io.hops.hopsworks.common.dao.serving.TfServing;
 import io.hops.hopsworks.common.dao.serving.TfServingFacade;
 import io.hops.hopsworks.restutils.RESTCodes;
 import io.hops.hopsworks.common.serving.inference.logger.InferenceLogger;
+import io.hops.hopsworks.common.serving.inference.logger.InferenceLoggingQueue;
+import io.hops.hopsworks.common.util.Settings;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
-import javax.enterprise.inject.Any;
-import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,12 +50,53 @@ public class InferenceController {
   @EJB
   private TfServingFacade tfServingFacade;
 
+  @EJB
+  private InferenceLoggingQueue inferenceLoggingQueue;
+  @EJB
+  private InferenceRequestExecutor inferenceRequestExecutor;
+  @EJB
+  private Settings settings;
   @Inject
   private TfInferenceController tfInferenceController;
-  @Inject
-  @Any
-  private Instance<InferenceLogger> inferenceLoggers;
+  @Resource
+  private SessionContext sessionContext;
+
+  /**
+   * Serve an inference request on the bounded inference thread pool and resume the suspended JAX-RS response with
+   * the result, so that the HTTP request thread is released while waiting for the model server. The response is
+   * resumed with a 504 if the model server does not answer in time and with a 503 if the pool is saturated.
+   * The request is served through the business interface of this bean, as the pooled instance must not be used
+   * once this method has returned.
+   */
+  public void inferAsync(Project project, String modelName, Integer modelVersion, String verb,
+      String inferenceRequestJson, AsyncResponse asyncResponse) {
+    AtomicReference<Future<?>> request = new AtomicReference<>();
+    asyncResponse.setTimeoutHandler(response -> {
+      Future<?> pending = request.get();
+      if (pending != null) {
+        pending.cancel(true);
+      }
+      response.resume(new InferenceException(RESTCodes.InferenceErrorCode.REQUEST_TIMEOUT, Level.FINE,
+          "name: " + modelName));
+    });
+    asyncResponse.setTimeout(settings.getInferenceRequestTimeoutMs(), TimeUnit.MILLISECONDS);
 
+    InferenceController inferenceController = sessionContext.getBusinessObject(InferenceController.class);
+    try {
+      request.set(inferenceRequestExecutor.submit(() -> {
+        try {
+          String inferenceResult = inferenceController.infer(project, modelName, modelVersion, verb,
+              inferenceRequestJson);
+          asyncResponse.resume(Response.ok().entity(inferenceResult).build());
+        } catch (Exception e) {
+          asyncResponse.resume(e);
+        }
+      }));
+    } catch (RejectedExecutionException e) {
+      asyncResponse.resume(new InferenceException(RESTCodes.InferenceErrorCode.TOO_MANY_REQUESTS, Level.FINE,
+          "name: " + modelName));
+    }
+  }
 
   public String infer(Project project, String modelName, Integer modelVersion,
                       String verb, String inferenceRequestJson) throws InferenceException {
@@ -62,16 +111,8 @@ public class InferenceController {
     Pair<Integer, String> inferenceResult =
         tfInferenceController.infer(tfServing, modelVersion, verb, inferenceRequestJson);
 
-    // Log the inference
-    for (InferenceLogger inferenceLogger : inferenceLoggers) {
-      try {
-        inferenceLogger.logInferenceRequest(tfServing, inferenceRequestJson,
-            inferenceResult.getL(), inferenceResult.getR());
-      } catch (Exception e) {
-        // We don't want to fill the logs with inference logging errors
-        logger.log(Level.FINE, "Error logging inference for logger: " + inferenceLogger.getClassName(), e);
-      }
-    }
+    // Log the inference in the background
+    inferenceLoggingQueue.offer(tfServing, inferenceRequestJson, inferenceResult.getL(), inferenceResult.getR());
 
     // If the inference server returned something different than 200 then throw an exception to the user
     if (inferenceResult.getL() >= 500) {
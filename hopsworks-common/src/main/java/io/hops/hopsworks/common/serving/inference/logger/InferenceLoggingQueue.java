@@ -0,0 +1,142 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.serving.inference.logger;
+
+import io.hops.hopsworks.common.dao.serving.TfServing;
+import io.hops.hopsworks.common.util.Settings;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded queue of inference requests to be logged. Inference requests are handed to the queue and the loggers run
+ * on a background thread, so logging never runs on the thread serving the inference request. When the queue is
+ * full the entry is dropped rather than blocking the inference request.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+public class InferenceLoggingQueue {
+
+  private static final Logger LOGGER = Logger.getLogger(InferenceLoggingQueue.class.getName());
+  private static final long POLL_TIMEOUT_MS = 1000;
+
+  @EJB
+  private Settings settings;
+  @Inject
+  @Any
+  private Instance<InferenceLogger> inferenceLoggers;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+
+  private BlockingQueue<InferenceLogEntry> queue;
+  private Future<?> consumer;
+  private volatile boolean running;
+  private final AtomicLong dropped = new AtomicLong(0);
+
+  @PostConstruct
+  public void init() {
+    queue = new ArrayBlockingQueue<>(settings.getInferenceLogQueueSize());
+    running = true;
+    consumer = executorService.submit(this::consume);
+  }
+
+  @PreDestroy
+  public void preDestroy() {
+    running = false;
+    if (consumer != null) {
+      consumer.cancel(true);
+    }
+  }
+
+  /**
+   * Queue an inference request to be logged by all the inference loggers.
+   *
+   * @return false if the queue is full and the request will not be logged
+   */
+  public boolean offer(TfServing serving, String inferenceRequest, Integer responseHttpCode,
+      String inferenceResponse) {
+    if (queue.offer(new InferenceLogEntry(serving, inferenceRequest, responseHttpCode, inferenceResponse))) {
+      return true;
+    }
+    long total = dropped.incrementAndGet();
+    LOGGER.log(Level.FINE, "Inference logging queue is full, dropped {0} inference logs so far", total);
+    return false;
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  private void consume() {
+    while (running) {
+      InferenceLogEntry entry;
+      try {
+        entry = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (entry == null) {
+        continue;
+      }
+      for (InferenceLogger inferenceLogger : inferenceLoggers) {
+        try {
+          inferenceLogger.logInferenceRequest(entry.serving, entry.inferenceRequest, entry.responseHttpCode,
+              entry.inferenceResponse);
+        } catch (Exception e) {
+          // We don't want to fill the logs with inference logging errors
+          LOGGER.log(Level.FINE, "Error logging inference for logger: " + inferenceLogger.getClassName(), e);
+        }
+      }
+    }
+  }
+
+  private static class InferenceLogEntry {
+    private final TfServing serving;
+    private final String inferenceRequest;
+    private final Integer responseHttpCode;
+    private final String inferenceResponse;
+
+    private InferenceLogEntry(TfServing serving, String inferenceRequest, Integer responseHttpCode,
+        String inferenceResponse) {
+      this.serving = serving;
+      this.inferenceRequest = inferenceRequest;
+      this.responseHttpCode = responseHttpCode;
+      this.inferenceResponse = inferenceResponse;
+    }
+  }
+}
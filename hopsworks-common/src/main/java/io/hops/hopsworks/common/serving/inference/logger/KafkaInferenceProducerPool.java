@@ -0,0 +1,244 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.serving.inference.logger;
+
+import io.hops.hopsworks.common.dao.project.Project;
+import io.hops.hopsworks.common.security.CertificateMaterializer;
+import io.hops.hopsworks.common.util.HopsUtils;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.CryptoPasswordNotFoundException;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.SslConfigs;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static io.hops.hopsworks.common.dao.kafka.KafkaFacade.KAFKA_SECURITY_PROTOCOL;
+import static io.hops.hopsworks.common.serving.inference.logger.KafkaInferenceLogger.SERVING_MANAGER_USERNAME;
+
+/**
+ * Bounded pool of long-lived Kafka producers used to write inference logs, one per project. The certificates of the
+ * serving manager stay materialized for as long as the producer of the project is in the pool. Producers are closed
+ * when idle, when the pool is full or when they reach their maximum lifetime, so that rotated certificates are
+ * picked up by the next producer. Evicted producers are closed in the background, so that a slow close does not
+ * delay the creation of producers for other projects.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+public class KafkaInferenceProducerPool {
+
+  private static final Logger LOGGER = Logger.getLogger(KafkaInferenceProducerPool.class.getName());
+  private static final long CLOSE_TIMEOUT_MS = 5000;
+  // Bounds the time a send waits for metadata or buffer space when the brokers are unreachable
+  private static final long MAX_BLOCK_MS = 2000;
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private CertificateMaterializer certificateMaterializer;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+
+  private final Map<Integer, PooledProducer> producers = new ConcurrentHashMap<>();
+
+  @PreDestroy
+  public void preDestroy() {
+    for (PooledProducer pooledProducer : new ArrayList<>(producers.values())) {
+      if (producers.remove(pooledProducer.projectId, pooledProducer)) {
+        close(pooledProducer);
+      }
+    }
+  }
+
+  /**
+   * Get the producer of a project, creating it if the project does not have one in the pool.
+   *
+   * @param project the project the inference logs belong to
+   * @return a started producer configured with the serving manager certificates of the project
+   * @throws IOException
+   * @throws CryptoPasswordNotFoundException
+   */
+  public KafkaProducer<String, byte[]> getProducer(Project project) throws IOException,
+      CryptoPasswordNotFoundException {
+    PooledProducer pooledProducer = producers.get(project.getId());
+    if (pooledProducer == null || isExpired(pooledProducer, System.currentTimeMillis())) {
+      pooledProducer = createProducer(project);
+    }
+    pooledProducer.lastUsed = System.currentTimeMillis();
+    return pooledProducer.producer;
+  }
+
+  /**
+   * Close the producer of a project, for example when its certificates are no longer valid or the project
+   * has been removed.
+   *
+   * @param project the project
+   */
+  public void invalidate(Project project) {
+    PooledProducer pooledProducer = producers.get(project.getId());
+    if (pooledProducer != null) {
+      evict(pooledProducer);
+    }
+  }
+
+  @Schedule(persistent = false,
+      minute = "*",
+      hour = "*")
+  public void evictIdleProducers(Timer timer) {
+    long now = System.currentTimeMillis();
+    for (PooledProducer pooledProducer : new ArrayList<>(producers.values())) {
+      if (isExpired(pooledProducer, now)) {
+        evict(pooledProducer);
+      }
+    }
+  }
+
+  private synchronized PooledProducer createProducer(Project project) throws IOException,
+      CryptoPasswordNotFoundException {
+    long now = System.currentTimeMillis();
+    PooledProducer pooledProducer = producers.get(project.getId());
+    if (pooledProducer != null) {
+      if (!isExpired(pooledProducer, now)) {
+        // Another thread created it while we were waiting
+        return pooledProducer;
+      }
+      evict(pooledProducer);
+    }
+
+    if (producers.size() >= settings.getInferenceProducerPoolSize()) {
+      evictLeastRecentlyUsed();
+    }
+
+    certificateMaterializer.materializeCertificatesLocal(SERVING_MANAGER_USERNAME, project.getName());
+    try {
+      pooledProducer = new PooledProducer(project, new KafkaProducer<>(getProducerProperties(project)), now);
+    } catch (Exception e) {
+      certificateMaterializer.removeCertificatesLocal(SERVING_MANAGER_USERNAME, project.getName());
+      throw e;
+    }
+    producers.put(project.getId(), pooledProducer);
+    return pooledProducer;
+  }
+
+  private Properties getProducerProperties(Project project) throws CryptoPasswordNotFoundException {
+    CertificateMaterializer.CryptoMaterial cryptoMaterial =
+        certificateMaterializer.getUserMaterial(SERVING_MANAGER_USERNAME, project.getName());
+
+    Properties props = new Properties();
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, settings.getKafkaBrokersStr());
+    props.put(ProducerConfig.CLIENT_ID_CONFIG, "KafkaServing");
+    props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, MAX_BLOCK_MS);
+    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+        StringSerializer.class.getName());
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+        ByteArraySerializer.class.getName());
+
+    // Configure TLS for this producer
+    props.setProperty(CommonClientConfigs.SECURITY_PROTOCOL_CONFIG, KAFKA_SECURITY_PROTOCOL);
+
+    props.setProperty(SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG,
+        settings.getHopsworksTmpCertDir() + File.separator + HopsUtils.getProjectTruststoreName(project.getName(),
+            SERVING_MANAGER_USERNAME));
+    props.setProperty(SslConfigs.SSL_TRUSTSTORE_PASSWORD_CONFIG, String.valueOf(cryptoMaterial.getPassword()));
+
+    props.setProperty(SslConfigs.SSL_KEYSTORE_LOCATION_CONFIG,
+        settings.getHopsworksTmpCertDir() + File.separator + HopsUtils.getProjectKeystoreName(project.getName(),
+            SERVING_MANAGER_USERNAME));
+    props.setProperty(SslConfigs.SSL_KEYSTORE_PASSWORD_CONFIG, String.valueOf(cryptoMaterial.getPassword()));
+
+    props.setProperty(SslConfigs.SSL_KEY_PASSWORD_CONFIG, String.valueOf(cryptoMaterial.getPassword()));
+    return props;
+  }
+
+  private boolean isExpired(PooledProducer pooledProducer, long now) {
+    return now - pooledProducer.lastUsed > settings.getInferenceProducerIdleTimeoutMs()
+        || now - pooledProducer.created > settings.getInferenceProducerMaxLifetimeMs();
+  }
+
+  private void evictLeastRecentlyUsed() {
+    PooledProducer lru = null;
+    for (PooledProducer pooledProducer : producers.values()) {
+      if (lru == null || pooledProducer.lastUsed < lru.lastUsed) {
+        lru = pooledProducer;
+      }
+    }
+    if (lru != null) {
+      evict(lru);
+    }
+  }
+
+  private void evict(PooledProducer pooledProducer) {
+    // Only the thread removing the entry from the pool closes it
+    if (!producers.remove(pooledProducer.projectId, pooledProducer)) {
+      return;
+    }
+    try {
+      executorService.submit(() -> close(pooledProducer));
+    } catch (RejectedExecutionException e) {
+      close(pooledProducer);
+    }
+  }
+
+  private void close(PooledProducer pooledProducer) {
+    try {
+      pooledProducer.producer.close(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      LOGGER.log(Level.FINE, "Error closing inference producer for project " + pooledProducer.projectName, e);
+    } finally {
+      certificateMaterializer.removeCertificatesLocal(SERVING_MANAGER_USERNAME, pooledProducer.projectName);
+    }
+  }
+
+  private static class PooledProducer {
+    private final Integer projectId;
+    private final String projectName;
+    private final KafkaProducer<String, byte[]> producer;
+    private final long created;
+    private volatile long lastUsed;
+
+    private PooledProducer(Project project, KafkaProducer<String, byte[]> producer, long created) {
+      this.projectId = project.getId();
+      this.projectName = project.getName();
+      this.producer = producer;
+      this.created = created;
+      this.lastUsed = created;
+    }
+  }
+}
@@ -40,7 +40,8 @@
 package io.hops.hopsworks.common.upload;
 
 import java.io.File;
-import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ResumableInfo {
 
@@ -53,8 +54,9 @@ public class ResumableInfo {
   private long uploadedContentLength = 0;
   private String resumableFilePath;
 
-  //Chunks uploaded. Private to enable atomically add and check if finished
-  private HashSet<ResumableChunkNumber> uploadedChunks = new HashSet<>();
+  //Chunks uploaded. Private to enable atomically add and check if finished. Concurrent so that isUploaded
+  //does not need to wait for a chunk being added
+  private final Set<ResumableChunkNumber> uploadedChunks = ConcurrentHashMap.newKeySet();
 
   public static class ResumableChunkNumber {
 
@@ -109,10 +111,9 @@ public class ResumableInfo {
    */
   public synchronized boolean addChunkAndCheckIfFinished(
           ResumableChunkNumber rcn, long contentLength) {
-    if (!uploadedChunks.contains(rcn)) {
+    if (uploadedChunks.add(rcn)) {
       uploadedContentLength += contentLength;
     }
-    uploadedChunks.add(rcn);
     return checkIfUploadFinished();
   }
 
@@ -153,7 +154,7 @@ public class ResumableInfo {
     return this.resumableTemplateId;
   }
 
-  public long getUploadedContentLength() {
+  public synchronized long getUploadedContentLength() {
     return this.uploadedContentLength;
   }
 
@@ -188,7 +189,7 @@ public class ResumableInfo {
     this.resumableTemplateId = resumableTemplateId;
   }
 
-  public void setUploadedContentLength(long uploadedContentLength) {
+  public synchronized void setUploadedContentLength(long uploadedContentLength) {
     this.uploadedContentLength = uploadedContentLength;
   }
 
@@ -39,25 +39,23 @@
 
 package io.hops.hopsworks.common.upload;
 
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ResumableInfoStorage {
 
   //Single instance
   private ResumableInfoStorage() {
   }
-  private static ResumableInfoStorage sInstance;
+  private static final ResumableInfoStorage sInstance = new ResumableInfoStorage();
 
-  public static synchronized ResumableInfoStorage getInstance() {
-    if (sInstance == null) {
-      sInstance = new ResumableInfoStorage();
-    }
+  public static ResumableInfoStorage getInstance() {
     return sInstance;
   }
 
   //resumableIdentifier --  ResumableInfo
-  private HashMap<String, ResumableInfo> mMap
-          = new HashMap<String, ResumableInfo>();
+  //Chunks of different uploads, and of the same upload, are received concurrently
+  private final Map<String, ResumableInfo> mMap = new ConcurrentHashMap<>();
 
   /**
    * Get ResumableInfo from mMap or Create a new one.
@@ -71,16 +69,14 @@ public class ResumableInfoStorage {
    * @param resumableTemplateId
    * @return
    */
-  public synchronized ResumableInfo get(int resumableChunkSize,
+  public ResumableInfo get(int resumableChunkSize,
           long resumableTotalSize,
           String resumableIdentifier, String resumableFilename,
           String resumableRelativePath, String resumableFilePath,
           int resumableTemplateId) {
 
-    ResumableInfo info = mMap.get(resumableIdentifier);
-
-    if (info == null) {
-      info = new ResumableInfo();
+    return mMap.computeIfAbsent(resumableIdentifier, id -> {
+      ResumableInfo info = new ResumableInfo();
 
       info.setResumableChunkSize(resumableChunkSize);
       info.setResumableTotalSize(resumableTotalSize);
@@ -89,10 +85,8 @@ public class ResumableInfoStorage {
       info.setResumableRelativePath(resumableRelativePath);
       info.setResumableFilePath(resumableFilePath);
       info.setResumableTemplateId(resumableTemplateId);
-
-      mMap.put(resumableIdentifier, info);
-    }
-    return info;
+      return info;
+    });
   }
 
   /**
@@ -101,6 +95,6 @@ public class ResumableInfoStorage {
    * @param info
    */
   public void remove(ResumableInfo info) {
-    mMap.remove(info.getResumableIdentifier());
+    mMap.remove(info.getResumableIdentifier(), info);
   }
 }
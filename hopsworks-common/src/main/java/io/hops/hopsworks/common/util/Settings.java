@@ -60,7 +60,9 @@ import javax.annotation.PostConstruct;
 import javax.ejb.ConcurrencyManagement;
 import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.EJB;
+import javax.ejb.Schedule;
 import javax.ejb.Singleton;
+import javax.ejb.Timer;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 import javax.persistence.NoResultException;
@@ -76,6 +78,8 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -84,6 +88,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -146,6 +151,8 @@ public class Settings implements Serializable {
   private static final String VARIABLE_JHS_IP = "jhs_ip";
   private static final String VARIABLE_RM_IP = "rm_ip";
   private static final String VARIABLE_RM_PORT = "rm_port";
+  private static final String VARIABLE_CLUSTER_METRICS_SAMPLE_INTERVAL = "cluster_metrics_sample_interval";
+  private static final String VARIABLE_CLUSTER_METRICS_HISTORY_SIZE = "cluster_metrics_history_size";
   private static final String VARIABLE_LOGSTASH_IP = "logstash_ip";
   private static final String VARIABLE_LOGSTASH_PORT = "logstash_port";
   private static final String VARIABLE_LOGSTASH_PORT_SERVING = "logstash_port_serving";
@@ -209,6 +216,11 @@ public class Settings implements Serializable {
       = "file_preview_image_size";
   private static final String VARIABLE_FILE_PREVIEW_TXT_SIZE
       = "file_preview_txt_size";
+  private static final String VARIABLE_INODE_PATH_CACHE_SIZE = "inode_path_cache_size";
+  private static final String VARIABLE_FILE_PREVIEW_CACHE_SIZE = "file_preview_cache_size";
+  private static final String VARIABLE_KAGENT_HEARTBEAT_FLUSH_INTERVAL = "kagent_heartbeat_flush_interval";
+  private static final String VARIABLE_KAGENT_OP_PARALLELISM = "kagent_op_parallelism";
+  private static final String VARIABLE_KAGENT_OP_TIMEOUT = "kagent_op_timeout";
   private static final String VARIABLE_HOPSWORKS_REST_ENDPOINT
       = "hopsworks_endpoint";
   private static final String VARIABLE_HOPS_RPC_TLS = "hops_rpc_tls";
@@ -225,6 +237,7 @@ public class Settings implements Serializable {
   private static final String VARIABLE_ANACONDA_DEFAULT_REPO = "conda_default_repo";
   
   private static final String VARIABLE_DOWNLOAD_ALLOWED = "download_allowed";
+  private static final String VARIABLE_DOWNLOAD_BUFFER_SIZE = "download_buffer_size";
   private static final String VARIABLE_SUPPORT_EMAIL_ADDR = "support_email_addr";
   private static final String VARIABLE_HOPSUTIL_VERSION = "hopsutil_version";
   private static final String VARIABLE_HOPSEXAMPLES_VERSION = "hopsexamples_version";
@@ -279,6 +292,13 @@ public class Settings implements Serializable {
   private static final String VARIABLE_TF_SERVING_MONITOR_INT = "tf_serving_monitor_int";
   private static final String VARIABLE_TF_SERVING_CONNECTION_POOL_SIZE = "tf_serving_connection_pool_size";
   private static final String VARIABLE_TF_SERVING_MAX_ROUTE_CONNECTIONS = "tf_serving_max_route_connections";
+  private static final String VARIABLE_INFERENCE_PRODUCER_POOL_SIZE = "inference_producer_pool_size";
+  private static final String VARIABLE_INFERENCE_PRODUCER_IDLE_TIMEOUT = "inference_producer_idle_timeout";
+  private static final String VARIABLE_INFERENCE_PRODUCER_MAX_LIFETIME = "inference_producer_max_lifetime";
+  private static final String VARIABLE_INFERENCE_LOG_QUEUE_SIZE = "inference_log_queue_size";
+  private static final String VARIABLE_INFERENCE_REQUEST_THREADS = "inference_request_threads";
+  private static final String VARIABLE_INFERENCE_REQUEST_QUEUE_SIZE = "inference_request_queue_size";
+  private static final String VARIABLE_INFERENCE_REQUEST_TIMEOUT = "inference_request_timeout";
 
   /*
    * -------------------- Kubernetes ---------------
@@ -312,135 +332,306 @@ public class Settings implements Serializable {
   /* -------------------- Featurestore --------------- */
   private static final String VARIABLE_FEATURESTORE_DEFAULT_QUOTA = "featurestore_default_quota";
   private static final String VARIABLE_FEATURESTORE_DEFAULT_STORAGE_FORMAT = "featurestore_default_storage_format";
+  private static final String VARIABLE_FEATURESTORE_HIVE_CONNECTIONS_PER_USER =
+      "featurestore_hive_connections_per_user";
+  private static final String VARIABLE_FEATURESTORE_HIVE_CONNECTION_IDLE_TIMEOUT =
+      "featurestore_hive_connection_idle_timeout";
+  private static final String VARIABLE_FEATURESTORE_HIVE_CONNECTION_MAX_LIFETIME =
+      "featurestore_hive_connection_max_lifetime";
 
-  private String setVar(String varName, String defaultValue) {
-    Variables userName = findById(varName);
-    if (userName != null && userName.getValue() != null && (!userName.getValue().isEmpty())) {
-      String user = userName.getValue();
-      if (user != null && !user.isEmpty()) {
-        return user;
-      }
-    }
-    return defaultValue;
-  }
-
-  private String setStrVar(String varName, String defaultValue) {
-    Variables var = findById(varName);
-    if (var != null && var.getValue() != null) {
-      String val = var.getValue();
-      if (val != null && !val.isEmpty()) {
-        return val;
-      }
-    }
-    return defaultValue;
-  }
-
-  private String setDirVar(String varName, String defaultValue) {
-    Variables dirName = findById(varName);
-    if (dirName != null && dirName.getValue() != null && (new File(dirName.
-        getValue()).isDirectory())) {
-      String val = dirName.getValue();
-      if (val != null && !val.isEmpty()) {
-        return val;
-      }
-    }
-    return defaultValue;
-  }
-
-  private String setIpVar(String varName, String defaultValue) {
-    Variables var = findById(varName);
-    if (var != null && var.getValue() != null && Ip.validIp(var.getValue())) {
-      String val = var.getValue();
-      if (val != null && !val.isEmpty()) {
-        return val;
-      }
-    }
-    return defaultValue;
-  }
-
-  private String setDbVar(String varName, String defaultValue) {
-    Variables var = findById(varName);
-    if (var != null && var.getValue() != null) {
-      // TODO - check this is a valid DB name
-      String val = var.getValue();
-      if (val != null && !val.isEmpty()) {
-        return val;
-      }
-    }
-    return defaultValue;
-  }
-
-  private Boolean setBoolVar(String varName, Boolean defaultValue) {
-    Variables var = findById(varName);
-    if (var != null && var.getValue() != null) {
-      String val = var.getValue();
-      if (val != null && !val.isEmpty()) {
-        return Boolean.parseBoolean(val);
-      }
-    }
-    return defaultValue;
-  }
-
-  private Integer setIntVar(String varName, Integer defaultValue) {
-    Variables var = findById(varName);
-    try {
-      if (var != null && var.getValue() != null) {
-        String val = var.getValue();
-        if (val != null && !val.isEmpty()) {
-          return Integer.parseInt(val);
-        }
-      }
-    } catch (NumberFormatException ex) {
-      LOGGER.info("Error - not an integer! " + varName
-          + " should be an integer. Value was " + defaultValue);
+  /*
+   * Variables are cached in memory and read without locking. A CachedVariables instance is built from one query
+   * over the whole variables table, derives every typed value up front and is never modified afterwards. It is
+   * published with a single write to the volatile cache reference, so readers see either all the old values or all
+   * the new ones. invalidateCache() only bumps the generation: a snapshot built for an older generation is reloaded
+   * on the next read, even if a load that was in flight during the invalidation publishes it afterwards.
+   */
+  private volatile CachedVariables cache = null;
+  private final AtomicLong cacheGeneration = new AtomicLong();
+  private final Object cacheLock = new Object();
+
+  private Map<String, String> loadVariablesSnapshot() {
+    Map<String, String> variables = new HashMap<>();
+    for (Variables var : getAllVariables()) {
+      variables.put(var.getId(), var.getValue());
     }
-    return defaultValue;
+    return Collections.unmodifiableMap(variables);
   }
 
-  private long setLongVar(String varName, Long defaultValue) {
-    Variables var = findById(varName);
-    try {
-      if (var != null && var.getValue() != null) {
-        String val = var.getValue();
-        if (val != null && !val.isEmpty()) {
-          return Long.parseLong(val);
+  private CachedVariables cache() {
+    CachedVariables current = cache;
+    if (current == null || current.generation != cacheGeneration.get()) {
+      synchronized (cacheLock) {
+        current = cache;
+        if (current == null || current.generation != cacheGeneration.get()) {
+          current = populateCache();
         }
       }
-    } catch (NumberFormatException ex) {
-      LOGGER.info("Error - not a long! " + varName
-          + " should be an integer. Value was " + defaultValue);
-    }
-
-    return defaultValue;
-  }
-
-  private RESTLogLevel setLogLevelVar(String varName, RESTLogLevel defaultValue) {
-    Variables var = findById(varName);
-    if (var != null && var.getValue() != null) {
-      String val = var.getValue();
-      if (val != null && !val.isEmpty()) {
-        return RESTLogLevel.valueOf(val);
-      }
     }
-    return defaultValue;
-  }
-
-  private long setMillisecondVar(String varName, Long defaultValue) {
-    Variables var = findById(varName);
-    if (var != null && var.getValue() != null && !var.getValue().isEmpty()) {
-      String val = var.getValue();
-      long timeValue = getConfTimeValue(val);
-      TimeUnit timeUnit = getConfTimeTimeUnit(val);
-      return timeUnit.toMillis(timeValue);
-    }
-
-    return defaultValue;
-  }
-
-  private boolean cached = false;
-
-  private void populateCache() {
-    if (!cached) {
+    return current;
+  }
+
+  private CachedVariables populateCache() {
+    CachedVariables loaded = new CachedVariables(cacheGeneration.get(), loadVariablesSnapshot());
+    cache = loaded;
+    return loaded;
+  }
+
+  private class CachedVariables {
+
+    private final long generation;
+    private final Map<String, String> variables;
+
+    private String TWOFACTOR_AUTH = "false";
+    private String TWOFACTOR_EXCLUDE = "AGENT;CLUSTER_AGENT";
+    private String HOPS_RPC_TLS = "false";
+    private String SPARK_DIR = "/srv/hops/spark";
+    private String PY4J_ARCHIVE = "py4j-0.10.7-src.zip";
+    // "/tmp" by default
+    private String STAGING_DIR = "/srv/hops/domains/domain1/staging";
+    private String FLINK_DIR = "/srv/hops/flink";
+    private String MYSQL_DIR = "/usr/local/mysql";
+    private String NDB_DIR = "/var/lib/mysql-cluster";
+    private String AIRFLOW_DIR = "/srv/hops/airflow";
+    private String AIRFLOW_USER = "airflow";
+    private String HADOOP_DIR = "/srv/hops/hadoop";
+    private String HIVE_SERVER_HOSTNAME = "127.0.0.1:9085";
+    private String HIVE_SERVER_HOSTNAME_EXT = "127.0.0.1:9084";
+    private String HIVE_SUPERUSER = "hive";
+    private String ANACONDA_DEFAULT_REPO = "defaults";
+    private String HIVE_WAREHOUSE = "/apps/hive/warehouse";
+    private String HIVE_LLAP_SLIDER_DIR = "/home/hive/.slider";
+    private String HIVE_LLAP_LOCAL_FS_DIR = "/srv/hops/apache-hive/bin/llap";
+    private String HIVE_SCRATCHDIR = "/tmp/hive";
+    private String HIVE_DB_DEFAULT_QUOTA = "50000";
+    private String HOPSWORKS_IP = "127.0.0.1";
+    private Integer HOPSWORKS_PORT = 8080;
+    private String CERTS_DIR = "/srv/hops/certs-dir";
+    private String HOPSWORKS_INSTALL_DIR = "/srv/hops/domains/domain1";
+    //User under which yarn is run
+    private String YARN_SUPERUSER = "rmyarn";
+    private String HOPSWORKS_USER = "glassfish";
+    private String HDFS_SUPERUSER = "hdfs";
+    private String SPARK_USER = "spark";
+    private String JAVA_HOME = "/usr/lib/jvm/default-java";
+    private String FLINK_USER = "flink";
+    private Integer YARN_DEFAULT_QUOTA = 60000;
+    private String YARN_WEB_UI_IP = "127.0.0.1";
+    private int YARN_WEB_UI_PORT = 8088;
+    private String HDFS_WEB_UI_IP = "127.0.0.1";
+    private int HDFS_WEB_UI_PORT = 50070;
+    private String HDFS_DEFAULT_QUOTA_MBs = "200000";
+    private String MAX_NUM_PROJ_PER_USER = "5";
+    private String HADOOP_VERSION = "2.8.2";
+    // Elasticsearch
+    private String ELASTIC_IP = "127.0.0.1";
+    private int ELASTIC_PORT = 9300;
+    private int ELASTIC_REST_PORT = 9200;
+    private long ELASTIC_LOGS_INDEX_EXPIRATION = 7 * 24 * 60 * 60 * 1000;
+    // CertificateMaterializer service. Delay for deleting crypto material from
+    // the local filesystem. The lower the value the more frequent we reach DB
+    // for materialization
+    // Suffix, defaults to minutes if omitted:
+    // ms: milliseconds
+    // s: seconds
+    // m: minutes (default)
+    // h: hours
+    // d: days
+    private String CERTIFICATE_MATERIALIZER_DELAY = "1m";
+    private String CERTIFICATE_USER_VALID_DAYS = "12";
+    // Spark
+    private String SPARK_HISTORY_SERVER_IP = "127.0.0.1";
+    // Oozie
+    private String OOZIE_IP = "127.0.0.1";
+    // MapReduce Job History Server
+    private String JHS_IP = "127.0.0.1";
+    // Resource Manager for YARN
+    private String RM_IP = "127.0.0.1";
+    // Resource Manager Port
+    private int RM_PORT = 8088;
+    // How often the cluster metrics of the Resource Manager are sampled
+    private long CLUSTER_METRICS_SAMPLE_INTERVAL_MS = 5000L;
+    // Number of cluster metrics samples kept in memory
+    private int CLUSTER_METRICS_HISTORY_SIZE = 120;
+    private String LOGSTASH_IP = "127.0.0.1";
+    // Resource Manager Port
+    private int LOGSTASH_PORT = 8088;
+    private int LOGSTASH_PORT_SERVING = 5045;
+    // Livy Server`
+    private String LIVY_IP = "127.0.0.1";
+    private String KIBANA_IP = "10.0.2.15";
+    // Zookeeper
+    private String ZK_IP = "10.0.2.15";
+    private String ZK_USER = "zk";
+    private String WHITELIST_USERS_LOGIN = "agent@hops.io";
+    // Jupyter
+    private String JUPYTER_DIR = "/srv/hops/jupyter";
+    private long JUPYTER_WS_PING_INTERVAL_MS = 10000L;
+    private String jupyterShutdownTimerInterval = "30m";
+    private String KAFKA_USER = "kafka";
+    private String KAFKA_DIR = "/srv/kafka";
+    private String ANACONDA_USER = "anaconda";
+    private String ANACONDA_DIR = "/srv/hops/anaconda/anaconda";
+    private String CUDA_DIR = "/usr/local/cuda";
+    private String ANACONDA_ENV = "kagent";
+    private Boolean ANACONDA_ENABLED = true;
+    private Boolean DOWNLOAD_ALLOWED = true;
+    // Size in bytes of the buffer used to copy a file from HDFS to the client
+    private int DOWNLOAD_BUFFER_SIZE = 1024 * 1024;
+    private String HOPSWORKS_REST_ENDPOINT = "hopsworks0:8181";
+    private RESTLogLevel HOPSWORKS_REST_LOG_LEVEL = RESTLogLevel.PROD;
+    private String SUPPORT_EMAIL_ADDR = "support@hops.io";
+    private String FIRST_TIME_LOGIN = "0";
+    private String HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = "adminpw";
+    private Integer KAFKA_DEFAULT_NUM_PARTITIONS = 2;
+    private Integer KAFKA_DEFAULT_NUM_REPLICAS = 1;
+    private String ZK_DIR = "/srv/zookeeper";
+    // Dr Elephant
+    private String DRELEPHANT_IP = "127.0.0.1";
+    private String DRELEPHANT_DB = "hopsworks";
+    private int DRELEPHANT_PORT = 11000;
+    private String CLUSTER_CERT = "asdasxasx8as6dx8a7sx7asdta8dtasxa8";
+    private int FILE_PREVIEW_IMAGE_SIZE = 10000000;
+    private int FILE_PREVIEW_TXT_SIZE = 100;
+    // Maximum number of bytes of rendered file previews kept in memory
+    private int FILE_PREVIEW_CACHE_SIZE = 64 * 1024 * 1024;
+    // Maximum number of inode paths kept in memory
+    private int INODE_PATH_CACHE_SIZE = 10000;
+    private String INFLUXDB_IP = "localhost";
+    private String INFLUXDB_PORT = "8086";
+    private String INFLUXDB_USER = "hopsworks";
+    private String INFLUXDB_PW = "hopsworks";
+    private String RESOURCE_DIRS = ".sparkStaging;spark-warehouse";
+    private String ALERT_EMAIL_ADDRS = "";
+    private int KAFKA_MAX_NUM_TOPICS = 10;
+    private int MAX_STATUS_POLL_RETRY = 5;
+    private boolean PYTHON_KERNEL = true;
+    private String PYPI_REST_ENDPOINT = "https://pypi.org/pypi/{package}/json";
+    private String HOPSUTIL_VERSION = "0.3.0";
+    private String HOPS_EXAMPLES_VERSION = "0.3.0";
+    private String RECOVERY_PATH = "hopsworks-api/api/auth/recover";
+    private String VERIFICATION_PATH = "hopsworks-api/api/auth/verify";
+    private String HOPSSITE_HOST = "hops.site";
+    private String HOPSSITE = "http://hops.site:5081/hops-site/api";
+    private Boolean DELA_ENABLED = false; // set to false if not found in variables table
+    private DelaClientType DELA_CLIENT_TYPE = DelaClientType.FULL_CLIENT;
+    private long HOPSSITE_HEARTBEAT_INTERVAL = 10 * 60 * 1000l;//10min
+    private String DELA_TRANSFER_IP = "localhost";
+    private String DELA_TRANSFER_HTTP_PORT = "42000";
+    private String DELA_PUBLIC_HOPSWORK_PORT = "8080";
+    private String PUBLIC_HTTPS_PORT = "8181";
+    //set on registration after Dela is contacted to detect public port
+    private String DELA_SEARCH_ENDPOINT = "";
+    private String DELA_TRANSFER_ENDPOINT = "";
+    //set on cluster registration
+    private String DELA_CLUSTER_ID = null;
+    private String HOPSSITE_CLUSTER_NAME = null;
+    private String HOPSSITE_CLUSTER_PSWD = null;
+    private String HOPSSITE_CLUSTER_PSWD_AUX = "1234";
+    private String KRB_AUTH = "false";
+    private String LDAP_AUTH = "false";
+    private boolean IS_KRB_ENABLED = false;
+    private boolean IS_LDAP_ENABLED = false;
+    private String LDAP_GROUP_MAPPING = "";
+    private String LDAP_USER_ID = "uid"; //login name
+    private String LDAP_USER_GIVEN_NAME = "givenName";
+    private String LDAP_USER_SURNAME = "sn";
+    private String LDAP_USER_EMAIL = "mail";
+    private String LDAP_USER_SEARCH_FILTER = "uid=%s";
+    private String LDAP_GROUP_SEARCH_FILTER = "member=%d";
+    private String LDAP_KRB_USER_SEARCH_FILTER = "krbPrincipalName=%s";
+    private String LDAP_ATTR_BINARY = "java.naming.ldap.attributes.binary";
+    private String LDAP_GROUP_TARGET = "cn";
+    private String LDAP_DYNAMIC_GROUP_TARGET = "memberOf";
+    private String LDAP_LDAP_USERDN = "";
+    private String LDAP_LDAP_GROUPDN = "";
+    private int LDAP_ACCOUNT_STATUS = 4;
+    private boolean serviceKeyRotationEnabled = false;
+    private String serviceKeyRotationInterval = "3d";
+    private int tensorBoardMaxLastAccessed = 1140000;
+    private int sparkUILogsOffset = 512000;
+    // User upgradable libraries we installed for them
+    private Set<String> PROVIDED_PYTHON_LIBRARY_NAMES;
+    // Libraries we preinstalled users should not mess with
+    private Set<String> PREINSTALLED_PYTHON_LIBRARY_NAMES;
+    private String HOPSWORKS_VERSION;
+    private String CUDA_VERSION;
+    private String TENSORFLOW_VERSION;
+    private String DRELEPHANT_VERSION;
+    private String ELASTIC_VERSION;
+    private String KAFKA_VERSION;
+    private String DELA_VERSION;
+    private String EPIPE_VERSION;
+    private String FLINK_VERSION;
+    private String SPARK_VERSION;
+    private String SLIDER_VERSION;
+    private String TEZ_VERSION;
+    private String HIVE2_VERSION;
+    private String LIVY_VERSION;
+    private String NDB_VERSION;
+    private String FILEBEAT_VERSION;
+    private String KIBANA_VERSION;
+    private String LOGSTASH_VERSION;
+    private String KAPACITOR_VERSION;
+    private String TELEGRAF_VERSION;
+    private String GRAFANA_VERSION;
+    private String INFLUXDB_VERSION;
+    private String ZOOKEEPER_VERSION;
+    // -------------------------------- Kubernetes ----------------------------------------------//
+    private String KUBE_USER = "hopsworks";
+    private String KUBEMASTER_URL = "https://192.168.68.102:6443";
+    private String KUBE_CA_CERTFILE = "/srv/hops/certs-dir/certs/ca.cert.pem";
+    private String KUBE_CLIENT_KEYFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.key.pem";
+    private String KUBE_CLIENT_CERTFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.cert.pem";
+    private String KUBE_CLIENT_KEYPASS = "adminpw";
+    private String KUBE_TRUSTSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__tstore.jks";
+    private String KUBE_TRUSTSTORE_KEY = "adminpw";
+    private String KUBE_KEYSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__kstore.jks";
+    private String KUBE_KEYSTORE_KEY = "adminpw";
+    private String KUBE_REGISTRY = "registry.docker-registry.svc.cluster.local";
+    private Integer KUBE_MAX_SERVING_INSTANCES = 10;
+    private String TF_SERVING_MONITOR_INT = "30s";
+    private int TF_SERVING_CONNECTION_POOL_SIZE = 40;
+    private int TF_SERVING_MAX_ROUTE_CONNECTIONS = 10;
+    // Maximum number of projects with a warm Kafka producer for inference logging
+    private int INFERENCE_PRODUCER_POOL_SIZE = 100;
+    private long INFERENCE_PRODUCER_IDLE_TIMEOUT_MS = 300000L;
+    // Producers are rebuilt after this time so that rotated certificates are picked up
+    private long INFERENCE_PRODUCER_MAX_LIFETIME_MS = 3600000L;
+    // Maximum number of inference requests waiting to be logged
+    private int INFERENCE_LOG_QUEUE_SIZE = 10000;
+    // Maximum number of inference requests forwarded to the model servers at the same time
+    private int INFERENCE_REQUEST_THREADS = 50;
+    // Maximum number of inference requests waiting for a free thread before new ones are rejected
+    private int INFERENCE_REQUEST_QUEUE_SIZE = 500;
+    // Time after which a suspended inference request is answered with a gateway timeout
+    private long INFERENCE_REQUEST_TIMEOUT_MS = 30000L;
+    private String JWT_SIGNATURE_ALGORITHM = "HS512";
+    private String JWT_SIGNING_KEY_NAME = "apiKey";
+    private String JWT_ISSUER = "hopsworks@logicalclocks.com";
+    private long JWT_LIFETIME_MS = 1800000l;
+    private int JWT_EXP_LEEWAY_SEC = 900;
+    private long SERVICE_JWT_LIFETIME_MS = 86400000l;
+    private int SERVICE_JWT_EXP_LEEWAY_SEC = 43200;
+    private String SERVICE_JWT = "";
+    private int CONNECTION_KEEPALIVE_TIMEOUT = 30;
+    private String FEATURESTORE_DB_DEFAULT_QUOTA = "50000";
+    private String FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT = "ORC";
+    // Maximum number of idle Hive connections kept open per project user and feature store
+    private int FEATURESTORE_HIVE_CONNECTIONS_PER_USER = 2;
+    private long FEATURESTORE_HIVE_CONNECTION_IDLE_TIMEOUT_MS = 300000L;
+    // Connections are reopened after this time so that renewed certificates are picked up
+    private long FEATURESTORE_HIVE_CONNECTION_MAX_LIFETIME_MS = 3600000L;
+    // Interval at which the latest heartbeat of every kagent is written to the database
+    private long KAGENT_HEARTBEAT_FLUSH_INTERVAL_MS = 5000L;
+    // Maximum number of kagents an operation is sent to at the same time
+    private int KAGENT_OP_PARALLELISM = 20;
+    // Time a kagent has to complete an operation before it is reported as timed out
+    private long KAGENT_OP_TIMEOUT_MS = 120000L;
+
+    private CachedVariables(long generation, Map<String, String> variables) {
+      this.generation = generation;
+      this.variables = variables;
       PYTHON_KERNEL = setBoolVar(VARIABLE_PYTHON_KERNEL, PYTHON_KERNEL);
       JAVA_HOME = setVar(VARIABLE_JAVA_HOME, JAVA_HOME);
       TWOFACTOR_AUTH = setVar(VARIABLE_TWOFACTOR_AUTH, TWOFACTOR_AUTH);
@@ -487,6 +678,9 @@ public class Settings implements Serializable {
       HOPSWORKS_PORT = setIntVar(VARIABLE_HOPSWORKS_PORT, HOPSWORKS_PORT);
       RM_IP = setIpVar(VARIABLE_RM_IP, RM_IP);
       RM_PORT = setIntVar(VARIABLE_RM_PORT, RM_PORT);
+      CLUSTER_METRICS_SAMPLE_INTERVAL_MS = setMillisecondVar(VARIABLE_CLUSTER_METRICS_SAMPLE_INTERVAL,
+        CLUSTER_METRICS_SAMPLE_INTERVAL_MS);
+      CLUSTER_METRICS_HISTORY_SIZE = setIntVar(VARIABLE_CLUSTER_METRICS_HISTORY_SIZE, CLUSTER_METRICS_HISTORY_SIZE);
       LOGSTASH_IP = setIpVar(VARIABLE_LOGSTASH_IP, LOGSTASH_IP);
       LOGSTASH_PORT = setIntVar(VARIABLE_LOGSTASH_PORT, LOGSTASH_PORT);
       LOGSTASH_PORT_SERVING = setIntVar(VARIABLE_LOGSTASH_PORT_SERVING, LOGSTASH_PORT_SERVING);
@@ -524,6 +718,12 @@ public class Settings implements Serializable {
       CLUSTER_CERT = setVar(VARIABLE_CLUSTER_CERT, CLUSTER_CERT);
       FILE_PREVIEW_IMAGE_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_IMAGE_SIZE, 10000000);
       FILE_PREVIEW_TXT_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_TXT_SIZE, 100);
+      INODE_PATH_CACHE_SIZE = setIntVar(VARIABLE_INODE_PATH_CACHE_SIZE, INODE_PATH_CACHE_SIZE);
+      FILE_PREVIEW_CACHE_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_CACHE_SIZE, FILE_PREVIEW_CACHE_SIZE);
+      KAGENT_HEARTBEAT_FLUSH_INTERVAL_MS = setMillisecondVar(VARIABLE_KAGENT_HEARTBEAT_FLUSH_INTERVAL,
+          KAGENT_HEARTBEAT_FLUSH_INTERVAL_MS);
+      KAGENT_OP_PARALLELISM = setIntVar(VARIABLE_KAGENT_OP_PARALLELISM, KAGENT_OP_PARALLELISM);
+      KAGENT_OP_TIMEOUT_MS = setMillisecondVar(VARIABLE_KAGENT_OP_TIMEOUT, KAGENT_OP_TIMEOUT_MS);
       HOPSWORKS_REST_ENDPOINT = setStrVar(VARIABLE_HOPSWORKS_REST_ENDPOINT,
           HOPSWORKS_REST_ENDPOINT);
       CUDA_DIR = setDirVar(VARIABLE_CUDA_DIR, CUDA_DIR);
@@ -534,6 +734,7 @@ public class Settings implements Serializable {
       ANACONDA_ENABLED = Boolean.parseBoolean(setStrVar(
           VARIABLE_ANACONDA_ENABLED, ANACONDA_ENABLED.toString()));
       DOWNLOAD_ALLOWED = Boolean.parseBoolean(setStrVar(VARIABLE_DOWNLOAD_ALLOWED, DOWNLOAD_ALLOWED.toString()));
+      DOWNLOAD_BUFFER_SIZE = setIntVar(VARIABLE_DOWNLOAD_BUFFER_SIZE, DOWNLOAD_BUFFER_SIZE);
       INFLUXDB_IP = setStrVar(VARIABLE_INFLUXDB_IP, INFLUXDB_IP);
       INFLUXDB_PORT = setStrVar(VARIABLE_INFLUXDB_PORT, INFLUXDB_PORT);
       INFLUXDB_USER = setStrVar(VARIABLE_INFLUXDB_USER, INFLUXDB_USER);
@@ -556,9 +757,6 @@ public class Settings implements Serializable {
       sparkUILogsOffset = setIntVar(SPARK_UI_LOGS_OFFSET, sparkUILogsOffset);
       jupyterShutdownTimerInterval = setStrVar(JUPYTER_SHUTDOWN_TIMER_INTERVAL, jupyterShutdownTimerInterval);
 
-      populateDelaCache();
-      populateLDAPCache();
-
       ZOOKEEPER_VERSION = setStrVar(VARIABLE_ZOOKEEPER_VERSION, ZOOKEEPER_VERSION);
       INFLUXDB_VERSION = setStrVar(VARIABLE_INFLUXDB_VERSION, INFLUXDB_VERSION);
       GRAFANA_VERSION = setStrVar(VARIABLE_GRAFANA_VERSION, GRAFANA_VERSION);
@@ -596,6 +794,16 @@ public class Settings implements Serializable {
         TF_SERVING_CONNECTION_POOL_SIZE);
       TF_SERVING_MAX_ROUTE_CONNECTIONS = setIntVar(VARIABLE_TF_SERVING_MAX_ROUTE_CONNECTIONS,
         TF_SERVING_MAX_ROUTE_CONNECTIONS);
+      INFERENCE_PRODUCER_POOL_SIZE = setIntVar(VARIABLE_INFERENCE_PRODUCER_POOL_SIZE, INFERENCE_PRODUCER_POOL_SIZE);
+      INFERENCE_PRODUCER_IDLE_TIMEOUT_MS = setMillisecondVar(VARIABLE_INFERENCE_PRODUCER_IDLE_TIMEOUT,
+        INFERENCE_PRODUCER_IDLE_TIMEOUT_MS);
+      INFERENCE_PRODUCER_MAX_LIFETIME_MS = setMillisecondVar(VARIABLE_INFERENCE_PRODUCER_MAX_LIFETIME,
+        INFERENCE_PRODUCER_MAX_LIFETIME_MS);
+      INFERENCE_LOG_QUEUE_SIZE = setIntVar(VARIABLE_INFERENCE_LOG_QUEUE_SIZE, INFERENCE_LOG_QUEUE_SIZE);
+      INFERENCE_REQUEST_THREADS = setIntVar(VARIABLE_INFERENCE_REQUEST_THREADS, INFERENCE_REQUEST_THREADS);
+      INFERENCE_REQUEST_QUEUE_SIZE = setIntVar(VARIABLE_INFERENCE_REQUEST_QUEUE_SIZE, INFERENCE_REQUEST_QUEUE_SIZE);
+      INFERENCE_REQUEST_TIMEOUT_MS = setMillisecondVar(VARIABLE_INFERENCE_REQUEST_TIMEOUT,
+        INFERENCE_REQUEST_TIMEOUT_MS);
 
       KUBE_USER = setStrVar(VARIABLE_KUBE_USER, KUBE_USER);
       KUBEMASTER_URL = setStrVar(VARIABLE_KUBEMASTER_URL, KUBEMASTER_URL);
@@ -625,20 +833,212 @@ public class Settings implements Serializable {
       FEATURESTORE_DB_DEFAULT_QUOTA = setStrVar(VARIABLE_FEATURESTORE_DEFAULT_QUOTA, FEATURESTORE_DB_DEFAULT_QUOTA);
       FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT =
           setStrVar(VARIABLE_FEATURESTORE_DEFAULT_STORAGE_FORMAT, FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT);
+      FEATURESTORE_HIVE_CONNECTIONS_PER_USER = setIntVar(VARIABLE_FEATURESTORE_HIVE_CONNECTIONS_PER_USER,
+          FEATURESTORE_HIVE_CONNECTIONS_PER_USER);
+      FEATURESTORE_HIVE_CONNECTION_IDLE_TIMEOUT_MS = setMillisecondVar(
+          VARIABLE_FEATURESTORE_HIVE_CONNECTION_IDLE_TIMEOUT, FEATURESTORE_HIVE_CONNECTION_IDLE_TIMEOUT_MS);
+      FEATURESTORE_HIVE_CONNECTION_MAX_LIFETIME_MS = setMillisecondVar(
+          VARIABLE_FEATURESTORE_HIVE_CONNECTION_MAX_LIFETIME, FEATURESTORE_HIVE_CONNECTION_MAX_LIFETIME_MS);
+
+      populateDelaCache();
+      populateLDAPCache();
+    }
+
+    private void populateDelaCache() {
+      DELA_ENABLED = setBoolVar(VARIABLE_DELA_ENABLED, DELA_ENABLED);
+      DELA_CLIENT_TYPE = DelaClientType.from(setVar(VARIABLE_DELA_CLIENT_TYPE, DELA_CLIENT_TYPE.type));
+      HOPSSITE_CLUSTER_NAME = setVar(VARIABLE_HOPSSITE_CLUSTER_NAME, HOPSSITE_CLUSTER_NAME);
+      HOPSSITE_CLUSTER_PSWD = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD, HOPSSITE_CLUSTER_PSWD);
+      HOPSSITE_CLUSTER_PSWD_AUX = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD_AUX, HOPSSITE_CLUSTER_PSWD_AUX);
+      HOPSSITE_HOST = setVar(VARIABLE_HOPSSITE_BASE_URI_HOST, HOPSSITE_HOST);
+      HOPSSITE = setVar(VARIABLE_HOPSSITE_BASE_URI, HOPSSITE);
+      HOPSSITE_HEARTBEAT_INTERVAL = setLongVar(VARIABLE_HOPSSITE_HEARTBEAT_INTERVAL, HOPSSITE_HEARTBEAT_INTERVAL);
+
+      DELA_TRANSFER_IP = setStrVar(VARIABLE_DELA_CLUSTER_IP, DELA_TRANSFER_IP);
+      DELA_TRANSFER_HTTP_PORT = setStrVar(VARIABLE_DELA_CLUSTER_HTTP_PORT, DELA_TRANSFER_HTTP_PORT);
+      DELA_SEARCH_ENDPOINT = setStrVar(VARIABLE_DELA_SEARCH_ENDPOINT, DELA_SEARCH_ENDPOINT);
+      DELA_TRANSFER_ENDPOINT = setStrVar(VARIABLE_DELA_TRANSFER_ENDPOINT, DELA_TRANSFER_ENDPOINT);
+      DELA_PUBLIC_HOPSWORK_PORT = setStrVar(VARIABLE_DELA_PUBLIC_HOPSWORKS_PORT, DELA_PUBLIC_HOPSWORK_PORT);
+      PUBLIC_HTTPS_PORT = setStrVar(VARIABLE_PUBLIC_HTTPS_PORT, PUBLIC_HTTPS_PORT);
+      DELA_CLUSTER_ID = setStrVar(VARIABLE_DELA_CLUSTER_ID, DELA_CLUSTER_ID);
+    }
+
+    private void populateLDAPCache() {
+      KRB_AUTH = setVar(VARIABLE_KRB_AUTH, KRB_AUTH);
+      LDAP_AUTH = setVar(VARIABLE_LDAP_AUTH, LDAP_AUTH);
+      IS_KRB_ENABLED = setBoolVar(VARIABLE_KRB_AUTH, IS_KRB_ENABLED);
+      IS_LDAP_ENABLED = setBoolVar(VARIABLE_LDAP_AUTH, IS_LDAP_ENABLED);
+      LDAP_GROUP_MAPPING = setVar(VARIABLE_LDAP_GROUP_MAPPING, LDAP_GROUP_MAPPING);
+      LDAP_USER_ID = setVar(VARIABLE_LDAP_USER_ID, LDAP_USER_ID);
+      LDAP_USER_GIVEN_NAME = setVar(VARIABLE_LDAP_USER_GIVEN_NAME, LDAP_USER_GIVEN_NAME);
+      LDAP_USER_SURNAME = setVar(VARIABLE_LDAP_USER_SURNAME, LDAP_USER_SURNAME);
+      LDAP_USER_EMAIL = setVar(VARIABLE_LDAP_USER_EMAIL, LDAP_USER_EMAIL);
+      LDAP_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_USER_SEARCH_FILTER, LDAP_USER_SEARCH_FILTER);
+      LDAP_GROUP_SEARCH_FILTER = setVar(VARIABLE_LDAP_GROUP_SEARCH_FILTER, LDAP_GROUP_SEARCH_FILTER);
+      LDAP_KRB_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_KRB_USER_SEARCH_FILTER, LDAP_KRB_USER_SEARCH_FILTER);
+      LDAP_ATTR_BINARY = setVar(VARIABLE_LDAP_ATTR_BINARY, LDAP_ATTR_BINARY);
+      LDAP_GROUP_TARGET = setVar(VARIABLE_LDAP_GROUP_TARGET, LDAP_GROUP_TARGET);
+      LDAP_DYNAMIC_GROUP_TARGET = setVar(VARIABLE_LDAP_DYNAMIC_GROUP_TARGET, LDAP_DYNAMIC_GROUP_TARGET);
+      LDAP_LDAP_USERDN = setVar(VARIABLE_LDAP_USERDN, LDAP_LDAP_USERDN);
+      LDAP_LDAP_GROUPDN = setVar(VARIABLE_LDAP_GROUPDN, LDAP_LDAP_GROUPDN);
+      LDAP_ACCOUNT_STATUS = setIntVar(VARIABLE_LDAP_ACCOUNT_STATUS, LDAP_ACCOUNT_STATUS);
+    }
+
+    private Variables findCachedById(String varName) {
+      String value = variables.get(varName);
+      return value == null ? null : new Variables(varName, value);
+    }
+
+    private String setVar(String varName, String defaultValue) {
+      Variables userName = findCachedById(varName);
+      if (userName != null && userName.getValue() != null && (!userName.getValue().isEmpty())) {
+        String user = userName.getValue();
+        if (user != null && !user.isEmpty()) {
+          return user;
+        }
+      }
+      return defaultValue;
+    }
+
+    private String setStrVar(String varName, String defaultValue) {
+      Variables var = findCachedById(varName);
+      if (var != null && var.getValue() != null) {
+        String val = var.getValue();
+        if (val != null && !val.isEmpty()) {
+          return val;
+        }
+      }
+      return defaultValue;
+    }
+
+    private String setDirVar(String varName, String defaultValue) {
+      Variables dirName = findCachedById(varName);
+      if (dirName != null && dirName.getValue() != null && (new File(dirName.
+          getValue()).isDirectory())) {
+        String val = dirName.getValue();
+        if (val != null && !val.isEmpty()) {
+          return val;
+        }
+      }
+      return defaultValue;
+    }
+
+    private String setIpVar(String varName, String defaultValue) {
+      Variables var = findCachedById(varName);
+      if (var != null && var.getValue() != null && Ip.validIp(var.getValue())) {
+        String val = var.getValue();
+        if (val != null && !val.isEmpty()) {
+          return val;
+        }
+      }
+      return defaultValue;
+    }
+
+    private String setDbVar(String varName, String defaultValue) {
+      Variables var = findCachedById(varName);
+      if (var != null && var.getValue() != null) {
+        // TODO - check this is a valid DB name
+        String val = var.getValue();
+        if (val != null && !val.isEmpty()) {
+          return val;
+        }
+      }
+      return defaultValue;
+    }
+
+    private Boolean setBoolVar(String varName, Boolean defaultValue) {
+      Variables var = findCachedById(varName);
+      if (var != null && var.getValue() != null) {
+        String val = var.getValue();
+        if (val != null && !val.isEmpty()) {
+          return Boolean.parseBoolean(val);
+        }
+      }
+      return defaultValue;
+    }
+
+    private Integer setIntVar(String varName, Integer defaultValue) {
+      Variables var = findCachedById(varName);
+      try {
+        if (var != null && var.getValue() != null) {
+          String val = var.getValue();
+          if (val != null && !val.isEmpty()) {
+            return Integer.parseInt(val);
+          }
+        }
+      } catch (NumberFormatException ex) {
+        LOGGER.info("Error - not an integer! " + varName
+            + " should be an integer. Value was " + defaultValue);
+      }
+      return defaultValue;
+    }
+
+    private long setLongVar(String varName, Long defaultValue) {
+      Variables var = findCachedById(varName);
+      try {
+        if (var != null && var.getValue() != null) {
+          String val = var.getValue();
+          if (val != null && !val.isEmpty()) {
+            return Long.parseLong(val);
+          }
+        }
+      } catch (NumberFormatException ex) {
+        LOGGER.info("Error - not a long! " + varName
+            + " should be an integer. Value was " + defaultValue);
+      }
+
+      return defaultValue;
+    }
+
+    private RESTLogLevel setLogLevelVar(String varName, RESTLogLevel defaultValue) {
+      Variables var = findCachedById(varName);
+      if (var != null && var.getValue() != null) {
+        String val = var.getValue();
+        if (val != null && !val.isEmpty()) {
+          return RESTLogLevel.valueOf(val);
+        }
+      }
+      return defaultValue;
+    }
 
-      cached = true;
+    private long setMillisecondVar(String varName, Long defaultValue) {
+      Variables var = findCachedById(varName);
+      if (var != null && var.getValue() != null && !var.getValue().isEmpty()) {
+        String val = var.getValue();
+        long timeValue = getConfTimeValue(val);
+        TimeUnit timeUnit = getConfTimeTimeUnit(val);
+        return timeUnit.toMillis(timeValue);
+      }
+
+      return defaultValue;
     }
   }
 
-  private void checkCache() {
-    if (!cached) {
+  public void refreshCache() {
+    synchronized (cacheLock) {
       populateCache();
     }
   }
 
-  public synchronized void refreshCache() {
-    cached = false;
-    populateCache();
+  /**
+   * Variables can be updated by other Hopsworks instances sharing the same database. Periodically compare the
+   * variables table with the snapshot the cache was built from and refresh it if they differ.
+   *
+   * @param timer
+   */
+  @Schedule(persistent = false,
+      second = "*/30",
+      minute = "*",
+      hour = "*")
+  public void checkVariablesChanged(Timer timer) {
+    CachedVariables current = cache;
+    if (current == null) {
+      return;
+    }
+    if (!loadVariablesSnapshot().equals(current.variables)) {
+      LOGGER.log(Level.INFO, "Variables have been updated, refreshing cache");
+      refreshCache();
+    }
   }
 
   public synchronized void updateVariable(String variableName, String variableValue) {
@@ -660,10 +1060,11 @@ public class Settings implements Serializable {
 
   /**
    * This method will invalidate the cache of variables. The next call to read a variable after invalidateCache() will
-   * trigger a read of all variables from the database.
+   * trigger a read of all variables from the database, including if a read that was already loading them finishes
+   * after this call.
    */
-  public synchronized void invalidateCache() {
-    cached = false;
+  public void invalidateCache() {
+    cacheGeneration.incrementAndGet();
   }
 
   /**
@@ -671,21 +1072,16 @@ public class Settings implements Serializable {
    */
   private static final String GLASSFISH_DIR = "/srv/hops/glassfish";
 
-  public synchronized String getGlassfishDir() {
+  public String getGlassfishDir() {
     return GLASSFISH_DIR;
   }
 
-  private String TWOFACTOR_AUTH = "false";
-  private String TWOFACTOR_EXCLUDE = "AGENT;CLUSTER_AGENT";
-
-  public synchronized String getTwoFactorAuth() {
-    checkCache();
-    return TWOFACTOR_AUTH;
+  public String getTwoFactorAuth() {
+    return cache().TWOFACTOR_AUTH;
   }
 
-  public synchronized String getTwoFactorExclude() {
-    checkCache();
-    return TWOFACTOR_EXCLUDE;
+  public String getTwoFactorExclude() {
+    return cache().TWOFACTOR_EXCLUDE;
   }
 
   public enum TwoFactorMode {
@@ -709,11 +1105,8 @@ public class Settings implements Serializable {
     }
   }
 
-  private String HOPS_RPC_TLS = "false";
-
-  public synchronized boolean getHopsRpcTls() {
-    checkCache();
-    return HOPS_RPC_TLS.toLowerCase().equals("true");
+  public boolean getHopsRpcTls() {
+    return cache().HOPS_RPC_TLS.toLowerCase().equals("true");
   }
 
   /**
@@ -725,7 +1118,6 @@ public class Settings implements Serializable {
 
   public static final String TENSORBOARD_DIRS = "/tensorboard/";
 
-  private String SPARK_DIR = "/srv/hops/spark";
   public static final String SPARK_EXAMPLES_DIR = "/examples/jars";
 
   public static final String SPARK_NUMBER_EXECUTORS_ENV
@@ -823,47 +1215,36 @@ public class Settings implements Serializable {
   //Hive config
   public static final String HIVE_SITE = "hive-site.xml";
 
-  private String PY4J_ARCHIVE = "py4j-0.10.7-src.zip";
-
-  public synchronized String getPy4JArchive() {
-    checkCache();
-    return PY4J_ARCHIVE;
+  public String getPy4JArchive() {
+    return cache().PY4J_ARCHIVE;
   }
 
-  public synchronized String getSparkDir() {
-    checkCache();
-    return SPARK_DIR;
+  public String getSparkDir() {
+    return cache().SPARK_DIR;
   }
 
-  public synchronized String getSparkConfDir() {
+  public String getSparkConfDir() {
     return getSparkDir() + "/conf";
   }
 
-  public synchronized String getSparkExampleDir() {
-    checkCache();
+  public String getSparkExampleDir() {
     return SPARK_EXAMPLES_DIR;
   }
 
   private final String SPARK_CONF_FILE = "/spark-defaults.conf";
 
-  public synchronized String getSparkConfFile() {
+  public String getSparkConfFile() {
     return getSparkConfDir() + SPARK_CONF_FILE;
   }
 
-  // "/tmp" by default
-  private String STAGING_DIR = "/srv/hops/domains/domain1/staging";
-
-  public synchronized String getStagingDir() {
-    checkCache();
-    return STAGING_DIR;
+  public String getStagingDir() {
+    return cache().STAGING_DIR;
   }
 
   private final String FLINK_CONF_DIR = "conf";
-  private String FLINK_DIR = "/srv/hops/flink";
 
-  public synchronized String getFlinkDir() {
-    checkCache();
-    return FLINK_DIR;
+  public String getFlinkDir() {
+    return cache().FLINK_DIR;
   }
 
   public String getFlinkConfDir() {
@@ -876,111 +1257,72 @@ public class Settings implements Serializable {
   public String getFlinkConfFile() {
     return getFlinkConfDir() + File.separator + FLINK_CONF_FILE;
   }
-  private String MYSQL_DIR = "/usr/local/mysql";
 
-  public synchronized String getMySqlDir() {
-    checkCache();
-    return MYSQL_DIR;
+  public String getMySqlDir() {
+    return cache().MYSQL_DIR;
   }
-  private String NDB_DIR = "/var/lib/mysql-cluster";
 
-  public synchronized String getNdbDir() {
-    checkCache();
-    return NDB_DIR;
+  public String getNdbDir() {
+    return cache().NDB_DIR;
   }
 
-
-  private String AIRFLOW_DIR = "/srv/hops/airflow";
-  public synchronized String getAirflowDir() {
-    checkCache();
-    return AIRFLOW_DIR;
+  public String getAirflowDir() {
+    return cache().AIRFLOW_DIR;
   }
   
-  private String AIRFLOW_USER = "airflow";
-  public synchronized String getAirflowUser() {
-    checkCache();
-    return AIRFLOW_USER;
+  public String getAirflowUser() {
+    return cache().AIRFLOW_USER;
   }
 
-
-  private String HADOOP_DIR = "/srv/hops/hadoop";
-
   // This returns the unversioned base installation directory for hops-hadoop
   // For example, "/srv/hops/hadoop" - it does not return "/srv/hops/hadoop-2.8.2"
-  public synchronized String getHadoopSymbolicLinkDir() {
-    checkCache();
-    return HADOOP_DIR;
+  public String getHadoopSymbolicLinkDir() {
+    return cache().HADOOP_DIR;
   }
 
-  public synchronized String getHadoopVersionedDir() {
-    checkCache();
-    return HADOOP_DIR + "-" + getHadoopVersion();
+  public String getHadoopVersionedDir() {
+    return cache().HADOOP_DIR + "-" + getHadoopVersion();
   }
 
-  private String HIVE_SERVER_HOSTNAME = "127.0.0.1:9085";
-  private String HIVE_SERVER_HOSTNAME_EXT = "127.0.0.1:9084";
-
-  public synchronized String getHiveServerHostName(boolean ext) {
-    checkCache();
+  public String getHiveServerHostName(boolean ext) {
+    CachedVariables variables = cache();
     if (ext) {
-      return HIVE_SERVER_HOSTNAME_EXT;
+      return variables.HIVE_SERVER_HOSTNAME_EXT;
     }
-    return HIVE_SERVER_HOSTNAME;
+    return variables.HIVE_SERVER_HOSTNAME;
   }
 
-  private String HIVE_SUPERUSER = "hive";
-
-  public synchronized String getHiveSuperUser() {
-    checkCache();
-    return HIVE_SUPERUSER;
+  public String getHiveSuperUser() {
+    return cache().HIVE_SUPERUSER;
   }
 
-  private String ANACONDA_DEFAULT_REPO = "defaults";
-
-  public synchronized String getCondaDefaultRepo() {
-    checkCache();
-    return ANACONDA_DEFAULT_REPO;
+  public String getCondaDefaultRepo() {
+    return cache().ANACONDA_DEFAULT_REPO;
   }
 
-  private String HIVE_WAREHOUSE = "/apps/hive/warehouse";
-
-  public synchronized String getHiveWarehouse() {
-    checkCache();
-    return HIVE_WAREHOUSE;
+  public String getHiveWarehouse() {
+    return cache().HIVE_WAREHOUSE;
   }
 
-  private String HIVE_LLAP_SLIDER_DIR = "/home/hive/.slider";
-
-  public synchronized String getHiveLlapSliderDir() {
-    checkCache();
-    return HIVE_LLAP_SLIDER_DIR;
+  public String getHiveLlapSliderDir() {
+    return cache().HIVE_LLAP_SLIDER_DIR;
   }
 
-  private String HIVE_LLAP_LOCAL_FS_DIR = "/srv/hops/apache-hive/bin/llap";
-
-  public synchronized String getHiveLlapLocalDir() {
-    checkCache();
-    return HIVE_LLAP_LOCAL_FS_DIR;
+  public String getHiveLlapLocalDir() {
+    return cache().HIVE_LLAP_LOCAL_FS_DIR;
   }
 
-  private String HIVE_SCRATCHDIR = "/tmp/hive";
-
-  public synchronized String getHiveScratchdir() {
-    checkCache();
-    return HIVE_SCRATCHDIR;
+  public String getHiveScratchdir() {
+    return cache().HIVE_SCRATCHDIR;
   }
 
-  private String HIVE_DB_DEFAULT_QUOTA = "50000";
-
-  public synchronized Long getHiveDbDefaultQuota() {
-    checkCache();
-    return Long.parseLong(HIVE_DB_DEFAULT_QUOTA);
+  public Long getHiveDbDefaultQuota() {
+    return Long.parseLong(cache().HIVE_DB_DEFAULT_QUOTA);
   }
 
-  private String HOPSWORKS_EXTERNAL_IP = "127.0.0.1";
+  private volatile String HOPSWORKS_EXTERNAL_IP = "127.0.0.1";
 
-  public synchronized String getHopsworksExternalIp() {
-    checkCache();
+  public String getHopsworksExternalIp() {
     return HOPSWORKS_EXTERNAL_IP;
   }
 
@@ -988,139 +1330,91 @@ public class Settings implements Serializable {
     HOPSWORKS_EXTERNAL_IP = ip;
   }
 
-  private String HOPSWORKS_IP = "127.0.0.1";
-
-  public synchronized String getHopsworksIp() {
-    checkCache();
-    return HOPSWORKS_IP;
+  public String getHopsworksIp() {
+    return cache().HOPSWORKS_IP;
   }
 
-  private Integer HOPSWORKS_PORT = 8080;
-
-  public synchronized Integer getHopsworksPort() {
-    checkCache();
-    return HOPSWORKS_PORT;
+  public Integer getHopsworksPort() {
+    return cache().HOPSWORKS_PORT;
   }
 
-  private String CERTS_DIR = "/srv/hops/certs-dir";
-
-  public synchronized String getCertsDir() {
-    checkCache();
-    return CERTS_DIR;
+  public String getCertsDir() {
+    return cache().CERTS_DIR;
   }
 
-  public synchronized String getHopsworksMasterEncPasswordFile() {
-    checkCache();
+  public String getHopsworksMasterEncPasswordFile() {
     return getCertsDir() + File.separator + "encryption_master_password";
   }
 
-  private String HOPSWORKS_INSTALL_DIR = "/srv/hops/domains/domain1";
-
-  public synchronized String getHopsworksDomainDir() {
-    checkCache();
-    return HOPSWORKS_INSTALL_DIR;
+  public String getHopsworksDomainDir() {
+    return cache().HOPSWORKS_INSTALL_DIR;
   }
 
-  //User under which yarn is run
-  private String YARN_SUPERUSER = "rmyarn";
-
-  public synchronized String getYarnSuperUser() {
-    checkCache();
-    return YARN_SUPERUSER;
+  public String getYarnSuperUser() {
+    return cache().YARN_SUPERUSER;
   }
-  private String HOPSWORKS_USER = "glassfish";
 
-  public synchronized String getHopsworksUser() {
-    checkCache();
-    return HOPSWORKS_USER;
+  public String getHopsworksUser() {
+    return cache().HOPSWORKS_USER;
   }
-  private String HDFS_SUPERUSER = "hdfs";
 
-  public synchronized String getHdfsSuperUser() {
-    checkCache();
-    return HDFS_SUPERUSER;
+  public String getHdfsSuperUser() {
+    return cache().HDFS_SUPERUSER;
   }
-  private String SPARK_USER = "spark";
 
-  public synchronized String getSparkUser() {
-    checkCache();
-    return SPARK_USER;
+  public String getSparkUser() {
+    return cache().SPARK_USER;
   }
 
-  public String JAVA_HOME = "/usr/lib/jvm/default-java";
-
-  public synchronized String getJavaHome() {
-    checkCache();
-    return JAVA_HOME;
+  public String getJavaHome() {
+    return cache().JAVA_HOME;
   }
 
-  private String FLINK_USER = "flink";
-
-  public synchronized String getFlinkUser() {
-    checkCache();
-    return FLINK_USER;
+  public String getFlinkUser() {
+    return cache().FLINK_USER;
   }
 
-  private Integer YARN_DEFAULT_QUOTA = 60000;
-
-  public synchronized Integer getYarnDefaultQuota() {
-    checkCache();
-    return YARN_DEFAULT_QUOTA;
+  public Integer getYarnDefaultQuota() {
+    return cache().YARN_DEFAULT_QUOTA;
   }
 
-  private String YARN_WEB_UI_IP = "127.0.0.1";
-  private int YARN_WEB_UI_PORT = 8088;
-
-  public synchronized String getYarnWebUIAddress() {
-    checkCache();
-    return YARN_WEB_UI_IP + ":" + YARN_WEB_UI_PORT;
+  public String getYarnWebUIAddress() {
+    CachedVariables variables = cache();
+    return variables.YARN_WEB_UI_IP + ":" + variables.YARN_WEB_UI_PORT;
   }
 
-  private String HDFS_WEB_UI_IP = "127.0.0.1";
-  private int HDFS_WEB_UI_PORT = 50070;
-
-  public synchronized String getHDFSWebUIAddress() {
-    checkCache();
-    return HDFS_WEB_UI_IP + ":" + HDFS_WEB_UI_PORT;
+  public String getHDFSWebUIAddress() {
+    CachedVariables variables = cache();
+    return variables.HDFS_WEB_UI_IP + ":" + variables.HDFS_WEB_UI_PORT;
   }
 
-  private String HDFS_DEFAULT_QUOTA_MBs = "200000";
-
-  public synchronized long getHdfsDefaultQuotaInMBs() {
-    checkCache();
-    return Long.parseLong(HDFS_DEFAULT_QUOTA_MBs);
+  public long getHdfsDefaultQuotaInMBs() {
+    return Long.parseLong(cache().HDFS_DEFAULT_QUOTA_MBs);
   }
 
   private String AIRFLOW_WEB_UI_IP = "127.0.0.1";
   private int AIRFLOW_WEB_UI_PORT = 12358;
 
-  public synchronized String getAirflowWebUIAddress() {
-    checkCache();
+  public String getAirflowWebUIAddress() {
     return AIRFLOW_WEB_UI_IP + ":" + AIRFLOW_WEB_UI_PORT + "/hopsworks-api/airflow";
   }
 
-  private String MAX_NUM_PROJ_PER_USER = "5";
-
-  public synchronized Integer getMaxNumProjPerUser() {
-    checkCache();
+  public Integer getMaxNumProjPerUser() {
     int num = 5;
     try {
-      num = Integer.parseInt(MAX_NUM_PROJ_PER_USER);
+      num = Integer.parseInt(cache().MAX_NUM_PROJ_PER_USER);
     } catch (NumberFormatException ex) {
       // should print to log here
     }
     return num;
   }
 
-  private String HADOOP_VERSION = "2.8.2";
-
-  public synchronized String getHadoopVersion() {
-    checkCache();
-    return HADOOP_VERSION;
+  public String getHadoopVersion() {
+    return cache().HADOOP_VERSION;
   }
 
   //Hadoop locations
-  public synchronized String getHadoopConfDir() {
+  public String getHadoopConfDir() {
     return hadoopConfDir(getHadoopSymbolicLinkDir());
   }
 
@@ -1132,7 +1426,7 @@ public class Settings implements Serializable {
     return hadoopConfDir(hadoopDir);
   }
 
-  public synchronized String getYarnConfDir() {
+  public String getYarnConfDir() {
     return getHadoopConfDir();
   }
 
@@ -1214,11 +1508,11 @@ public class Settings implements Serializable {
     return "hdfs:///user/" + tfUser + "/" + TENSORFLOW_JAR;
   }
 
-  public synchronized String getLocalFlinkJarPath() {
+  public String getLocalFlinkJarPath() {
     return getFlinkDir() + "/flink.jar";
   }
 
-  public synchronized String getHdfsFlinkJarPath() {
+  public String getHdfsFlinkJarPath() {
     return hdfsFlinkJarPath(getFlinkUser());
   }
 
@@ -1230,7 +1524,7 @@ public class Settings implements Serializable {
     return hdfsFlinkJarPath(flinkUser);
   }
 
-  public synchronized String getFlinkDefaultClasspath() {
+  public String getFlinkDefaultClasspath() {
     return flinkDefaultClasspath(getFlinkDir());
   }
 
@@ -1262,7 +1556,7 @@ public class Settings implements Serializable {
     return "hdfs:///user/" + getSparkUser() + "/metrics.properties";
   }
 
-  public synchronized String getSparkDefaultClasspath() {
+  public String getSparkDefaultClasspath() {
     return sparkDefaultClasspath(getSparkDir());
   }
 
@@ -1316,41 +1610,28 @@ public class Settings implements Serializable {
       + File.separator;
   public static final String PROJECT_STAGING_DIR = "Resources";
 
-  // Elasticsearch
-  private String ELASTIC_IP = "127.0.0.1";
-
-  public synchronized String getElasticIp() {
-    checkCache();
-    return ELASTIC_IP;
+  public String getElasticIp() {
+    return cache().ELASTIC_IP;
   }
 
-  private int ELASTIC_PORT = 9300;
-
-  public synchronized int getElasticPort() {
-    checkCache();
-    return ELASTIC_PORT;
+  public int getElasticPort() {
+    return cache().ELASTIC_PORT;
   }
 
-  private int ELASTIC_REST_PORT = 9200;
-
-  public synchronized int getElasticRESTPort() {
-    checkCache();
-    return ELASTIC_REST_PORT;
+  public int getElasticRESTPort() {
+    return cache().ELASTIC_REST_PORT;
   }
 
-  public synchronized String getElasticEndpoint() {
+  public String getElasticEndpoint() {
     return getElasticIp() + ":" + getElasticPort();
   }
 
-  public synchronized String getElasticRESTEndpoint() {
+  public String getElasticRESTEndpoint() {
     return getElasticIp() + ":" + getElasticRESTPort();
   }
 
-  private long ELASTIC_LOGS_INDEX_EXPIRATION = 7 * 24 * 60 * 60 * 1000;
-
-  public synchronized long getElasticLogsIndexExpiration() {
-    checkCache();
-    return ELASTIC_LOGS_INDEX_EXPIRATION;
+  public long getElasticLogsIndexExpiration() {
+    return cache().ELASTIC_LOGS_INDEX_EXPIRATION;
   }
 
   private static final int JOB_LOGS_EXPIRATION = 604800;
@@ -1376,106 +1657,65 @@ public class Settings implements Serializable {
     return JOB_LOGS_ID_FIELD;
   }
 
-  // CertificateMaterializer service. Delay for deleting crypto material from
-  // the local filesystem. The lower the value the more frequent we reach DB
-  // for materialization
-  // Suffix, defaults to minutes if omitted:
-  // ms: milliseconds
-  // s: seconds
-  // m: minutes (default)
-  // h: hours
-  // d: days
-  private String CERTIFICATE_MATERIALIZER_DELAY = "1m";
-
-  public synchronized String getCertificateMaterializerDelay() {
-    checkCache();
-    return CERTIFICATE_MATERIALIZER_DELAY;
+  public String getCertificateMaterializerDelay() {
+    return cache().CERTIFICATE_MATERIALIZER_DELAY;
   }
 
-  private String CERTIFICATE_USER_VALID_DAYS = "12";
-
-  public synchronized String getCertificateUserValidDays() {
-    checkCache();
-    return CERTIFICATE_USER_VALID_DAYS;
+  public String getCertificateUserValidDays() {
+    return cache().CERTIFICATE_USER_VALID_DAYS;
   }
 
-  // Spark
-  private String SPARK_HISTORY_SERVER_IP = "127.0.0.1";
-
-  public synchronized String getSparkHistoryServerIp() {
-    checkCache();
-    return SPARK_HISTORY_SERVER_IP + ":18080";
+  public String getSparkHistoryServerIp() {
+    return cache().SPARK_HISTORY_SERVER_IP + ":18080";
   }
 
-  // Oozie
-  private String OOZIE_IP = "127.0.0.1";
-
-  public synchronized String getOozieIp() {
-    checkCache();
-    return OOZIE_IP;
+  public String getOozieIp() {
+    return cache().OOZIE_IP;
   }
 
-  // MapReduce Job History Server
-  private String JHS_IP = "127.0.0.1";
-
-  public synchronized String getJhsIp() {
-    checkCache();
-    return JHS_IP;
+  public String getJhsIp() {
+    return cache().JHS_IP;
   }
 
-  // Resource Manager for YARN
-  private String RM_IP = "127.0.0.1";
-
-  public synchronized String getRmIp() {
-    checkCache();
-    return RM_IP;
+  public String getRmIp() {
+    return cache().RM_IP;
   }
 
-  // Resource Manager Port
-  private int RM_PORT = 8088;
-
-  public synchronized Integer getRmPort() {
-    checkCache();
-    return RM_PORT;
+  public Integer getRmPort() {
+    return cache().RM_PORT;
   }
 
-  private String LOGSTASH_IP = "127.0.0.1";
-
-  public synchronized String getLogstashIp() {
-    checkCache();
-    return LOGSTASH_IP;
+  public long getClusterMetricsSampleIntervalMs() {
+    return cache().CLUSTER_METRICS_SAMPLE_INTERVAL_MS;
   }
 
-  // Resource Manager Port
-  private int LOGSTASH_PORT = 8088;
+  public int getClusterMetricsHistorySize() {
+    return cache().CLUSTER_METRICS_HISTORY_SIZE;
+  }
 
-  public synchronized Integer getLogstashPort() {
-    checkCache();
-    return LOGSTASH_PORT;
+  public String getLogstashIp() {
+    return cache().LOGSTASH_IP;
   }
 
-  private int LOGSTASH_PORT_SERVING = 5045;
+  public Integer getLogstashPort() {
+    return cache().LOGSTASH_PORT;
+  }
 
-  public synchronized Integer getLogstashPortServing() {
-    checkCache();
-    return LOGSTASH_PORT_SERVING;
+  public Integer getLogstashPortServing() {
+    return cache().LOGSTASH_PORT_SERVING;
   }
 
-  // Livy Server`
-  private String LIVY_IP = "127.0.0.1";
   private final String LIVY_YARN_MODE = "yarn";
 
-  public synchronized String getLivyIp() {
-    checkCache();
-    return LIVY_IP;
+  public String getLivyIp() {
+    return cache().LIVY_IP;
   }
 
-  public synchronized String getLivyUrl() {
+  public String getLivyUrl() {
     return "http://" + getLivyIp() + ":8998";
   }
 
-  public synchronized String getLivyYarnMode() {
-    checkCache();
+  public String getLivyYarnMode() {
     return LIVY_YARN_MODE;
   }
 
@@ -1483,27 +1723,18 @@ public class Settings implements Serializable {
 
   // Kibana
   public static final String KIBANA_DEFAULT_INDEX = "hopsdefault";
-  private String KIBANA_IP = "10.0.2.15";
   private static final int KIBANA_PORT = 5601;
 
-  public synchronized String getKibanaUri() {
-    checkCache();
-    return "http://" + KIBANA_IP + ":" + KIBANA_PORT;
+  public String getKibanaUri() {
+    return "http://" + cache().KIBANA_IP + ":" + KIBANA_PORT;
   }
 
-  // Zookeeper
-  private String ZK_IP = "10.0.2.15";
-
-  public synchronized String getZkConnectStr() {
-    checkCache();
-    return ZK_IP + ":" + ZK_PORT;
+  public String getZkConnectStr() {
+    return cache().ZK_IP + ":" + ZK_PORT;
   }
 
-  private String ZK_USER = "zk";
-
-  public synchronized String getZkUser() {
-    checkCache();
-    return ZK_USER;
+  public String getZkUser() {
+    return cache().ZK_USER;
   }
 
   /*
@@ -1511,71 +1742,45 @@ public class Settings implements Serializable {
    * userlogins table for auditing.
    * kagent -> agent@hops.io
    */
-  private String WHITELIST_USERS_LOGIN = "agent@hops.io";
 
-  public synchronized String getWhitelistUsersLogin() {
-    checkCache();
-    return WHITELIST_USERS_LOGIN;
+  public String getWhitelistUsersLogin() {
+    return cache().WHITELIST_USERS_LOGIN;
   }
 
-  // Jupyter
-  private String JUPYTER_DIR = "/srv/hops/jupyter";
-
-  public synchronized String getJupyterDir() {
-    checkCache();
-    return JUPYTER_DIR;
+  public String getJupyterDir() {
+    return cache().JUPYTER_DIR;
   }
 
-  private long JUPYTER_WS_PING_INTERVAL_MS = 10000L;
-
-  public synchronized long getJupyterWSPingInterval() {
-    checkCache();
-    return JUPYTER_WS_PING_INTERVAL_MS;
+  public long getJupyterWSPingInterval() {
+    return cache().JUPYTER_WS_PING_INTERVAL_MS;
 
   }
 
   // Service key rotation interval
   private static final String JUPYTER_SHUTDOWN_TIMER_INTERVAL = "jupyter_shutdown_timer_interval";
-  private String jupyterShutdownTimerInterval = "30m";
 
-  public synchronized String getJupyterShutdownTimerInterval() {
-    checkCache();
-    return jupyterShutdownTimerInterval;
+  public String getJupyterShutdownTimerInterval() {
+    return cache().jupyterShutdownTimerInterval;
   }
 
-  private String KAFKA_USER = "kafka";
-
-  public synchronized String getKafkaUser() {
-    checkCache();
-    return KAFKA_USER;
+  public String getKafkaUser() {
+    return cache().KAFKA_USER;
   }
 
-  private String KAFKA_DIR = "/srv/kafka";
-
-  public synchronized String getKafkaDir() {
-    checkCache();
-    return KAFKA_DIR;
+  public String getKafkaDir() {
+    return cache().KAFKA_DIR;
   }
 
-  private String ANACONDA_USER = "anaconda";
-
-  public synchronized String getAnacondaUser() {
-    checkCache();
-    return ANACONDA_USER;
+  public String getAnacondaUser() {
+    return cache().ANACONDA_USER;
   }
 
-  private String ANACONDA_DIR = "/srv/hops/anaconda/anaconda";
-
-  public synchronized String getAnacondaDir() {
-    checkCache();
-    return ANACONDA_DIR;
+  public String getAnacondaDir() {
+    return cache().ANACONDA_DIR;
   }
 
-  private String CUDA_DIR = "/usr/local/cuda";
-
-  public synchronized String getCudaDir() {
-    checkCache();
-    return CUDA_DIR;
+  public String getCudaDir() {
+    return cache().CUDA_DIR;
   }
 
   /**
@@ -1589,60 +1794,43 @@ public class Settings implements Serializable {
     return getAnacondaDir() + File.separator + "envs" + File.separator + condaEnv;
   }
 
-  private String ANACONDA_ENV = "kagent";
-
-  public synchronized String getAnacondaEnv() {
-    checkCache();
-    return ANACONDA_ENV;
+  public String getAnacondaEnv() {
+    return cache().ANACONDA_ENV;
   }
 
-  private Boolean ANACONDA_ENABLED = true;
-
-  public synchronized Boolean isAnacondaEnabled() {
-    checkCache();
-    return ANACONDA_ENABLED;
+  public Boolean isAnacondaEnabled() {
+    return cache().ANACONDA_ENABLED;
   }
   
-  private Boolean DOWNLOAD_ALLOWED = true;
-  public synchronized Boolean isDownloadAllowed() {
-    checkCache();
-    return DOWNLOAD_ALLOWED;
+  public Boolean isDownloadAllowed() {
+    return cache().DOWNLOAD_ALLOWED;
+  }
+
+  public int getDownloadBufferSize() {
+    return cache().DOWNLOAD_BUFFER_SIZE;
   }
   
 //  private String CONDA_CHANNEL_URL = "https://repo.continuum.io/pkgs/free/linux-64/";
   private String CONDA_CHANNEL_URL = "default";
 
-  public synchronized String getCondaChannelUrl() {
-    checkCache();
+  public String getCondaChannelUrl() {
     return CONDA_CHANNEL_URL;
   }
 
-  private String HOPSWORKS_REST_ENDPOINT = "hopsworks0:8181";
-
-  public synchronized String getRestEndpoint() {
-    checkCache();
-    return "https://" + HOPSWORKS_REST_ENDPOINT;
+  public String getRestEndpoint() {
+    return "https://" + cache().HOPSWORKS_REST_ENDPOINT;
   }
 
-  private RESTLogLevel HOPSWORKS_REST_LOG_LEVEL = RESTLogLevel.PROD;
-  
-  public synchronized RESTLogLevel getHopsworksRESTLogLevel() {
-    checkCache();
-    return HOPSWORKS_REST_LOG_LEVEL;
+  public RESTLogLevel getHopsworksRESTLogLevel() {
+    return cache().HOPSWORKS_REST_LOG_LEVEL;
   }
 
-  private String SUPPORT_EMAIL_ADDR = "support@hops.io";
-
-  public synchronized String getSupportEmailAddr() {
-    checkCache();
-    return SUPPORT_EMAIL_ADDR;
+  public String getSupportEmailAddr() {
+    return cache().SUPPORT_EMAIL_ADDR;
   }
 
-  private String FIRST_TIME_LOGIN = "0";
-
-  public synchronized String getFirstTimeLogin() {
-    checkCache();
-    return FIRST_TIME_LOGIN;
+  public String getFirstTimeLogin() {
+    return cache().FIRST_TIME_LOGIN;
   }
 
   private final String DEFAULT_ADMIN_PWD = "12fa520ec8f65d3a6feacfa97a705e622e1fea95b80b521ec016e43874dfed5a";
@@ -1664,53 +1852,33 @@ public class Settings implements Serializable {
     return ADMIN_PWD.compareTo(DEFAULT_ADMIN_PWD) != 0;
   }
 
-  private String HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = "adminpw";
-
-  public synchronized String getHopsworksMasterPasswordSsl() {
-    checkCache();
-    return HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD;
+  public String getHopsworksMasterPasswordSsl() {
+    return cache().HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD;
   }
 
-  private Integer KAFKA_DEFAULT_NUM_PARTITIONS = 2;
-  private Integer KAFKA_DEFAULT_NUM_REPLICAS = 1;
-
-  public synchronized Integer getKafkaDefaultNumPartitions() {
-    checkCache();
-    return KAFKA_DEFAULT_NUM_PARTITIONS;
+  public Integer getKafkaDefaultNumPartitions() {
+    return cache().KAFKA_DEFAULT_NUM_PARTITIONS;
   }
 
-  public synchronized Integer getKafkaDefaultNumReplicas() {
-    checkCache();
-    return KAFKA_DEFAULT_NUM_REPLICAS;
+  public Integer getKafkaDefaultNumReplicas() {
+    return cache().KAFKA_DEFAULT_NUM_REPLICAS;
   }
 
-  private String ZK_DIR = "/srv/zookeeper";
-
-  public synchronized String getZkDir() {
-    checkCache();
-    return ZK_DIR;
+  public String getZkDir() {
+    return cache().ZK_DIR;
   }
 
-  // Dr Elephant
-  private String DRELEPHANT_IP = "127.0.0.1";
-  private String DRELEPHANT_DB = "hopsworks";
-  private int DRELEPHANT_PORT = 11000;
-
-  public synchronized String getDrElephantUrl() {
-    checkCache();
-    return "http://" + DRELEPHANT_IP + ":" + DRELEPHANT_PORT;
+  public String getDrElephantUrl() {
+    CachedVariables variables = cache();
+    return "http://" + variables.DRELEPHANT_IP + ":" + variables.DRELEPHANT_PORT;
   }
 
-  public synchronized String getDrElephantDb() {
-    checkCache();
-    return DRELEPHANT_DB;
+  public String getDrElephantDb() {
+    return cache().DRELEPHANT_DB;
   }
 
-  private String CLUSTER_CERT = "asdasxasx8as6dx8a7sx7asdta8dtasxa8";
-
-  public synchronized String getCLUSTER_CERT() {
-    checkCache();
-    return CLUSTER_CERT;
+  public String getCLUSTER_CERT() {
+    return cache().CLUSTER_CERT;
   }
 
   // Hopsworks
@@ -1792,8 +1960,6 @@ public class Settings implements Serializable {
   public static final String HOPSWORKS_REST_ENDPOINT_PROPERTY = "hopsworks.restendpoint";
   public static final String HOPSWORKS_ELASTIC_ENDPOINT_PROPERTY = "hopsworks.elastic.endpoint";
 
-  private int FILE_PREVIEW_IMAGE_SIZE = 10000000;
-  private int FILE_PREVIEW_TXT_SIZE = 100;
   public static final int FILE_PREVIEW_TXT_SIZE_BYTES = 1024 * 384;
   public static final String README_TEMPLATE = "*This is an auto-generated README.md"
       + " file for your Dataset!*\n"
@@ -1856,9 +2022,8 @@ public class Settings implements Serializable {
    *
    * @return file size
    */
-  public synchronized int getFilePreviewImageSize() {
-    checkCache();
-    return FILE_PREVIEW_IMAGE_SIZE;
+  public int getFilePreviewImageSize() {
+    return cache().FILE_PREVIEW_IMAGE_SIZE;
   }
 
   /**
@@ -1866,29 +2031,29 @@ public class Settings implements Serializable {
    *
    * @return file size
    */
-  public synchronized int getFilePreviewTxtSize() {
-    checkCache();
-    return FILE_PREVIEW_TXT_SIZE;
+  public int getFilePreviewTxtSize() {
+    return cache().FILE_PREVIEW_TXT_SIZE;
   }
 
-  private String INFLUXDB_IP = "localhost";
-  private String INFLUXDB_PORT = "8086";
-  private String INFLUXDB_USER = "hopsworks";
-  private String INFLUXDB_PW = "hopsworks";
+  public int getFilePreviewCacheSize() {
+    return cache().FILE_PREVIEW_CACHE_SIZE;
+  }
 
-  public synchronized String getInfluxDBAddress() {
-    checkCache();
-    return "http://" + INFLUXDB_IP + ":" + INFLUXDB_PORT;
+  public int getInodePathCacheSize() {
+    return cache().INODE_PATH_CACHE_SIZE;
   }
 
-  public synchronized String getInfluxDBUser() {
-    checkCache();
-    return INFLUXDB_USER;
+  public String getInfluxDBAddress() {
+    CachedVariables variables = cache();
+    return "http://" + variables.INFLUXDB_IP + ":" + variables.INFLUXDB_PORT;
   }
 
-  public synchronized String getInfluxDBPW() {
-    checkCache();
-    return INFLUXDB_PW;
+  public String getInfluxDBUser() {
+    return cache().INFLUXDB_USER;
+  }
+
+  public String getInfluxDBPW() {
+    return cache().INFLUXDB_PW;
   }
 
   //Project creation: default datasets
@@ -1939,21 +2104,16 @@ public class Settings implements Serializable {
   }
 
   public static final String JUPYTER_PIDS = "/tmp/jupyterNotebookServer.pids";
-  private String RESOURCE_DIRS = ".sparkStaging;spark-warehouse";
 
-  public synchronized String getResourceDirs() {
-    checkCache();
-    return RESOURCE_DIRS;
+  public String getResourceDirs() {
+    return cache().RESOURCE_DIRS;
   }
 
   public Settings() {
   }
 
-  private String ALERT_EMAIL_ADDRS = "";
-
-  public synchronized String getAlertEmailAddrs() {
-    checkCache();
-    return ALERT_EMAIL_ADDRS;
+  public String getAlertEmailAddrs() {
+    return cache().ALERT_EMAIL_ADDRS;
   }
 
   /**
@@ -2086,18 +2246,12 @@ public class Settings implements Serializable {
     }
   }
 
-  private int KAFKA_MAX_NUM_TOPICS = 10;
-
-  public synchronized int getKafkaMaxNumTopics() {
-    checkCache();
-    return KAFKA_MAX_NUM_TOPICS;
+  public int getKafkaMaxNumTopics() {
+    return cache().KAFKA_MAX_NUM_TOPICS;
   }
 
-  private int MAX_STATUS_POLL_RETRY = 5;
-
-  public synchronized int getMaxStatusPollRetry() {
-    checkCache();
-    return MAX_STATUS_POLL_RETRY;
+  public int getMaxStatusPollRetry() {
+    return cache().MAX_STATUS_POLL_RETRY;
   }
 
   /**
@@ -2140,6 +2294,26 @@ public class Settings implements Serializable {
     unzippingFiles.add(hdfsPath);
   }
 
+  /**
+   * Get the zip state of several paths taking the lock once. Paths which are not being zipped or unzipped are
+   * not included in the result, their state is NONE.
+   *
+   * @param hdfsPaths
+   * @return map of path to zip state
+   */
+  public synchronized Map<String, String> getZipStates(Collection<String> hdfsPaths) {
+    Map<String, String> states = new HashMap<>();
+    if (zippingFiles.isEmpty() && unzippingFiles.isEmpty()) {
+      return states;
+    }
+    for (String hdfsPath : hdfsPaths) {
+      if (zippingFiles.contains(hdfsPath) || unzippingFiles.contains(hdfsPath)) {
+        states.put(hdfsPath, getZipState(hdfsPath));
+      }
+    }
+    return states;
+  }
+
   public synchronized String getZipState(String hdfsPath) {
 
     boolean zipOperation = false;
@@ -2192,55 +2366,38 @@ public class Settings implements Serializable {
     return state;
   }
 
-  private boolean PYTHON_KERNEL = true;
-
-  public synchronized boolean isPythonKernelEnabled() {
-    checkCache();
-    return PYTHON_KERNEL;
+  public boolean isPythonKernelEnabled() {
+    return cache().PYTHON_KERNEL;
   }
 
-  private String PYPI_REST_ENDPOINT = "https://pypi.org/pypi/{package}/json";
-
-  public synchronized String getPyPiRESTEndpoint() {
-    checkCache();
-    return PYPI_REST_ENDPOINT;
+  public String getPyPiRESTEndpoint() {
+    return cache().PYPI_REST_ENDPOINT;
   }
 
-  private String HOPSUTIL_VERSION = "0.3.0";
-
   public String getHopsUtilHdfsPath() {
     return "hdfs:///user/" + getSparkUser() + "/" + getHopsUtilFilename();
   }
 
-  public synchronized String getHopsUtilFilename() {
-    checkCache();
-    return "hops-util-" + HOPSUTIL_VERSION + ".jar";
+  public String getHopsUtilFilename() {
+    return "hops-util-" + cache().HOPSUTIL_VERSION + ".jar";
   }
 
-  private String HOPS_EXAMPLES_VERSION = "0.3.0";
-
-  public synchronized String getHopsExamplesSparkFilename() {
-    checkCache();
-    return "hops-examples-spark-" + HOPS_EXAMPLES_VERSION + ".jar";
+  public String getHopsExamplesSparkFilename() {
+    return "hops-examples-spark-" + cache().HOPS_EXAMPLES_VERSION + ".jar";
   }
 
-  public synchronized String getHopsExamplesFeaturestoreFilename() {
-    checkCache();
-    return "hops-examples-featurestore-" + HOPS_EXAMPLES_VERSION + ".jar";
+  public String getHopsExamplesFeaturestoreFilename() {
+    return "hops-examples-featurestore-" + cache().HOPS_EXAMPLES_VERSION + ".jar";
   }
 
-  private String RECOVERY_PATH = "hopsworks-api/api/auth/recover";
-
-  public synchronized String getRecoveryEndpoint() {
-    checkCache();
-    return HOPSWORKS_IP + ":" + HOPSWORKS_PORT + "/" + RECOVERY_PATH;
+  public String getRecoveryEndpoint() {
+    CachedVariables variables = cache();
+    return variables.HOPSWORKS_IP + ":" + variables.HOPSWORKS_PORT + "/" + variables.RECOVERY_PATH;
   }
 
-  private String VERIFICATION_PATH = "hopsworks-api/api/auth/verify";
-
-  public synchronized String getVerificationEndpoint() {
-    checkCache();
-    return HOPSWORKS_IP + ":" + HOPSWORKS_PORT + "/" + VERIFICATION_PATH;
+  public String getVerificationEndpoint() {
+    CachedVariables variables = cache();
+    return variables.HOPSWORKS_IP + ":" + variables.HOPSWORKS_PORT + "/" + variables.VERIFICATION_PATH;
   }
 
   //Dela START
@@ -2260,125 +2417,82 @@ public class Settings implements Serializable {
   private static final String VARIABLE_DELA_TRANSFER_ENDPOINT = "dela_transfer_endpoint";
 
   public static final Level DELA_DEBUG = Level.INFO;
-  private String HOPSSITE_HOST = "hops.site";
-  private String HOPSSITE = "http://hops.site:5081/hops-site/api";
-  private Boolean DELA_ENABLED = false; // set to false if not found in variables table
-  private DelaClientType DELA_CLIENT_TYPE = DelaClientType.FULL_CLIENT;
 
   private long HOPSSITE_HEARTBEAT_RETRY = 10 * 1000l; //10s
-  private long HOPSSITE_HEARTBEAT_INTERVAL = 10 * 60 * 1000l;//10min
-
-  private String DELA_TRANSFER_IP = "localhost";
-  private String DELA_TRANSFER_HTTP_PORT = "42000";
-  private String DELA_PUBLIC_HOPSWORK_PORT = "8080";
-  private String PUBLIC_HTTPS_PORT = "8181";
-
-  //set on registration after Dela is contacted to detect public port
-  private String DELA_SEARCH_ENDPOINT = "";
-  private String DELA_TRANSFER_ENDPOINT = "";
-  //set on cluster registration
-  private String DELA_CLUSTER_ID = null;
+
   //
-  private AddressJSON DELA_PUBLIC_ENDPOINT = null;
+  private volatile AddressJSON DELA_PUBLIC_ENDPOINT = null;
   //
   public static final String MANIFEST_FILE = "manifest.json";
   public static final String README_FILE = "README.md";
 
-  private void populateDelaCache() {
-    DELA_ENABLED = setBoolVar(VARIABLE_DELA_ENABLED, DELA_ENABLED);
-    DELA_CLIENT_TYPE = DelaClientType.from(setVar(VARIABLE_DELA_CLIENT_TYPE, DELA_CLIENT_TYPE.type));
-    HOPSSITE_CLUSTER_NAME = setVar(VARIABLE_HOPSSITE_CLUSTER_NAME, HOPSSITE_CLUSTER_NAME);
-    HOPSSITE_CLUSTER_PSWD = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD, HOPSSITE_CLUSTER_PSWD);
-    HOPSSITE_CLUSTER_PSWD_AUX = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD_AUX, HOPSSITE_CLUSTER_PSWD_AUX);
-    HOPSSITE_HOST = setVar(VARIABLE_HOPSSITE_BASE_URI_HOST, HOPSSITE_HOST);
-    HOPSSITE = setVar(VARIABLE_HOPSSITE_BASE_URI, HOPSSITE);
-    HOPSSITE_HEARTBEAT_INTERVAL = setLongVar(VARIABLE_HOPSSITE_HEARTBEAT_INTERVAL, HOPSSITE_HEARTBEAT_INTERVAL);
-
-    DELA_TRANSFER_IP = setStrVar(VARIABLE_DELA_CLUSTER_IP, DELA_TRANSFER_IP);
-    DELA_TRANSFER_HTTP_PORT = setStrVar(VARIABLE_DELA_CLUSTER_HTTP_PORT, DELA_TRANSFER_HTTP_PORT);
-    DELA_SEARCH_ENDPOINT = setStrVar(VARIABLE_DELA_SEARCH_ENDPOINT, DELA_SEARCH_ENDPOINT);
-    DELA_TRANSFER_ENDPOINT = setStrVar(VARIABLE_DELA_TRANSFER_ENDPOINT, DELA_TRANSFER_ENDPOINT);
-    DELA_PUBLIC_HOPSWORK_PORT = setStrVar(VARIABLE_DELA_PUBLIC_HOPSWORKS_PORT, DELA_PUBLIC_HOPSWORK_PORT);
-    PUBLIC_HTTPS_PORT = setStrVar(VARIABLE_PUBLIC_HTTPS_PORT, PUBLIC_HTTPS_PORT);
-    DELA_CLUSTER_ID = setStrVar(VARIABLE_DELA_CLUSTER_ID, DELA_CLUSTER_ID);
+  public Boolean isDelaEnabled() {
+    return cache().DELA_ENABLED;
   }
 
-  public synchronized Boolean isDelaEnabled() {
-    checkCache();
-    return DELA_ENABLED;
+  public DelaClientType getDelaClientType() {
+    return cache().DELA_CLIENT_TYPE;
   }
 
-  public synchronized DelaClientType getDelaClientType() {
-    return DELA_CLIENT_TYPE;
+  public String getHOPSSITE_HOST() {
+    return cache().HOPSSITE_HOST;
   }
 
-  public synchronized String getHOPSSITE_HOST() {
-    checkCache();
-    return HOPSSITE_HOST;
+  public String getHOPSSITE() {
+    return cache().HOPSSITE;
   }
 
-  public synchronized String getHOPSSITE() {
-    checkCache();
-    return HOPSSITE;
-  }
-
-  public synchronized long getHOPSSITE_HEARTBEAT_RETRY() {
-    checkCache();
+  public long getHOPSSITE_HEARTBEAT_RETRY() {
     return HOPSSITE_HEARTBEAT_RETRY;
   }
 
-  public synchronized long getHOPSSITE_HEARTBEAT_INTERVAL() {
-    checkCache();
-    return HOPSSITE_HEARTBEAT_INTERVAL;
+  public long getHOPSSITE_HEARTBEAT_INTERVAL() {
+    return cache().HOPSSITE_HEARTBEAT_INTERVAL;
   }
 
-  public synchronized String getDELA_TRANSFER_IP() {
-    checkCache();
-    return DELA_TRANSFER_IP;
+  public String getDELA_TRANSFER_IP() {
+    return cache().DELA_TRANSFER_IP;
   }
 
-  public synchronized String getDELA_TRANSFER_HTTP_PORT() {
-    checkCache();
-    return DELA_TRANSFER_HTTP_PORT;
+  public String getDELA_TRANSFER_HTTP_PORT() {
+    return cache().DELA_TRANSFER_HTTP_PORT;
   }
 
-  public synchronized String getDELA_TRANSFER_HTTP_ENDPOINT() {
-    checkCache();
-    return "http://" + DELA_TRANSFER_IP + ":" + DELA_TRANSFER_HTTP_PORT + "/";
+  public String getDELA_TRANSFER_HTTP_ENDPOINT() {
+    CachedVariables variables = cache();
+    return "http://" + variables.DELA_TRANSFER_IP + ":" + variables.DELA_TRANSFER_HTTP_PORT + "/";
   }
 
-  public synchronized String getDELA_HOPSWORKS_PORT() {
-    checkCache();
-    return DELA_PUBLIC_HOPSWORK_PORT;
+  public String getDELA_HOPSWORKS_PORT() {
+    return cache().DELA_PUBLIC_HOPSWORK_PORT;
   }
 
-  public synchronized String getPUBLIC_HTTPS_PORT() {
-    checkCache();
-    return PUBLIC_HTTPS_PORT;
+  public String getPUBLIC_HTTPS_PORT() {
+    return cache().PUBLIC_HTTPS_PORT;
   }
 
-  public synchronized AddressJSON getDELA_PUBLIC_ENDPOINT() {
+  public AddressJSON getDELA_PUBLIC_ENDPOINT() {
     return DELA_PUBLIC_ENDPOINT;
   }
 
-  public synchronized String getDELA_SEARCH_ENDPOINT() {
-    checkCache();
-    if (DELA_SEARCH_ENDPOINT != null) {
-      return DELA_SEARCH_ENDPOINT;
+  public String getDELA_SEARCH_ENDPOINT() {
+    CachedVariables variables = cache();
+    if (variables.DELA_SEARCH_ENDPOINT != null) {
+      return variables.DELA_SEARCH_ENDPOINT;
     }
-    Variables v = findById(DELA_SEARCH_ENDPOINT);
+    Variables v = findById(variables.DELA_SEARCH_ENDPOINT);
     if (v != null) {
       return v.getValue();
     }
     return null;
   }
 
-  public synchronized String getDELA_TRANSFER_ENDPOINT() {
-    checkCache();
-    if (DELA_TRANSFER_ENDPOINT != null) {
-      return DELA_TRANSFER_ENDPOINT;
+  public String getDELA_TRANSFER_ENDPOINT() {
+    CachedVariables variables = cache();
+    if (variables.DELA_TRANSFER_ENDPOINT != null) {
+      return variables.DELA_TRANSFER_ENDPOINT;
     }
-    Variables v = findById(DELA_TRANSFER_ENDPOINT);
+    Variables v = findById(variables.DELA_TRANSFER_ENDPOINT);
     if (v != null) {
       return v.getValue();
     }
@@ -2397,14 +2511,13 @@ public class Settings implements Serializable {
     } else {
       em.merge(new Variables(VARIABLE_DELA_SEARCH_ENDPOINT, delaSearchEndpoint));
     }
-    DELA_SEARCH_ENDPOINT = delaSearchEndpoint;
 
     if (getDELA_TRANSFER_ENDPOINT() == null) {
       em.persist(new Variables(VARIABLE_DELA_TRANSFER_ENDPOINT, delaTransferEndpoint));
     } else {
       em.merge(new Variables(VARIABLE_DELA_TRANSFER_ENDPOINT, delaTransferEndpoint));
     }
-    DELA_TRANSFER_ENDPOINT = delaTransferEndpoint;
+    refreshCache();
   }
 
   public synchronized void setDELA_CLUSTER_ID(String id) {
@@ -2413,13 +2526,13 @@ public class Settings implements Serializable {
     } else {
       em.merge(new Variables(VARIABLE_DELA_CLUSTER_ID, id));
     }
-    DELA_CLUSTER_ID = id;
+    refreshCache();
   }
 
-  public synchronized String getDELA_CLUSTER_ID() {
-    checkCache();
-    if (DELA_CLUSTER_ID != null) {
-      return DELA_CLUSTER_ID;
+  public String getDELA_CLUSTER_ID() {
+    CachedVariables variables = cache();
+    if (variables.DELA_CLUSTER_ID != null) {
+      return variables.DELA_CLUSTER_ID;
     } else {
       Variables v = findById(VARIABLE_DELA_CLUSTER_ID);
       if (v != null) {
@@ -2429,7 +2542,7 @@ public class Settings implements Serializable {
     }
   }
 
-  public synchronized String getDELA_DOMAIN() {
+  public String getDELA_DOMAIN() {
     if (DELA_PUBLIC_ENDPOINT != null) {
       return DELA_PUBLIC_ENDPOINT.getIp();
     }
@@ -2448,13 +2561,8 @@ public class Settings implements Serializable {
   private static final String VARIABLE_HOPSSITE_CLUSTER_PSWD = "hops_site_cluster_pswd";
   private static final String VARIABLE_HOPSSITE_CLUSTER_PSWD_AUX = "hops_site_cluster_pswd_aux";
 
-  private String HOPSSITE_CLUSTER_NAME = null;
-  private String HOPSSITE_CLUSTER_PSWD = null;
-  private String HOPSSITE_CLUSTER_PSWD_AUX = "1234";
-
-  public synchronized Optional<String> getHopsSiteClusterName() {
-    checkCache();
-    return Optional.ofNullable(HOPSSITE_CLUSTER_NAME);
+  public Optional<String> getHopsSiteClusterName() {
+    return Optional.ofNullable(cache().HOPSSITE_CLUSTER_NAME);
   }
 
   public synchronized void setHopsSiteClusterName(String clusterName) {
@@ -2463,25 +2571,23 @@ public class Settings implements Serializable {
     } else {
       em.persist(new Variables(VARIABLE_HOPSSITE_CLUSTER_NAME, clusterName));
     }
-    HOPSSITE_CLUSTER_NAME = clusterName;
+    refreshCache();
   }
 
   public synchronized void deleteHopsSiteClusterName() {
     if (getHopsSiteClusterName().isPresent()) {
       Variables v = findById(VARIABLE_HOPSSITE_CLUSTER_NAME);
       em.remove(v);
-      HOPSSITE_CLUSTER_NAME = null;
+      refreshCache();
     }
   }
 
-  public synchronized String getHopsSiteClusterPswdAux() {
-    checkCache();
-    return HOPSSITE_CLUSTER_PSWD_AUX;
+  public String getHopsSiteClusterPswdAux() {
+    return cache().HOPSSITE_CLUSTER_PSWD_AUX;
   }
 
-  public synchronized Optional<String> getHopsSiteClusterPswd() {
-    checkCache();
-    return Optional.ofNullable(HOPSSITE_CLUSTER_PSWD);
+  public Optional<String> getHopsSiteClusterPswd() {
+    return Optional.ofNullable(cache().HOPSSITE_CLUSTER_PSWD);
   }
 
   public synchronized void setHopsSiteClusterPswd(String pswd) {
@@ -2490,36 +2596,36 @@ public class Settings implements Serializable {
     } else {
       em.persist(new Variables(VARIABLE_HOPSSITE_CLUSTER_PSWD, pswd));
     }
-    HOPSSITE_CLUSTER_PSWD = pswd;
+    refreshCache();
   }
 
-  public synchronized String getHopsSiteCaDir() {
+  public String getHopsSiteCaDir() {
     return getCertsDir() + File.separator + HOPS_SITE_CA_DIR;
   }
 
-  public synchronized String getHopsSiteCaScript() {
+  public String getHopsSiteCaScript() {
     return getHopsworksDomainDir()
         + File.separator + "bin"
         + File.separator + "ca-keystore.sh";
   }
 
-  public synchronized String getHopsSiteCert() {
+  public String getHopsSiteCert() {
     return getHopsSiteCaDir() + HOPS_SITE_CERTFILE;
   }
 
-  public synchronized String getHopsSiteCaCert() {
+  public String getHopsSiteCaCert() {
     return getHopsSiteCaDir() + HOPS_SITE_CA_CERTFILE;
   }
 
-  public synchronized String getHopsSiteIntermediateCert() {
+  public String getHopsSiteIntermediateCert() {
     return getHopsSiteCaDir() + HOPS_SITE_INTERMEDIATE_CERTFILE;
   }
 
-  public synchronized String getHopsSiteKeyStorePath() {
+  public String getHopsSiteKeyStorePath() {
     return getHopsSiteCaDir() + HOPS_SITE_KEY_STORE;
   }
 
-  public synchronized String getHopsSiteTrustStorePath() {
+  public String getHopsSiteTrustStorePath() {
     return getHopsSiteCaDir() + HOPS_SITE_TRUST_STORE;
   }
   //Dela END
@@ -2534,10 +2640,10 @@ public class Settings implements Serializable {
   public static final String KAFKA_DEFAULT_CONSUMER_GROUP = "default";
   private static final String KAFKA_BROKER_PROTOCOL = "INTERNAL";
   //These brokers are updated periodically by ZookeeperTimerThread
-  private Set<String> kafkaBrokers = new HashSet<>();
+  private volatile Set<String> kafkaBrokers = Collections.emptySet();
 
-  public synchronized Set<String> getKafkaBrokers() {
-    return kafkaBrokers;
+  public Set<String> getKafkaBrokers() {
+    return new HashSet<>(kafkaBrokers);
   }
 
   /**
@@ -2545,7 +2651,7 @@ public class Settings implements Serializable {
    *
    * @return broker
    */
-  public synchronized String getRandomKafkaBroker() {
+  public String getRandomKafkaBroker() {
     Iterator<String> it = this.kafkaBrokers.iterator();
     if (it.hasNext()) {
       return it.next();
@@ -2557,7 +2663,7 @@ public class Settings implements Serializable {
    *
    * @return brokers
    */
-  public synchronized String getKafkaBrokersStr() {
+  public String getKafkaBrokersStr() {
     if (!kafkaBrokers.isEmpty()) {
       StringBuilder sb = new StringBuilder();
       for (String addr : kafkaBrokers) {
@@ -2568,9 +2674,8 @@ public class Settings implements Serializable {
     return null;
   }
 
-  public synchronized void setKafkaBrokers(Set<String> kafkaBrokers) {
-    this.kafkaBrokers.clear();
-    this.kafkaBrokers.addAll(kafkaBrokers);
+  public void setKafkaBrokers(Set<String> kafkaBrokers) {
+    this.kafkaBrokers = Collections.unmodifiableSet(new HashSet<>(kafkaBrokers));
   }
 
   public Set<String> getBrokerEndpoints() throws IOException, KeeperException, InterruptedException {
@@ -2622,171 +2727,105 @@ public class Settings implements Serializable {
   private static final String VARIABLE_LDAP_GROUPDN = "ldap_group_dn";
   private static final String VARIABLE_LDAP_ACCOUNT_STATUS = "ldap_account_status";
 
-  private String KRB_AUTH = "false";
-  private String LDAP_AUTH = "false";
-  private boolean IS_KRB_ENABLED = false;
-  private boolean IS_LDAP_ENABLED = false;
-  private String LDAP_GROUP_MAPPING = "";
-  private String LDAP_USER_ID = "uid"; //login name
-  private String LDAP_USER_GIVEN_NAME = "givenName";
-  private String LDAP_USER_SURNAME = "sn";
-  private String LDAP_USER_EMAIL = "mail";
-  private String LDAP_USER_SEARCH_FILTER = "uid=%s";
-  private String LDAP_GROUP_SEARCH_FILTER = "member=%d";
-  private String LDAP_KRB_USER_SEARCH_FILTER = "krbPrincipalName=%s";
-  private String LDAP_ATTR_BINARY = "java.naming.ldap.attributes.binary";
-  private String LDAP_GROUP_TARGET = "cn";
-  private String LDAP_DYNAMIC_GROUP_TARGET = "memberOf";
-  private String LDAP_LDAP_USERDN = "";
-  private String LDAP_LDAP_GROUPDN = "";
-  private int LDAP_ACCOUNT_STATUS = 4;
-
-  private void populateLDAPCache() {
-    KRB_AUTH = setVar(VARIABLE_KRB_AUTH, KRB_AUTH);
-    LDAP_AUTH = setVar(VARIABLE_LDAP_AUTH, LDAP_AUTH);
-    IS_KRB_ENABLED = setBoolVar(VARIABLE_KRB_AUTH, IS_KRB_ENABLED);
-    IS_LDAP_ENABLED = setBoolVar(VARIABLE_LDAP_AUTH, IS_LDAP_ENABLED);
-    LDAP_GROUP_MAPPING = setVar(VARIABLE_LDAP_GROUP_MAPPING, LDAP_GROUP_MAPPING);
-    LDAP_USER_ID = setVar(VARIABLE_LDAP_USER_ID, LDAP_USER_ID);
-    LDAP_USER_GIVEN_NAME = setVar(VARIABLE_LDAP_USER_GIVEN_NAME, LDAP_USER_GIVEN_NAME);
-    LDAP_USER_SURNAME = setVar(VARIABLE_LDAP_USER_SURNAME, LDAP_USER_SURNAME);
-    LDAP_USER_EMAIL = setVar(VARIABLE_LDAP_USER_EMAIL, LDAP_USER_EMAIL);
-    LDAP_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_USER_SEARCH_FILTER, LDAP_USER_SEARCH_FILTER);
-    LDAP_GROUP_SEARCH_FILTER = setVar(VARIABLE_LDAP_GROUP_SEARCH_FILTER, LDAP_GROUP_SEARCH_FILTER);
-    LDAP_KRB_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_KRB_USER_SEARCH_FILTER, LDAP_KRB_USER_SEARCH_FILTER);
-    LDAP_ATTR_BINARY = setVar(VARIABLE_LDAP_ATTR_BINARY, LDAP_ATTR_BINARY);
-    LDAP_GROUP_TARGET = setVar(VARIABLE_LDAP_GROUP_TARGET, LDAP_GROUP_TARGET);
-    LDAP_DYNAMIC_GROUP_TARGET = setVar(VARIABLE_LDAP_DYNAMIC_GROUP_TARGET, LDAP_DYNAMIC_GROUP_TARGET);
-    LDAP_LDAP_USERDN = setVar(VARIABLE_LDAP_USERDN, LDAP_LDAP_USERDN);
-    LDAP_LDAP_GROUPDN = setVar(VARIABLE_LDAP_GROUPDN, LDAP_LDAP_GROUPDN);
-    LDAP_ACCOUNT_STATUS = setIntVar(VARIABLE_LDAP_ACCOUNT_STATUS, LDAP_ACCOUNT_STATUS);
-  }
-
-  public synchronized String getKRBAuthStatus() {
-    checkCache();
-    return KRB_AUTH;
-  }
-
-  public synchronized String getLDAPAuthStatus() {
-    checkCache();
-    return LDAP_AUTH;
+  public String getKRBAuthStatus() {
+    return cache().KRB_AUTH;
+  }
+
+  public String getLDAPAuthStatus() {
+    return cache().LDAP_AUTH;
   }
   
-  public synchronized  boolean isKrbEnabled() {
-    checkCache();
-    return IS_KRB_ENABLED;
+  public  boolean isKrbEnabled() {
+    return cache().IS_KRB_ENABLED;
   }
   
-  public synchronized  boolean isLdapEnabled() {
-    checkCache();
-    return IS_LDAP_ENABLED;
+  public  boolean isLdapEnabled() {
+    return cache().IS_LDAP_ENABLED;
   }
 
-  public synchronized String getLdapGroupMapping() {
-    checkCache();
-    return LDAP_GROUP_MAPPING;
+  public String getLdapGroupMapping() {
+    return cache().LDAP_GROUP_MAPPING;
   }
 
-  public synchronized String getLdapUserId() {
-    checkCache();
-    return LDAP_USER_ID;
+  public String getLdapUserId() {
+    return cache().LDAP_USER_ID;
   }
 
-  public synchronized String getLdapUserGivenName() {
-    checkCache();
-    return LDAP_USER_GIVEN_NAME;
+  public String getLdapUserGivenName() {
+    return cache().LDAP_USER_GIVEN_NAME;
   }
 
-  public synchronized String getLdapUserSurname() {
-    checkCache();
-    return LDAP_USER_SURNAME;
+  public String getLdapUserSurname() {
+    return cache().LDAP_USER_SURNAME;
   }
 
-  public synchronized String getLdapUserMail() {
-    checkCache();
-    return LDAP_USER_EMAIL;
+  public String getLdapUserMail() {
+    return cache().LDAP_USER_EMAIL;
   }
 
-  public synchronized String getLdapUserSearchFilter() {
-    checkCache();
-    return LDAP_USER_SEARCH_FILTER;
+  public String getLdapUserSearchFilter() {
+    return cache().LDAP_USER_SEARCH_FILTER;
   }
 
-  public synchronized String getLdapGroupSearchFilter() {
-    checkCache();
-    return LDAP_GROUP_SEARCH_FILTER;
+  public String getLdapGroupSearchFilter() {
+    return cache().LDAP_GROUP_SEARCH_FILTER;
   }
   
-  public synchronized String getKrbUserSearchFilter() {
-    checkCache();
-    return LDAP_KRB_USER_SEARCH_FILTER;
+  public String getKrbUserSearchFilter() {
+    return cache().LDAP_KRB_USER_SEARCH_FILTER;
   }
   
-  public synchronized String getLdapAttrBinary() {
-    checkCache();
-    return LDAP_ATTR_BINARY;
+  public String getLdapAttrBinary() {
+    return cache().LDAP_ATTR_BINARY;
   }
 
-  public synchronized String getLdapGroupTarget() {
-    checkCache();
-    return LDAP_GROUP_TARGET;
+  public String getLdapGroupTarget() {
+    return cache().LDAP_GROUP_TARGET;
   }
 
-  public synchronized String getLdapDynGroupTarget() {
-    checkCache();
-    return LDAP_DYNAMIC_GROUP_TARGET;
+  public String getLdapDynGroupTarget() {
+    return cache().LDAP_DYNAMIC_GROUP_TARGET;
   }
 
-  public synchronized String getLdapUserDN() {
-    checkCache();
-    return LDAP_LDAP_USERDN;
+  public String getLdapUserDN() {
+    return cache().LDAP_LDAP_USERDN;
   }
 
-  public synchronized String getLdapGroupDN() {
-    checkCache();
-    return LDAP_LDAP_GROUPDN;
+  public String getLdapGroupDN() {
+    return cache().LDAP_LDAP_GROUPDN;
   }
 
-  public synchronized int getLdapAccountStatus() {
-    checkCache();
-    return LDAP_ACCOUNT_STATUS;
+  public int getLdapAccountStatus() {
+    return cache().LDAP_ACCOUNT_STATUS;
   }
   //----------------------------END LDAP------------------------------------
 
   // Service key rotation enabled
   private static final String SERVICE_KEY_ROTATION_ENABLED_KEY = "service_key_rotation_enabled";
-  private boolean serviceKeyRotationEnabled = false;
 
-  public synchronized boolean isServiceKeyRotationEnabled() {
-    checkCache();
-    return serviceKeyRotationEnabled;
+  public boolean isServiceKeyRotationEnabled() {
+    return cache().serviceKeyRotationEnabled;
   }
 
   // Service key rotation interval
   private static final String SERVICE_KEY_ROTATION_INTERVAL_KEY = "service_key_rotation_interval";
-  private String serviceKeyRotationInterval = "3d";
 
-  public synchronized String getServiceKeyRotationInterval() {
-    checkCache();
-    return serviceKeyRotationInterval;
+  public String getServiceKeyRotationInterval() {
+    return cache().serviceKeyRotationInterval;
   }
 
  // TensorBoard kill rotation interval in milliseconds (should be lower than the TensorBoardKillTimer)
   private static final String TENSORBOARD_MAX_LAST_ACCESSED = "tensorboard_max_last_accessed";
-  private int tensorBoardMaxLastAccessed = 1140000;
 
-  public synchronized int getTensorBoardMaxLastAccessed() {
-    checkCache();
-    return tensorBoardMaxLastAccessed;
+  public int getTensorBoardMaxLastAccessed() {
+    return cache().tensorBoardMaxLastAccessed;
   }
 
   // TensorBoard kill rotation interval in milliseconds
   private static final String SPARK_UI_LOGS_OFFSET = "spark_ui_logs_offset";
-  private int sparkUILogsOffset = 512000;
 
-  public synchronized int getSparkUILogsOffset() {
-    checkCache();
-    return sparkUILogsOffset;
+  public int getSparkUILogsOffset() {
+    return cache().sparkUILogsOffset;
   }
 
   public Long getConfTimeValue(String configurationTime) {
@@ -2813,372 +2852,278 @@ public class Settings implements Serializable {
     return new HashSet<>(Splitter.on(separator).trimResults().splitToList(csv));
   }
 
-  // User upgradable libraries we installed for them
-  private Set<String> PROVIDED_PYTHON_LIBRARY_NAMES;
   private static final String VARIABLE_PROVIDED_PYTHON_LIBRARY_NAMES = "provided_python_lib_names";
   private static final String DEFAULT_PROVIDED_PYTHON_LIBRARY_NAMES =
       "hops, pandas, tensorflow-serving-api, hopsfacets, mmlspark, numpy";
 
-  public synchronized Set<String> getProvidedPythonLibraryNames() {
-    checkCache();
-    return PROVIDED_PYTHON_LIBRARY_NAMES;
+  public Set<String> getProvidedPythonLibraryNames() {
+    return cache().PROVIDED_PYTHON_LIBRARY_NAMES;
   }
 
-  // Libraries we preinstalled users should not mess with
-  private Set<String> PREINSTALLED_PYTHON_LIBRARY_NAMES;
   private static final String VARIABLE_PREINSTALLED_PYTHON_LIBRARY_NAMES = "preinstalled_python_lib_names";
   private static final String DEFAULT_PREINSTALLED_PYTHON_LIBRARY_NAMES =
       "tensorflow-gpu, tensorflow, pydoop, pyspark, tensorboard";
 
-  public synchronized Set<String> getPreinstalledPythonLibraryNames() {
-    checkCache();
-    return PREINSTALLED_PYTHON_LIBRARY_NAMES;
+  public Set<String> getPreinstalledPythonLibraryNames() {
+    return cache().PREINSTALLED_PYTHON_LIBRARY_NAMES;
   }
 
-  private String HOPSWORKS_VERSION;
-
-  public synchronized String getHopsworksVersion() {
-    checkCache();
-    return HOPSWORKS_VERSION;
+  public String getHopsworksVersion() {
+    return cache().HOPSWORKS_VERSION;
   }
 
-  private String CUDA_VERSION;
-
-  public synchronized String getCudaVersion() {
-    checkCache();
-    return CUDA_VERSION;
+  public String getCudaVersion() {
+    return cache().CUDA_VERSION;
   }
 
-  private String TENSORFLOW_VERSION;
-
-  public synchronized String getTensorflowVersion() {
-    checkCache();
-    return TENSORFLOW_VERSION;
+  public String getTensorflowVersion() {
+    return cache().TENSORFLOW_VERSION;
   }
 
-  private String DRELEPHANT_VERSION;
-
-  public synchronized String getDrelephantVersion() {
-    checkCache();
-    return DRELEPHANT_VERSION;
+  public String getDrelephantVersion() {
+    return cache().DRELEPHANT_VERSION;
   }
 
-  private String ELASTIC_VERSION;
-
-  public synchronized String getElasticVersion() {
-    checkCache();
-    return ELASTIC_VERSION;
+  public String getElasticVersion() {
+    return cache().ELASTIC_VERSION;
   }
 
-  private String KAFKA_VERSION;
-
-  public synchronized String getKafkaVersion() {
-    checkCache();
-    return KAFKA_VERSION;
+  public String getKafkaVersion() {
+    return cache().KAFKA_VERSION;
   }
 
-  private String DELA_VERSION;
-
-  public synchronized String getDelaVersion() {
-    checkCache();
-    return DELA_VERSION;
+  public String getDelaVersion() {
+    return cache().DELA_VERSION;
   }
 
-  private String EPIPE_VERSION;
-
-  public synchronized String getEpipeVersion() {
-    checkCache();
-    return EPIPE_VERSION;
+  public String getEpipeVersion() {
+    return cache().EPIPE_VERSION;
   }
 
-  private String FLINK_VERSION;
-
-  public synchronized String getFlinkVersion() {
-    checkCache();
-    return FLINK_VERSION;
+  public String getFlinkVersion() {
+    return cache().FLINK_VERSION;
   }
 
-  private String SPARK_VERSION;
-
-  public synchronized String getSparkVersion() {
-    checkCache();
-    return SPARK_VERSION;
+  public String getSparkVersion() {
+    return cache().SPARK_VERSION;
   }
 
-  private String SLIDER_VERSION;
-
-  public synchronized String getSliderVersion() {
-    checkCache();
-    return SLIDER_VERSION;
+  public String getSliderVersion() {
+    return cache().SLIDER_VERSION;
   }
 
-  private String TEZ_VERSION;
-
-  public synchronized String getTezVersion() {
-    checkCache();
-    return TEZ_VERSION;
+  public String getTezVersion() {
+    return cache().TEZ_VERSION;
   }
 
-  private String HIVE2_VERSION;
-
-  public synchronized String getHive2Version() {
-    checkCache();
-    return HIVE2_VERSION;
+  public String getHive2Version() {
+    return cache().HIVE2_VERSION;
   }
 
-  private String LIVY_VERSION;
-
-  public synchronized String getLivyVersion() {
-    checkCache();
-    return LIVY_VERSION;
+  public String getLivyVersion() {
+    return cache().LIVY_VERSION;
   }
 
-  private String NDB_VERSION;
-
-  public synchronized String getNdbVersion() {
-    checkCache();
-    return NDB_VERSION;
+  public String getNdbVersion() {
+    return cache().NDB_VERSION;
   }
 
-  private String FILEBEAT_VERSION;
-
-  public synchronized String getFilebeatVersion() {
-    checkCache();
-    return FILEBEAT_VERSION;
+  public String getFilebeatVersion() {
+    return cache().FILEBEAT_VERSION;
   }
 
-  private String KIBANA_VERSION;
-
-  public synchronized String getKibanaVersion() {
-    checkCache();
-    return KIBANA_VERSION;
+  public String getKibanaVersion() {
+    return cache().KIBANA_VERSION;
   }
 
-  private String LOGSTASH_VERSION;
-
-  public synchronized String getLogstashVersion() {
-    checkCache();
-    return LOGSTASH_VERSION;
+  public String getLogstashVersion() {
+    return cache().LOGSTASH_VERSION;
   }
 
-  private String KAPACITOR_VERSION;
-
-  public synchronized String getKapacitorVersion() {
-    checkCache();
-    return KAPACITOR_VERSION;
+  public String getKapacitorVersion() {
+    return cache().KAPACITOR_VERSION;
   }
 
-  private String TELEGRAF_VERSION;
-
-  public synchronized String getTelegrafVersion() {
-    checkCache();
-    return TELEGRAF_VERSION;
+  public String getTelegrafVersion() {
+    return cache().TELEGRAF_VERSION;
   }
 
-  private String GRAFANA_VERSION;
-
-  public synchronized String getGrafanaVersion() {
-    checkCache();
-    return GRAFANA_VERSION;
+  public String getGrafanaVersion() {
+    return cache().GRAFANA_VERSION;
   }
 
-  private String INFLUXDB_VERSION;
-
-  public synchronized String getInfluxdbVersion() {
-    checkCache();
-    return INFLUXDB_VERSION;
+  public String getInfluxdbVersion() {
+    return cache().INFLUXDB_VERSION;
   }
 
-  private String ZOOKEEPER_VERSION;
-
-  public synchronized String getZookeeperVersion() {
-    checkCache();
-    return ZOOKEEPER_VERSION;
+  public String getZookeeperVersion() {
+    return cache().ZOOKEEPER_VERSION;
   }
 
-  // -------------------------------- Kubernetes ----------------------------------------------//
-  private String KUBE_USER = "hopsworks";
-
-  public synchronized String getKubeUser() {
-    checkCache();
-    return KUBE_USER;
+  public String getKubeUser() {
+    return cache().KUBE_USER;
   }
 
-  private String KUBEMASTER_URL = "https://192.168.68.102:6443";
-
-  public synchronized String getKubeMasterUrl() {
-    checkCache();
-    return KUBEMASTER_URL;
+  public String getKubeMasterUrl() {
+    return cache().KUBEMASTER_URL;
   }
 
-  private String KUBE_CA_CERTFILE = "/srv/hops/certs-dir/certs/ca.cert.pem";
-
-  public synchronized String getKubeCaCertfile() {
-    checkCache();
-    return KUBE_CA_CERTFILE;
+  public String getKubeCaCertfile() {
+    return cache().KUBE_CA_CERTFILE;
   }
 
-  private String KUBE_CLIENT_KEYFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.key.pem";
-
-  public synchronized String getKubeClientKeyfile() {
-    checkCache();
-    return KUBE_CLIENT_KEYFILE;
+  public String getKubeClientKeyfile() {
+    return cache().KUBE_CLIENT_KEYFILE;
   }
 
-  private String KUBE_CLIENT_CERTFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.cert.pem";
-
-  public synchronized String getKubeClientCertfile() {
-    checkCache();
-    return KUBE_CLIENT_CERTFILE;
+  public String getKubeClientCertfile() {
+    return cache().KUBE_CLIENT_CERTFILE;
   }
 
-  private String KUBE_CLIENT_KEYPASS = "adminpw";
-
-  public synchronized String getKubeClientKeypass() {
-    checkCache();
-    return KUBE_CLIENT_KEYPASS;
+  public String getKubeClientKeypass() {
+    return cache().KUBE_CLIENT_KEYPASS;
   }
 
-  private String KUBE_TRUSTSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__tstore.jks";
-
-  public synchronized String getKubeTruststorePath() {
-    checkCache();
-    return KUBE_TRUSTSTORE_PATH;
+  public String getKubeTruststorePath() {
+    return cache().KUBE_TRUSTSTORE_PATH;
   }
 
-  private String KUBE_TRUSTSTORE_KEY = "adminpw";
-
-  public synchronized String getKubeTruststoreKey() {
-    checkCache();
-    return KUBE_TRUSTSTORE_KEY;
+  public String getKubeTruststoreKey() {
+    return cache().KUBE_TRUSTSTORE_KEY;
   }
 
-  private String KUBE_KEYSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__kstore.jks";
-
-  public synchronized String getKubeKeystorePath() {
-    checkCache();
-    return KUBE_KEYSTORE_PATH;
+  public String getKubeKeystorePath() {
+    return cache().KUBE_KEYSTORE_PATH;
   }
 
-  private String KUBE_KEYSTORE_KEY = "adminpw";
+  public String getKubeKeystoreKey() {
+    return cache().KUBE_KEYSTORE_KEY;
+  }
 
-  public synchronized String getKubeKeystoreKey() {
-    checkCache();
-    return KUBE_KEYSTORE_KEY;
+  public String getKubeRegistry() {
+    return cache().KUBE_REGISTRY;
   }
 
-  private String KUBE_REGISTRY = "registry.docker-registry.svc.cluster.local";
+  public Integer getKubeMaxServingInstances() {
+    return cache().KUBE_MAX_SERVING_INSTANCES;
+  }
 
-  public synchronized String getKubeRegistry() {
-    checkCache();
-    return KUBE_REGISTRY;
+  public String getTFServingMonitorInt() {
+    return cache().TF_SERVING_MONITOR_INT;
   }
 
-  private Integer KUBE_MAX_SERVING_INSTANCES = 10;
+  public int getTFServingConnectionPoolSize() {
+    return cache().TF_SERVING_CONNECTION_POOL_SIZE;
+  }
 
-  public synchronized Integer getKubeMaxServingInstances() {
-    checkCache();
-    return KUBE_MAX_SERVING_INSTANCES;
+  public int getTFServingMaxRouteConnections() {
+    return cache().TF_SERVING_MAX_ROUTE_CONNECTIONS;
   }
 
-  private String TF_SERVING_MONITOR_INT = "30s";
+  public int getInferenceProducerPoolSize() {
+    return cache().INFERENCE_PRODUCER_POOL_SIZE;
+  }
 
-  public synchronized String getTFServingMonitorInt() {
-    checkCache();
-    return TF_SERVING_MONITOR_INT;
+  public long getInferenceProducerIdleTimeoutMs() {
+    return cache().INFERENCE_PRODUCER_IDLE_TIMEOUT_MS;
   }
 
-  private int TF_SERVING_CONNECTION_POOL_SIZE = 40;
-  public synchronized int getTFServingConnectionPoolSize() {
-    checkCache();
-    return TF_SERVING_CONNECTION_POOL_SIZE;
+  public long getInferenceProducerMaxLifetimeMs() {
+    return cache().INFERENCE_PRODUCER_MAX_LIFETIME_MS;
   }
 
-  private int TF_SERVING_MAX_ROUTE_CONNECTIONS = 10;
-  public synchronized int getTFServingMaxRouteConnections() {
-    checkCache();
-    return TF_SERVING_MAX_ROUTE_CONNECTIONS;
+  public int getInferenceLogQueueSize() {
+    return cache().INFERENCE_LOG_QUEUE_SIZE;
   }
 
-  private String JWT_SIGNATURE_ALGORITHM = "HS512";
-  private String JWT_SIGNING_KEY_NAME = "apiKey";
-  private String JWT_ISSUER = "hopsworks@logicalclocks.com";
+  public int getInferenceRequestThreads() {
+    return cache().INFERENCE_REQUEST_THREADS;
+  }
 
-  private long JWT_LIFETIME_MS = 1800000l;
-  private int JWT_EXP_LEEWAY_SEC = 900;
+  public int getInferenceRequestQueueSize() {
+    return cache().INFERENCE_REQUEST_QUEUE_SIZE;
+  }
 
-  private long SERVICE_JWT_LIFETIME_MS = 86400000l;
-  private int SERVICE_JWT_EXP_LEEWAY_SEC = 43200;
+  public long getInferenceRequestTimeoutMs() {
+    return cache().INFERENCE_REQUEST_TIMEOUT_MS;
+  }
 
-  public synchronized String getJWTSignatureAlg() {
-    checkCache();
-    return JWT_SIGNATURE_ALGORITHM;
+  public String getJWTSignatureAlg() {
+    return cache().JWT_SIGNATURE_ALGORITHM;
   }
 
-  public synchronized long getJWTLifetimeMs() {
-    checkCache();
-    return JWT_LIFETIME_MS;
+  public long getJWTLifetimeMs() {
+    return cache().JWT_LIFETIME_MS;
   }
 
-  public synchronized int getJWTExpLeewaySec() {
-    checkCache();
-    return JWT_EXP_LEEWAY_SEC;
+  public int getJWTExpLeewaySec() {
+    return cache().JWT_EXP_LEEWAY_SEC;
   }
 
-  public synchronized long getServiceJWTLifetimeMS() {
-    checkCache();
-    return SERVICE_JWT_LIFETIME_MS;
+  public long getServiceJWTLifetimeMS() {
+    return cache().SERVICE_JWT_LIFETIME_MS;
   }
 
-  public synchronized int getServiceJWTExpLeewaySec() {
-    checkCache();
-    return SERVICE_JWT_EXP_LEEWAY_SEC;
+  public int getServiceJWTExpLeewaySec() {
+    return cache().SERVICE_JWT_EXP_LEEWAY_SEC;
   }
 
-  public synchronized String getJWTSigningKeyName() {
-    checkCache();
-    return JWT_SIGNING_KEY_NAME;
+  public String getJWTSigningKeyName() {
+    return cache().JWT_SIGNING_KEY_NAME;
   }
   
-  public synchronized String getJWTIssuer() {
-    checkCache();
-    return JWT_ISSUER;
+  public String getJWTIssuer() {
+    return cache().JWT_ISSUER;
   }
 
-  private String SERVICE_JWT = "";
-  public synchronized String getServiceJWT(){
-    checkCache();
-    return SERVICE_JWT;
+  public String getServiceJWT(){
+    return cache().SERVICE_JWT;
   }
 
   public synchronized void setServiceJWT(String JWT) {
     updateVariableInternal(VARIABLE_SERVICE_JWT, JWT);
     em.flush();
-    SERVICE_JWT = JWT;
+    refreshCache();
   }
 
-  private int CONNECTION_KEEPALIVE_TIMEOUT = 30;
-  public synchronized int getConnectionKeepAliveTimeout() {
-    checkCache();
-    return CONNECTION_KEEPALIVE_TIMEOUT;
+  public int getConnectionKeepAliveTimeout() {
+    return cache().CONNECTION_KEEPALIVE_TIMEOUT;
   }
 
   public String getHiveSiteSparkHdfsPath() {
     return "hdfs:///user/" + getSparkUser() + "/hive-site.xml";
   }
 
-  private String FEATURESTORE_DB_DEFAULT_QUOTA = "50000";
+  public Long getFeaturestoreDbDefaultQuota() {
+    return Long.parseLong(cache().FEATURESTORE_DB_DEFAULT_QUOTA);
+  }
 
-  public synchronized Long getFeaturestoreDbDefaultQuota() {
-    checkCache();
-    return Long.parseLong(FEATURESTORE_DB_DEFAULT_QUOTA);
+  public String getFeaturestoreDbDefaultStorageFormat() {
+    return cache().FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT;
   }
 
-  private String FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT = "ORC";
+  public int getFeaturestoreHiveConnectionsPerUser() {
+    return cache().FEATURESTORE_HIVE_CONNECTIONS_PER_USER;
+  }
+
+  public long getFeaturestoreHiveConnectionIdleTimeoutMs() {
+    return cache().FEATURESTORE_HIVE_CONNECTION_IDLE_TIMEOUT_MS;
+  }
+
+  public long getFeaturestoreHiveConnectionMaxLifetimeMs() {
+    return cache().FEATURESTORE_HIVE_CONNECTION_MAX_LIFETIME_MS;
+  }
+
+  public long getKagentHeartbeatFlushIntervalMs() {
+    return cache().KAGENT_HEARTBEAT_FLUSH_INTERVAL_MS;
+  }
+
+  public int getKagentOpParallelism() {
+    return cache().KAGENT_OP_PARALLELISM;
+  }
 
-  public synchronized String getFeaturestoreDbDefaultStorageFormat() {
-    checkCache();
-    return FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT;
+  public long getKagentOpTimeoutMs() {
+    return cache().KAGENT_OP_TIMEOUT_MS;
   }
 
 }
@@ -45,8 +45,6 @@ import io.hops.hopsworks.restutils.RESTCodes;
 import org.apache.commons.lang.StringEscapeUtils;
 
 import javax.annotation.PreDestroy;
-import javax.ejb.AsyncResult;
-import javax.ejb.Asynchronous;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.json.Json;
@@ -77,7 +75,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -140,13 +137,6 @@ public class WebCommunication {
     return fetchContent(url, agentPassword);
   }
 
-  @Asynchronous
-  public Future<String> asyncServiceOp(String operation, String hostAddress,
-      String agentPassword, String cluster, String group, String service) throws GenericException {
-    String url = createUrl(operation, hostAddress, cluster, group, service);
-    return new AsyncResult<>(fetchContent(url, agentPassword));
-  }
-  
   public String getConfig(String hostAddress, String agentPassword,
       String cluster, String group, String service) throws GenericException {
     String url = createUrl("config", hostAddress, cluster, group, service);
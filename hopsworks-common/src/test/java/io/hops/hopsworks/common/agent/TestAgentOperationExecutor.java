@@ -0,0 +1,271 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.agent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestAgentOperationExecutor {
+
+  private static final long TIMEOUT_MS = 10000;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testResultsAreInTheOrderOfTheOperations() {
+    List<AgentOperation> operations = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      int sleepMs = (5 - i) * 20;
+      String output = "output" + i;
+      operations.add(new AgentOperation("host" + i, () -> {
+        Thread.sleep(sleepMs);
+        return output;
+      }));
+    }
+    List<AgentOperationResult> results = AgentOperationExecutor.execute(executor, operations, 5, TIMEOUT_MS, null);
+    assertEquals(5, results.size());
+    for (int i = 0; i < 5; i++) {
+      assertEquals("host" + i, results.get(i).getTarget());
+      assertEquals(AgentOperationResult.Status.SUCCESS, results.get(i).getStatus());
+      assertEquals("output" + i, results.get(i).getOutput());
+    }
+  }
+
+  @Test
+  public void testNoOperations() {
+    assertTrue(AgentOperationExecutor.execute(executor, Collections.<AgentOperation>emptyList(), 5, TIMEOUT_MS,
+        null).isEmpty());
+    assertTrue(AgentOperationExecutor.executeRolling(executor, Collections.<AgentOperation>emptyList(), 2,
+        TIMEOUT_MS, null).isEmpty());
+  }
+
+  @Test
+  public void testFailureOnOneHost() {
+    List<AgentOperation> operations = new ArrayList<>();
+    operations.add(new AgentOperation("host0", () -> "ok"));
+    operations.add(new AgentOperation("host1", () -> {
+      throw new IllegalStateException("agent unreachable");
+    }));
+    operations.add(new AgentOperation("host2", () -> "ok"));
+    List<AgentOperationResult> results = AgentOperationExecutor.execute(executor, operations, 5, TIMEOUT_MS, null);
+    assertEquals(AgentOperationResult.Status.SUCCESS, results.get(0).getStatus());
+    assertEquals(AgentOperationResult.Status.FAILED, results.get(1).getStatus());
+    assertEquals("agent unreachable", results.get(1).getOutput());
+    assertEquals(AgentOperationResult.Status.SUCCESS, results.get(2).getStatus());
+  }
+
+  @Test
+  public void testParallelismIsBounded() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<AgentOperation> operations = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      operations.add(new AgentOperation("host" + i, () -> {
+        int now = running.incrementAndGet();
+        maxRunning.accumulateAndGet(now, Math::max);
+        Thread.sleep(30);
+        running.decrementAndGet();
+        return "ok";
+      }));
+    }
+    List<AgentOperationResult> results = AgentOperationExecutor.execute(executor, operations, 3, TIMEOUT_MS, null);
+    assertEquals(12, results.size());
+    for (AgentOperationResult result : results) {
+      assertEquals(AgentOperationResult.Status.SUCCESS, result.getStatus());
+    }
+    assertTrue("At most 3 operations should run at the same time, got " + maxRunning.get(), maxRunning.get() <= 3);
+  }
+
+  @Test
+  public void testTimeoutCancelsTheOperation() throws InterruptedException {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    List<AgentOperation> operations = new ArrayList<>();
+    operations.add(new AgentOperation("slow", () -> {
+      try {
+        Thread.sleep(TIMEOUT_MS);
+      } catch (InterruptedException ex) {
+        interrupted.countDown();
+        throw ex;
+      }
+      return "late";
+    }));
+    operations.add(new AgentOperation("fast", () -> "ok"));
+    long start = System.currentTimeMillis();
+    List<AgentOperationResult> results = AgentOperationExecutor.execute(executor, operations, 2, 200, null);
+    assertTrue(System.currentTimeMillis() - start < TIMEOUT_MS / 2);
+    assertEquals(AgentOperationResult.Status.TIMEOUT, results.get(0).getStatus());
+    assertEquals(200, results.get(0).getDurationMs());
+    assertEquals(AgentOperationResult.Status.SUCCESS, results.get(1).getStatus());
+    assertTrue("The timed out operation should be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testTimeoutReleasesTheSlotOfTheOperation() {
+    List<AgentOperation> operations = new ArrayList<>();
+    operations.add(new AgentOperation("slow", () -> {
+      Thread.sleep(TIMEOUT_MS);
+      return "late";
+    }));
+    operations.add(new AgentOperation("fast", () -> "ok"));
+    // With a single slot the second operation can only run once the first has timed out
+    List<AgentOperationResult> results = AgentOperationExecutor.execute(executor, operations, 1, 200, null);
+    assertEquals(AgentOperationResult.Status.TIMEOUT, results.get(0).getStatus());
+    assertEquals(AgentOperationResult.Status.SUCCESS, results.get(1).getStatus());
+  }
+
+  @Test
+  public void testProgressIsReportedForEveryOperation() {
+    List<AgentOperation> operations = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      operations.add(new AgentOperation("host" + i, () -> "ok"));
+    }
+    List<Integer> completed = Collections.synchronizedList(new ArrayList<Integer>());
+    List<AgentOperationResult> results = AgentOperationExecutor.execute(executor, operations, 2, TIMEOUT_MS,
+        (result, done, total) -> {
+          assertEquals(4, total);
+          completed.add(done);
+        });
+    assertEquals(4, results.size());
+    assertEquals(java.util.Arrays.asList(1, 2, 3, 4), completed);
+  }
+
+  @Test
+  public void testFailingListenerDoesNotAffectTheOperations() {
+    List<AgentOperation> operations = new ArrayList<>();
+    operations.add(new AgentOperation("host0", () -> "ok"));
+    operations.add(new AgentOperation("host1", () -> "ok"));
+    List<AgentOperationResult> results = AgentOperationExecutor.execute(executor, operations, 2, TIMEOUT_MS,
+        (result, done, total) -> {
+          throw new IllegalStateException("listener failure");
+        });
+    assertEquals(AgentOperationResult.Status.SUCCESS, results.get(0).getStatus());
+    assertEquals(AgentOperationResult.Status.SUCCESS, results.get(1).getStatus());
+  }
+
+  @Test
+  public void testRollingBatchesRunOneAfterTheOther() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<String> events = Collections.synchronizedList(new ArrayList<String>());
+    List<AgentOperation> operations = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      String host = "host" + i;
+      operations.add(new AgentOperation(host, () -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        events.add("start " + host);
+        Thread.sleep(20);
+        events.add("end " + host);
+        running.decrementAndGet();
+        return "ok";
+      }));
+    }
+    List<AgentOperationResult> results = AgentOperationExecutor.executeRolling(executor, operations, 2, TIMEOUT_MS,
+        null);
+    assertEquals(6, results.size());
+    for (AgentOperationResult result : results) {
+      assertEquals(AgentOperationResult.Status.SUCCESS, result.getStatus());
+    }
+    assertTrue(maxRunning.get() <= 2);
+    // Every operation of a batch ends before any operation of the next batch starts
+    for (int batch = 1; batch < 3; batch++) {
+      for (int previous = 0; previous < batch * 2; previous++) {
+        for (int next = batch * 2; next < batch * 2 + 2; next++) {
+          assertTrue(events.indexOf("end host" + previous) < events.indexOf("start host" + next));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRollingStopsAfterAFailedBatch() {
+    AtomicBoolean skippedHostCalled = new AtomicBoolean();
+    List<AgentOperation> operations = new ArrayList<>();
+    operations.add(new AgentOperation("host0", () -> "ok"));
+    operations.add(new AgentOperation("host1", () -> "ok"));
+    operations.add(new AgentOperation("host2", () -> {
+      throw new IllegalStateException("failed to restart");
+    }));
+    operations.add(new AgentOperation("host3", () -> "ok"));
+    operations.add(new AgentOperation("host4", () -> {
+      skippedHostCalled.set(true);
+      return "ok";
+    }));
+    List<Integer> completed = Collections.synchronizedList(new ArrayList<Integer>());
+    List<AgentOperationResult> results = AgentOperationExecutor.executeRolling(executor, operations, 2, TIMEOUT_MS,
+        (result, done, total) -> {
+          assertEquals(5, total);
+          completed.add(done);
+        });
+    assertEquals(AgentOperationResult.Status.SUCCESS, results.get(0).getStatus());
+    assertEquals(AgentOperationResult.Status.SUCCESS, results.get(1).getStatus());
+    assertEquals(AgentOperationResult.Status.FAILED, results.get(2).getStatus());
+    // The other operations of the failed batch still run
+    assertEquals(AgentOperationResult.Status.SUCCESS, results.get(3).getStatus());
+    assertEquals(AgentOperationResult.Status.SKIPPED, results.get(4).getStatus());
+    assertEquals("host4", results.get(4).getTarget());
+    assertFalse(skippedHostCalled.get());
+    assertEquals(java.util.Arrays.asList(1, 2, 3, 4, 5), completed);
+  }
+
+  @Test
+  public void testRollingStopsAfterATimeout() {
+    List<AgentOperation> operations = new ArrayList<>();
+    operations.add(new AgentOperation("host0", () -> {
+      Thread.sleep(TIMEOUT_MS);
+      return "late";
+    }));
+    operations.add(new AgentOperation("host1", () -> "ok"));
+    List<AgentOperationResult> results = AgentOperationExecutor.executeRolling(executor, operations, 1, 200, null);
+    assertEquals(AgentOperationResult.Status.TIMEOUT, results.get(0).getStatus());
+    assertEquals(AgentOperationResult.Status.SKIPPED, results.get(1).getStatus());
+  }
+
+  @Test
+  public void testRollingRequiresAPositiveBatchSize() {
+    try {
+      AgentOperationExecutor.executeRolling(executor, Collections.<AgentOperation>emptyList(), 0, TIMEOUT_MS, null);
+      fail("A batch size of 0 should be rejected");
+    } catch (IllegalArgumentException ex) {
+      assertEquals("batchSize must be positive", ex.getMessage());
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dao.kagent;
+
+import io.hops.hopsworks.common.dao.host.Health;
+import io.hops.hopsworks.common.dao.host.Status;
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology.Rollup;
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology.ServiceInstance;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestClusterTopology {
+
+  private static final String CLUSTER = "cluster";
+
+  private ClusterTopology topology;
+
+  @Before
+  public void setUp() {
+    topology = new ClusterTopology();
+    topology.load(Arrays.asList(
+        started("hdfs", "namenode", "host2", 8),
+        started("hdfs", "datanode", "host2", 8),
+        started("hdfs", "datanode", "host1", 4),
+        started("kafka", "kafka", "host1", 4)));
+  }
+
+  @Test
+  public void testRollupsCountHostResourcesOnce() {
+    Rollup cluster = topology.getCluster(CLUSTER);
+    assertEquals(2, cluster.getNumberOfHosts());
+    assertEquals(12, cluster.getTotalCores());
+    assertEquals(12 * 1024, cluster.getTotalMemoryCapacity());
+    assertEquals(Arrays.asList("hdfs", "kafka"), new ArrayList<>(cluster.getGroups()));
+    assertEquals(Integer.valueOf(2), cluster.getServicesCount().get("datanode"));
+    assertEquals("hdfs", cluster.getServicesGroups().get("namenode"));
+    assertEquals(4, cluster.getStatusCount(Status.Started));
+    assertTrue(cluster.getBadServices().isEmpty());
+    assertEquals(Collections.singletonList(CLUSTER), topology.getClusters());
+
+    Rollup datanode = topology.getService(CLUSTER, "hdfs", "datanode");
+    assertEquals(2, datanode.getNumberOfHosts());
+    assertEquals(12, datanode.getTotalCores());
+    assertEquals(8, topology.getService(CLUSTER, "hdfs", "namenode").getTotalCores());
+    assertEquals(4, topology.getGroup(CLUSTER, "kafka").getTotalCores());
+  }
+
+  @Test
+  public void testInstancesAreOrderedByHostname() {
+    List<ServiceInstance> instances = topology.getService(CLUSTER, "hdfs", "datanode").getInstances();
+    assertEquals("host1", instances.get(0).getHostname());
+    assertEquals("host2", instances.get(1).getHostname());
+    assertEquals(3, topology.getGroupInstances("hdfs").size());
+    assertTrue(topology.getGroupInstances("spark").isEmpty());
+  }
+
+  @Test
+  public void testUnknownRollupsAreNull() {
+    assertNull(topology.getCluster("other"));
+    assertNull(topology.getGroup(CLUSTER, "spark"));
+    assertNull(topology.getService(CLUSTER, "hdfs", "journalnode"));
+  }
+
+  @Test
+  public void testHostResourceUpdateChangesEveryServiceOfTheHost() {
+    // Only the namenode reported, the datanode of the same host must follow
+    topology.apply(Collections.singletonList(started("hdfs", "namenode", "host2", 16)));
+
+    assertEquals(16, topology.getService(CLUSTER, "hdfs", "namenode").getTotalCores());
+    Rollup datanode = topology.getService(CLUSTER, "hdfs", "datanode");
+    assertEquals(20, datanode.getTotalCores());
+    assertEquals(20 * 1024, datanode.getTotalMemoryCapacity());
+    assertEquals(20, topology.getGroup(CLUSTER, "hdfs").getTotalCores());
+    assertEquals(20, topology.getCluster(CLUSTER).getTotalCores());
+    // The other host is left alone
+    assertEquals(4, topology.getGroup(CLUSTER, "kafka").getTotalCores());
+  }
+
+  @Test
+  public void testLastResourceUpdateOfAHostWins() {
+    topology.apply(Arrays.asList(
+        started("hdfs", "datanode", "host1", 6),
+        started("kafka", "kafka", "host1", 10)));
+
+    assertEquals(10, topology.getGroup(CLUSTER, "kafka").getTotalCores());
+    assertEquals(18, topology.getService(CLUSTER, "hdfs", "datanode").getTotalCores());
+    assertEquals(18, topology.getCluster(CLUSTER).getTotalCores());
+  }
+
+  @Test
+  public void testStatusUpdate() {
+    topology.apply(Collections.singletonList(instance("hdfs", "datanode", "host1", Status.Failed, 4)));
+
+    Rollup cluster = topology.getCluster(CLUSTER);
+    assertEquals(3, cluster.getStatusCount(Status.Started));
+    assertEquals(1, cluster.getStatusCount(Status.Failed));
+    assertEquals(Collections.singleton("datanode"), cluster.getBadServices());
+    assertEquals(Collections.singleton("datanode"), topology.getGroup(CLUSTER, "hdfs").getBadServices());
+    assertTrue(topology.getGroup(CLUSTER, "kafka").getBadServices().isEmpty());
+    ServiceInstance failed = topology.getService(CLUSTER, "hdfs", "datanode").getInstances().get(0);
+    assertEquals(Status.Failed, failed.getStatus());
+    assertEquals(Health.Bad, failed.getHealth());
+    // Resources are unchanged
+    assertEquals(12, cluster.getTotalCores());
+  }
+
+  @Test
+  public void testUpdateAddsNewServices() {
+    topology.apply(Arrays.asList(
+        started("hdfs", "datanode", "host3", 2),
+        started("spark", "historyserver", "host1", 4)));
+
+    Rollup cluster = topology.getCluster(CLUSTER);
+    assertEquals(3, cluster.getNumberOfHosts());
+    assertEquals(14, cluster.getTotalCores());
+    assertEquals(Integer.valueOf(3), cluster.getServicesCount().get("datanode"));
+    assertEquals(Arrays.asList("hdfs", "kafka", "spark"), new ArrayList<>(cluster.getGroups()));
+    assertEquals(1, topology.getGroup(CLUSTER, "spark").getNumberOfHosts());
+    assertEquals(1, topology.getGroupInstances("spark").size());
+  }
+
+  @Test
+  public void testUnchangedUpdateKeepsTheSnapshot() {
+    Rollup before = topology.getCluster(CLUSTER);
+    topology.apply(Arrays.asList(
+        started("hdfs", "datanode", "host1", 4),
+        started("kafka", "kafka", "host1", 4)));
+    assertSame(before, topology.getCluster(CLUSTER));
+  }
+
+  @Test
+  public void testReadersKeepTheirSnapshot() {
+    Rollup before = topology.getCluster(CLUSTER);
+    topology.apply(Collections.singletonList(instance("kafka", "kafka", "host1", Status.Stopped, 4)));
+
+    assertEquals(4, before.getStatusCount(Status.Started));
+    assertTrue(before.getBadServices().isEmpty());
+    assertEquals(Collections.singleton("kafka"), topology.getCluster(CLUSTER).getBadServices());
+  }
+
+  @Test
+  public void testEmptyServiceCountsOnlyTheHost() {
+    topology.load(Arrays.asList(
+        started("hdfs", "datanode", "host1", 4),
+        instance("hdfs", "", "host2", Status.None, 8)));
+
+    Rollup group = topology.getGroup(CLUSTER, "hdfs");
+    assertEquals(2, group.getNumberOfHosts());
+    assertEquals(12, group.getTotalCores());
+    assertEquals(Collections.singleton("datanode"), group.getServices());
+    assertEquals(0, group.getStatusCount(Status.None));
+    assertTrue(group.getBadServices().isEmpty());
+  }
+
+  private static ServiceInstance started(String group, String service, String hostname, int cores) {
+    return instance(group, service, hostname, Status.Started, cores);
+  }
+
+  private static ServiceInstance instance(String group, String service, String hostname, Status status,
+      int cores) {
+    Health health = status == Status.Failed || status == Status.Stopped ? Health.Bad : Health.Good;
+    return new ServiceInstance(CLUSTER, group, service, hostname, status, health, cores, 0, cores * 1024L,
+        cores * 100L);
+  }
+}
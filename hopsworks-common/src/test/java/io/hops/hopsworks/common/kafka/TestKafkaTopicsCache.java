@@ -0,0 +1,121 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.kafka;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class TestKafkaTopicsCache {
+
+  private KafkaTopicsCache cache;
+
+  @Before
+  public void setUp() {
+    // Outside of a container there is no transaction, so invalidations apply right away
+    cache = new KafkaTopicsCache();
+  }
+
+  @Test
+  public void testMiss() {
+    assertNull(cache.get(KafkaTopicsCache.topicsKey(1)));
+  }
+
+  @Test
+  public void testPutAndGet() {
+    String key = KafkaTopicsCache.topicsKey(1);
+    cache.put(key, cache.getGeneration(), Arrays.asList("a", "b"));
+    List<String> cached = cache.get(key);
+    assertEquals(Arrays.asList("a", "b"), cached);
+    assertNull(cache.get(KafkaTopicsCache.topicsKey(2)));
+    assertNull(cache.get(KafkaTopicsCache.sharedTopicsKey(1)));
+  }
+
+  @Test
+  public void testCachedListingIsACopy() {
+    String key = KafkaTopicsCache.topicsKey(1);
+    List<String> loaded = new ArrayList<>(Arrays.asList("a", "b"));
+    cache.put(key, cache.getGeneration(), loaded);
+    loaded.add("c");
+    List<String> cached = cache.get(key);
+    cached.add("d");
+    assertEquals(Arrays.asList("a", "b"), cache.get(key));
+  }
+
+  @Test
+  public void testInvalidate() {
+    String key = KafkaTopicsCache.topicsKey(1);
+    cache.put(key, cache.getGeneration(), Arrays.asList("a"));
+    cache.invalidate();
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void testListingLoadedBeforeAnInvalidationIsDiscarded() {
+    String key = KafkaTopicsCache.topicsKey(1);
+    long loadGeneration = cache.getGeneration();
+    // A write path invalidates the cache while the listing is being loaded
+    cache.invalidate();
+    cache.put(key, loadGeneration, Arrays.asList("stale"));
+    assertNull(cache.get(key));
+
+    cache.put(key, cache.getGeneration(), Arrays.asList("fresh"));
+    assertEquals(Arrays.asList("fresh"), cache.get(key));
+  }
+
+  @Test
+  public void testEntityTagChangesOnInvalidation() {
+    String tag = cache.getEntityTag();
+    assertEquals(tag, cache.getEntityTag());
+    cache.invalidate();
+    assertFalse(tag.equals(cache.getEntityTag()));
+  }
+
+  @Test
+  public void testEntityTagsDifferAcrossInstances() throws InterruptedException {
+    String tag = cache.getEntityTag();
+    // The epoch of the tags has a precision of milliseconds
+    Thread.sleep(2);
+    assertFalse(tag.equals(new KafkaTopicsCache().getEntityTag()));
+  }
+
+  @Test
+  public void testCacheIsBounded() {
+    long generation = cache.getGeneration();
+    for (int i = 0; i < 10000; i++) {
+      cache.put(KafkaTopicsCache.topicsKey(i), generation, Arrays.asList("t" + i));
+    }
+    assertEquals(Arrays.asList("t0"), cache.get(KafkaTopicsCache.topicsKey(0)));
+    // Adding an entry to a full cache drops the other entries
+    cache.put(KafkaTopicsCache.topicsKey(10000), generation, Arrays.asList("t10000"));
+    assertNull(cache.get(KafkaTopicsCache.topicsKey(0)));
+    assertEquals(Arrays.asList("t10000"), cache.get(KafkaTopicsCache.topicsKey(10000)));
+  }
+
+  @Test
+  public void testKeysDoNotCollide() {
+    assertFalse(KafkaTopicsCache.sharedWithKey(1, "t").equals(KafkaTopicsCache.aclUsersKey(1, "t")));
+    assertFalse(KafkaTopicsCache.aclUsersKey(1, "t").equals(KafkaTopicsCache.aclsKey(1, "t")));
+    assertFalse(KafkaTopicsCache.topicsKey(1).equals(KafkaTopicsCache.sharedTopicsKey(1)));
+  }
+}
@@ -35,6 +35,8 @@ public class AlgorithmFactory {
 
   @EJB
   private JwtSigningKeyFacade jwtSigningKeyFacade;
+  @EJB
+  private JWTCache jwtCache;
 
   public Algorithm getAlgorithm(DecodedJWT jwt) throws SigningKeyNotFoundException {
     return getAlgorithm(jwt.getAlgorithm(), jwt.getKeyId());
@@ -50,6 +52,15 @@ public class AlgorithmFactory {
   }
 
   public Algorithm getAlgorithm(SignatureAlgorithm algorithm, String keyId) throws SigningKeyNotFoundException {
+    Algorithm alg = jwtCache.getAlgorithm(algorithm, keyId);
+    if (alg == null) {
+      alg = createAlgorithm(algorithm, keyId);
+      jwtCache.putAlgorithm(algorithm, keyId, alg);
+    }
+    return alg;
+  }
+
+  private Algorithm createAlgorithm(SignatureAlgorithm algorithm, String keyId) throws SigningKeyNotFoundException {
     switch (algorithm) {
       case ES256:
         return getES256Algorithm(keyId);
@@ -31,4 +31,8 @@ public class Constants {
   public static final String ONE_TIME_JWT_SIGNING_KEY_NAME = "oneTimeKey";
   public static final String OLD_ONE_TIME_JWT_SIGNING_KEY_NAME = ONE_TIME_JWT_SIGNING_KEY_NAME + "_old";
   public static final long ONE_TIME_JWT_LIFETIME_MS = 60000l;
+  
+  public static final long SIGNING_KEY_CACHE_TTL_MS = 60000l;
+  public static final long INVALID_JWT_REFRESH_INTERVAL_MS = 10000l;
+  public static final long INVALID_JWT_FULL_REFRESH_INTERVAL_MS = 60000l;
 }
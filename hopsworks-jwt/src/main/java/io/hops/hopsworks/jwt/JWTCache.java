@@ -0,0 +1,198 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.jwt;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import io.hops.hopsworks.jwt.dao.InvalidJwt;
+import io.hops.hopsworks.jwt.dao.InvalidJwtFacade;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+
+import static io.hops.hopsworks.jwt.Constants.INVALID_JWT_FULL_REFRESH_INTERVAL_MS;
+import static io.hops.hopsworks.jwt.Constants.INVALID_JWT_REFRESH_INTERVAL_MS;
+import static io.hops.hopsworks.jwt.Constants.SIGNING_KEY_CACHE_TTL_MS;
+
+/**
+ * In-memory cache of the state needed to verify a jwt, so that verification does not hit the database on every
+ * request.
+ * <p>
+ * Algorithms are cached by signature algorithm and key id and reloaded after {@link Constants#SIGNING_KEY_CACHE_TTL_MS}
+ * or when the signing key is removed. Every {@link Constants#INVALID_JWT_REFRESH_INTERVAL_MS} the rows of the
+ * invalid_jwt table expiring at or after the latest expiration time seen so far are added to the invalidated ids.
+ * The whole table is reloaded every {@link Constants#INVALID_JWT_FULL_REFRESH_INTERVAL_MS}, which drops the rows
+ * removed by the cleanup and picks up tokens that expire earlier than one already seen. Tokens invalidated by this
+ * instance are added as soon as the invalidation has committed.
+ */
+@Startup
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class JWTCache {
+
+  private final static Logger LOGGER = Logger.getLogger(JWTCache.class.getName());
+
+  @EJB
+  private InvalidJwtFacade invalidJwtFacade;
+  @Resource
+  private TimerService timerService;
+
+  private final Map<String, CachedAlgorithm> algorithms = new ConcurrentHashMap<>();
+  private volatile Set<String> invalidJtis = Collections.emptySet();
+  private final Set<String> locallyInvalidated = ConcurrentHashMap.newKeySet();
+  // Only accessed by refreshInvalidJtis()
+  private Date latestExpirationTime = new Date(0);
+  private long lastFullRefresh = 0;
+
+  @PostConstruct
+  private void init() {
+    refreshInvalidJtis();
+    timerService.createIntervalTimer(INVALID_JWT_REFRESH_INTERVAL_MS, INVALID_JWT_REFRESH_INTERVAL_MS,
+        new TimerConfig("Invalidated JWT cache refresh", false));
+  }
+
+  @PreDestroy
+  private void destroyTimer() {
+    for (Timer timer : timerService.getTimers()) {
+      timer.cancel();
+    }
+  }
+
+  @Timeout
+  public void performTimeout(Timer timer) {
+    refreshInvalidJtis();
+  }
+
+  /**
+   * Get the cached algorithm for a signing key.
+   *
+   * @param algorithm
+   * @param keyId
+   * @return the algorithm or null if it is not cached or has expired
+   */
+  public Algorithm getAlgorithm(SignatureAlgorithm algorithm, String keyId) {
+    CachedAlgorithm cached = algorithms.get(cacheKey(algorithm, keyId));
+    if (cached == null || System.currentTimeMillis() - cached.loadedAt > SIGNING_KEY_CACHE_TTL_MS) {
+      return null;
+    }
+    return cached.algorithm;
+  }
+
+  public void putAlgorithm(SignatureAlgorithm algorithm, String keyId, Algorithm alg) {
+    algorithms.put(cacheKey(algorithm, keyId), new CachedAlgorithm(alg, System.currentTimeMillis()));
+  }
+
+  /**
+   * Remove all the algorithms built with a signing key. Called when the key is removed or rotated.
+   *
+   * @param keyId
+   */
+  public void invalidateSigningKey(String keyId) {
+    for (SignatureAlgorithm algorithm : SignatureAlgorithm.values()) {
+      algorithms.remove(cacheKey(algorithm, keyId));
+    }
+  }
+
+  public boolean isInvalidated(String jti) {
+    return invalidJtis.contains(jti) || locallyInvalidated.contains(jti);
+  }
+
+  public void addInvalidated(String jti) {
+    locallyInvalidated.add(jti);
+  }
+
+  private synchronized void refreshInvalidJtis() {
+    try {
+      long now = System.currentTimeMillis();
+      if (now - lastFullRefresh >= INVALID_JWT_FULL_REFRESH_INTERVAL_MS) {
+        reloadInvalidJtis(invalidJwtFacade.findAll());
+        lastFullRefresh = now;
+      } else {
+        addInvalidJtis(invalidJwtFacade.findByExpirationTimeFrom(latestExpirationTime));
+      }
+    } catch (Exception e) {
+      LOGGER.log(Level.WARNING, "Failed to refresh invalidated JWT cache", e);
+    }
+  }
+
+  private void reloadInvalidJtis(List<InvalidJwt> invalidJwts) {
+    Set<String> jtis = new HashSet<>();
+    Date latest = new Date(0);
+    for (InvalidJwt invalidJwt : invalidJwts) {
+      jtis.add(invalidJwt.getJti());
+      latest = later(latest, invalidJwt.getExpirationTime());
+    }
+    invalidJtis = Collections.unmodifiableSet(jtis);
+    latestExpirationTime = latest;
+    // Tokens invalidated locally are now either in the table or have been cleaned up
+    locallyInvalidated.removeAll(jtis);
+  }
+
+  private void addInvalidJtis(List<InvalidJwt> invalidJwts) {
+    Set<String> jtis = null;
+    for (InvalidJwt invalidJwt : invalidJwts) {
+      latestExpirationTime = later(latestExpirationTime, invalidJwt.getExpirationTime());
+      if (!invalidJtis.contains(invalidJwt.getJti())) {
+        if (jtis == null) {
+          jtis = new HashSet<>(invalidJtis);
+        }
+        jtis.add(invalidJwt.getJti());
+      }
+    }
+    if (jtis != null) {
+      invalidJtis = Collections.unmodifiableSet(jtis);
+      locallyInvalidated.removeAll(jtis);
+    }
+  }
+
+  private Date later(Date date, Date other) {
+    return other != null && other.after(date) ? other : date;
+  }
+
+  private String cacheKey(SignatureAlgorithm algorithm, String keyId) {
+    return algorithm.name() + ":" + keyId;
+  }
+
+  private static class CachedAlgorithm {
+    private final Algorithm algorithm;
+    private final long loadedAt;
+
+    private CachedAlgorithm(Algorithm algorithm, long loadedAt) {
+      this.algorithm = algorithm;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
@@ -28,6 +28,7 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.UUID;
 import java.util.logging.Logger;
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import static io.hops.hopsworks.jwt.Constants.DEFAULT_EXPIRY_LEEWAY;
@@ -49,6 +50,9 @@ import java.util.logging.Level;
 import javax.ejb.AccessLocalException;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 
 @Stateless
 @TransactionAttribute(TransactionAttributeType.NEVER)
@@ -61,6 +65,10 @@ public class JWTController {
   private AlgorithmFactory algorithmFactory;
   @EJB
   private JwtSigningKeyFacade jwtSigningKeyFacade;
+  @EJB
+  private JWTCache jwtCache;
+  @Resource
+  private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
 
   /**
    * Create a jwt.
@@ -326,8 +334,7 @@ public class JWTController {
   }
 
   private boolean isTokenInvalidated(String id) {
-    InvalidJwt invalidJwt = invalidJwtFacade.find(id);
-    return invalidJwt != null;
+    return jwtCache.isInvalidated(id);
   }
 
   /**
@@ -407,6 +414,32 @@ public class JWTController {
     } catch (Exception e) {
       throw new InvalidationException("Could not persist token.", e.getCause());
     }
+    addInvalidatedAfterCommit(id);
+  }
+
+  /**
+   * Add the token to the cached invalidated tokens once the row marking it invalid has committed. Outside of a
+   * transaction the facade has already committed the row when this is called.
+   *
+   * @param id
+   */
+  private void addInvalidatedAfterCommit(String id) {
+    if (transactionSynchronizationRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      jwtCache.addInvalidated(id);
+      return;
+    }
+    transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status == Status.STATUS_COMMITTED) {
+          jwtCache.addInvalidated(id);
+        }
+      }
+    });
   }
 
   /**
@@ -482,7 +515,12 @@ public class JWTController {
    * @param keyName a unique name given to signing key when created.
    */
   public void deleteSigningKey(String keyName) {
-    jwtSigningKeyFacade.remove(keyName);
+    JwtSigningKey signingKey = jwtSigningKeyFacade.findByName(keyName);
+    if (signingKey == null) {
+      return;
+    }
+    jwtSigningKeyFacade.remove(signingKey);
+    jwtCache.invalidateSigningKey(signingKey.getId().toString());
   }
 
   /**
@@ -510,6 +548,7 @@ public class JWTController {
     cal.add(Calendar.DATE, -Constants.ONE_TIME_JWT_SIGNING_KEY_ROTATION_DAYS);
     if (jwtSigningKey != null && jwtSigningKey.getCreatedOn().before(cal.getTime())) {
       jwtSigningKeyFacade.renameSigningKey(jwtSigningKey, Constants.OLD_ONE_TIME_JWT_SIGNING_KEY_NAME);
+      jwtCache.invalidateSigningKey(jwtSigningKey.getId().toString());
       try {
         jwtSigningKeyFacade.getOrCreateSigningKey(Constants.ONE_TIME_JWT_SIGNING_KEY_NAME, SignatureAlgorithm.HS256);
       } catch (NoSuchAlgorithmException ex) {
@@ -525,6 +564,7 @@ public class JWTController {
     JwtSigningKey jwtSigningKey = jwtSigningKeyFacade.findByName(Constants.OLD_ONE_TIME_JWT_SIGNING_KEY_NAME);
     if (jwtSigningKey != null) {
       jwtSigningKeyFacade.remove(jwtSigningKey);
+      jwtCache.invalidateSigningKey(jwtSigningKey.getId().toString());
     }
   }
 
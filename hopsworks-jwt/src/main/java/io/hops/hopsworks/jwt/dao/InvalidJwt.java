@@ -46,6 +46,10 @@ import javax.xml.bind.annotation.XmlRootElement;
     @NamedQuery(name = "InvalidJwt.findByExpirationTime",
       query
       = "SELECT i FROM InvalidJwt i WHERE i.expirationTime = :expirationTime")
+  ,
+    @NamedQuery(name = "InvalidJwt.findByExpirationTimeFrom",
+      query
+      = "SELECT i FROM InvalidJwt i WHERE i.expirationTime >= :expirationTime")
   ,
     @NamedQuery(name = "InvalidJwt.findExpired",
       query
@@ -15,6 +15,7 @@
  */
 package io.hops.hopsworks.jwt.dao;
 
+import java.util.Date;
 import java.util.List;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
@@ -41,6 +42,12 @@ public class InvalidJwtFacade {
     return query.getResultList();
   }
 
+  public List<InvalidJwt> findByExpirationTimeFrom(Date expirationTime) {
+    TypedQuery<InvalidJwt> query = em.createNamedQuery("InvalidJwt.findByExpirationTimeFrom", InvalidJwt.class);
+    query.setParameter("expirationTime", expirationTime);
+    return query.getResultList();
+  }
+
   public List<InvalidJwt> findExpired() {
     TypedQuery<InvalidJwt> query = em.createNamedQuery("InvalidJwt.findExpired", InvalidJwt.class);
     return query.getResultList();
@@ -47,7 +47,7 @@ import javax.ejb.EJB;
 import javax.faces.bean.ManagedBean;
 import javax.faces.bean.ManagedProperty;
 import javax.faces.bean.RequestScoped;
-import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology;
 import io.hops.hopsworks.kmon.struct.ClusterInfo; 
 import io.hops.hopsworks.common.dao.host.Health;
 import io.hops.hopsworks.kmon.struct.GroupInfo;
@@ -57,7 +57,7 @@ import io.hops.hopsworks.kmon.struct.GroupInfo;
 public class ClusterStatusController {
 
   @EJB
-  private HostServicesFacade hostServicesFacade;
+  private ClusterTopology clusterTopology;
   @ManagedProperty("#{param.cluster}")
   private String cluster;
   private static final Logger logger = Logger.getLogger(ClusterStatusController.class.getName());
@@ -103,13 +103,19 @@ public class ClusterStatusController {
 
   public void loadServices() {
     clusterHealth = Health.Good;
-    List<String> groupList = hostServicesFacade.findGroups(cluster);
-    if (!groupList.isEmpty()) {
-      found = true;
+    ClusterTopology.Rollup clusterRollup = clusterTopology.getCluster(cluster);
+    if (clusterRollup == null) {
+      return;
     }
-    for (String s : groupList) {
+    found = true;
+    for (String s : clusterRollup.getGroups()) {
+      //The topology may have been reloaded since the cluster rollup was read and no longer have this group
+      ClusterTopology.Rollup groupRollup = clusterTopology.getGroup(cluster, s);
+      if (groupRollup == null) {
+        continue;
+      }
       GroupInfo groupInfo = new GroupInfo(s);
-      Health health = groupInfo.addServices(hostServicesFacade.findHostServicesByGroup(cluster, s));
+      Health health = groupInfo.addServices(groupRollup);
       if (health == Health.Bad) {
         clusterHealth = Health.Bad;
       }
@@ -122,12 +128,15 @@ public class ClusterStatusController {
       return;
     }
     clusterInfo = new ClusterInfo(cluster);
-    clusterInfo.setNumberOfHosts(hostServicesFacade.countHosts(cluster));
-    clusterInfo.setTotalCores(hostServicesFacade.totalCores(cluster));
-    clusterInfo.setTotalGPUs(hostServicesFacade.totalGPUs(cluster));
-    clusterInfo.setTotalMemoryCapacity(hostServicesFacade.totalMemoryCapacity(cluster));
-    clusterInfo.setTotalDiskCapacity(hostServicesFacade.totalDiskCapacity(cluster));
-    clusterInfo.addServices(hostServicesFacade.findHostServicesByCluster(cluster));
+    ClusterTopology.Rollup rollup = clusterTopology.getCluster(cluster);
+    if (rollup != null) {
+      clusterInfo.setNumberOfHosts(rollup.getNumberOfHosts());
+      clusterInfo.setTotalCores(rollup.getTotalCores());
+      clusterInfo.setTotalGPUs(rollup.getTotalGPUs());
+      clusterInfo.setTotalMemoryCapacity(rollup.getTotalMemoryCapacity());
+      clusterInfo.setTotalDiskCapacity(rollup.getTotalDiskCapacity());
+      clusterInfo.addServices(rollup);
+    }
     found = true;
   }
 
@@ -39,6 +39,7 @@
 
 package io.hops.hopsworks.kmon.cluster;
 
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology;
 import io.hops.hopsworks.common.dao.kagent.HostServices;
 import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
 import java.util.ArrayList;
@@ -56,6 +57,8 @@ public class ClustersController {
 
   @EJB
   private HostServicesFacade hostServicesFacade;
+  @EJB
+  private ClusterTopology clusterTopology;
   private static final Logger LOGGER = Logger.getLogger(ClustersController.class.getName());
   private List<ClusterInfo> clusters;
 
@@ -74,14 +77,18 @@ public class ClustersController {
   }
 
   private void loadClusters() {
-    for (String cluster : hostServicesFacade.findClusters()) {
+    for (String cluster : clusterTopology.getClusters()) {
+      ClusterTopology.Rollup rollup = clusterTopology.getCluster(cluster);
+      if (rollup == null) {
+        continue;
+      }
       ClusterInfo clusterInfo = new ClusterInfo(cluster);
-      clusterInfo.setNumberOfHosts(hostServicesFacade.countHosts(cluster));
-      clusterInfo.setTotalCores(hostServicesFacade.totalCores(cluster));
-      clusterInfo.setTotalGPUs(hostServicesFacade.totalGPUs(cluster));
-      clusterInfo.setTotalMemoryCapacity(hostServicesFacade.totalMemoryCapacity(cluster));
-      clusterInfo.setTotalDiskCapacity(hostServicesFacade.totalDiskCapacity(cluster));
-      clusterInfo.addServices(hostServicesFacade.findHostServicesByCluster(cluster));
+      clusterInfo.setNumberOfHosts(rollup.getNumberOfHosts());
+      clusterInfo.setTotalCores(rollup.getTotalCores());
+      clusterInfo.setTotalGPUs(rollup.getTotalGPUs());
+      clusterInfo.setTotalMemoryCapacity(rollup.getTotalMemoryCapacity());
+      clusterInfo.setTotalDiskCapacity(rollup.getTotalDiskCapacity());
+      clusterInfo.addServices(rollup);
       clusters.add(clusterInfo);
     }
   }
@@ -39,7 +39,7 @@
 
 package io.hops.hopsworks.kmon.cluster;
 
-import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology;
 import java.util.List;
 import java.util.logging.Logger;
 import javax.annotation.PostConstruct;
@@ -53,7 +53,7 @@ import java.util.ArrayList;
 public class ClustersLayoutController {
 
   @EJB
-  private HostServicesFacade hostServicesFacade;
+  private ClusterTopology clusterTopology;
   private static final Logger logger = Logger.getLogger(ClustersLayoutController.class.getName());
   private List<String> clusters;
 
@@ -72,9 +72,6 @@ public class ClustersLayoutController {
   }
 
   private void loadClusters() {
-    clusters = hostServicesFacade.findClusters();
-    if (clusters == null) {
-      clusters = new ArrayList<String>();
-    }
+    clusters = new ArrayList<>(clusterTopology.getClusters());
   }
 }
@@ -39,6 +39,9 @@
 
 package io.hops.hopsworks.kmon.communication;
 
+import io.hops.hopsworks.common.agent.AgentOperation;
+import io.hops.hopsworks.common.agent.AgentOperationExecutor;
+import io.hops.hopsworks.common.agent.AgentOperationResult;
 import io.hops.hopsworks.exceptions.GenericException;
 import io.hops.hopsworks.common.util.WebCommunication;
 import java.util.ArrayList;
@@ -55,7 +58,6 @@ import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
 import io.hops.hopsworks.common.util.NodesTableItem;
 import io.hops.hopsworks.kmon.group.ServiceInstancesController;
 import io.hops.hopsworks.kmon.struct.InstanceInfo;
-import java.util.concurrent.Future;
 import java.util.logging.Level;
 import javax.faces.application.FacesMessage;
 import javax.faces.context.FacesContext;
@@ -70,6 +72,8 @@ public class CommunicationController {
   private HostServicesFacade hostServicesFacade;
   @EJB
   private WebCommunication web;
+  @EJB
+  private AgentOperationExecutor agentOperationExecutor;
 
   @ManagedProperty(value = "#{serviceInstancesController}")
   private ServiceInstancesController serviceInstancesController;
@@ -173,6 +177,19 @@ public class CommunicationController {
     }
   }
 
+  private void uiMsg(List<AgentOperationResult> results) {
+    FacesContext context = FacesContext.getCurrentInstance();
+    for (AgentOperationResult result : results) {
+      if (result.getStatus() == AgentOperationResult.Status.SUCCESS) {
+        context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, result.getTarget() + ": "
+            + result.getOutput(), "Successfully executed the operation."));
+      } else {
+        context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, result.getTarget() + ": "
+            + result.getStatus() + " " + result.getOutput(), "There was a problem when executing the operation."));
+      }
+    }
+  }
+
   private void uiMsg(String res) {
     FacesContext context = FacesContext.getCurrentInstance();
     FacesMessage msg = null;
@@ -212,30 +229,26 @@ public class CommunicationController {
     uiMsg(serviceOperationAll("stopService"));
   }
 
-  private String serviceOperationAll(String operation) {
+  private List<AgentOperationResult> serviceOperationAll(String operation) {
     instances = serviceInstancesController.getInstances();
-    List<Future<String>> results = new ArrayList<>();
-    String result = "";
+    List<AgentOperation> operations = new ArrayList<>();
     for (InstanceInfo instance : instances) {
       if (instance.getService().equals(service)) {
+        final String host = instance.getHost();
         try {
-          Hosts h = findHostByName(instance.getHost());
-          String ip = h.getPublicOrPrivateIp();
-          String agentPassword = h.getAgentPassword();
-          results.add(web.asyncServiceOp(operation, ip, agentPassword, cluster, group, service));
+          Hosts h = findHostByName(host);
+          final String ip = h.getPublicOrPrivateIp();
+          final String agentPassword = h.getAgentPassword();
+          operations.add(new AgentOperation(host, () -> web.serviceOp(operation, ip, agentPassword, cluster, group,
+              service)));
         } catch (Exception ex) {
-          result = result + ex.getMessage() + "\n";
+          operations.add(new AgentOperation(host, () -> {
+            throw ex;
+          }));
         }
       }
     }
-    for (Future<String> r : results) {
-      try {
-        result = result + r.get() + "\n";
-      } catch (Exception ex) {
-        result = result + ex.getMessage() + "\n";
-      }
-    }
-    return result;
+    return agentOperationExecutor.execute(operations, null);
   }
 
   private String serviceOperation(String operation) {
@@ -53,8 +53,7 @@ import io.hops.hopsworks.common.dao.host.Health;
 import io.hops.hopsworks.kmon.struct.InstanceInfo;
 import io.hops.hopsworks.kmon.struct.GroupType;
 import io.hops.hopsworks.common.dao.host.Status;
-import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
-import io.hops.hopsworks.common.dao.kagent.HostServicesInfo;
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology;
 import io.hops.hopsworks.kmon.utils.FilterUtils;
 
 @ManagedBean
@@ -70,7 +69,7 @@ public class ServiceInstancesController {
   @ManagedProperty("#{param.status}")
   private String status;
   @EJB
-  private HostServicesFacade hostServicesFacade;
+  private ClusterTopology clusterTopology;
   private static final SelectItem[] statusOptions;
   private static final SelectItem[] healthOptions;
   private List<InstanceInfo> filteredInstances = new ArrayList<>();
@@ -190,40 +189,44 @@ public class ServiceInstancesController {
 //      Without prettyfaces, parameters will be null when filter is changed, they
 //      should be stored in cookie
     List<InstanceInfo> instances = new ArrayList<InstanceInfo>();
-    List<HostServicesInfo> serviceHostList = new ArrayList<HostServicesInfo>();
+    List<ClusterTopology.ServiceInstance> serviceHostList = new ArrayList<>();
     if (cluster != null && group != null && service != null && status != null) {
-      for (HostServicesInfo hostServicesInfo : hostServicesFacade.findHostServices(cluster, group, service)) {
-        if (hostServicesInfo.getStatus() == Status.valueOf(status)) {
-          serviceHostList.add(hostServicesInfo);
+      for (ClusterTopology.ServiceInstance serviceInstance : getInstances(clusterTopology.getService(cluster, group,
+          service))) {
+        if (serviceInstance.getStatus() == Status.valueOf(status)) {
+          serviceHostList.add(serviceInstance);
         }
       }
 //         cookie.write("cluster", cluster);
 //         cookie.write("service", service);         
     } else if (cluster != null && group != null && service != null && service.compareTo("null") != 0) {
-      serviceHostList = hostServicesFacade.findHostServices(cluster, group, service);
+      serviceHostList = getInstances(clusterTopology.getService(cluster, group, service));
 //         cookie.write("cluster", cluster);
 //         cookie.write("service", service);    
     } else if (cluster != null && group != null) {
-      serviceHostList = hostServicesFacade.findHostServicesByGroup(cluster, group);
+      serviceHostList = getInstances(clusterTopology.getGroup(cluster, group));
 //         cookie.write("cluster", cluster);
 //         cookie.write("service", service);          
     } else if (cluster != null) {
-      serviceHostList = hostServicesFacade.findHostServicesByCluster(cluster);
+      serviceHostList = getInstances(clusterTopology.getCluster(cluster));
 //         cookie.write("cluster", cluster);
 //         cookie.write("service", service);             
     }
 //      else {
 //         roleHostList = roleEjb.findRoleHost(cookie.read("cluster"), cookie.read("service"));
 //      }     
-    for (HostServicesInfo hsi : serviceHostList) {
-      instances.add(new InstanceInfo(hsi.getHostServices().getCluster(), hsi.getHostServices().
-          getGroup(), hsi.getHostServices().getService(), hsi.getHost().getHostname(), 
-          hsi.getStatus(), hsi.getHealth().toString()));
+    for (ClusterTopology.ServiceInstance si : serviceHostList) {
+      instances.add(new InstanceInfo(si.getCluster(), si.getGroup(), si.getService(), si.getHostname(),
+          si.getStatus(), si.getHealth().toString()));
     }
     filteredInstances.addAll(instances);
     return instances;
   }
 
+  private List<ClusterTopology.ServiceInstance> getInstances(ClusterTopology.Rollup rollup) {
+    return rollup == null ? new ArrayList<>() : rollup.getInstances();
+  }
+
   public boolean disableStart() {
     List<InstanceInfo> instances = getInstances();
     if (!instances.isEmpty()) {
@@ -41,6 +41,7 @@ package io.hops.hopsworks.kmon.struct;
 
 import io.hops.hopsworks.common.dao.host.Status;
 import io.hops.hopsworks.common.dao.host.Health;
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology;
 import io.hops.hopsworks.common.dao.kagent.HostServicesInfo;
 import java.util.HashSet;
 import java.util.List;
@@ -177,6 +178,19 @@ public class ClusterInfo {
     }
   }
 
+  public void addServices(ClusterTopology.Rollup rollup) {
+    groups.addAll(rollup.getGroups());
+    services.addAll(rollup.getServices());
+    badServices.addAll(rollup.getBadServices());
+    servicesGroupsMap.putAll(rollup.getServicesGroups());
+    for (Map.Entry<String, Integer> serviceCount : rollup.getServicesCount().entrySet()) {
+      servicesCount.merge(serviceCount.getKey(), serviceCount.getValue(), Integer::sum);
+    }
+    started += rollup.getStatusCount(Status.Started);
+    stopped += rollup.getStatusCount(Status.Stopped);
+    timedOut += rollup.getStatusCount(Status.TimedOut);
+  }
+
   private void addService(String service) {
     if (servicesCount.containsKey(service)) {
       Integer current = servicesCount.get(service);
@@ -41,6 +41,7 @@ package io.hops.hopsworks.kmon.struct;
 
 import io.hops.hopsworks.common.dao.host.Status;
 import io.hops.hopsworks.common.dao.host.Health;
+import io.hops.hopsworks.common.dao.kagent.ClusterTopology;
 import io.hops.hopsworks.common.dao.kagent.HostServicesInfo;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -127,6 +128,21 @@ public class GroupInfo {
     return health;
   }
 
+  public Health addServices(ClusterTopology.Rollup rollup) {
+    services.addAll(rollup.getServices());
+    badServices.addAll(rollup.getBadServices());
+    int instances = 0;
+    for (Map.Entry<String, Integer> serviceCount : rollup.getServicesCount().entrySet()) {
+      servicesCount.merge(serviceCount.getKey(), serviceCount.getValue(), Integer::sum);
+      instances += serviceCount.getValue();
+    }
+    started += rollup.getStatusCount(Status.Started);
+    stopped += rollup.getStatusCount(Status.Stopped);
+    timedOut = instances - started - stopped;
+    health = (stopped + timedOut > 0) ? Health.Bad : Health.Good;
+    return health;
+  }
+
   private void addService(String service) {
     if (servicesCount.containsKey(service)) {
       Integer current = servicesCount.get(service);